@@ -0,0 +1,191 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An OutputStream that collects data into a large buffer, and writes
+ * it to the underlying OutputStream in blocks of a fixed size.
+ * <p/>
+ * Every write to the underlying stream, other than the last, is exactly
+ * one block long, so the underlying stream may be a dataset opened in
+ * record mode, where each write is one record or block.  
+ * For a Unix file, a block size that is a multiple of the file system's
+ * page size avoids partial page writes.
+ * <p/>
+ * {@link #flush()} writes only complete blocks, so that a short block is 
+ * written only when the stream is closed.  The number of bytes written and the
+ * time from construction to {@link #close()} are kept, so that throughput 
+ * can be reported.
+ *
+ * @see ZipDatasets
+ * @since 2.3.0
+ */
+public class BlockOutputStream extends OutputStream {
+
+	/** The default size of the buffer, as a number of blocks */
+	public static final int DEFAULT_BUFFER_BLOCKS = 32;
+
+	private OutputStream out;
+	private int blockSize;
+	private byte[] buf;
+	private int count = 0;
+	private long bytesWritten = 0;
+	private long blocksWritten = 0;
+	private long startTime;
+	private long endTime = 0;
+
+	/**
+	 * Construct an instance with a buffer of {@link #DEFAULT_BUFFER_BLOCKS} blocks
+	 * @param out the underlying OutputStream
+	 * @param blockSize the size of each write to the underlying OutputStream
+	 */
+	public BlockOutputStream(OutputStream out, int blockSize) {
+		this(out, blockSize, DEFAULT_BUFFER_BLOCKS);
+	}
+
+	/**
+	 * Construct an instance
+	 * @param out the underlying OutputStream
+	 * @param blockSize the size of each write to the underlying OutputStream
+	 * @param bufferBlocks the number of blocks that are buffered
+	 */
+	public BlockOutputStream(OutputStream out, int blockSize, int bufferBlocks) {
+		if (blockSize < 1 || bufferBlocks < 1) {
+			throw new IllegalArgumentException("blockSize and bufferBlocks must be at least 1");
+		}
+		this.out = out;
+		this.blockSize = blockSize;
+		this.buf = new byte[blockSize * bufferBlocks];
+		this.startTime = System.currentTimeMillis();
+	}
+
+	public void write(int b) throws IOException {
+		if (count == buf.length) {
+			writeBlocks(buf, 0, count);
+			count = 0;
+		}
+		buf[count++] = (byte)b;
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (count == 0 && len >= buf.length) {
+				// write whole blocks directly from the caller's array
+				int n = len - (len % blockSize);
+				writeBlocks(b, off, n);
+				off += n;
+				len -= n;
+				continue;
+			}
+			int n = Math.min(len, buf.length - count);
+			System.arraycopy(b, off, buf, count, n);
+			count += n;
+			off += n;
+			len -= n;
+			if (count == buf.length) {
+				writeBlocks(buf, 0, count);
+				count = 0;
+			}
+		}
+	}
+
+	/**
+	 * Write the complete blocks in the buffer, and flush the underlying stream.
+	 */
+	public void flush() throws IOException {
+		int n = count - (count % blockSize);
+		if (n > 0) {
+			writeBlocks(buf, 0, n);
+			System.arraycopy(buf, n, buf, 0, count - n);
+			count -= n;
+		}
+		out.flush();
+	}
+
+	/**
+	 * Write the remaining data, as a short last block, and close the
+	 * underlying stream.
+	 */
+	public void close() throws IOException {
+		if (endTime != 0) {
+			return;
+		}
+		try {
+			flush();
+			if (count > 0) {
+				writeBlock(buf, 0, count);
+				count = 0;
+			}
+		} finally {
+			endTime = System.currentTimeMillis();
+			out.close();
+		}
+	}
+
+	private void writeBlocks(byte[] b, int off, int len) throws IOException {
+		for (int end = off + len; off < end; off += blockSize) {
+			writeBlock(b, off, Math.min(blockSize, end - off));
+		}
+	}
+
+	private void writeBlock(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		bytesWritten += len;
+		blocksWritten++;
+	}
+
+	/**
+	 * Answer the block size
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Answer the number of bytes written to the underlying stream.
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	/**
+	 * Answer the number of writes made to the underlying stream.
+	 */
+	public long getBlocksWritten() {
+		return blocksWritten;
+	}
+
+	/**
+	 * Answer the elapsed time in milliseconds from construction until 
+	 * this stream was closed, or until now if it is still open.
+	 */
+	public long getElapsedMillis() {
+		return (endTime != 0 ? endTime : System.currentTimeMillis()) - startTime;
+	}
+
+	/**
+	 * Answer the average number of bytes written per second.
+	 */
+	public long getBytesPerSecond() {
+		return bytesWritten * 1000 / Math.max(1, getElapsedMillis());
+	}
+}
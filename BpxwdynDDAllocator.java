@@ -0,0 +1,92 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+
+import com.ibm.jzos.RcException;
+import com.ibm.jzos.ZFile;
+
+/**
+ * A {@link DDAllocator} that uses BPXWDYN (dynamic allocation, SVC 99).
+ * <p/>
+ * Allocation messages are written to the job log using "msg(wtp)", unless
+ * another message keyword is given, and failures are answered as IOExceptions.
+ *
+ * @see ZFile#allocDummyDDName()
+ * @see ZFile#bpxwdyn(String)
+ * @since 2.3.0
+ */
+public class BpxwdynDDAllocator implements DDAllocator {
+
+	/** The message keyword that writes allocation messages to the job log */
+	public static final String MSG_WTP = "msg(wtp)";
+
+	/** The message keyword that writes allocation messages to stderr */
+	public static final String MSG_STDERR = "msg(2)";
+
+	private String msg;
+
+	/**
+	 * Construct an instance that writes allocation messages to the job log.
+	 */
+	public BpxwdynDDAllocator() {
+		this(MSG_WTP);
+	}
+
+	/**
+	 * Construct an instance that uses the given BPXWDYN message keyword
+	 * for allocations, such as {@link #MSG_STDERR}.
+	 */
+	public BpxwdynDDAllocator(String msg) {
+		this.msg = msg;
+	}
+
+	public String allocDummyDD() throws IOException {
+		try {
+			return ZFile.allocDummyDDName();
+		} catch (RcException rce) {
+			throw new IOException("Unable to allocate a DD: " + rce);
+		}
+	}
+
+	public void reuse(String ddname, String dsn, String keywords) throws IOException {
+		String request = dsn == null
+							? "alloc fi(" + ddname + ") dummy reuse " + msg
+							: "alloc fi(" + ddname + ") da(" + dsn + ") "
+								+ keywords + " reuse " + msg;
+		try {
+			ZFile.bpxwdyn(request);
+		} catch (RcException rce) {
+			throw new IOException("Unable to allocate dataset: "
+									+ (dsn == null ? "DUMMY" : dsn)
+									+ " - "
+									+ rce);
+		}
+	}
+
+	public void free(String ddname) {
+		try {
+			// Omit the 'msg' keyword to suppress error messages.
+			// We might not actually be able to free the DD if
+			// if is still open as a PDS directory
+			ZFile.bpxwdyn("free fi(" + ddname + ")");
+		} catch (RcException ignore) {}
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link DatasetAttributeProvider} that caches the attributes answered by
+ * another provider, so that a dataset probed many times is opened once.
+ * <p/>
+ * Cached attributes expire after a time to live, and may be discarded
+ * explicitly with {@link #refresh(String)} when a dataset is known to have
+ * been reallocated.  Datasets that do not exist are not cached.
+ * <p/>
+ * A shared instance, answered by {@link #getShared()}, is used by
+ * {@link com.ibm.jzos.sample.dfsort.DsInfo}, {@link DynallocCopyDataset} and
+ * {@link com.ibm.jzos.sample.nonvsam.file.CopyFile}.
+ * It caches a {@link ZFileDatasetAttributeProvider} unless another instance
+ * is installed with {@link #setShared(CachingDatasetAttributeProvider)}.
+ * <p/>
+ * Instances are thread safe.  Concurrent requests for a dataset that is
+ * not cached may each be passed to the underlying provider.
+ *
+ * @since 2.3.0
+ */
+public class CachingDatasetAttributeProvider implements DatasetAttributeProvider {
+
+	/** The default time to live for cached attributes: 5 minutes */
+	public static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000;
+
+	private static CachingDatasetAttributeProvider shared;
+
+	private DatasetAttributeProvider provider;
+	private long ttlMillis;
+	private Map cache = new HashMap();  // dsn -> CachedAttributes
+
+	private int hits = 0;
+	private int misses = 0;
+
+	/**
+	 * Construct an instance that caches attributes for {@link #DEFAULT_TTL_MILLIS}.
+	 * @param provider the underlying provider
+	 */
+	public CachingDatasetAttributeProvider(DatasetAttributeProvider provider) {
+		this(provider, DEFAULT_TTL_MILLIS);
+	}
+
+	/**
+	 * Construct an instance.
+	 * @param provider the underlying provider
+	 * @param ttlMillis the time to live of cached attributes, in milliseconds
+	 */
+	public CachingDatasetAttributeProvider(DatasetAttributeProvider provider, long ttlMillis) {
+		this.provider = provider;
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * Answer the shared instance, creating one that caches a
+	 * {@link ZFileDatasetAttributeProvider} if none has been set.
+	 */
+	public static synchronized CachingDatasetAttributeProvider getShared() {
+		if (shared == null) {
+			shared = new CachingDatasetAttributeProvider(new ZFileDatasetAttributeProvider());
+		}
+		return shared;
+	}
+
+	/**
+	 * Replace the shared instance; for example with one that caches an
+	 * {@link InMemoryDatasetAttributeProvider} when z/OS datasets are not available.
+	 */
+	public static synchronized void setShared(CachingDatasetAttributeProvider provider) {
+		shared = provider;
+	}
+
+	/**
+	 * Answer the attributes of a dataset, from the cache if they have not
+	 * expired.  The underlying provider is called without holding this 
+	 * instance's lock, so a dataset that is slow to open (for example, 
+	 * while it is recalled by HSM) does not delay requests for others.
+	 */
+	public DatasetAttributes getAttributes(String dsn) throws IOException {
+		String key = dsn.toUpperCase();
+		synchronized (this) {
+			CachedAttributes cached = (CachedAttributes)cache.get(key);
+			if (cached != null) {
+				if (System.currentTimeMillis() - cached.time < ttlMillis) {
+					hits++;
+					return cached.attributes;
+				}
+				cache.remove(key);
+			}
+			misses++;
+		}
+
+		long now = System.currentTimeMillis();
+		DatasetAttributes attributes = provider.getAttributes(key);
+		if (attributes != null) {
+			synchronized (this) {
+				cache.put(key, new CachedAttributes(attributes, now));
+			}
+		}
+		return attributes;
+	}
+
+	/**
+	 * Discard the cached attributes of a dataset, so that the next request
+	 * for them goes to the underlying provider.
+	 */
+	public synchronized void refresh(String dsn) {
+		cache.remove(dsn.toUpperCase());
+	}
+
+	/**
+	 * Discard all cached attributes.
+	 */
+	public synchronized void refresh() {
+		cache.clear();
+	}
+
+	/**
+	 * Answer the number of requests answered from the cache.
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Answer the number of requests passed to the underlying provider.
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * The cached attributes of a dataset
+	 */
+	private static class CachedAttributes {
+		DatasetAttributes attributes;
+		long time;
+
+		CachedAttributes(DatasetAttributes attributes, long time) {
+			this.attributes = attributes;
+			this.time = time;
+		}
+	}
+}
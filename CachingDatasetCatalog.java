@@ -0,0 +1,166 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link DatasetCatalog} that caches the results of another catalog.
+ * <p/>
+ * A search is answered, in order of preference:
+ * <ol>
+ * <li>from a cached result for the same filter key</li>
+ * <li>by filtering a cached result for a broader filter key that subsumes
+ *     it; for example, the results for <code>PROD.**</code> can answer
+ *     <code>PROD.*.LOAD</code> and <code>PROD.APP*.*</code></li>
+ * <li>by searching the underlying catalog</li>
+ * </ol>
+ * Cached results expire after a time to live.  A result derived from a
+ * broader search expires with it.
+ * <p/>
+ * Instances are thread safe.
+ *
+ * @see DatasetNamePattern#subsumes(String, String)
+ * @since 2.3.0
+ */
+public class CachingDatasetCatalog implements DatasetCatalog {
+
+	/** The default time to live for cached results: 5 minutes */
+	public static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000;
+
+	private DatasetCatalog catalog;
+	private long ttlMillis;
+	private Map cache = new LinkedHashMap();  // filter key -> CachedResult
+
+	private int hits = 0;
+	private int subsumedHits = 0;
+	private int misses = 0;
+
+	/**
+	 * Construct an instance that caches results for {@link #DEFAULT_TTL_MILLIS}.
+	 * @param catalog the underlying catalog
+	 */
+	public CachingDatasetCatalog(DatasetCatalog catalog) {
+		this(catalog, DEFAULT_TTL_MILLIS);
+	}
+
+	/**
+	 * Construct an instance.
+	 * @param catalog the underlying catalog
+	 * @param ttlMillis the time to live of cached results, in milliseconds
+	 */
+	public CachingDatasetCatalog(DatasetCatalog catalog, long ttlMillis) {
+		this.catalog = catalog;
+		this.ttlMillis = ttlMillis;
+	}
+
+	public synchronized List search(String filterKey) throws IOException {
+		long now = System.currentTimeMillis();
+		removeExpired(now);
+
+		CachedResult result = (CachedResult)cache.get(filterKey);
+		if (result != null) {
+			hits++;
+			return result.names;
+		}
+
+		for (Iterator i = cache.values().iterator(); i.hasNext(); ) {
+			CachedResult broader = (CachedResult)i.next();
+			if (DatasetNamePattern.subsumes(broader.filterKey, filterKey)) {
+				DatasetNamePattern pattern = new DatasetNamePattern(filterKey);
+				List names = new ArrayList();
+				for (Iterator j = broader.names.iterator(); j.hasNext(); ) {
+					String dsn = (String)j.next();
+					if (pattern.matches(dsn)) {
+						names.add(dsn);
+					}
+				}
+				subsumedHits++;
+				result = new CachedResult(filterKey, names, broader.time);
+				cache.put(filterKey, result);
+				return result.names;
+			}
+		}
+
+		misses++;
+		List names = catalog.search(filterKey);
+		result = new CachedResult(filterKey, names, now);
+		cache.put(filterKey, result);
+		return result.names;
+	}
+
+	/**
+	 * Discard all cached results, so that the next search of any filter
+	 * key goes to the underlying catalog.
+	 */
+	public synchronized void refresh() {
+		cache.clear();
+	}
+
+	/**
+	 * Answer the number of searches answered from a cached result for the same filter key.
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Answer the number of searches answered from a cached result for a broader filter key.
+	 */
+	public synchronized int getSubsumedHits() {
+		return subsumedHits;
+	}
+
+	/**
+	 * Answer the number of searches passed to the underlying catalog.
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	private void removeExpired(long now) {
+		for (Iterator i = cache.values().iterator(); i.hasNext(); ) {
+			CachedResult result = (CachedResult)i.next();
+			if (now - result.time >= ttlMillis) {
+				i.remove();
+			}
+		}
+	}
+
+	/**
+	 * The cached result of a search
+	 */
+	private static class CachedResult {
+		String filterKey;
+		List names;
+		long time;
+
+		CachedResult(String filterKey, List names, long time) {
+			this.filterKey = filterKey;
+			this.names = Collections.unmodifiableList(names);
+			this.time = time;
+		}
+	}
+}
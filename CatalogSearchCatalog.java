@@ -0,0 +1,57 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ibm.jzos.CatalogSearch;
+import com.ibm.jzos.CatalogSearchField;
+
+/**
+ * A {@link DatasetCatalog} that uses the z/OS Catalog Search facility
+ * (IGGCSI00) for every search.
+ *
+ * @see CatalogSearch
+ * @see CachingDatasetCatalog
+ * @since 2.3.0
+ */
+public class CatalogSearchCatalog implements DatasetCatalog {
+
+	/**
+	 * Search the catalog for non-VSAM and generation datasets matching the
+	 * given filter key.
+	 */
+	public List search(String filterKey) throws IOException {
+		List names = new ArrayList();
+		CatalogSearch catSearch = new CatalogSearch(filterKey);
+		catSearch.setEntryTypes("AH");  // only NON-VSAM and Generation Datasets
+		catSearch.addFieldName("ENTNAME");
+		catSearch.search();
+		while (catSearch.hasNext()) {
+			CatalogSearch.Entry entry = (CatalogSearch.Entry)catSearch.next();
+			if (entry.isDatasetEntry()) {
+				CatalogSearchField field = entry.getField("ENTNAME");
+				names.add(field.getFString().trim());
+			}
+		}
+		return names;
+	}
+}
@@ -0,0 +1,301 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Chooses how to compress each Zip entry from a sample of its data,
+ * within an optional budget of CPU time for the whole archive.
+ * <p/>
+ * The first {@link #SAMPLE_SIZE} bytes of each entry are sampled, and their
+ * order-0 entropy (the number of bits per byte needed to encode them,
+ * from their byte frequencies) is estimated:
+ * <ul>
+ * <li>Data with an entropy of {@link #STORED_ENTROPY} bits per byte or more,
+ *     such as data that is already compressed, is stored without compression.</li>
+ * <li>Data with an entropy of {@link #FAST_ENTROPY} bits per byte or more, such
+ *     as load modules, is compressed with {@link Deflater#BEST_SPEED}.</li>
+ * <li>Other data, such as text, is compressed with {@link Deflater#DEFAULT_COMPRESSION}.
+ *     If a CPU budget is given, it is compressed with {@link Deflater#BEST_COMPRESSION}
+ *     until half of the budget has been used, and with {@link Deflater#BEST_SPEED}
+ *     once all of it has been used.</li>
+ * </ul>
+ * The CPU time used to read and compress each entry is measured on 
+ * the thread that does the work, and added to the total.
+ * The methods of this class are thread-safe.
+ *
+ * @see ZipEntryCompressor
+ * @see ZipArchiveWriter#writeEntry(ZipEntrySource, String, CompressionPolicy)
+ * @since 2.3.0
+ */
+public class CompressionPolicy {
+
+	/** The number of bytes sampled from the start of each entry */
+	public static final int SAMPLE_SIZE = 4096;
+
+	/** The entropy, in bits per byte, at and above which data is stored */
+	public static final double STORED_ENTROPY = 7.5;
+
+	/** The entropy, in bits per byte, at and above which data is compressed for speed */
+	public static final double FAST_ENTROPY = 6.0;
+
+	/** The level answered for data that should not be compressed */
+	public static final int NO_COMPRESSION = Deflater.NO_COMPRESSION;
+
+	/**
+	 * The level answered for compressible data when the CPU budget allows:
+	 * the level that zlib uses for Deflater.DEFAULT_COMPRESSION (-1)
+	 */
+	public static final int DEFAULT_LEVEL = 6;
+
+	private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+	private long cpuBudget;
+	private long cpuUsed = 0;
+	private int[] levelCounts = new int[10];
+
+	/**
+	 * Construct an instance with no CPU budget.
+	 */
+	public CompressionPolicy() {
+		this(0);
+	}
+
+	/**
+	 * Construct an instance
+	 * @param cpuBudgetMillis the CPU time, in milliseconds, that may be used to 
+	 * 			read and compress all entries, or 0 for no budget
+	 */
+	public CompressionPolicy(long cpuBudgetMillis) {
+		this.cpuBudget = cpuBudgetMillis * 1000000L;
+	}
+
+	/**
+	 * Answer the Deflater level to use for an entry that starts with the given
+	 * sample, or {@link #NO_COMPRESSION} if it should be stored.
+	 */
+	public synchronized int chooseLevel(byte[] sample, int off, int len) {
+		int level;
+		double entropy = estimateEntropy(sample, off, len);
+		if (len > 0 && entropy >= STORED_ENTROPY) {
+			level = NO_COMPRESSION;
+		} else if (entropy >= FAST_ENTROPY) {
+			level = Deflater.BEST_SPEED;
+		} else if (cpuBudget == 0) {
+			level = DEFAULT_LEVEL;
+		} else if (cpuUsed < cpuBudget / 2) {
+			level = Deflater.BEST_COMPRESSION;
+		} else if (cpuUsed < cpuBudget) {
+			level = DEFAULT_LEVEL;
+		} else {
+			level = Deflater.BEST_SPEED;
+		}
+		levelCounts[level]++;
+		return level;
+	}
+
+	/**
+	 * Add the CPU time used for an entry to the total.
+	 */
+	public synchronized void addCpuTime(long cpuNanos) {
+		cpuUsed += cpuNanos;
+	}
+
+	/**
+	 * Answer the total CPU time used, in nanoseconds.
+	 */
+	public synchronized long getCpuTime() {
+		return cpuUsed;
+	}
+
+	/**
+	 * Answer the number of entries for which the given level was chosen.
+	 */
+	public synchronized int getLevelCount(int level) {
+		return levelCounts[level];
+	}
+
+	/**
+	 * Answer a summary of the levels chosen and the CPU time used.
+	 */
+	public synchronized String getSummary() {
+		StringBuffer sb = new StringBuffer();
+		sb.append(levelCounts[NO_COMPRESSION]).append(" not compressed");
+		for (int level = 1; level < levelCounts.length; level++) {
+			if (levelCounts[level] > 0) {
+				sb.append(", ").append(levelCounts[level]).append(" at level ").append(level);
+			}
+		}
+		sb.append("; cpu ").append(cpuUsed / 1000000).append(" ms");
+		if (cpuBudget > 0) {
+			sb.append(" (budget ").append(cpuBudget / 1000000).append(" ms)");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Estimate the order-0 entropy of the given bytes, in bits per byte,
+	 * from 0.0 (all bytes the same) to 8.0 (all byte values equally likely).
+	 */
+	public static double estimateEntropy(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0.0;
+		}
+		int[] counts = new int[256];
+		for (int i = off, end = off + len; i < end; i++) {
+			counts[b[i] & 0xff]++;
+		}
+		double entropy = 0.0;
+		for (int i = 0; i < 256; i++) {
+			if (counts[i] > 0) {
+				double p = (double)counts[i] / len;
+				entropy -= p * Math.log(p);
+			}
+		}
+		return entropy / Math.log(2);
+	}
+
+	/**
+	 * Answer the CPU time used by the current thread, in nanoseconds,
+	 * or the elapsed time if the JVM cannot measure thread CPU time.
+	 */
+	public static long currentThreadCpuTime() {
+		if (threadBean.isCurrentThreadCpuTimeSupported()) {
+			return threadBean.getCurrentThreadCpuTime();
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * An OutputStream that compresses the data of one entry.
+	 * It holds the first {@link CompressionPolicy#SAMPLE_SIZE} bytes written
+	 * to it, asks the policy to choose a level, and then deflates them and 
+	 * all later data to the underlying stream.  If the policy chooses
+	 * {@link CompressionPolicy#NO_COMPRESSION} and the entry may be stored, 
+	 * the data is written uncompressed instead.
+	 */
+	public static class EntryOutputStream extends OutputStream {
+		private OutputStream out;
+		private CompressionPolicy policy;
+		private boolean storeAllowed;
+		private byte[] sample = new byte[SAMPLE_SIZE];
+		private int sampled = 0;
+		private int level = -1;
+		private int method = ZipEntry.DEFLATED;
+		private Deflater deflater;
+		private OutputStream target;
+
+		/**
+		 * @param out the underlying OutputStream, which is not closed
+		 * @param policy the policy which chooses the level
+		 * @param storeAllowed true if the entry may be stored, rather than 
+		 * 			deflated with no compression
+		 */
+		public EntryOutputStream(OutputStream out, CompressionPolicy policy, boolean storeAllowed) {
+			this.out = out;
+			this.policy = policy;
+			this.storeAllowed = storeAllowed;
+		}
+
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte)b }, 0, 1);
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (target == null) {
+				int n = Math.min(len, sample.length - sampled);
+				System.arraycopy(b, off, sample, sampled, n);
+				sampled += n;
+				off += n;
+				len -= n;
+				if (sampled < sample.length) {
+					return;
+				}
+				start();
+			}
+			if (len > 0) {
+				target.write(b, off, len);
+			}
+		}
+
+		/*
+		 * Choose the level, and write the sample.
+		 */
+		private void start() throws IOException {
+			level = policy.chooseLevel(sample, 0, sampled);
+			if (level == NO_COMPRESSION && storeAllowed) {
+				method = ZipEntry.STORED;
+				target = out;
+			} else {
+				deflater = new Deflater(level, true);
+				target = new DeflaterOutputStream(out, deflater, ZipEntryCompressor.BUFSIZE);
+			}
+			target.write(sample, 0, sampled);
+			sample = null;
+		}
+
+		/**
+		 * Write any remaining data to the underlying stream, 
+		 * without closing it.
+		 */
+		public void finish() throws IOException {
+			if (target == null) {
+				start();
+			}
+			try {
+				if (deflater != null) {
+					((DeflaterOutputStream)target).finish();
+				}
+			} finally {
+				end();
+			}
+		}
+
+		/**
+		 * Release the Deflater, if any.  Called by {@link #finish()}.
+		 */
+		public void end() {
+			if (deflater != null) {
+				deflater.end();
+			}
+		}
+
+		/**
+		 * Answer the level chosen: {@link CompressionPolicy#NO_COMPRESSION} 
+		 * if the entry was stored.
+		 */
+		public int getLevel() {
+			return level;
+		}
+
+		/**
+		 * Answer the method: {@link ZipEntry#DEFLATED} or {@link ZipEntry#STORED}
+		 */
+		public int getMethod() {
+			return method;
+		}
+	}
+}
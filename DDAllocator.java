@@ -0,0 +1,59 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+
+/**
+ * The dynamic allocation requests used by a {@link DDPool}.
+ * <p/>
+ * The normal implementation is {@link BpxwdynDDAllocator}, which uses
+ * BPXWDYN (dynamic allocation, SVC 99) through {@link com.ibm.jzos.ZFile};
+ * {@link FakeDDAllocator} can stand in for it off z/OS.
+ * All dataset names are fully qualified, without quotes.
+ *
+ * @see DDPool
+ * @since 2.3.0
+ */
+public interface DDAllocator {
+
+	/**
+	 * Allocate a new SYSnnnnn DD to DUMMY.
+	 * @return the new ddname
+	 * @throws IOException if the DD could not be allocated
+	 */
+	String allocDummyDD() throws IOException;
+
+	/**
+	 * Reallocate an existing DD, using the "reuse" keyword, to the given
+	 * dataset.  Any previous allocation of the DD is freed first.
+	 * @param ddname a DD previously answered by {@link #allocDummyDD()}
+	 * @param dsn the dataset name, or null to reallocate the DD to DUMMY
+	 * @param keywords the disposition and other keywords, such as "shr" or
+	 * 			"like(A.B) new catalog"; ignored if dsn is null
+	 * @throws IOException if the DD could not be reallocated
+	 */
+	void reuse(String ddname, String dsn, String keywords) throws IOException;
+
+	/**
+	 * Free a DD.  Errors are ignored, since a DD may not be freed
+	 * while a file is open on it.
+	 */
+	void free(String ddname);
+}
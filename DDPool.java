@@ -0,0 +1,289 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * A bounded pool of SYSnnnnn DDs which are reused for dynamic allocations.
+ * <p/>
+ * Allocating a DD for each dataset costs three dynamic allocation requests
+ * (allocate a DUMMY DD name, reallocate it to the dataset, and free it),
+ * which dominates the run time when thousands of small datasets are processed.
+ * A pool instead keeps up to <code>maxIdle</code> DDs allocated once they are 
+ * released, and reallocates them to the next dataset using the "reuse" keyword.
+ * <p/>
+ * A DD allocated with DISP=SHR by {@link #acquire(String)} stays bound
+ * to its dataset when released, so acquiring the same dataset again
+ * answers the same DD without any dynamic allocation at all.
+ * A DD allocated with other keywords by {@link #acquire(String, String)},
+ * such as a new dataset, is reallocated to DUMMY when released, so that
+ * its disposition is processed at once.
+ * <p/>
+ * An idle DD still holds a shared ENQ on its dataset until it is reused
+ * or the pool is closed, so a pool should be closed when done:
+ * <pre>
+ * DDPool pool = new DDPool(new BpxwdynDDAllocator(), 16);
+ * try {
+ *     String dd = pool.acquire("MY.PDS");
+ *     try {
+ *         // open "//DD:" + dd ...
+ *     } finally {
+ *         pool.release(dd);
+ *     }
+ * } finally {
+ *     pool.close();
+ * }
+ * </pre>
+ * If more DDs are in use than the pool can hold, extra DDs are allocated,
+ * and freed when they are released.  A pool with <code>maxIdle</code> of zero
+ * frees every DD when it is released, as if there were no pool.
+ * The methods of this class are thread-safe.
+ *
+ * @see DDAllocator
+ * @since 2.3.0
+ */
+public class DDPool {
+
+	/** The default number of idle DDs kept by a pool */
+	public static final int DEFAULT_MAX_IDLE = 16;
+
+	/** The keywords used to allocate a dataset that may be shared */
+	static final String SHR = "shr";
+
+	private DDAllocator allocator;
+	private int maxIdle;
+	private LinkedList idle = new LinkedList();  // PooledDDs, least recently released first
+	private Map inUse = new HashMap();  // ddname -> PooledDD
+	private boolean closed = false;
+
+	private int hits = 0;
+	private int misses = 0;
+	private int reuses = 0;
+	private int allocations = 0;
+	private int frees = 0;
+
+	/**
+	 * Construct a pool with {@link #DEFAULT_MAX_IDLE} idle DDs.
+	 */
+	public DDPool(DDAllocator allocator) {
+		this(allocator, DEFAULT_MAX_IDLE);
+	}
+
+	/**
+	 * Construct a pool
+	 * @param allocator the DDAllocator used to allocate and free DDs
+	 * @param maxIdle the maximum number of released DDs to keep allocated
+	 */
+	public DDPool(DDAllocator allocator, int maxIdle) {
+		if (maxIdle < 0) {
+			throw new IllegalArgumentException("maxIdle must not be negative");
+		}
+		this.allocator = allocator;
+		this.maxIdle = maxIdle;
+	}
+
+	/**
+	 * Answer a DD allocated to the given dataset with DISP=SHR.
+	 * If an idle DD is already allocated to the dataset, it is answered
+	 * without any dynamic allocation.
+	 * @param dsn a fully qualified dataset name, without quotes
+	 * @return the ddname, which must be given to {@link #release(String)}
+	 * @throws IOException if the dataset could not be allocated
+	 */
+	public synchronized String acquire(String dsn) throws IOException {
+		checkOpen();
+		dsn = dsn.toUpperCase();
+		for (Iterator i = idle.iterator(); i.hasNext(); ) {
+			PooledDD dd = (PooledDD)i.next();
+			if (dsn.equals(dd.dsn)) {
+				i.remove();
+				hits++;
+				inUse.put(dd.ddname, dd);
+				return dd.ddname;
+			}
+		}
+		return bind(dsn, SHR);
+	}
+
+	/**
+	 * Answer a DD allocated to the given dataset with the given keywords,
+	 * for example "like(A.B) new catalog".  The DD is always reallocated,
+	 * and is reallocated to DUMMY when it is released.
+	 * @param dsn a fully qualified dataset name, without quotes
+	 * @param keywords the disposition and other BPXWDYN keywords
+	 * @return the ddname, which must be given to {@link #release(String)}
+	 * @throws IOException if the dataset could not be allocated
+	 */
+	public synchronized String acquire(String dsn, String keywords) throws IOException {
+		checkOpen();
+		return bind(dsn.toUpperCase(), keywords);
+	}
+
+	/**
+	 * Reallocate the least recently used idle DD to the given dataset,
+	 * or allocate a new DD if there are none.
+	 */
+	private String bind(String dsn, String keywords) throws IOException {
+		PooledDD dd;
+		if (!idle.isEmpty()) {
+			dd = (PooledDD)idle.removeFirst();
+		} else {
+			dd = new PooledDD(allocator.allocDummyDD());
+			allocations++;
+		}
+		misses++;
+		reuses++;
+		try {
+			allocator.reuse(dd.ddname, dsn, keywords);
+		} catch (IOException ioe) {
+			// the DD's previous allocation may have been freed, so don't keep it
+			free(dd);
+			throw ioe;
+		}
+		dd.dsn = dsn;
+		dd.shared = keywords.equals(SHR);
+		inUse.put(dd.ddname, dd);
+		return dd.ddname;
+	}
+
+	/**
+	 * Release a DD answered by one of the acquire methods.
+	 * The DD is kept for reuse if the pool has room; otherwise it is freed.
+	 * Any file opened on the DD must be closed first.
+	 */
+	public synchronized void release(String ddname) {
+		PooledDD dd = (PooledDD)inUse.remove(ddname);
+		if (dd == null) {
+			return;
+		}
+		if (closed) {
+			free(dd);
+			return;
+		}
+		if (!dd.shared && idle.size() < maxIdle) {
+			// process the disposition of a new or exclusive dataset now
+			reuses++;
+			try {
+				allocator.reuse(dd.ddname, null, null);
+				dd.dsn = null;
+			} catch (IOException ioe) {
+				free(dd);
+				return;
+			}
+		}
+		returnToPool(dd);
+	}
+
+	/**
+	 * Keep a DD as idle if there is room, or free it.
+	 */
+	private void returnToPool(PooledDD dd) {
+		if (idle.size() < maxIdle) {
+			idle.addLast(dd);
+		} else {
+			free(dd);
+		}
+	}
+
+	private void free(PooledDD dd) {
+		allocator.free(dd.ddname);
+		frees++;
+	}
+
+	/**
+	 * Free all idle DDs.  DDs that are still in use are freed when they
+	 * are released.  The pool may not be used to acquire DDs after it is closed.
+	 */
+	public synchronized void close() {
+		closed = true;
+		while (!idle.isEmpty()) {
+			free((PooledDD)idle.removeFirst());
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("DDPool is closed");
+		}
+	}
+
+	/**
+	 * Answer the number of acquires answered by an idle DD
+	 * already allocated to the dataset.
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Answer the number of acquires that required a dynamic allocation.
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Answer the fraction of acquires that were answered without
+	 * dynamic allocation, from 0.0 to 1.0.
+	 */
+	public synchronized double getHitRate() {
+		int total = hits + getMisses();
+		return total == 0 ? 0.0 : (double)hits / total;
+	}
+
+	/**
+	 * Answer the number of dynamic allocation requests made by this pool:
+	 * new DUMMY DDs, reallocations using "reuse", and frees.
+	 */
+	public synchronized int getRequestCount() {
+		return allocations + reuses + frees;
+	}
+
+	/**
+	 * Answer the number of DDs currently idle in this pool.
+	 */
+	public synchronized int getIdleCount() {
+		return idle.size();
+	}
+
+	/**
+	 * Answer the number of DDs currently in use.
+	 */
+	public synchronized int getInUseCount() {
+		return inUse.size();
+	}
+
+	/**
+	 * A DD owned by the pool, and the dataset it is currently allocated to.
+	 */
+	private static class PooledDD {
+		String ddname;
+		String dsn;			// null if allocated to DUMMY
+		boolean shared;		// true if allocated with DISP=SHR
+
+		PooledDD(String ddname) {
+			this.ddname = ddname;
+		}
+	}
+}
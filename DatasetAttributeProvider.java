@@ -0,0 +1,41 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+
+/**
+ * A source of the {@link DatasetAttributes} of datasets.
+ * <p/>
+ * The normal implementation is {@link ZFileDatasetAttributeProvider}, which
+ * opens the dataset; {@link InMemoryDatasetAttributeProvider} can stand in
+ * for it off z/OS, and {@link CachingDatasetAttributeProvider} avoids
+ * opening the same dataset repeatedly.
+ *
+ * @since 2.3.0
+ */
+public interface DatasetAttributeProvider {
+
+	/**
+	 * Answer the attributes of a dataset, or null if it does not exist.
+	 * @param dsn a fully qualified, upper case, dataset name
+	 * @throws IOException if the dataset exists but its attributes cannot be read
+	 */
+	DatasetAttributes getAttributes(String dsn) throws IOException;
+}
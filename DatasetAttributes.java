@@ -0,0 +1,114 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import com.ibm.jzos.ZFile;
+
+/**
+ * The attributes of a dataset that samples need before reading or
+ * writing it: record format, logical record length, block size and
+ * dataset organization.
+ * <p/>
+ * Instances are immutable, and are answered by a {@link DatasetAttributeProvider}.
+ *
+ * @see CachingDatasetAttributeProvider
+ * @since 2.3.0
+ */
+public class DatasetAttributes {
+
+	private String dsn;
+	private int recfmBits;
+	private int lrecl;
+	private int blksize;
+	private int dsorg;
+
+	/**
+	 * Construct an instance.
+	 * @param dsn the fully qualified dataset name
+	 * @param recfmBits the record format, as answered by {@link ZFile#getRecfmBits()}
+	 * @param lrecl the logical record length
+	 * @param blksize the block size
+	 * @param dsorg the dataset organization, as answered by {@link ZFile#getDsorg()}
+	 */
+	public DatasetAttributes(String dsn, int recfmBits, int lrecl, int blksize, int dsorg) {
+		this.dsn = dsn;
+		this.recfmBits = recfmBits;
+		this.lrecl = lrecl;
+		this.blksize = blksize;
+		this.dsorg = dsorg;
+	}
+
+	/**
+	 * Answer the fully qualified dataset name.
+	 */
+	public String getDsn() {
+		return dsn;
+	}
+
+	/**
+	 * Answer the record format bits.
+	 * @see ZFile#RECFM_F
+	 * @see ZFile#RECFM_V
+	 */
+	public int getRecfmBits() {
+		return recfmBits;
+	}
+
+	/**
+	 * Answer the logical record length.
+	 */
+	public int getLrecl() {
+		return lrecl;
+	}
+
+	/**
+	 * Answer the block size.
+	 */
+	public int getBlksize() {
+		return blksize;
+	}
+
+	/**
+	 * Answer the dataset organization.
+	 * @see ZFile#DSORG_PS
+	 * @see ZFile#DSORG_PO
+	 */
+	public int getDsorg() {
+		return dsorg;
+	}
+
+	/**
+	 * Answer true if the dataset has fixed length records.
+	 */
+	public boolean isFixedRecfm() {
+		return (ZFile.RECFM_F & recfmBits) != 0;
+	}
+
+	/**
+	 * Answer true if the dataset has variable length records.
+	 */
+	public boolean isVariableRecfm() {
+		return (ZFile.RECFM_V & recfmBits) != 0;
+	}
+
+	public String toString() {
+		return dsn + ": RECFM=0x" + Integer.toHexString(recfmBits)
+				+ " LRECL=" + lrecl + " BLKSIZE=" + blksize + " DSORG=" + dsorg;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import com.ibm.jzos.ZFile;
+
+/**
+ * Sample program that reads the attributes of the datasets given as 
+ * arguments through a {@link CachingDatasetAttributeProvider}, as the 
+ * DFSORT samples and {@link DynallocCopyDataset} do, probing each 
+ * dataset several times and reporting how many probes were answered 
+ * from the cache.
+ * <p/>
+ * With <code>-m</code>, the datasets are held by an 
+ * {@link InMemoryDatasetAttributeProvider} as RECFM=FB,LRECL=80 datasets,
+ * so that the cache can be exercised on any platform.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.DatasetAttributesSample [-m] [-n probes] [-t ttlMillis] dsn...</code>
+ * <br/>The defaults are 100 probes of each dataset and a time to live of 
+ * {@link CachingDatasetAttributeProvider#DEFAULT_TTL_MILLIS}.
+ *
+ * @since 2.3.0
+ */
+public class DatasetAttributesSample {
+
+	public static void main(String[] args) throws Exception {
+		boolean inMemory = false;
+		int probes = 100;
+		long ttlMillis = CachingDatasetAttributeProvider.DEFAULT_TTL_MILLIS;
+		int first = 0;
+		try {
+			for (; first < args.length && args[first].startsWith("-"); first++) {
+				if ("-m".equals(args[first])) {
+					inMemory = true;
+				} else if ("-n".equals(args[first])) {
+					probes = Integer.parseInt(args[++first]);
+				} else if ("-t".equals(args[first])) {
+					ttlMillis = Long.parseLong(args[++first]);
+				} else {
+					first = args.length;
+				}
+			}
+		} catch (RuntimeException e) {
+			first = args.length;
+		}
+		if (first >= args.length || probes <= 0) {
+			System.err.println("Usage: com.ibm.jzos.sample.DatasetAttributesSample [-m] [-n probes] [-t ttlMillis] dsn...");
+			System.err.println("  -m holds the datasets in memory, rather than opening them with ZFile");
+			System.exit(4);
+		}
+
+		DatasetAttributeProvider provider;
+		InMemoryDatasetAttributeProvider memory = null;
+		String[] dsns = new String[args.length - first];
+		for (int i=0; i<dsns.length; i++) {
+			dsns[i] = args[first + i].toUpperCase();
+		}
+		if (inMemory) {
+			memory = new InMemoryDatasetAttributeProvider();
+			for (int i=0; i<dsns.length; i++) {
+				memory.add(dsns[i], ZFile.RECFM_F | ZFile.RECFM_B, 80, 27920, ZFile.DSORG_PS);
+			}
+			provider = memory;
+		} else {
+			provider = new ZFileDatasetAttributeProvider();
+			for (int i=0; i<dsns.length; i++) {
+				dsns[i] = ZFile.getFullyQualifiedDSN(dsns[i]);
+			}
+		}
+		CachingDatasetAttributeProvider cache = new CachingDatasetAttributeProvider(provider, ttlMillis);
+		CachingDatasetAttributeProvider.setShared(cache);
+
+		long start = System.currentTimeMillis();
+		for (int i=0; i<dsns.length; i++) {
+			DatasetAttributes attributes = null;
+			for (int j=0; j<probes; j++) {
+				attributes = CachingDatasetAttributeProvider.getShared().getAttributes(dsns[i]);
+			}
+			System.out.println(attributes != null ? attributes.toString() : dsns[i] + ": does not exist");
+		}
+		long time = System.currentTimeMillis() - start;
+
+		System.out.println("probes=" + dsns.length * probes 
+							+ " hits=" + cache.getHits() 
+							+ " misses=" + cache.getMisses()
+							+ (memory != null ? " lookups=" + memory.getLookups() : "")
+							+ " time=" + time + "ms");
+	}
+}
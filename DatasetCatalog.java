@@ -0,0 +1,47 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A source of dataset names matching a catalog filter key, such as
+ * <code>PROD.*.LOAD</code> or <code>PROD.APP*.**</code>.
+ * <p/>
+ * {@link ZipDatasetSource} uses an instance of this interface to expand
+ * dataset patterns.  The normal implementation is {@link CatalogSearchCatalog},
+ * which uses the z/OS Catalog Search facility (IGGCSI00);
+ * {@link InMemoryDatasetCatalog} can stand in for it off z/OS, and
+ * {@link CachingDatasetCatalog} avoids repeating searches.
+ *
+ * @see DatasetNamePattern for the filter key syntax
+ * @since 2.3.0
+ */
+public interface DatasetCatalog {
+
+	/**
+	 * Answer the names of the non-VSAM and generation datasets that
+	 * match the given filter key, in catalog order.
+	 * @param filterKey a fully qualified, upper case, dataset name pattern
+	 * @return a List of String dataset names
+	 * @throws IOException if the catalog cannot be searched
+	 */
+	List search(String filterKey) throws IOException;
+}
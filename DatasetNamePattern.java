@@ -0,0 +1,130 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+/**
+ * A catalog filter key, as used by the z/OS Catalog Search facility (IGGCSI00),
+ * which can be matched against dataset names.
+ * <p/>
+ * A filter key is a dataset name in which:
+ * <ul>
+ * <li><code>%</code> matches any single character in a qualifier</li>
+ * <li><code>*</code> matches zero or more characters in a qualifier;
+ *     as a whole qualifier it matches exactly one qualifier</li>
+ * <li><code>**</code> as a whole qualifier matches zero or more qualifiers</li>
+ * </ul>
+ * This class also determines whether one filter key <em>subsumes</em>
+ * another, which allows {@link CachingDatasetCatalog} to answer a
+ * narrow search from the results of a broader one.
+ *
+ * @see DatasetCatalog
+ * @since 2.3.0
+ */
+public class DatasetNamePattern {
+
+	static final String ANY_QUALIFIERS = GlobPattern.ANY_QUALIFIERS;
+
+	private String filterKey;
+	private GlobPattern glob;
+
+	/**
+	 * Construct an instance given an upper case filter key.
+	 */
+	public DatasetNamePattern(String filterKey) {
+		this.filterKey = filterKey;
+		this.glob = GlobPattern.compile(filterKey);
+	}
+
+	/**
+	 * Answer the filter key.
+	 */
+	public String getFilterKey() {
+		return filterKey;
+	}
+
+	/**
+	 * Answer true if the given dataset name matches this filter key.
+	 */
+	public boolean matches(String dsn) {
+		return glob.matches(dsn);
+	}
+
+	/**
+	 * Answer true if every dataset name that matches the narrower filter key
+	 * also matches the broader filter key; for example <code>PROD.**</code>
+	 * subsumes <code>PROD.APP*.*</code>.
+	 * <p/>
+	 * The check is conservative: it may answer false for some pairs of keys
+	 * where subsumption holds, but never answers true where it does not.
+	 */
+	public static boolean subsumes(String broader, String narrower) {
+		if (broader.equals(narrower)) {
+			return true;
+		}
+		return qualifiersSubsume(broader.split("\\."), 0, narrower.split("\\."), 0);
+	}
+
+	/*
+	 * Answer true if the qualifiers of a, starting at ia, match every
+	 * sequence of qualifiers matched by b, starting at ib.
+	 */
+	private static boolean qualifiersSubsume(String[] a, int ia, String[] b, int ib) {
+		if (ia == a.length) {
+			return ib == b.length;
+		}
+		if (a[ia].equals(ANY_QUALIFIERS)) {
+			// "**" may match none of b's qualifiers, or absorb the next one
+			// (including a "**" in b)
+			return qualifiersSubsume(a, ia + 1, b, ib)
+					|| (ib < b.length && qualifiersSubsume(a, ia, b, ib + 1));
+		}
+		if (ib == b.length || b[ib].equals(ANY_QUALIFIERS)) {
+			return false;
+		}
+		return qualifierSubsumes(a[ia], 0, b[ib], 0)
+				&& qualifiersSubsume(a, ia + 1, b, ib + 1);
+	}
+
+	/*
+	 * Answer true if the qualifier pattern x, starting at ix, matches every
+	 * string matched by the qualifier pattern y, starting at iy.
+	 */
+	private static boolean qualifierSubsumes(String x, int ix, String y, int iy) {
+		if (ix == x.length()) {
+			return iy == y.length();
+		}
+		char cx = x.charAt(ix);
+		if (cx == '*') {
+			// '*' in x may match nothing, or absorb the next character or wildcard of y
+			return qualifierSubsumes(x, ix + 1, y, iy)
+					|| (iy < y.length() && qualifierSubsumes(x, ix, y, iy + 1));
+		}
+		if (iy == y.length()) {
+			return false;
+		}
+		char cy = y.charAt(iy);
+		if (cy == '*') {
+			return false;
+		}
+		if (cx == '%' || cx == cy) {
+			return qualifierSubsumes(x, ix + 1, y, iy + 1);
+		}
+		return false;
+	}
+}
@@ -24,46 +24,79 @@ import com.ibm.jzos.ZFile;
  * Sample program that uses BPXWDYN to dynamically allocate a new dataset
  * with the same attributes as a given dataset, and then copy the
  * original to the new dataset.  The name of the source dataset and 
- * target dataset names are given as arguments.
+ * target dataset names are given as arguments.  Several pairs of 
+ * source and target datasets may be given.
+ * <p>
+ * DDs are allocated from a {@link DDPool}, so that each copy after
+ * the first reuses the DDs allocated for the previous copy
+ * rather than allocating and freeing new ones.
+ * <p>
+ * The source dataset's organization is checked from the attributes held
+ * by the shared {@link CachingDatasetAttributeProvider} before any DD is
+ * allocated, so that an unsuitable source fails without allocating a target,
+ * and a source that is copied repeatedly is not reopened just to check it.
  * <p>
  * @see com.ibm.jzos.ZFile#bpxwdyn(String)
+ * @see DDPool
  */
 public class DynallocCopyDataset {
 	
     public static void main(String[] args) throws Exception {
     	
-    	if (args.length < 2) {
-    		System.out.println("Usage: inputDataset outputDataset");
+    	if (args.length < 2 || args.length % 2 != 0) {
+    		System.out.println("Usage: inputDataset outputDataset [inputDataset outputDataset ...]");
     		System.exit(8);
     	}
     	
-    	// Allocate new DDNAMEs to "DUMMY" that we will reuse to allocate the output dataset
-		String sourceDD = ZFile.allocDummyDDName();
-		String targetDD = ZFile.allocDummyDDName();
-		
+    	// A pool of DDNAMEs that we will reuse to allocate each dataset
+    	DDPool pool = new DDPool(new BpxwdynDDAllocator(), 2);
+    	try {
+    		for (int i = 0; i < args.length; i += 2) {
+    			copy(pool, args[i], args[i+1]);
+    		}
+    	} finally {
+    		// free the DDNAMEs
+    		pool.close();
+    	}
+    }
+
+    /**
+     * Allocate a new dataset like the given source dataset, and
+     * copy the source dataset to it, using DDs from the given pool.
+     */
+    public static void copy(DDPool pool, String source, String target) throws Exception {
+    	
 		// bpxwdyn requires fully-qualfied dsn (it will not add uid).
 		// so we make sure that we have a fully qualified DSNs
-		String sourceDSN = ZFile.getFullyQualifiedDSN(args[0]); 
-		String targetDSN = ZFile.getFullyQualifiedDSN(args[1]); 
+		String sourceDSN = ZFile.getFullyQualifiedDSN(source); 
+		String targetDSN = ZFile.getFullyQualifiedDSN(target); 
 
-		// Allocate the input dataset using BPXWDYN.
-		// The "reuse" keyword allows us to reuse the previous DD DUMMY that we allocated
-		// This will throw a RcException if fails, and issue a "Write-to-programmer" message
-		// to the job log.
-		ZFile.bpxwdyn("alloc fi(" + sourceDD + ") da(" + sourceDSN 
-				+ ") reuse shr msg(wtp)");
+		CachingDatasetAttributeProvider attributeProvider = CachingDatasetAttributeProvider.getShared();
+		DatasetAttributes sourceAttributes = attributeProvider.getAttributes(sourceDSN);
+		if (sourceAttributes == null) {
+			throw new IllegalStateException("Input dataset " + sourceDSN + " does not exist");
+		}
+		if (sourceAttributes.getDsorg() != ZFile.DSORG_PS) {
+			throw new IllegalStateException("Input dataset must be DSORG=PS");
+		}
 
-		// Allocate the output dataset using BPXWDYN.
-		ZFile.bpxwdyn("alloc fi(" + targetDD + ") da(" + targetDSN 
-				+ ") like(" + sourceDSN + ") reuse new catalog msg(wtp)");
+		// Allocate the input dataset using a DD from the pool.
+		// The pool reallocates a previous DD using the "reuse" keyword.
+		// This will throw an IOException if it fails, and issue a 
+		// "Write-to-programmer" message to the job log.
+		String sourceDD = pool.acquire(sourceDSN);
+		String targetDD = null;
 		
 		ZFile zFileIn = null;
 		ZFile zFileOut = null;
         try {
+    		// Allocate the output dataset using a DD from the pool.
+    		targetDD = pool.acquire(targetDSN, "like(" + sourceDSN + ") new catalog");
+
+    		// The target is new, so any attributes cached for its name are stale
+    		attributeProvider.refresh(targetDSN);
+
             zFileIn = new ZFile("//DD:" + sourceDD, "rb,type=record,noseek");
-            if (zFileIn.getDsorg() != ZFile.DSORG_PS) {
-            	throw new IllegalStateException("Input dataset must be DSORG=PS");
-            }
             zFileOut = new ZFile("//DD:" + targetDD, "wb,type=record,noseek");
             long count = 0;
             byte[] recBuf = new byte[zFileIn.getLrecl()];
@@ -75,19 +108,15 @@ public class DynallocCopyDataset {
             System.out.println("DynallocCopyDataset: " + count + " records copied");
             
         } finally {
-        	// best effort to close and free datasets
+        	// best effort to close datasets and release the DDs to the pool
            try { 
         	   if (zFileIn != null) zFileIn.close(); 
            } catch(Exception ignore) {}
            try { 
         	   if (zFileOut != null) zFileOut.close(); 
            } catch(Exception ignore) {}
-           try { 
-        	   ZFile.bpxwdyn("free fi(" + sourceDD + ") msg(wtp)"); 
-           } catch(Exception ignore) {}
-           try { 
-        	   ZFile.bpxwdyn("free fi(" + targetDD + ") msg(wtp)"); 
-           } catch(Exception ignore) {}
+           pool.release(sourceDD); 
+           if (targetDD != null) pool.release(targetDD); 
         }
     }
 }
@@ -0,0 +1,96 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link DDAllocator} that records allocations in memory, without
+ * calling BPXWDYN.
+ * <p/>
+ * This can stand in for {@link BpxwdynDDAllocator} when dynamic allocation
+ * is not available, to exercise the behaviour of a {@link DDPool}.
+ * It counts each request as a dynamic allocation (SVC 99) would be counted,
+ * and can be told to fail requests for given dataset names.
+ *
+ * @since 2.3.0
+ */
+public class FakeDDAllocator implements DDAllocator {
+
+	private Map allocations = new HashMap();  // ddname -> dsn, or "" for DUMMY
+	private Set failing = new HashSet();
+	private int nextDD = 1;
+	private int requests = 0;
+
+	/**
+	 * Make requests to allocate the given dataset fail with an IOException.
+	 */
+	public synchronized void fail(String dsn) {
+		failing.add(dsn.toUpperCase());
+	}
+
+	public synchronized String allocDummyDD() {
+		requests++;
+		String ddname = "SYS" + String.valueOf(100000 + nextDD++).substring(1);	// SYSnnnnn
+		allocations.put(ddname, "");
+		return ddname;
+	}
+
+	public synchronized void reuse(String ddname, String dsn, String keywords) throws IOException {
+		requests++;
+		if (!allocations.containsKey(ddname)) {
+			throw new IOException("DD not allocated: " + ddname);
+		}
+		if (dsn != null && failing.contains(dsn.toUpperCase())) {
+			throw new IOException("Unable to allocate dataset: " + dsn);
+		}
+		allocations.put(ddname, dsn == null ? "" : dsn.toUpperCase());
+	}
+
+	public synchronized void free(String ddname) {
+		requests++;
+		allocations.remove(ddname);
+	}
+
+	/**
+	 * Answer the dataset name that a DD is allocated to, 
+	 * "" if it is allocated to DUMMY, or null if it is not allocated.
+	 */
+	public synchronized String getAllocation(String ddname) {
+		return (String)allocations.get(ddname);
+	}
+
+	/**
+	 * Answer the number of DDs that are currently allocated.
+	 */
+	public synchronized int getAllocatedCount() {
+		return allocations.size();
+	}
+
+	/**
+	 * Answer the number of allocation and free requests made.
+	 */
+	public synchronized int getRequestCount() {
+		return requests;
+	}
+}
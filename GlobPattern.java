@@ -0,0 +1,213 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A compiled wild card pattern for PDS member names and dataset names,
+ * which is matched directly against the characters of a name, 
+ * without using regular expressions.
+ * <p/>
+ * A pattern is made of qualifiers separated by periods, in which:
+ * <ul>
+ * <li><code>%</code> matches any single character in a qualifier</li>
+ * <li><code>*</code> matches zero or more characters in a qualifier</li>
+ * <li><code>**</code> as a whole qualifier matches zero or more qualifiers</li>
+ * </ul>
+ * These are the rules of a catalog filter key (see {@link DatasetNamePattern}); 
+ * a member name pattern, such as <code>AB*X</code>, is a pattern with a single qualifier.
+ * Matching is case sensitive, so names and patterns should be in upper case.
+ * <p/>
+ * Matching takes time proportional to the length of the name for most patterns,
+ * since it backtracks only to the last wild card, and allocates no objects.
+ * Patterns that are literal names or a prefix followed by <code>*</code>
+ * are matched by a simple comparison.
+ * <p/>
+ * {@link #compile(String)} answers a shared instance from a cache of recently
+ * used patterns, so callers need not hold on to compiled patterns themselves.
+ * Instances are immutable and thread-safe.
+ *
+ * @see ZipDatasetSource
+ * @see DatasetNamePattern
+ * @since 2.3.0
+ */
+public class GlobPattern {
+
+	/** The maximum number of compiled patterns held by {@link #compile(String)} */
+	static final int CACHE_SIZE = 256;
+
+	static final String ANY_QUALIFIERS = "**";
+
+	/** The kinds of pattern that have a fast path */
+	private static final int LITERAL = 0;
+	private static final int PREFIX = 1;
+	private static final int GENERAL = 2;
+
+	private static Map cache = new LinkedHashMap(CACHE_SIZE, 0.75f, true) {
+		protected boolean removeEldestEntry(Map.Entry eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private String pattern;
+	private int kind;
+	private String prefix;		// for LITERAL and PREFIX patterns
+	private char[][] quals;		// the qualifiers of a GENERAL pattern; null for "**"
+
+	/**
+	 * Answer a compiled pattern, which may be shared.
+	 */
+	public static GlobPattern compile(String pattern) {
+		synchronized (cache) {
+			GlobPattern glob = (GlobPattern)cache.get(pattern);
+			if (glob == null) {
+				glob = new GlobPattern(pattern);
+				cache.put(pattern, glob);
+			}
+			return glob;
+		}
+	}
+
+	/**
+	 * Answer true if the given name contains a wild card character,
+	 * and so is a pattern rather than a name.
+	 */
+	public static boolean isPattern(String name) {
+		return name.indexOf('*') >= 0 || name.indexOf('%') >= 0;
+	}
+
+	/**
+	 * Construct a compiled pattern.  
+	 * @see #compile(String) which answers cached instances
+	 */
+	public GlobPattern(String pattern) {
+		this.pattern = pattern;
+		int star = pattern.indexOf('*');
+		if (!isPattern(pattern)) {
+			kind = LITERAL;
+			prefix = pattern;
+		} else if (star == pattern.length() - 1 
+					&& pattern.indexOf('%') < 0 
+					&& pattern.indexOf('.') < 0) {
+			kind = PREFIX;
+			prefix = pattern.substring(0, star);
+		} else {
+			kind = GENERAL;
+			String[] parts = pattern.split("\\.", -1);
+			quals = new char[parts.length][];
+			for (int i=0; i<parts.length; i++) {
+				quals[i] = parts[i].equals(ANY_QUALIFIERS) ? null : parts[i].toCharArray();
+			}
+		}
+	}
+
+	/**
+	 * Answer the pattern string.
+	 */
+	public String getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * Answer true if the given name matches this pattern.
+	 */
+	public boolean matches(String name) {
+		switch (kind) {
+		case LITERAL:
+			return name.equals(prefix);
+		case PREFIX:
+			return name.startsWith(prefix) && name.indexOf('.', prefix.length()) < 0;
+		default:
+			return matchQualifiers(name);
+		}
+	}
+
+	/*
+	 * Match the qualifiers of the name against the qualifiers of the pattern.
+	 * A "**" qualifier is handled like a '*' in a qualifier: we remember the
+	 * last one seen, and if a later qualifier fails to match, we let it
+	 * absorb one more qualifier of the name and try again from there.
+	 */
+	private boolean matchQualifiers(String name) {
+		int len = name.length();
+		int p = 0;				// the next pattern qualifier
+		int s = 0;				// the start of the next name qualifier
+		int starP = -1;			// the last "**" pattern qualifier
+		int starS = 0;			// the name qualifier to retry after starP
+		while (s <= len) {
+			int e = name.indexOf('.', s);
+			if (e < 0) {
+				e = len;
+			}
+			if (p < quals.length && quals[p] == null) {
+				starP = p++;
+				starS = s;
+			} else if (p < quals.length && matchQualifier(quals[p], name, s, e)) {
+				p++;
+				s = e + 1;
+			} else if (starP >= 0) {
+				p = starP + 1;
+				int e2 = name.indexOf('.', starS);
+				starS = e2 < 0 ? len + 1 : e2 + 1;
+				s = starS;
+			} else {
+				return false;
+			}
+		}
+		while (p < quals.length && quals[p] == null) {
+			p++;
+		}
+		return p == quals.length;
+	}
+
+	/*
+	 * Match the characters of one name qualifier, from start to end,
+	 * against one pattern qualifier.
+	 */
+	private static boolean matchQualifier(char[] pat, String name, int start, int end) {
+		int p = 0;
+		int n = start;
+		int starP = -1;
+		int starN = 0;
+		while (n < end) {
+			if (p < pat.length && (pat[p] == '%' || pat[p] == name.charAt(n))) {
+				p++;
+				n++;
+			} else if (p < pat.length && pat[p] == '*') {
+				starP = p++;
+				starN = n;
+			} else if (starP >= 0) {
+				p = starP + 1;
+				n = ++starN;
+			} else {
+				return false;
+			}
+		}
+		while (p < pat.length && pat[p] == '*') {
+			p++;
+		}
+		return p == pat.length;
+	}
+
+	public String toString() {
+		return pattern;
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.util.regex.Pattern;
+
+/**
+ * Sample program that compares matching PDS member names and dataset names
+ * against wild card patterns using:
+ * <ul>
+ * <li>regex: a java.util.regex Pattern compiled for each directory, 
+ *     as was done by {@link ZipDatasetSource}</li>
+ * <li>glob: a {@link GlobPattern} from the cache of compiled patterns</li>
+ * </ul>
+ * Synthetic member and dataset names are generated in memory, so this
+ * program does not need z/OS datasets and can be run on any platform.
+ * Each pattern is first checked to give the same matches both ways.
+ * After a warmup, each method is timed over several iterations and the
+ * best time per name is reported.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.GlobPatternBenchmark [numnames]</code>
+ * <br/>The default is 50000 names.
+ *
+ * @see GlobPattern
+ * @since 2.3.0
+ */
+public class GlobPatternBenchmark {
+
+	static final int WARMUP = 5;
+	static final int ITERATIONS = 10;
+
+	static final String[] MEMBER_PATTERNS = { 
+		"*", "PAY*", "PAY%%%01", "*X*Y", "ABCDEFGH", "%A*B%" 
+	};
+	static final String[] DSN_PATTERNS = { 
+		"SYS1.**", "PROD.*.LOAD", "PROD.APP%.**.DATA", "**.LIST*", "PROD.**.G%%%%V00" 
+	};
+
+	public static void main(String[] args) throws Exception {
+		int numnames = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+
+		String[] members = generateMemberNames(numnames);
+		String[] dsns = generateDatasetNames(numnames);
+		System.out.println("names=" + numnames);
+
+		run("member", MEMBER_PATTERNS, members);
+		run("dsname", DSN_PATTERNS, dsns);
+	}
+
+	private static void run(String title, String[] patterns, String[] names) {
+		for (int p = 0; p < patterns.length; p++) {
+			String pattern = patterns[p];
+			int matches = check(pattern, names);
+			StringBuffer line = new StringBuffer(title + " " + pattern + ": matches=" + matches);
+			for (int method = 0; method < 2; method++) {
+				long best = Long.MAX_VALUE;
+				for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+					long start = System.nanoTime();
+					int count = method == 0
+								? regexMatch(pattern, names)
+								: globMatch(pattern, names);
+					long time = System.nanoTime() - start;
+					if (count != matches) {
+						throw new IllegalStateException("Unexpected match count");
+					}
+					if (i >= WARMUP && time < best) {
+						best = time;
+					}
+				}
+				line.append(method == 0 ? "  regex" : "  glob");
+				line.append(" ns/name=" + ((double)Math.round(best * 10.0 / names.length) / 10));
+			}
+			System.out.println(line);
+		}
+	}
+
+	/*
+	 * Check that both methods agree, and answer the number of matching names.
+	 */
+	private static int check(String pattern, String[] names) {
+		Pattern regex = Pattern.compile(toRegex(pattern));
+		GlobPattern glob = GlobPattern.compile(pattern);
+		int matches = 0;
+		for (int i = 0; i < names.length; i++) {
+			boolean expected = regex.matcher(names[i]).matches();
+			if (glob.matches(names[i]) != expected) {
+				throw new IllegalStateException("Pattern " + pattern 
+						+ " gives different results for " + names[i]);
+			}
+			if (expected) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+
+	static int regexMatch(String pattern, String[] names) {
+		Pattern regex = Pattern.compile(toRegex(pattern));
+		int count = 0;
+		for (int i = 0; i < names.length; i++) {
+			if (regex.matcher(names[i]).matches()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	static int globMatch(String pattern, String[] names) {
+		GlobPattern glob = GlobPattern.compile(pattern);
+		int count = 0;
+		for (int i = 0; i < names.length; i++) {
+			if (glob.matches(names[i])) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Make a regular expression for a wild card pattern, as for a 
+	 * catalog filter key.
+	 */
+	static String toRegex(String pattern) {
+		String[] quals = pattern.split("\\.");
+		StringBuffer patBuf = new StringBuffer("^");
+		for (int i=0; i<quals.length; i++) {
+			String qual = quals[i];
+			if (qual.equals(GlobPattern.ANY_QUALIFIERS)) {
+				if (quals.length == 1) {
+					patBuf.append(".*");
+				} else if (i == 0) {
+					patBuf.append("(?:[^.]+\\.)*");
+				} else {
+					patBuf.append("(?:\\.[^.]+)*");
+				}
+				continue;
+			}
+			if (i > 0 && !(i == 1 && quals[0].equals(GlobPattern.ANY_QUALIFIERS))) {
+				patBuf.append("\\.");
+			}
+			for (int j=0; j<qual.length(); j++) {
+				char c = qual.charAt(j);
+				switch (c) {
+				case '*':
+					patBuf.append("[^.]*");
+					break;
+				case '%':
+					patBuf.append("[^.]");
+					break;
+				case '$':
+					patBuf.append("\\$");
+					break;
+				default:
+					patBuf.append(c);
+				}
+			}
+		}
+		patBuf.append('$');
+		return patBuf.toString();
+	}
+
+	static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789#$@";
+
+	/*
+	 * Generate member names of 1 to 8 characters, some of which match the patterns.
+	 */
+	static String[] generateMemberNames(int count) {
+		String[] prefixes = { "PAY", "AB", "X", "" };
+		java.util.Random random = new java.util.Random(1);
+		String[] names = new String[count];
+		for (int i = 0; i < count; i++) {
+			StringBuffer name = new StringBuffer(prefixes[i % prefixes.length]);
+			if (name.length() == 0) {
+				name.append(ALPHABET.charAt(random.nextInt(26)));
+			}
+			int len = 1 + random.nextInt(8);
+			while (name.length() < len) {
+				name.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			}
+			names[i] = name.toString();
+		}
+		return names;
+	}
+
+	/*
+	 * Generate dataset names of 2 to 6 qualifiers.
+	 */
+	static String[] generateDatasetNames(int count) {
+		String[] hlqs = { "SYS1", "PROD", "TEST", "USER01" };
+		String[] lows = { "LOAD", "DATA", "LISTING", "G0001V00", "JCL" };
+		java.util.Random random = new java.util.Random(2);
+		String[] names = new String[count];
+		for (int i = 0; i < count; i++) {
+			StringBuffer name = new StringBuffer(hlqs[i % hlqs.length]);
+			int quals = random.nextInt(5);
+			for (int q = 0; q < quals; q++) {
+				name.append(q == 0 ? ".APP" : ".");
+				int len = 1 + random.nextInt(q == 0 ? 2 : 7);
+				for (int j = 0; j < len; j++) {
+					name.append(ALPHABET.charAt(random.nextInt(26)));
+				}
+			}
+			name.append('.').append(lows[random.nextInt(lows.length)]);
+			names[i] = name.toString();
+		}
+		return names;
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link DatasetAttributeProvider} that holds the attributes of a set of
+ * datasets in memory.
+ * <p/>
+ * This can stand in for {@link ZFileDatasetAttributeProvider} when z/OS
+ * datasets are not available, for example to exercise
+ * {@link CachingDatasetAttributeProvider}.  It counts the lookups made of it,
+ * each of which would be an open of the dataset on z/OS.
+ *
+ * @since 2.3.0
+ */
+public class InMemoryDatasetAttributeProvider implements DatasetAttributeProvider {
+
+	private Map datasets = new HashMap();  // dsn -> DatasetAttributes
+	private int lookups = 0;
+
+	/**
+	 * Add, or replace, the attributes of a dataset.
+	 */
+	public synchronized void add(DatasetAttributes attributes) {
+		datasets.put(attributes.getDsn().toUpperCase(), attributes);
+	}
+
+	/**
+	 * Add, or replace, the attributes of a dataset.
+	 */
+	public void add(String dsn, int recfmBits, int lrecl, int blksize, int dsorg) {
+		add(new DatasetAttributes(dsn.toUpperCase(), recfmBits, lrecl, blksize, dsorg));
+	}
+
+	/**
+	 * Remove a dataset.
+	 */
+	public synchronized void remove(String dsn) {
+		datasets.remove(dsn.toUpperCase());
+	}
+
+	public synchronized DatasetAttributes getAttributes(String dsn) {
+		lookups++;
+		return (DatasetAttributes)datasets.get(dsn.toUpperCase());
+	}
+
+	/**
+	 * Answer the number of lookups made.
+	 */
+	public synchronized int getLookups() {
+		return lookups;
+	}
+}
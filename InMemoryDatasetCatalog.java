@@ -0,0 +1,88 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A {@link DatasetCatalog} that holds a set of dataset names in memory.
+ * <p/>
+ * This can stand in for {@link CatalogSearchCatalog} when the z/OS catalog
+ * is not available, for example to exercise {@link CachingDatasetCatalog}.
+ * Names are answered in sorted order, as they would be by a catalog search.
+ *
+ * @since 2.3.0
+ */
+public class InMemoryDatasetCatalog implements DatasetCatalog {
+
+	private TreeSet names = new TreeSet();
+	private int searches = 0;
+
+	/**
+	 * Construct an empty catalog
+	 */
+	public InMemoryDatasetCatalog() {
+	}
+
+	/**
+	 * Construct a catalog holding the given dataset names
+	 */
+	public InMemoryDatasetCatalog(String[] dsns) {
+		for (int i=0; i<dsns.length; i++) {
+			add(dsns[i]);
+		}
+	}
+
+	/**
+	 * Add a dataset name to the catalog
+	 */
+	public synchronized void add(String dsn) {
+		names.add(dsn.toUpperCase());
+	}
+
+	/**
+	 * Remove a dataset name from the catalog
+	 */
+	public synchronized void remove(String dsn) {
+		names.remove(dsn.toUpperCase());
+	}
+
+	public synchronized List search(String filterKey) {
+		searches++;
+		DatasetNamePattern pattern = new DatasetNamePattern(filterKey);
+		List result = new ArrayList();
+		for (Iterator i = names.iterator(); i.hasNext(); ) {
+			String dsn = (String)i.next();
+			if (pattern.matches(dsn)) {
+				result.add(dsn);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Answer the number of searches made of this catalog.
+	 */
+	public synchronized int getSearchCount() {
+		return searches;
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+
+/**
+ * Sample program that compares the two ways of converting dataset records
+ * to a target encoding that have been used by {@link ZipDatasetSource}:
+ * <ul>
+ * <li>reader: decode text through an InputStreamReader into a char[] and
+ *     encode it through a new OutputStreamWriter (as for a dataset opened in text mode)</li>
+ * <li>table: convert each record byte-to-byte with a {@link TranscodingOutputStream}</li>
+ * </ul>
+ * Synthetic fixed length records are generated in memory, so this
+ * program does not need z/OS datasets and can be run on any platform.
+ * After a warmup, each method is timed over several iterations and the
+ * best time per record and throughput are reported.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.TranscodeBenchmark [sourceEncoding [targetEncoding [numrecs]]]</code>
+ * <br/>The defaults are IBM-1047, ISO8859-1 and 100000 records.
+ *
+ * @see TranscodingOutputStream
+ * @since 2.3.0
+ */
+public class TranscodeBenchmark {
+
+	static final int LRECL = 80;
+	static final int WARMUP = 5;
+	static final int ITERATIONS = 10;
+
+	public static void main(String[] args) throws Exception {
+		String sourceEncoding = args.length > 0 ? args[0] : "IBM-1047";
+		String targetEncoding = args.length > 1 ? args[1] : ZipDatasets.DEFAULT_TARGET_ENCODING;
+		int numrecs = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+
+		byte[] records = generateRecords(numrecs, sourceEncoding);
+		byte[] text = toText(records, sourceEncoding);
+		TranscodingOutputStream tos = new TranscodingOutputStream(new NullOutputStream(),
+																	sourceEncoding, targetEncoding);
+		System.out.println("source=" + sourceEncoding + " target=" + targetEncoding
+							+ " records=" + numrecs + " lrecl=" + LRECL
+							+ " singleByte=" + tos.isSingleByte());
+
+		for (int method = 0; method < 2; method++) {
+			String name = method == 0 ? "reader" : "table";
+			long best = Long.MAX_VALUE;
+			long bytesOut = 0;
+			for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+				NullOutputStream os = new NullOutputStream();
+				long start = System.nanoTime();
+				if (method == 0) {
+					readerCopy(text, sourceEncoding, os, targetEncoding);
+				} else {
+					tableCopy(records, sourceEncoding, os, targetEncoding);
+				}
+				long time = System.nanoTime() - start;
+				if (i >= WARMUP && time < best) {
+					best = time;
+				}
+				bytesOut = os.count;
+			}
+			double mbPerSec = (records.length / (1024.0 * 1024.0)) / (best / 1e9);
+			System.out.println(name
+								+ ": ns/record=" + (best / numrecs)
+								+ " MB/sec=" + Math.round(mbPerSec)
+								+ " bytes out=" + bytesOut);
+		}
+	}
+
+	/*
+	 * The text mode path: decode text to chars and encode them again.
+	 */
+	static void readerCopy(byte[] text, String sourceEncoding,
+							OutputStream os, String targetEncoding) throws IOException {
+		Reader reader = new InputStreamReader(new ByteArrayInputStream(text), sourceEncoding);
+		char[] cbuf = new char[ZipDatasetSource.BUFSIZE];
+		int nRead;
+		OutputStreamWriter osw = new OutputStreamWriter(os, targetEncoding);
+		while ((nRead = reader.read(cbuf)) != -1) {
+			osw.write(cbuf, 0, nRead);
+		}
+		osw.flush();
+	}
+
+	/*
+	 * The record mode path: convert each record byte-to-byte.
+	 */
+	static void tableCopy(byte[] records, String sourceEncoding,
+							OutputStream os, String targetEncoding) throws IOException {
+		TranscodingOutputStream tos = new TranscodingOutputStream(os, sourceEncoding, targetEncoding);
+		for (int off = 0; off < records.length; off += LRECL) {
+			tos.writeRecord(records, off, LRECL);
+		}
+		tos.finish();
+	}
+
+	/*
+	 * Generate blank padded fixed length records, like those in a source library.
+	 */
+	static byte[] generateRecords(int numrecs, String encoding) throws IOException {
+		String data = "       MVC   TARGET(8),SOURCE        COPY THE FIELD ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+		byte[] blank = " ".getBytes(encoding);
+		byte[] records = new byte[numrecs * LRECL];
+		for (int i = 0; i < numrecs; i++) {
+			int len = 20 + (i % (LRECL - 20));
+			byte[] rec = data.substring(0, Math.min(len, data.length())).getBytes(encoding);
+			int off = i * LRECL;
+			System.arraycopy(rec, 0, records, off, rec.length);
+			for (int j = rec.length; j < LRECL; j++) {
+				records[off + j] = blank[0];
+			}
+		}
+		return records;
+	}
+
+	/*
+	 * Convert records to the text that would be read from a dataset
+	 * opened in text mode: trailing blanks removed and new-lines added.
+	 */
+	static byte[] toText(byte[] records, String encoding) throws IOException {
+		byte blank = " ".getBytes(encoding)[0];
+		byte[] nl = "\n".getBytes(encoding);
+		byte[] text = new byte[records.length + (records.length / LRECL) * nl.length];
+		int count = 0;
+		for (int off = 0; off < records.length; off += LRECL) {
+			int len = LRECL;
+			while (len > 0 && records[off + len - 1] == blank) {
+				len--;
+			}
+			System.arraycopy(records, off, text, count, len);
+			count += len;
+			System.arraycopy(nl, 0, text, count, nl.length);
+			count += nl.length;
+		}
+		byte[] result = new byte[count];
+		System.arraycopy(text, 0, result, 0, count);
+		return result;
+	}
+
+	/**
+	 * An OutputStream which counts and discards its output.
+	 */
+	static class NullOutputStream extends OutputStream {
+		long count = 0;
+
+		public void write(int b) {
+			count++;
+		}
+
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,455 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An OutputStream that converts bytes written to it from a source encoding
+ * to a target encoding, without decoding them to a char[] or String.
+ * <p/>
+ * If both the source and the target encodings are single byte code pages
+ * (for example IBM-1047 and ISO8859-1), bytes are converted by a precomputed
+ * 256 byte translation table, which is shared by all instances for the same
+ * pair of encodings.  If only the source is a single byte code page, bytes
+ * are converted to chars by a 256 char table and then encoded by a
+ * {@link CharsetEncoder}.  Otherwise, a {@link CharsetDecoder} and
+ * {@link CharsetEncoder} are used.  In all cases, reusable buffers are used,
+ * and no objects are allocated per write once the stream has been constructed.
+ * <p/>
+ * Converted data is buffered and written to the underlying stream in blocks.
+ * {@link #finish()} flushes the data without closing the underlying stream.
+ * <p/>
+ * The {@link #writeRecord(byte[], int, int, boolean)} method mimics a dataset opened in
+ * text mode: a new-line is appended to each record, and trailing blanks are removed
+ * from fixed length records.
+ * Characters that cannot be mapped are replaced, as they would be by
+ * an {@link java.io.OutputStreamWriter}.
+ *
+ * @see ZipDatasetSource
+ * @since 2.3.0
+ */
+public class TranscodingOutputStream extends FilterOutputStream {
+
+	/** The buffer size used to hold converted data */
+	static final int BUFSIZE = ZipDatasetSource.BUFSIZE;
+
+	/** Translation tables, keyed by "source->target"; a null value if the pair is not single byte */
+	private static Map tables = new HashMap();
+
+	/** Decode tables, keyed by source name; a null value if the source is not single byte */
+	private static Map decodeTables = new HashMap();
+
+	private byte[] table;
+	private byte sourceBlank;
+	private byte[] newline;
+
+	private byte[] buf = new byte[BUFSIZE];
+	private int count = 0;
+
+	// Used only if there is no translation table
+	private char[] decodeTable;
+	private CharsetDecoder decoder;
+	private CharsetEncoder encoder;
+	private ByteBuffer inBuf;
+	private CharBuffer charBuf;
+	private ByteBuffer outBuf;
+
+	/**
+	 * Construct an instance which converts bytes from the source encoding
+	 * to the target encoding and writes them to the given OutputStream.
+	 * @param os the underlying OutputStream
+	 * @param sourceEncoding the encoding of the bytes written to this stream
+	 * @param targetEncoding the encoding of the bytes written to os
+	 * @throws UnsupportedEncodingException
+	 */
+	public TranscodingOutputStream(OutputStream os, String sourceEncoding, String targetEncoding)
+		throws UnsupportedEncodingException
+	{
+		super(os);
+		Charset source = forName(sourceEncoding);
+		Charset target = forName(targetEncoding);
+		table = getTable(source, target);
+		newline = "\n".getBytes(target.name());
+
+		byte[] blank = " ".getBytes(source.name());
+		sourceBlank = blank.length == 1 ? blank[0] : 0x40;
+
+		if (table == null) {
+			decodeTable = getDecodeTable(source);
+			if (decodeTable == null) {
+				decoder = newDecoder(source);
+				inBuf = ByteBuffer.allocate(BUFSIZE);
+			}
+			encoder = target.newEncoder()
+							.onMalformedInput(CodingErrorAction.REPLACE)
+							.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			charBuf = CharBuffer.allocate(BUFSIZE);
+			outBuf = ByteBuffer.wrap(buf);
+		}
+	}
+
+	/**
+	 * Answer true if bytes are converted by a translation table.
+	 */
+	public boolean isSingleByte() {
+		return table != null;
+	}
+
+	/**
+	 * Convert and write a single byte.
+	 */
+	public void write(int b) throws IOException {
+		if (table != null) {
+			if (count == buf.length) {
+				flushBuffer();
+			}
+			buf[count++] = table[b & 0xff];
+		} else {
+			write(new byte[] { (byte)b }, 0, 1);
+		}
+	}
+
+	/**
+	 * Convert and write len bytes from b, starting at off.
+	 */
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (table == null) {
+			if (decodeTable != null) {
+				translateAndEncode(b, off, len);
+			} else {
+				decodeAndEncode(b, off, len);
+			}
+			return;
+		}
+		byte[] tbl = table;
+		byte[] out = buf;
+		while (len > 0) {
+			if (count == out.length) {
+				flushBuffer();
+			}
+			int n = Math.min(len, out.length - count);
+			int j = count - off;
+			int end = off + n;
+			for (int i = off; i < end; i++) {
+				out[i + j] = tbl[b[i] & 0xff];
+			}
+			count += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/**
+	 * Write a fixed length record as a line of text: trailing blanks are removed, 
+	 * the remaining bytes are converted, and a new-line is written in the
+	 * target encoding.
+	 * @param rec the record data, in the source encoding
+	 * @param off the offset of the record in rec
+	 * @param len the length of the record
+	 * @throws IOException
+	 */
+	public void writeRecord(byte[] rec, int off, int len) throws IOException {
+		writeRecord(rec, off, len, true);
+	}
+
+	/**
+	 * Write a record as a line of text: the bytes are converted, and a 
+	 * new-line is written in the target encoding.
+	 * @param rec the record data, in the source encoding
+	 * @param off the offset of the record in rec
+	 * @param len the length of the record
+	 * @param stripBlanks true if trailing blanks are removed, as they are 
+	 * 			from fixed length records read in text mode
+	 * @throws IOException
+	 */
+	public void writeRecord(byte[] rec, int off, int len, boolean stripBlanks) throws IOException {
+		if (stripBlanks) {
+			while (len > 0 && rec[off + len - 1] == sourceBlank) {
+				len--;
+			}
+		}
+		write(rec, off, len);
+		if (table != null) {
+			if (count + newline.length > buf.length) {
+				flushBuffer();
+			}
+			System.arraycopy(newline, 0, buf, count, newline.length);
+			count += newline.length;
+		} else {
+			if (decoder != null) {
+				drainDecoder();
+			}
+			appendChar('\n');
+		}
+	}
+
+	/**
+	 * Write any buffered data to the underlying stream, without closing it.
+	 * For stateful encodings, any shift state is reset.
+	 */
+	public void finish() throws IOException {
+		if (table == null) {
+			if (decoder != null) {
+				drainDecoder();
+			}
+			encodeChars(true);
+			while (encoder.flush(outBuf).isOverflow()) {
+				flushBuffer();
+			}
+			encoder.reset();
+		}
+		flushBuffer();
+	}
+
+	/**
+	 * Write any buffered data and flush the underlying stream.
+	 */
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	/**
+	 * Finish and close the underlying stream.
+	 */
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			out.close();
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (table == null) {
+			count = outBuf.position();
+			outBuf.clear();
+		}
+		if (count > 0) {
+			out.write(buf, 0, count);
+			count = 0;
+		}
+	}
+
+	/*
+	 * Convert single byte source bytes into charBuf using the decode table,
+	 * encoding them whenever it fills.
+	 */
+	private void translateAndEncode(byte[] b, int off, int len) throws IOException {
+		char[] tbl = decodeTable;
+		char[] chars = charBuf.array();
+		while (len > 0) {
+			if (!charBuf.hasRemaining()) {
+				encodeChars(false);
+			}
+			int pos = charBuf.position();
+			int n = Math.min(len, charBuf.remaining());
+			int j = pos - off;
+			int end = off + n;
+			for (int i = off; i < end; i++) {
+				chars[i + j] = tbl[b[i] & 0xff];
+			}
+			charBuf.position(pos + n);
+			off += n;
+			len -= n;
+		}
+	}
+
+	/*
+	 * Decode bytes into charBuf, encoding them whenever it fills.
+	 * Any bytes of an incomplete character are kept in inBuf.
+	 */
+	private void decodeAndEncode(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			int n = Math.min(len, inBuf.remaining());
+			inBuf.put(b, off, n);
+			off += n;
+			len -= n;
+			inBuf.flip();
+			CoderResult cr;
+			do {
+				cr = decoder.decode(inBuf, charBuf, false);
+				encodeChars(false);
+			} while (cr.isOverflow());
+			inBuf.compact();
+		}
+	}
+
+	/*
+	 * Decode any remaining bytes, including those held by the decoder.
+	 */
+	private void drainDecoder() throws IOException {
+		inBuf.flip();
+		while (decoder.decode(inBuf, charBuf, true).isOverflow()) {
+			encodeChars(false);
+		}
+		while (decoder.flush(charBuf).isOverflow()) {
+			encodeChars(false);
+		}
+		inBuf.clear();
+		decoder.reset();
+		encodeChars(false);
+	}
+
+	private void appendChar(char c) throws IOException {
+		if (!charBuf.hasRemaining()) {
+			encodeChars(false);
+		}
+		charBuf.put(c);
+		encodeChars(false);
+	}
+
+	/*
+	 * Encode the chars in charBuf into outBuf, flushing outBuf whenever it fills.
+	 */
+	private void encodeChars(boolean endOfInput) throws IOException {
+		charBuf.flip();
+		while (encoder.encode(charBuf, outBuf, endOfInput).isOverflow()) {
+			flushBuffer();
+		}
+		charBuf.compact();
+	}
+
+	private static Charset forName(String encoding) throws UnsupportedEncodingException {
+		try {
+			return Charset.forName(encoding);
+		} catch (IllegalArgumentException iae) {
+			throw new UnsupportedEncodingException(encoding);
+		}
+	}
+
+	/**
+	 * Answer the shared translation table for a pair of encodings,
+	 * or null if either encoding is not a simple single byte code page.
+	 */
+	static byte[] getTable(Charset source, Charset target) {
+		String key = source.name() + "->" + target.name();
+		synchronized (tables) {
+			if (tables.containsKey(key)) {
+				return (byte[])tables.get(key);
+			}
+			byte[] table = buildTable(source, target);
+			tables.put(key, table);
+			return table;
+		}
+	}
+
+	/**
+	 * Answer the shared 256 char decode table for an encoding, or null
+	 * if it is not a simple single byte code page.
+	 */
+	static char[] getDecodeTable(Charset source) {
+		String key = source.name();
+		synchronized (decodeTables) {
+			if (decodeTables.containsKey(key)) {
+				return (char[])decodeTables.get(key);
+			}
+			char[] table = buildDecodeTable(source);
+			decodeTables.put(key, table);
+			return table;
+		}
+	}
+
+	/**
+	 * Build a 256 char table by decoding each source byte.  Answers null if 
+	 * the source is not a single byte encoding, or if any source byte does
+	 * not decode to exactly one char; a multibyte encoding such as UTF-8
+	 * would otherwise decode each lone byte of a sequence to a replacement.
+	 */
+	private static char[] buildDecodeTable(Charset source) {
+		if (!source.canEncode() || source.newEncoder().maxBytesPerChar() != 1.0f) {
+			return null;
+		}
+		CharsetDecoder dec = source.newDecoder()
+								.onMalformedInput(CodingErrorAction.REPORT)
+								.onUnmappableCharacter(CodingErrorAction.REPORT);
+		if (dec.maxCharsPerByte() != 1.0f) {
+			return null;
+		}
+		char[] table = new char[256];
+		byte[] one = new byte[1];
+		try {
+			for (int i = 0; i < 256; i++) {
+				one[0] = (byte)i;
+				CharBuffer chars = dec.reset().decode(ByteBuffer.wrap(one));
+				if (chars.remaining() != 1 || chars.get(0) == '\uFFFD') {
+					return null;
+				}
+				table[i] = chars.get(0);
+			}
+		} catch (CharacterCodingException cce) {
+			return null;
+		}
+		return table;
+	}
+
+	private static CharsetDecoder newDecoder(Charset source) {
+		return source.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * Build a 256 byte table by decoding each source byte to a single char
+	 * and encoding that char to a single target byte.  Answers null if
+	 * any source byte does not decode to exactly one char (e.g. a DBCS
+	 * shift code), or if the target is not a single byte encoding.
+	 */
+	private static byte[] buildTable(Charset source, Charset target) {
+		char[] chars = getDecodeTable(source);
+		if (chars == null || !target.canEncode()) {
+			return null;
+		}
+		CharsetEncoder enc = target.newEncoder()
+								.onMalformedInput(CodingErrorAction.REPLACE)
+								.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		if (enc.maxBytesPerChar() != 1.0f) {
+			return null;
+		}
+		byte[] table = new byte[256];
+		char[] one = new char[1];
+		try {
+			for (int i = 0; i < 256; i++) {
+				one[0] = chars[i];
+				ByteBuffer bytes = enc.reset().encode(CharBuffer.wrap(one));
+				if (bytes.remaining() != 1) {
+					return null;
+				}
+				table[i] = bytes.get(0);
+			}
+		} catch (CharacterCodingException cce) {
+			return null;
+		}
+		return table;
+	}
+}
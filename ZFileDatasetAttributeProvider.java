@@ -0,0 +1,48 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import com.ibm.jzos.ZFile;
+import com.ibm.jzos.ZFileException;
+
+/**
+ * A {@link DatasetAttributeProvider} that opens each dataset with {@link ZFile}
+ * and reads all of its attributes from the one open.
+ *
+ * @since 2.3.0
+ */
+public class ZFileDatasetAttributeProvider implements DatasetAttributeProvider {
+
+	public DatasetAttributes getAttributes(String dsn) throws ZFileException {
+		String zFileDsn = ZFile.getSlashSlashQuotedDSN(dsn, true);
+		if (!ZFile.dsExists(zFileDsn)) {
+			return null;
+		}
+		ZFile zfile = new ZFile(zFileDsn, "rb,type=record,noseek");
+		try {
+			return new DatasetAttributes(dsn,
+										zfile.getRecfmBits(),
+										zfile.getLrecl(),
+										zfile.getBlksize(),
+										zfile.getDsorg());
+		} finally {
+			zfile.close();
+		}
+	}
+}
@@ -0,0 +1,394 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipException;
+
+import com.ibm.jzos.ZFile;
+
+/**
+ * Reads the central directory of an existing Zip archive, so that its
+ * entries can be copied to a new archive by a {@link ZipArchiveWriter} 
+ * without inflating and deflating their data.
+ * <p/>
+ * The archive may be a Unix file, or a dataset ("//A.B.C" or "//DD:name")
+ * which is opened in binary mode with "byteseek", so that it can be
+ * read at any offset.  ZIP64 archives and entries are supported.
+ * <p/>
+ * Each entry's comment is also read: this is where {@link ZipArchiveWriter}
+ * records the stamp of the source of each entry, so the central directory
+ * serves as a manifest of the sources in the archive.
+ *
+ * @see ZipArchiveWriter#copyEntry(ZipArchiveReader, ZipArchiveReader.Entry)
+ * @see ZipDatasets
+ * @since 2.3.0
+ */
+public class ZipArchiveReader {
+
+	/** The size of the end of central directory record, without a comment */
+	static final int END_SIZE = 22;
+
+	/** The size of the ZIP64 end of central directory locator */
+	static final int ZIP64_LOC_SIZE = 20;
+
+	/** The size of a local file header, without its name and extra field */
+	static final int LOC_SIZE = 30;
+
+	/** The size of a central directory header, without its name, extra field and comment */
+	static final int CEN_SIZE = 46;
+
+	private String name;
+	private Input input;
+	private List entries = new ArrayList();
+	private Map entriesByName = new HashMap();
+
+	/**
+	 * Open an archive and read its central directory.
+	 * @param name the name of a Unix file, or of a "//" dataset or DD
+	 * @throws IOException if the archive cannot be read, or is not a Zip archive
+	 */
+	public ZipArchiveReader(String name) throws IOException {
+		this.name = name;
+		this.input = name.startsWith(ZipDatasetSource.SLASH_SLASH_PREFIX) 
+						? (Input)new DatasetInput(name) 
+						: (Input)new FileInput(new File(name));
+		try {
+			readCentralDirectory();
+		} catch (IOException ioe) {
+			close();
+			throw ioe;
+		}
+	}
+
+	/**
+	 * Answer the entries in the archive, in central directory order.
+	 * @return a List of {@link Entry}
+	 */
+	public List getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Answer the entry with the given name, or null if there is none.
+	 */
+	public Entry getEntry(String entryName) {
+		return (Entry)entriesByName.get(entryName);
+	}
+
+	/**
+	 * Answer the entry for the given source if it is unchanged: that is, 
+	 * if the source has a stamp and the entry of the same name was written
+	 * from a source with the same stamp and target encoding.  
+	 * Otherwise answer null.
+	 * @see ZipArchiveWriter#makeStamp(ZipEntrySource, String)
+	 */
+	public Entry getUnchangedEntry(ZipEntrySource source, String targetEncoding) {
+		String stamp = ZipArchiveWriter.makeStamp(source, targetEncoding);
+		if (stamp == null) {
+			return null;
+		}
+		Entry entry = getEntry(source.getEntryName());
+		if (entry == null || entry.isEncrypted() || !stamp.equals(entry.comment)) {
+			return null;
+		}
+		return entry;
+	}
+
+	/**
+	 * Copy the compressed data of the given entry to the given OutputStream.
+	 * @param entry an entry of this archive
+	 * @param os the target OutputStream
+	 * @throws IOException
+	 */
+	public void copyRawData(Entry entry, OutputStream os) throws IOException {
+		// The local header's name and extra field lengths may differ from 
+		// the central directory's, so read them to find the data
+		byte[] loc = new byte[LOC_SIZE];
+		input.seek(entry.offset);
+		readFully(loc, LOC_SIZE);
+		if (getInt(loc, 0) != ZipArchiveWriter.LOCSIG) {
+			throw new ZipException("Invalid local header for " + entry.name + " in " + name);
+		}
+		input.seek(entry.offset + LOC_SIZE + getShort(loc, 26) + getShort(loc, 28));
+		byte[] buf = new byte[ZipDatasetSource.BUFSIZE];
+		long remaining = entry.csize;
+		while (remaining > 0) {
+			int n = (int)Math.min(buf.length, remaining);
+			readFully(buf, n);
+			os.write(buf, 0, n);
+			remaining -= n;
+		}
+	}
+
+	/**
+	 * Close the archive
+	 */
+	public void close() throws IOException {
+		input.close();
+	}
+
+	/*
+	 * Find the end of central directory record, which is followed only
+	 * by the archive comment, and read the central directory headers.
+	 */
+	private void readCentralDirectory() throws IOException {
+		long length = input.length();
+		int tailLength = (int)Math.min(length, END_SIZE + ZipArchiveWriter.MAX_16 + ZIP64_LOC_SIZE);
+		byte[] tail = new byte[tailLength];
+		input.seek(length - tailLength);
+		readFully(tail, tailLength);
+		int end = -1;
+		for (int i = tailLength - END_SIZE; i >= 0; i--) {
+			if (getInt(tail, i) == ZipArchiveWriter.ENDSIG
+					&& i + END_SIZE + getShort(tail, i + 20) == tailLength) {
+				end = i;
+				break;
+			}
+		}
+		if (end < 0) {
+			throw new ZipException("Not a Zip archive: " + name);
+		}
+		long count = getShort(tail, end + 10);
+		long cenLength = getInt(tail, end + 12);
+		long cenOffset = getInt(tail, end + 16);
+
+		// If there is a ZIP64 locator, the ZIP64 end record has the real values
+		int loc = end - ZIP64_LOC_SIZE;
+		if (loc >= 0 && getInt(tail, loc) == ZipArchiveWriter.ZIP64_LOCSIG) {
+			byte[] end64 = new byte[56];
+			input.seek(getLong(tail, loc + 8));
+			readFully(end64, end64.length);
+			if (getInt(end64, 0) != ZipArchiveWriter.ZIP64_ENDSIG) {
+				throw new ZipException("Invalid ZIP64 end record in " + name);
+			}
+			count = getLong(end64, 32);
+			cenLength = getLong(end64, 40);
+			cenOffset = getLong(end64, 48);
+		}
+		if (cenLength > Integer.MAX_VALUE) {
+			throw new ZipException("Central directory too large in " + name);
+		}
+
+		byte[] cen = new byte[(int)cenLength];
+		input.seek(cenOffset);
+		readFully(cen, cen.length);
+		int pos = 0;
+		for (long i = 0; i < count; i++) {
+			if (pos + CEN_SIZE > cen.length || getInt(cen, pos) != ZipArchiveWriter.CENSIG) {
+				throw new ZipException("Invalid central directory in " + name);
+			}
+			Entry entry = new Entry();
+			entry.flags = getShort(cen, pos + 8);
+			entry.method = getShort(cen, pos + 10);
+			entry.dosTime = getInt(cen, pos + 12);
+			entry.crc = getInt(cen, pos + 16);
+			entry.csize = getInt(cen, pos + 20);
+			entry.size = getInt(cen, pos + 24);
+			int nameLength = getShort(cen, pos + 28);
+			int extraLength = getShort(cen, pos + 30);
+			int commentLength = getShort(cen, pos + 32);
+			entry.offset = getInt(cen, pos + 42);
+			pos += CEN_SIZE;
+			String encoding = (entry.flags & ZipArchiveWriter.FLAG_UTF8) != 0 ? "UTF-8" : "Cp437";
+			entry.name = decode(cen, pos, nameLength, encoding);
+			pos += nameLength;
+			readZip64Extra(entry, cen, pos, extraLength);
+			pos += extraLength;
+			entry.comment = commentLength == 0 ? null : decode(cen, pos, commentLength, encoding);
+			pos += commentLength;
+			entries.add(entry);
+			entriesByName.put(entry.name, entry);
+		}
+	}
+
+	/*
+	 * Replace any central directory fields that are given in a ZIP64 extra field.
+	 */
+	private static void readZip64Extra(Entry entry, byte[] b, int off, int len) {
+		int end = off + len;
+		while (off + 4 <= end) {
+			int id = getShort(b, off);
+			int size = getShort(b, off + 2);
+			off += 4;
+			if (id == ZipArchiveWriter.ZIP64_EXTRA_ID) {
+				int p = off;
+				if (entry.size == ZipArchiveWriter.MAX_32 && p + 8 <= off + size) {
+					entry.size = getLong(b, p);
+					p += 8;
+				}
+				if (entry.csize == ZipArchiveWriter.MAX_32 && p + 8 <= off + size) {
+					entry.csize = getLong(b, p);
+					p += 8;
+				}
+				if (entry.offset == ZipArchiveWriter.MAX_32 && p + 8 <= off + size) {
+					entry.offset = getLong(b, p);
+				}
+			}
+			off += size;
+		}
+	}
+
+	private void readFully(byte[] b, int len) throws IOException {
+		int off = 0;
+		while (off < len) {
+			int n = input.read(b, off, len - off);
+			if (n < 0) {
+				throw new ZipException("Unexpected end of " + name);
+			}
+			off += n;
+		}
+	}
+
+	private static String decode(byte[] b, int off, int len, String encoding) 
+		throws UnsupportedEncodingException 
+	{
+		return new String(b, off, len, encoding);
+	}
+
+	static int getShort(byte[] b, int off) {
+		return (b[off] & 0xff) | ((b[off + 1] & 0xff) << 8);
+	}
+
+	static long getInt(byte[] b, int off) {
+		return getShort(b, off) | ((long)getShort(b, off + 2) << 16);
+	}
+
+	static long getLong(byte[] b, int off) {
+		return getInt(b, off) | (getInt(b, off + 4) << 32);
+	}
+
+	/**
+	 * An entry in the central directory of an archive.
+	 */
+	public static class Entry {
+		String name;
+		String comment;
+		int flags;
+		int method;
+		long dosTime;
+		long crc;
+		long size;
+		long csize;
+		long offset;
+
+		/** Answer the entry name */
+		public String getName() {
+			return name;
+		}
+
+		/** Answer the entry comment, or null if there is none */
+		public String getComment() {
+			return comment;
+		}
+
+		/** Answer the compression method */
+		public int getMethod() {
+			return method;
+		}
+
+		/** Answer the CRC-32 of the uncompressed data */
+		public long getCrc() {
+			return crc;
+		}
+
+		/** Answer the uncompressed size */
+		public long getSize() {
+			return size;
+		}
+
+		/** Answer the compressed size */
+		public long getCompressedSize() {
+			return csize;
+		}
+
+		/** Answer true if the entry's data is encrypted, and so cannot be copied */
+		public boolean isEncrypted() {
+			return (flags & 1) != 0;
+		}
+	}
+
+	/**
+	 * The random access input that an archive is read from.
+	 */
+	private interface Input {
+		long length() throws IOException;
+		void seek(long pos) throws IOException;
+		int read(byte[] b, int off, int len) throws IOException;
+		void close() throws IOException;
+	}
+
+	private static class FileInput implements Input {
+		private RandomAccessFile file;
+
+		FileInput(File f) throws IOException {
+			file = new RandomAccessFile(f, "r");
+		}
+
+		public long length() throws IOException {
+			return file.length();
+		}
+
+		public void seek(long pos) throws IOException {
+			file.seek(pos);
+		}
+
+		public int read(byte[] b, int off, int len) throws IOException {
+			return file.read(b, off, len);
+		}
+
+		public void close() throws IOException {
+			file.close();
+		}
+	}
+
+	private static class DatasetInput implements Input {
+		private ZFile zfile;
+
+		DatasetInput(String name) throws IOException {
+			// "byteseek" allows seeking to byte offsets in a binary dataset
+			zfile = new ZFile(ZFile.getSlashSlashQuotedDSN(name, true), "rb,byteseek");
+		}
+
+		public long length() throws IOException {
+			zfile.seek(0, ZFile.SEEK_END);
+			return zfile.tell();
+		}
+
+		public void seek(long pos) throws IOException {
+			zfile.seek(pos, ZFile.SEEK_SET);
+		}
+
+		public int read(byte[] b, int off, int len) throws IOException {
+			return zfile.read(b, off, len);
+		}
+
+		public void close() throws IOException {
+			zfile.close();
+		}
+	}
+}
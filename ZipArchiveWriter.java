@@ -0,0 +1,556 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * A minimal Zip archive writer that adds entries whose data has already
+ * been compressed, or that compresses entries as they are streamed to it.
+ * <p/>
+ * {@link java.util.zip.ZipOutputStream} always deflates the data written to it
+ * on the calling thread, so it cannot be used to add entries that were
+ * compressed ahead of time by a {@link ZipEntryCompressor}.  This class writes the
+ * local file headers, the raw (pre-compressed) entry data and the central
+ * directory itself, in the order that entries are added.
+ * Since the CRC and sizes of a pre-compressed entry are known before it 
+ * is written, no data descriptor is used for it.
+ * <p/>
+ * {@link #writeEntry(ZipEntrySource, String, CompressionPolicy)} instead deflates 
+ * the data of an entry directly to the archive as it is read, and follows it with
+ * a data descriptor, so that no entry is held in memory.  Since the method of
+ * an entry is written before its data, data that the policy chooses not to 
+ * compress is deflated with no compression rather than stored.
+ * <p/>
+ * {@link #copyEntry(ZipArchiveReader, ZipArchiveReader.Entry)} copies an entry
+ * from an existing archive without inflating its data, so that an archive
+ * can be updated incrementally.  To support this, the comment of each entry
+ * in the central directory records a stamp of the entry's source
+ * (see {@link #makeStamp(ZipEntrySource, String)}); an entry whose source has
+ * the same stamp when the archive is next written is unchanged.
+ * <p/>
+ * ZIP64 extensions are written when they are needed: for entries of 4 GB or more,
+ * entries that start beyond 4 GB in the archive, or archives of more than 65535 entries.
+ * Other entries are written without them, so that small archives can be read
+ * by any unzip program.
+ *
+ * @see ZipEntryCompressor
+ * @see ZipDatasets
+ * @since 2.3.0
+ */
+public class ZipArchiveWriter {
+
+	static final int LOCSIG = 0x04034b50;
+	static final int EXTSIG = 0x08074b50;
+	static final int CENSIG = 0x02014b50;
+	static final int ZIP64_ENDSIG = 0x06064b50;
+	static final int ZIP64_LOCSIG = 0x07064b50;
+	static final int ENDSIG = 0x06054b50;
+
+	/** Version needed to extract: 1.0 for STORED, 2.0 for DEFLATED, 4.5 for ZIP64 */
+	static final int VERSION_STORED = 10;
+	static final int VERSION_DEFLATED = 20;
+	static final int VERSION_ZIP64 = 45;
+
+	/** General purpose flag bit 3: sizes and CRC follow the data in a data descriptor */
+	static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+
+	/** General purpose flag bit 11: entry names are encoded in UTF-8 */
+	static final int FLAG_UTF8 = 0x0800;
+
+	/** The header ID of the ZIP64 extended information extra field */
+	static final int ZIP64_EXTRA_ID = 0x0001;
+
+	/** The size of the ZIP64 end of central directory record, less the leading 12 bytes */
+	static final int ZIP64_END_SIZE = 44;
+
+	static final long MAX_32 = 0xFFFFFFFFL;
+	static final int MAX_16 = 0xFFFF;
+
+	private OutputStream os;
+	private long written = 0;
+	private List entries = new ArrayList();
+	private boolean finished = false;
+
+	/**
+	 * Construct an instance that writes a Zip archive to the given OutputStream
+	 */
+	public ZipArchiveWriter(OutputStream os) {
+		this.os = os;
+	}
+
+	/**
+	 * Add an entry, writing its local header followed by its compressed data.
+	 * @param entry a compressed entry
+	 * @throws IOException
+	 */
+	public void addEntry(ZipEntryCompressor.CompressedEntry entry) throws IOException {
+		checkNotFinished();
+		Header hdr = new Header(entry.getName(), entry.getMethod(), entry.getTime(), written);
+		hdr.crc = entry.getCrc();
+		hdr.size = entry.getSize();
+		hdr.csize = entry.getCompressedSize();
+		hdr.setComment(entry.getStamp());
+		writeLocalHeader(hdr);
+		entry.writeCompressedData(os);
+		written += hdr.csize;
+		entries.add(hdr);
+	}
+
+	/**
+	 * Add an entry copied from another archive, writing a new local header
+	 * followed by the entry's compressed data, which is not inflated.
+	 * The entry's time, CRC and comment are kept.
+	 * @param reader the archive to copy from
+	 * @param entry an entry of the reader's archive, which is not encrypted
+	 * @throws IOException
+	 */
+	public void copyEntry(ZipArchiveReader reader, ZipArchiveReader.Entry entry) throws IOException {
+		checkNotFinished();
+		Header hdr = new Header(entry.getName(), entry.getMethod(), 0, written);
+		hdr.dosTime = entry.dosTime;
+		hdr.crc = entry.getCrc();
+		hdr.size = entry.getSize();
+		hdr.csize = entry.getCompressedSize();
+		hdr.setComment(entry.getComment());
+		writeLocalHeader(hdr);
+		CountingOutputStream cos = new CountingOutputStream(os);
+		reader.copyRawData(entry, cos);
+		written += cos.count;
+		entries.add(hdr);
+	}
+
+	/**
+	 * Write the local header of an entry whose CRC and sizes are known.
+	 */
+	private void writeLocalHeader(Header hdr) throws IOException {
+		boolean zip64 = hdr.size >= MAX_32 || hdr.csize >= MAX_32;
+		if (zip64) {
+			hdr.version = VERSION_ZIP64;
+		}
+		writeInt(LOCSIG);
+		writeShort(hdr.version);
+		writeShort(hdr.flags);
+		writeShort(hdr.method);
+		writeInt(hdr.dosTime);
+		writeInt(hdr.crc);
+		writeInt(zip64 ? MAX_32 : hdr.csize);
+		writeInt(zip64 ? MAX_32 : hdr.size);
+		writeShort(hdr.nameBytes.length);
+		writeShort(zip64 ? 20 : 0);  // extra field length
+		writeBytes(hdr.nameBytes);
+		if (zip64) {
+			// the local ZIP64 extra field must contain both sizes
+			writeShort(ZIP64_EXTRA_ID);
+			writeShort(16);
+			writeLong(hdr.size);
+			writeLong(hdr.csize);
+		}
+	}
+
+	/**
+	 * Add an entry by reading the given source and deflating its data
+	 * directly to the archive, followed by a data descriptor.
+	 * If the source fails, the data read so far is completed as an entry 
+	 * so that the archive remains readable, and the exception is thrown.
+	 * @param source the source of the entry's data
+	 * @param targetEncoding the codepage used to encode the data
+	 * @return a CompressedEntry giving the sizes and CRC of the entry that was written
+	 * @throws IOException
+	 */
+	public ZipEntryCompressor.CompressedEntry writeEntry(ZipEntrySource source, String targetEncoding) 
+	throws IOException {
+		return writeEntry(source, targetEncoding, new CompressionPolicy());
+	}
+
+	/**
+	 * Add an entry by reading the given source and deflating its data
+	 * directly to the archive, at a level chosen by the given policy,
+	 * followed by a data descriptor.
+	 * If the source fails, the data read so far is completed as an entry 
+	 * so that the archive remains readable, and the exception is thrown.
+	 * @param source the source of the entry's data
+	 * @param targetEncoding the codepage used to encode the data
+	 * @param policy the policy that chooses the level, and to which the CPU time is added
+	 * @return a CompressedEntry giving the sizes, CRC, level and CPU time 
+	 * 			of the entry that was written
+	 * @throws IOException
+	 */
+	public ZipEntryCompressor.CompressedEntry writeEntry(ZipEntrySource source, String targetEncoding,
+															CompressionPolicy policy) throws IOException {
+		checkNotFinished();
+		long cpuStart = CompressionPolicy.currentThreadCpuTime();
+		Header hdr = new Header(source.getEntryName(), ZipEntry.DEFLATED, 
+								System.currentTimeMillis(), written);
+		hdr.flags |= FLAG_DATA_DESCRIPTOR;
+		// The stamp is taken before the data is read, but only recorded 
+		// if all of it is, so a failed entry is never taken as unchanged
+		String stamp = makeStamp(source, targetEncoding);
+
+		// The local header is written when the first compressed data is, 
+		// since a source may only resolve its entry name when it is opened
+		DeferredHeaderOutputStream dhos = new DeferredHeaderOutputStream(hdr, source);
+		CountingOutputStream cos = new CountingOutputStream(dhos);
+		CompressionPolicy.EntryOutputStream eos = new CompressionPolicy.EntryOutputStream(cos, policy, false);
+		ZipEntryCompressor.CrcOutputStream crcos = null;
+		try {
+			crcos = new ZipEntryCompressor.CrcOutputStream(eos);
+			try {
+				source.copyTo(crcos, targetEncoding);
+				hdr.setComment(stamp);
+			} finally {
+				// complete the entry, even if the source failed
+				eos.finish();
+				dhos.writeHeader();
+				written += cos.count;
+				hdr.crc = crcos.getCrc();
+				hdr.size = crcos.getCount();
+				hdr.csize = cos.count;
+				writeDataDescriptor(hdr);
+				entries.add(hdr);
+			}
+		} finally {
+			eos.end();
+		}
+		ZipEntryCompressor.CompressedEntry entry = 
+			new ZipEntryCompressor.CompressedEntry(source.getEntryName(), hdr.method,
+													hdr.crc, hdr.size, hdr.time, null);
+		entry.compressedSize = hdr.csize;
+		entry.level = eos.getLevel();
+		entry.cpuTime = CompressionPolicy.currentThreadCpuTime() - cpuStart;
+		policy.addCpuTime(entry.cpuTime);
+		return entry;
+	}
+
+	/**
+	 * Write the local header of a streamed entry, whose CRC and sizes
+	 * follow its data in a data descriptor.
+	 */
+	private void writeStreamedLocalHeader(Header hdr) throws IOException {
+		writeInt(LOCSIG);
+		writeShort(hdr.version);
+		writeShort(hdr.flags);
+		writeShort(hdr.method);
+		writeInt(hdr.dosTime);
+		writeInt(0);  // crc
+		writeInt(0);  // compressed size
+		writeInt(0);  // size
+		writeShort(hdr.nameBytes.length);
+		writeShort(0);  // extra field length
+		writeBytes(hdr.nameBytes);
+	}
+
+	/**
+	 * An OutputStream to the archive that writes the local header of a
+	 * streamed entry before the entry's first byte, taking the entry name 
+	 * from the source at that point.
+	 */
+	private class DeferredHeaderOutputStream extends OutputStream {
+		private Header hdr;
+		private ZipEntrySource source;
+		private boolean headerWritten = false;
+
+		DeferredHeaderOutputStream(Header hdr, ZipEntrySource source) {
+			this.hdr = hdr;
+			this.source = source;
+		}
+
+		/**
+		 * Write the local header, if it has not already been written.
+		 */
+		void writeHeader() throws IOException {
+			if (!headerWritten) {
+				headerWritten = true;
+				hdr.setName(source.getEntryName());
+				writeStreamedLocalHeader(hdr);
+			}
+		}
+
+		public void write(int b) throws IOException {
+			writeHeader();
+			os.write(b);
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException {
+			writeHeader();
+			os.write(b, off, len);
+		}
+
+		public void close() throws IOException {
+			flush();
+		}
+	}
+
+	/**
+	 * Answer the stamp recorded as the comment of an entry: the source's
+	 * own stamp, and the target encoding of its data.  Answers null if the
+	 * source has no stamp.
+	 * @see ZipEntrySource#getStamp()
+	 */
+	public static String makeStamp(ZipEntrySource source, String targetEncoding) {
+		String stamp = source.getStamp();
+		return stamp == null ? null : stamp + ";encoding=" + targetEncoding;
+	}
+
+	/**
+	 * Write the data descriptor that follows a streamed entry.  As with
+	 * {@link java.util.zip.ZipOutputStream}, the sizes are eight bytes long if
+	 * either of them needs ZIP64, and four bytes long otherwise.
+	 */
+	private void writeDataDescriptor(Header hdr) throws IOException {
+		writeInt(EXTSIG);
+		writeInt(hdr.crc);
+		if (hdr.size >= MAX_32 || hdr.csize >= MAX_32) {
+			hdr.version = VERSION_ZIP64;
+			writeLong(hdr.csize);
+			writeLong(hdr.size);
+		} else {
+			writeInt(hdr.csize);
+			writeInt(hdr.size);
+		}
+	}
+
+	private void checkNotFinished() throws ZipException {
+		if (finished) {
+			throw new ZipException("Zip archive already finished");
+		}
+	}
+
+	/**
+	 * Answer the number of bytes written so far.
+	 */
+	public long getBytesWritten() {
+		return written;
+	}
+
+	/**
+	 * Answer the number of entries written so far.
+	 */
+	public int getEntryCount() {
+		return entries.size();
+	}
+
+	/**
+	 * Write the central directory.  No more entries may be added.
+	 * The underlying OutputStream is flushed but not closed.
+	 * @throws IOException
+	 */
+	public void finish() throws IOException {
+		if (finished) {
+			return;
+		}
+		finished = true;
+		long cenOffset = written;
+		for (Iterator i = entries.iterator(); i.hasNext(); ) {
+			Header hdr = (Header)i.next();
+			// Any field too large for its central directory field is
+			// given in a ZIP64 extra field instead, in this order
+			boolean size64 = hdr.size >= MAX_32;
+			boolean csize64 = hdr.csize >= MAX_32;
+			boolean offset64 = hdr.offset >= MAX_32;
+			int extraLength = (size64 ? 8 : 0) + (csize64 ? 8 : 0) + (offset64 ? 8 : 0);
+			int version = extraLength > 0 ? VERSION_ZIP64 : hdr.version;
+			writeInt(CENSIG);
+			writeShort(version);  // version made by
+			writeShort(version);  // version needed to extract
+			writeShort(hdr.flags);
+			writeShort(hdr.method);
+			writeInt(hdr.dosTime);
+			writeInt(hdr.crc);
+			writeInt(csize64 ? MAX_32 : hdr.csize);
+			writeInt(size64 ? MAX_32 : hdr.size);
+			writeShort(hdr.nameBytes.length);
+			writeShort(extraLength > 0 ? extraLength + 4 : 0);  // extra field length
+			writeShort(hdr.commentBytes.length);
+			writeShort(0);  // disk number start
+			writeShort(0);  // internal attributes
+			writeInt(0);    // external attributes
+			writeInt(offset64 ? MAX_32 : hdr.offset);
+			writeBytes(hdr.nameBytes);
+			if (extraLength > 0) {
+				writeShort(ZIP64_EXTRA_ID);
+				writeShort(extraLength);
+				if (size64) writeLong(hdr.size);
+				if (csize64) writeLong(hdr.csize);
+				if (offset64) writeLong(hdr.offset);
+			}
+			writeBytes(hdr.commentBytes);
+		}
+		long cenLength = written - cenOffset;
+		int count = entries.size();
+		boolean zip64 = count >= MAX_16 || cenOffset >= MAX_32 || cenLength >= MAX_32;
+		if (zip64) {
+			long zip64EndOffset = written;
+			writeInt(ZIP64_ENDSIG);
+			writeLong(ZIP64_END_SIZE);
+			writeShort(VERSION_ZIP64);  // version made by
+			writeShort(VERSION_ZIP64);  // version needed to extract
+			writeInt(0);  // number of this disk
+			writeInt(0);  // disk with the start of the central directory
+			writeLong(count);
+			writeLong(count);
+			writeLong(cenLength);
+			writeLong(cenOffset);
+			writeInt(ZIP64_LOCSIG);
+			writeInt(0);  // disk with the ZIP64 end of central directory
+			writeLong(zip64EndOffset);
+			writeInt(1);  // total number of disks
+		}
+		writeInt(ENDSIG);
+		writeShort(0);  // number of this disk
+		writeShort(0);  // disk with the start of the central directory
+		writeShort(Math.min(count, MAX_16));
+		writeShort(Math.min(count, MAX_16));
+		writeInt(Math.min(cenLength, MAX_32));
+		writeInt(Math.min(cenOffset, MAX_32));
+		writeShort(0);  // comment length
+		os.flush();
+	}
+
+	/**
+	 * Finish the archive, if necessary, and close the underlying OutputStream.
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			os.close();
+		}
+	}
+
+	private void writeShort(int v) throws IOException {
+		os.write(v & 0xff);
+		os.write((v >>> 8) & 0xff);
+		written += 2;
+	}
+
+	private void writeInt(long v) throws IOException {
+		os.write((int)(v & 0xff));
+		os.write((int)((v >>> 8) & 0xff));
+		os.write((int)((v >>> 16) & 0xff));
+		os.write((int)((v >>> 24) & 0xff));
+		written += 4;
+	}
+
+	private void writeLong(long v) throws IOException {
+		writeInt(v & MAX_32);
+		writeInt(v >>> 32);
+	}
+
+	private void writeBytes(byte[] b) throws IOException {
+		os.write(b, 0, b.length);
+		written += b.length;
+	}
+
+	/**
+	 * Convert a Java time to an MS-DOS date and time, as used in Zip headers.
+	 */
+	static long javaToDosTime(long time) {
+		Calendar cal = Calendar.getInstance();
+		cal.setTimeInMillis(time);
+		int year = cal.get(Calendar.YEAR);
+		if (year < 1980) {
+			return (1 << 21) | (1 << 16);  // 1980-01-01 00:00
+		}
+		return ((year - 1980) << 25)
+				| ((cal.get(Calendar.MONTH) + 1) << 21)
+				| (cal.get(Calendar.DAY_OF_MONTH) << 16)
+				| (cal.get(Calendar.HOUR_OF_DAY) << 11)
+				| (cal.get(Calendar.MINUTE) << 5)
+				| (cal.get(Calendar.SECOND) >> 1);
+	}
+
+	/**
+	 * The information about a written entry that is needed to write
+	 * its central directory header.
+	 */
+	private static class Header {
+		byte[] nameBytes;
+		byte[] commentBytes = new byte[0];
+		int version;
+		int flags = FLAG_UTF8;
+		int method;
+		long time;
+		long dosTime;
+		long crc;
+		long size;
+		long csize;
+		long offset;
+
+		Header(String name, int method, long time, long offset)
+			throws UnsupportedEncodingException
+		{
+			setName(name);
+			this.method = method;
+			this.version = method == ZipEntry.STORED ? VERSION_STORED : VERSION_DEFLATED;
+			this.time = time;
+			this.dosTime = javaToDosTime(time);
+			this.offset = offset;
+		}
+
+		void setName(String name) throws UnsupportedEncodingException {
+			nameBytes = name.getBytes("UTF-8");
+		}
+
+		void setComment(String comment) throws UnsupportedEncodingException {
+			if (comment != null) {
+				byte[] b = comment.getBytes("UTF-8");
+				if (b.length <= MAX_16) {
+					commentBytes = b;
+				}
+			}
+		}
+	}
+
+	/**
+	 * An OutputStream that counts the bytes written through it, 
+	 * and does not close the underlying stream.
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+		long count = 0;
+
+		CountingOutputStream(OutputStream os) {
+			super(os);
+		}
+
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
@@ -18,22 +18,20 @@
  */
 package com.ibm.jzos.sample;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import com.ibm.jzos.CatalogSearch;
-import com.ibm.jzos.CatalogSearchField;
 import com.ibm.jzos.PdsDirectory;
-import com.ibm.jzos.RcException;
 import com.ibm.jzos.ZFile;
 import com.ibm.jzos.ZUtil;
 
@@ -47,28 +45,40 @@ import com.ibm.jzos.ZUtil;
  * <li>A sequential dataset or PDS name: //A.B.C </li>
  * <li>A dataset pattern name: //A.*.D  
  *     as defined by the z/OS Catalog Search facility (IGGCSI00).
- *     See {@link CatalogSearch} for more information. </li>
+ *     See {@link CatalogSearch} for more information.  Patterns are
+ *     expanded using a {@link DatasetCatalog}, which may cache results. </li>
  * <li>A PDS member name: //A.B.C(MEM) </li>
- * <li>A PDS member pattern: //A.B.C(D*X) </li>
+ * <li>A PDS member pattern: //A.B.C(D*X) or //A.B.C(D%%X) </li>
  * <li>A DD name: //DD:XYZ  which might refer to a sequential dataset, or PDS, 
  * 	   or concatenation. </li>
  * <li>A DD name and member: //DD:XYZ(MEM) </li>
  * <li>A DD name and member pattern: //DD:XYZ(D*X) </li>
  * </ul>
  * The leading "//" prefix may be omitted and names are case insensitive.
+ * Member patterns are matched using a {@link GlobPattern}.
  * <p/>
- * Each dataset is zipped to the ZipOutputStream by reading the source
- * dataset as text encoded in the default 
+ * Each dataset is zipped by reading the source dataset records 
+ * as text encoded in the default 
  * EBCDIC codepage ({@link ZUtil#getDefaultPlatformEncoding()})
- * and then writing the text to ZipOutputStream encoded using
- * the supplied target encoding.
+ * and then writing the text encoded using the supplied target encoding.
+ * A new-line is added to each record, and trailing blanks are removed 
+ * from fixed length records, as for a dataset opened in text mode.
+ * Records are converted byte-to-byte by a {@link TranscodingOutputStream},
+ * without decoding them to chars.
  * <p/>
  * The name given to each entry is the actual MVS dataset name in upper case.
  * If the entry is for a PDS member, then the dataset name is used as
  * a directory name followed by the member name as a file name.
  * <p/> 
+ * {@link #collectEntries(List)} expands this source into a list of 
+ * {@link ZipEntrySource}s, one per dataset or member, which {@link ZipDatasets}
+ * then reads and compresses, serially or concurrently.
+ * {@link #addTo(ZipOutputStream, String)} writes the same entries
+ * to a ZipOutputStream, one after another.
+ * <p/>
  * @see ZipDatasets ZipDatasets the main class used to zip z/OS datasets
  * @see #addTo(ZipOutputStream, String)
+ * @see #collectEntries(List)
  * @since 2.3.0
  */
 public class ZipDatasetSource  {
@@ -77,26 +87,32 @@ public class ZipDatasetSource  {
 	static final String SLASH_SLASH_PREFIX 	= "//";
 	static final String DD_PREFIX 			= "DD:";
 	static final String DSNAME_CHAR 		= "[\\w[#\\$\\.]]";
-	static final String DSNAME_PATTERN_CHAR = "[\\w[#\\$\\.\\*]]";
+	static final String DSNAME_PATTERN_CHAR = "[\\w[#\\$\\.\\*%]]";
 	static final String MEMBER_CHAR 		= "[\\w[#\\$]";
-	static final String MEMBER__PATTERN_CHAR = "[\\w[#\\$\\*]]";
+	static final String MEMBER__PATTERN_CHAR = "[\\w[#\\$\\*%]]";
 	static final String DSNAME_PIECE 		= DSNAME_CHAR + "{1,44}";
 	static final String DDNAME_PIECE 		= DD_PREFIX + "\\w{1,8}";
 
-	/** A dataset pattern has at least one asterisk, but may not start with an asterisk */
+	/** A dataset pattern has at least one asterisk or percent sign, 
+	 	but may not start with a wild card */
 	static final String DSNAME_PATTERN 		= "^" 
 											+ DSNAME_CHAR 
-											+ "+\\*" 
+											+ "+[\\*%]" 
 											+ DSNAME_PATTERN_CHAR 
 											+ "*$";
 	
 	/** A member pattern is a dataset(pat) or DD:name(pat) where mpat is a member name 
-	 	or pattern that includes an asterisk */
+	 	or pattern that includes an asterisk or percent sign */
 	static final String DSNAME_WITH_MEMBER_OR_PATTERN = 
 											"^(" + DSNAME_PIECE	+ "|" + DDNAME_PIECE + ")"
 											+ "\\("  
 											+ "(" + MEMBER__PATTERN_CHAR + "+)"
 											+ "\\)$";
+
+	/** The compiled regular expressions, which are used to parse each source name */
+	private static final Pattern DSNAME_PATTERN_REGEX = Pattern.compile(DSNAME_PATTERN);
+	private static final Pattern DSNAME_WITH_MEMBER_OR_PATTERN_REGEX = 
+											Pattern.compile(DSNAME_WITH_MEMBER_OR_PATTERN);
 	
 	/** The buffer size used to read/write blocks of data */
 	static final int BUFSIZE = 64 * 1024;
@@ -113,13 +129,50 @@ public class ZipDatasetSource  {
 	 * May be null if no member name or pattern was given
 	 */
 	private String memberPattern;
+	
+	/**
+	 * The catalog used to expand dataset patterns
+	 */
+	private DatasetCatalog catalog;
+
+	/**
+	 * The pool of DDs used to allocate datasets
+	 */
+	private DDPool ddPool;
 		
 	/**
 	 * Construct an instance given a dataset/pattern name.
 	 * We also convert the name to uppercase and drop any
-	 * "//" prefix.
+	 * "//" prefix.  Dataset patterns are expanded by searching
+	 * the catalog each time, and a new DD is allocated and freed
+	 * for each dataset.
 	 */
 	public ZipDatasetSource(String nm) {
+		this(nm, new CatalogSearchCatalog());
+	}
+
+	/**
+	 * Construct an instance given a dataset/pattern name and
+	 * the catalog used to expand dataset patterns.  The same catalog
+	 * is used for any datasets that match the pattern.
+	 * @see CachingDatasetCatalog
+	 */
+	public ZipDatasetSource(String nm, DatasetCatalog catalog) {
+		this(nm, catalog, new DDPool(new BpxwdynDDAllocator(BpxwdynDDAllocator.MSG_STDERR), 0));
+	}
+
+	/**
+	 * Construct an instance given a dataset/pattern name, 
+	 * the catalog used to expand dataset patterns, and the pool
+	 * of DDs used to allocate datasets.  The same catalog and pool
+	 * are used for any datasets that match the pattern.
+	 * The pool is not closed by this class.
+	 * @see CachingDatasetCatalog
+	 * @see DDPool
+	 */
+	public ZipDatasetSource(String nm, DatasetCatalog catalog, DDPool ddPool) {
+		this.catalog = catalog;
+		this.ddPool = ddPool;
 		name = nm.toUpperCase();
 		if (name.startsWith(SLASH_SLASH_PREFIX)) {
 			name = name.substring(SLASH_SLASH_PREFIX.length());
@@ -137,293 +190,348 @@ public class ZipDatasetSource  {
 	 * Add one or more entries to the given ZipOutputStream for the 
 	 * dataset or datasets described by this ZipDatasetSource.
 	 * <p/>
+	 * The datasets are expanded by {@link #collectEntries(List)}, and each
+	 * entry is started when its source has been opened, so that it is named
+	 * by the actual dataset name.
+	 * <p/>
 	 * @param zipOutStream the output ZipOutputStream
 	 * @param targetEncoding the codepage used to encode the data written to the zipOutStream
 	 * @throws IOException
 	 */
 	public void addTo(ZipOutputStream zipOutStream, String targetEncoding) throws IOException  {
-		
-		if (name.matches(DSNAME_PATTERN)) {
-			// Process a dataset name that includes a pattern character ('*')
-			addMatchingDatasets(zipOutStream, targetEncoding);
-			
-		} else {
-			// If a member name or member pattern was given, 
-			// split it out from the dataset name
-			Pattern mempat = Pattern.compile(DSNAME_WITH_MEMBER_OR_PATTERN); 
-			Matcher matcher = mempat.matcher(name);
-			if (matcher.matches()) {
-				name = matcher.group(1); // get the dsname | dd:name
-				memberPattern = matcher.group(2);  // get the member/pattern
-			}
-			// Process the dataset, pds, or dataset(member)
-			addDatasetOrPds(zipOutStream, targetEncoding);
+		List entries = new ArrayList();
+		collectEntries(entries);
+		for (Iterator i=entries.iterator(); i.hasNext(); ) {
+			ZipEntrySource source = (ZipEntrySource)i.next();
+			EntryOutputStream eos = new EntryOutputStream(zipOutStream, source);
+			source.copyTo(eos, targetEncoding);
+			ZipEntry entry = eos.putEntry();
+			zipOutStream.closeEntry();
+
+			System.out.println("  added: " + entry.getName() 
+								+ "  (" + entry.getSize() + " -> " + entry.getCompressedSize() + ")");
 		}
 	}
 	
 	/**
-	 * Add a single dataset, single member, complete PDS, or a pattern of PDS members
-	 * to the given ZipOutputStream.
+	 * Expand the dataset or datasets described by this ZipDatasetSource
+	 * into one {@link ZipEntrySource} per sequential dataset or PDS member,
+	 * and add them to the given list.  Catalog searches and PDS directory
+	 * reads are done here, but no dataset data is read.  Any DD used to
+	 * read a directory is released to the pool before returning.
 	 * <p/>
-	 * @param zipOutStream the target ZipOutputStream
-	 * @param targetEncoding the target text encoding
+	 * The resulting entries acquire their own DD from the pool when they
+	 * are read, so they can be read in any order and on any thread.
+	 * <p/>
+	 * @param entries a List to which {@link ZipEntrySource}s are added
 	 * @throws IOException
 	 */
-	private void addDatasetOrPds(ZipOutputStream zipOutStream, String targetEncoding) 
-		throws IOException 
-	{
-		// allocate a DD to point to the base dsname (or return the name if //DD:name given)
-		String ddname = allocDD();  
-				
-		// If we are given no member name or a member name pattern, 
-		// we try to process the dataset as a PDS directory.
-		// This fails if the dataset was not a PDS.
-		PdsDirectory pdsDir = null;
-		if (memberPattern == null || memberPattern.indexOf('*') >= 0) {
-			try { 
-				pdsDir = new PdsDirectory(SLASH_SLASH_PREFIX + DD_PREFIX + ddname);
-			} catch (IOException ioe) { } // fall through with pdsDir == null
-		}
-		
-		// If its not a PdsDirectory, then assume that it is a regular dataset or single member
-		if (pdsDir == null) {
-			addDatasetOrMember(zipOutStream, targetEncoding, ddname, memberPattern);
+	public void collectEntries(List entries) throws IOException {
+
+		if (DSNAME_PATTERN_REGEX.matcher(name).matches()) {
+			// Process a dataset name that includes a pattern character ('*')
+			collectMatchingDatasets(entries);
 			return;
 		}
-		
-		// Process a PDS directory...
-		
-		// If we are given a pattern string to filter members, then build
-		// a regular expression to use.
-		Pattern memberRegex = null;
-		if (memberPattern != null) {
-			memberRegex = makeRegexPattern(memberPattern);
+		// If a member name or member pattern was given,
+		// split it out from the dataset name
+		Matcher matcher = DSNAME_WITH_MEMBER_OR_PATTERN_REGEX.matcher(name);
+		if (matcher.matches()) {
+			name = matcher.group(1); // get the dsname | dd:name
+			memberPattern = matcher.group(2);  // get the member/pattern
 		}
-		
-		// Loop over the entries in the directory and add all/matching
-		// members to the zipOutStream
+
+		// Entries for a DD:name are named by the DD's dataset, so that
+		// they keep the same names as the datasets they were written from
+		String entryDsname = name.startsWith(DD_PREFIX) 
+								? resolveDsname(name.substring(DD_PREFIX.length()))
+								: name;
+
+		// A single member: no need to read the directory
+		if (memberPattern != null && !GlobPattern.isPattern(memberPattern)) {
+			entries.add(new DatasetEntry(name, entryDsname, memberPattern, ddPool, null));
+			return;
+		}
+
+		String ddname = allocDD();
+		PdsDirectory pdsDir = null;
 		try {
+			try {
+				pdsDir = new PdsDirectory(SLASH_SLASH_PREFIX + DD_PREFIX + ddname);
+			} catch (IOException ioe) { } // fall through with pdsDir == null
+
+			// If its not a PdsDirectory, then assume that it is a regular dataset
+			if (pdsDir == null) {
+				entries.add(new DatasetEntry(name, entryDsname, null, ddPool, null));
+				return;
+			}
+			GlobPattern memberGlob = null;
+			if (memberPattern != null) {
+				memberGlob = GlobPattern.compile(memberPattern);
+			}
 			for (Iterator i=pdsDir.iterator(); i.hasNext(); ) {
 				PdsDirectory.MemberInfo member = (PdsDirectory.MemberInfo)i.next();
 				String memberName = member.getName();
-				if (memberRegex == null || memberRegex.matcher(memberName).matches()) {
-					addDatasetOrMember(zipOutStream, targetEncoding, ddname, memberName);
+				if (memberGlob == null || memberGlob.matches(memberName)) {
+					entries.add(new DatasetEntry(name, entryDsname, memberName, ddPool, makeStamp(member)));
 				}
 			}
 		} finally {
-			// Faithfully close the directory and free the DD when we are done,
-			// even if an exception is thrown.
-			try { 
-				pdsDir.close(); 
-			} catch (IOException ignore) {} 
+			if (pdsDir != null) {
+				try {
+					pdsDir.close();
+				} catch (IOException ignore) {}
+			}
 			freeDD(ddname);
 		}
-	}		
-		
+	}
+
 	/**
-	 * Add an single {@link ZipEntry} for a single dataset or member.
-	 * 
-	 * @param zipOutStream the target ZipOutputStream
-	 * @param targetEncoding the target text encoding
-	 * @param ddname the DD allocated to the dataset or member
-	 * @param memberName the member name; used to create the entry name
-	 * @throws IOException
+	 * Answer the name of the dataset allocated to a DD, as given by opening it,
+	 * or "DD:ddname" if it cannot be determined.
 	 */
-	private void addDatasetOrMember(ZipOutputStream zipOutStream, String targetEncoding, 
-										String ddname, String memberName) throws IOException {
-
-		Reader reader = null;
-		try {	
-			reader = openInputFile(ddname, memberName);
-			// Construct the name of the Zip entry that we will add
-			String entryName = memberName == null 
-								? name
-								: name + "/" + memberName;
-			// Start a new ZipEntry in the Zip file,
-			// copy the dataset/member data into the Zip entry,
-			// and close the entry
-			ZipEntry entry = new ZipEntry(entryName);
-			zipOutStream.putNextEntry(entry);
-			copyData(reader, zipOutStream, targetEncoding);
-			zipOutStream.closeEntry();
-
-			System.out.println("  added: " + entryName 
-								+ "  (" + entry.getSize() + " -> " + entry.getCompressedSize() + ")");
+	private static String resolveDsname(String ddname) {
+		String dsname = DD_PREFIX + ddname;
+		ZFile zFile = null;
+		try {
+			zFile = new ZFile(SLASH_SLASH_PREFIX + dsname, "rb,type=record,noseek");
+			String actualFileName = zFile.getActualFilename();
+			if (actualFileName != null) {
+				int ilparen = actualFileName.indexOf('(');
+				dsname = ilparen > 0 ? actualFileName.substring(0, ilparen) : actualFileName;
+			}
+		} catch (IOException ioe) {
+			// the entries will be named when they are opened
 		} finally {
-			closeInputFile(reader);
-			freeDD(ddname);
+			if (zFile != null) {
+				try {
+					zFile.close();
+				} catch (IOException ignore) {}
+			}
 		}
+		return dsname;
 	}
-	
+
 	/**
-	 * Given a dataset source name that included wild card ('*') characters, 
-	 * use the z/OS CatalogSearch facility (IGGCSI00) to find and process all
-	 * of the matching sequential or GDS datasets that match.
-	 * @param zipOutStream
-	 * @param targetEncoding
-	 * @throws IOException
+	 * Answer a stamp for a PDS member from its ISPF statistics: the
+	 * version and modification level, modification date and time,
+	 * line count and user id.  Answers null if the member has no statistics,
+	 * such as a load module, so that it is always read.
+	 * @see ZipEntrySource#getStamp()
 	 */
-	private void addMatchingDatasets(ZipOutputStream zipOutStream, String targetEncoding) throws IOException {
-		
-		CatalogSearch catSearch = new CatalogSearch(name);
-		catSearch.setEntryTypes("AH");  // only NON-VSAM and Generation Datasets
-		catSearch.addFieldName("ENTNAME");
-		catSearch.search();
-		while (catSearch.hasNext()) {
-			CatalogSearch.Entry entry = (CatalogSearch.Entry)catSearch.next();
-			if (entry.isDatasetEntry()) {
-				CatalogSearchField field = entry.getField("ENTNAME");
-				String dsn = field.getFString().trim();
-				// make a new ZipSource with the next dsn and add it
-				ZipDatasetSource source = new ZipDatasetSource(dsn);
-				source.addTo(zipOutStream, targetEncoding);
-			}
-		}		
+	static String makeStamp(PdsDirectory.MemberInfo member) {
+		if (!member.isStatisticsAvailable()) {
+			return null;
+		}
+		PdsDirectory.MemberInfo.Statistics stats = member.getStatistics();
+		if (stats == null || stats.modificationDate == null) {
+			return null;
+		}
+		return "vv.mm=" + stats.version + "." + stats.level
+				+ ";modified=" + stats.modificationDate.getTime()
+				+ ";lines=" + stats.currentLines
+				+ ";user=" + (stats.userid == null ? "" : stats.userid.trim());
 	}
 
 	/**
-	 * Make a regular expression pattern than matches the given 
-	 * member name pattern that includes literal characters and
-	 * zero or more asterisks.
+	 * Given a dataset source name that included wild card ('*') characters,
+	 * use the catalog to find all of the matching sequential or GDS datasets,
+	 * and collect their entries.
+	 * @param entries
+	 * @throws IOException
 	 */
-	private Pattern makeRegexPattern(String memberPattern) {
-
-		StringBuffer patBuf = new StringBuffer("^");
-		for (int i=0; i<memberPattern.length(); i++) {
-			char c = memberPattern.charAt(i);
-			switch (c) {
-			case '*':
-				patBuf.append(".*");
-				break;
-			case '$':
-				patBuf.append("\\$");
-				break;
-			default:
-				patBuf.append(c);
-			}
+	private void collectMatchingDatasets(List entries) throws IOException {
+
+		List dsns = catalog.search(name);
+		for (Iterator i=dsns.iterator(); i.hasNext(); ) {
+			String dsn = (String)i.next();
+			ZipDatasetSource source = new ZipDatasetSource(dsn, catalog, ddPool);
+			source.collectEntries(entries);
 		}
-		patBuf.append('$');
-		return Pattern.compile(patBuf.toString());
 	}
-	
+
 	/**
-	 * Copy data from a reader to a ZipOutputStream.
-	 * @param reader a Reader open on the input dataset/member in the default EBCDIC encoding
-	 * @param zipOutStream the target ZipOutputStram
-	 * @param targetEncoding the target encoding for the ZipOutputStream
+	 * Copy the records from a ZFile opened in record mode to an OutputStream,
+	 * as lines of text.  Each record is converted
+	 * from the default EBCDIC encoding to the target encoding without
+	 * decoding it to chars.
+	 * @param zFile a ZFile open on the input dataset/member in record mode
+	 * @param os the target OutputStream
+	 * @param targetEncoding the target encoding for the OutputStream
 	 * @throws IOException
 	 * @throws UnsupportedEncodingException
+	 * @see TranscodingOutputStream#writeRecord(byte[], int, int, boolean)
 	 */
-	private void copyData(Reader reader, 
-							ZipOutputStream zipOutStream, 
+	static void copyRecords(ZFile zFile, 
+							OutputStream os, 
 							String targetEncoding) 
 		throws IOException, UnsupportedEncodingException 
 	{
-		char[] cbuf = new char[BUFSIZE];
+		TranscodingOutputStream tos = new TranscodingOutputStream(os, 
+											ZUtil.getDefaultPlatformEncoding(),
+											targetEncoding);
+		// Text mode only removes trailing blanks from fixed length records
+		boolean fixed = zFile.getRecfm().startsWith("F");
+		byte[] recBuf = new byte[Math.max(zFile.getLrecl(), 1)];
 		int nRead;
-		// wrap the zipOutputStream in a Writer that encodes to the target encoding
-		OutputStreamWriter osw = new OutputStreamWriter(zipOutStream, targetEncoding);
-		while ((nRead = reader.read(cbuf)) != -1) {
-			osw.write(cbuf, 0, nRead);
+		while ((nRead = zFile.read(recBuf)) >= 0) {
+			tos.writeRecord(recBuf, 0, nRead, fixed);
 		}
-		osw.flush(); // flush any buffered data to the ZipOutputStream
+		tos.finish(); // write any buffered data to the OutputStream
 	}
 
 	
 	/**
-	 * Allocate a new DD with DISP=SHR to point to the source dataset, 
+	 * Acquire a DD from the pool with DISP=SHR to point to the source dataset, 
 	 * or of a DD:name was given, return the ddname.
 	 * @return the ddname given/allocated
 	 * @throws IOException
 	 */
 	private String allocDD() throws IOException {
-		String ddname = null;
 		// See if a DD:name was given
 		if (name.startsWith(DD_PREFIX)) {
-			ddname = name.substring(DD_PREFIX.length());
-			return ddname;
+			return name.substring(DD_PREFIX.length());
 		}
-		// Otherwise we allocate a temporary DD to the given dataset
-		// using DISP=SHR
+		// Otherwise we use a DD from the pool, which may already
+		// be allocated to the given dataset using DISP=SHR
 		try {
-			// get a new SYSnnnnnn DD name allocated to dummy
-			ddname = ZFile.allocDummyDDName();
-			// reallocate it to the dataset with DISP=SHR
-			ZFile.bpxwdyn("alloc fi("+ddname+") da("+name+") shr reuse msg(2)");
-			return ddname;
-		} catch (RcException rce) {
-			freeDD(ddname);  // free the temp dd 
+			return ddPool.acquire(name);
+		} catch (IOException ioe) {
 			throw new IOException("Unable to allocate input dataset: "
 					+ name
 					+ " - "
-					+ rce);
+					+ ioe.getMessage());
 		}		
 	}
 
 	/**
-	 * Do our best to free a DD that we allocated
+	 * Release a DD that we acquired back to the pool, which
+	 * may keep it allocated for reuse
 	 * @param ddname
 	 */
 	private void freeDD(String ddname) {
 		if (ddname == null || name.startsWith(DD_PREFIX)) {
 			return;
 		}
-		try {
-			// Omit the 'msg' keyword to suppress error messages.
-			// We might not actually be able to free the DD if
-			// if is still open as a PDS directory
-			ZFile.bpxwdyn("free fi("+ddname+")");
-		} catch(RcException ignore) {}
+		ddPool.release(ddname);
 	}	
 
 	/**
-	 * Open a Reader to point to the previously allocated
-	 * DD and optionally a given member.  The encoding for the
-	 * reader is set to the default EBCDIC encoding 
-	 * (see {@link ZUtil#getDefaultPlatformEncoding()})
-	 * <p/>  
-	 * @param ddname the DD allocated to the dataset
-	 * @param memberName if not null, the member name to open
-	 * @return a Reader
-	 * @throws IOException
+	 * An OutputStream that starts the ZipOutputStream's entry for a source
+	 * before the first byte is written to it, when the source has been 
+	 * opened and its entry name is known.
 	 */
-	private Reader openInputFile(String ddname, String memberName) throws IOException {
+	static class EntryOutputStream extends FilterOutputStream {
+		private ZipEntrySource source;
+		private ZipEntry entry;
 
-		String sourceEncoding = ZUtil.getDefaultPlatformEncoding();
-		String filename = SLASH_SLASH_PREFIX + DD_PREFIX 
-							+ ddname 
-							+ (memberName==null ? "": "("+memberName+")");
-		
-		// We open the file in text mode, so that new-line characters are inserted
-		// at record boundaries and trailing spaces are removed from records.
-		ZFile zFile = new ZFile(filename, "rt");
-		
-		// If the open file's actual filename can be determined, use it as our name
-		String actualFileName = zFile.getActualFilename();
-		if (actualFileName != null) {
-			name = actualFileName;
+		EntryOutputStream(ZipOutputStream zipOutStream, ZipEntrySource source) {
+			super(zipOutStream);
+			this.source = source;
 		}
-		
-		// Strip the member name off of the actual file name
-		int ilparen = name.indexOf('(');
-		if (ilparen > 0) {
-			name = name.substring(0,ilparen);
+
+		/**
+		 * Start the entry, if it has not been started, and answer it.
+		 */
+		ZipEntry putEntry() throws IOException {
+			if (entry == null) {
+				entry = new ZipEntry(source.getEntryName());
+				((ZipOutputStream)out).putNextEntry(entry);
+			}
+			return entry;
+		}
+
+		public void write(int b) throws IOException {
+			putEntry();
+			out.write(b);
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException {
+			putEntry();
+			out.write(b, off, len);
 		}
-		
-		InputStream is = zFile.getInputStream();
-		return new InputStreamReader(is, sourceEncoding);		
 	}
 
 	/**
-	 * Close the input reader.
+	 * A {@link ZipEntrySource} for a single dataset or PDS member,
+	 * opened in record mode by DD name, using a DD from the pool if 
+	 * a dataset name was given.  Entries for members of the same PDS
+	 * can then share a DD that is already allocated to it.
 	 */
-	private void closeInputFile(Reader reader) {
-		if (reader == null) return;
-		try {
-			reader.close();
-		} catch (IOException ignore) {}
+	static class DatasetEntry implements ZipEntrySource {
+		private String dsname;
+		private String memberName;
+		private String entryName;
+		private DDPool ddPool;
+		private String stamp;
+
+		/**
+		 * @param dsname the dataset name or DD:name, without a "//" prefix
+		 * @param entryDsname the dataset name used to name the entry until 
+		 * 			it is opened
+		 * @param memberName the member name, or null
+		 * @param ddPool the pool used to allocate dsname, or null to 
+		 * 			open it directly by name
+		 * @param stamp the stamp of the member's statistics, or null
+		 */
+		DatasetEntry(String dsname, String entryDsname, String memberName, DDPool ddPool, String stamp) {
+			this.dsname = dsname;
+			this.memberName = memberName;
+			this.entryName = makeEntryName(entryDsname);
+			this.ddPool = ddPool;
+			this.stamp = stamp;
+		}
+
+		public String getStamp() {
+			return stamp;
+		}
+
+		public String getEntryName() {
+			return entryName;
+		}
+
+		public void copyTo(OutputStream os, String targetEncoding) throws IOException {
+			String member = memberName == null ? "" : "(" + memberName + ")";
+			String ddname = null;
+			String filename;
+			if (dsname.startsWith(DD_PREFIX)) {
+				filename = SLASH_SLASH_PREFIX + dsname + member;
+			} else if (ddPool != null) {
+				ddname = ddPool.acquire(dsname);
+				filename = SLASH_SLASH_PREFIX + DD_PREFIX + ddname + member;
+			} else {
+				filename = SLASH_SLASH_PREFIX + "'" + dsname + member + "'";
+			}
+
+			// We open the file in record mode, and insert new-line characters 
+			// and remove trailing spaces from fixed length records as we copy them.
+			ZFile zFile = null;
+			try {
+				zFile = new ZFile(filename, "rb,type=record,noseek");
+				// If the open file's actual filename can be determined, use it as our name
+				String actualFileName = zFile.getActualFilename();
+				if (actualFileName != null) {
+					int ilparen = actualFileName.indexOf('(');
+					entryName = makeEntryName(ilparen > 0
+												? actualFileName.substring(0, ilparen)
+												: actualFileName);
+				}
+				copyRecords(zFile, os, targetEncoding);
+			} finally {
+				if (zFile != null) {
+					try {
+						zFile.close();
+					} catch (IOException ignore) {}
+				}
+				if (ddname != null) {
+					ddPool.release(ddname);
+				}
+			}
+		}
+
+		private String makeEntryName(String dsn) {
+			return memberName == null ? dsn : dsn + "/" + memberName;
+		}
 	}
-	
-	
 
 }
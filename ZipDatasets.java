@@ -21,7 +21,8 @@ package com.ibm.jzos.sample;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.ZipOutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.ibm.jzos.ZFile;
 
@@ -50,13 +51,20 @@ import com.ibm.jzos.ZFile;
  * <pre>com.ibm.jzos.sample.ZipDatasets //DD:ZIPOUT //DD:INSEQ1 //DD:INPDS1 //DD:INPDS2(FOO*)</pre>
  * </p>
  * 
+ * <p>
+ * Example: Read and compress the members of a large PDS using 4 threads:
+ * <pre>com.ibm.jzos.sample.ZipDatasets -p 4 //hlq.backup.zip hlq.big.library</pre>
+ * </p>
+ * 
  * @see com.ibm.jzos.ZFile
  * @see com.ibm.jzos.ZUtil
  * @see com.ibm.jzos.CatalogSearch
- * @see java.util.zip.ZipOutputStream java.util.zip.ZipOutputStream
+ * @see ZipArchiveWriter ZipArchiveWriter (which writes the Zip archive, using ZIP64 extensions when needed)
  * @see java.util.regex.Pattern java.util.regex.Pattern
  * @see java.util.regex.Matcher java.util.regex.Matcher
  * @see ZipDatasetSource ZipDatasetSource (the class which creates Zip archive entries for each input dataset/pattern)
+ * @see ZipEntryCompressor ZipEntryCompressor (used to compress entries concurrently with the -p option)
+ * @see CompressionPolicy CompressionPolicy (which chooses the level of each entry, within the -c budget)
  *  
  * @since 2.3.0
  */
@@ -66,11 +74,26 @@ public class ZipDatasets {
 	 * Display usage syntax for invoking this class as a java main() method.
 	 */
 	public static void usage() {
-		System.err.println("Usage: com.ibm.jzos.sample.ZipDatasets [-t targetEncoding] outfile indsname...");
+		System.err.println("Usage: com.ibm.jzos.sample.ZipDatasets [-t targetEncoding] [-p threads] [-i previous] [-c cpuSeconds] outfile indsname...");
 		System.err.println("  where:  ");
 		System.err.println("  -t targetEncoding can optionally specify the codepage name to encode the");
 		System.err.println("      text data as it is written to the Zip file.  If not specified,");
 		System.err.println("      this defaults to ISO8859-1 (Latin/ASCII)");
+		System.err.println("  -p threads can optionally specify the number of threads used to read");
+		System.err.println("      and compress datasets and members concurrently.  Entries are");
+		System.err.println("      still written in the same order.  If not specified, each entry");
+		System.err.println("      is read and compressed in turn on a single thread.");
+		System.err.println("  -i previous can optionally specify a Zip archive previously written by");
+		System.err.println("      this program, from which entries for unchanged members and files");
+		System.err.println("      are copied without being read or compressed again.  Members are");
+		System.err.println("      unchanged if their ISPF statistics are unchanged.  The previous");
+		System.err.println("      archive is named like outfile, but must not be the same file.");
+		System.err.println("  -c cpuSeconds can optionally specify a budget of CPU time for reading");
+		System.err.println("      and compressing all entries.  Text is compressed at the best level");
+		System.err.println("      until half of the budget is used, and at the fastest level once");
+		System.err.println("      all of it is used.  If not specified, the default level is used.");
+		System.err.println("      In either case, entries which appear to be already compressed");
+		System.err.println("      are stored, and binary entries are compressed at the fastest level.");
 		System.err.println("  and outfile is either:");
 		System.err.println("    - a Unix file path name: /path/to/some/file.zip");
 		System.err.println("    - a dataset name:  //A.B.C");
@@ -85,6 +108,7 @@ public class ZipDatasets {
 		System.err.println("    - a DD name: //DD:XYZ");
 		System.err.println("    - a DD name and member:  //DD:XYZ(MEM)");
 		System.err.println("    - a DD name and member pattern:  //DD:XYZ(D*X)");
+		System.err.println("    - a Unix file or directory of files:  /path/to/dir");
 		System.err.println("  \"//\" prefixes may be omitted from indsnames");			
 		System.err.println("  All dataset names are assumed to be fully qualified.");
 	}
@@ -97,6 +121,9 @@ public class ZipDatasets {
 	 */
 	public static void main(String[] args) throws Exception {
 		String targetEncoding = null;
+		String previous = null;
+		int threads = 0;
+		long cpuBudgetMillis = 0;
 		int iOutfileName = 0;
 
 		// need at least one outdsname and one indsname
@@ -105,10 +132,39 @@ public class ZipDatasets {
 			System.exit(12);
 		}
 		
-		// handle the -t targetEncoding option
-		if (args[0].equals("-t")) {
-			targetEncoding = args[1];
-			iOutfileName = 2;
+		// handle the -t targetEncoding, -p threads, -i previous and -c cpuSeconds options
+		while (iOutfileName + 1 < args.length && args[iOutfileName].startsWith("-")) {
+			String option = args[iOutfileName];
+			String value = args[iOutfileName + 1];
+			if (option.equals("-t")) {
+				targetEncoding = value;
+			} else if (option.equals("-i")) {
+				previous = value;
+			} else if (option.equals("-c")) {
+				try {
+					cpuBudgetMillis = Math.round(Double.parseDouble(value) * 1000);
+				} catch (NumberFormatException nfe) {
+					cpuBudgetMillis = 0;
+				}
+				if (cpuBudgetMillis < 1) {
+					usage();
+					System.exit(12);
+				}
+			} else if (option.equals("-p")) {
+				try {
+					threads = Integer.parseInt(value);
+				} catch (NumberFormatException nfe) {
+					threads = 0;
+				}
+				if (threads < 1) {
+					usage();
+					System.exit(12);
+				}
+			} else {
+				usage();
+				System.exit(12);
+			}
+			iOutfileName += 2;
 		}
 		// still need at least one outdsname and one indsname
 		if (args.length < iOutfileName + 2) {
@@ -125,6 +181,19 @@ public class ZipDatasets {
 		if (targetEncoding != null) {
 			instance.setTargetEncoding(targetEncoding);
 		}
+		if (threads > 0) {
+			instance.setThreads(threads);
+		}
+		if (previous != null) {
+			if (previous.equalsIgnoreCase(args[iOutfileName])) {
+				usage();
+				System.exit(12);
+			}
+			instance.setPrevious(previous);
+		}
+		if (cpuBudgetMillis > 0) {
+			instance.setCompressionPolicy(new CompressionPolicy(cpuBudgetMillis));
+		}
 		int errors = instance.run();
 		if (errors > 0) {
 			System.exit(8);
@@ -132,10 +201,27 @@ public class ZipDatasets {
 	}
 
 	public static final String DEFAULT_TARGET_ENCODING = "ISO8859-1";
+
+	/** The size of each write to a Unix file: a multiple of the page size */
+	static final int FILE_BLOCK_SIZE = 256 * 1024;
+
+	/** The BLKSIZE of a new dataset: half of a 3390 track */
+	static final int DATASET_BLOCK_SIZE = 27998;
+
+	/** The approximate number of bytes buffered before writing to a dataset */
+	static final int DATASET_BUFFER_SIZE = 1024 * 1024;
 	
 	private String outFileName;
 	private String[] indsnames;
 	private String targetEncoding;
+	private int threads = 0;
+	private DatasetCatalog catalog;
+	private DDAllocator ddAllocator;
+	private DDPool ddPool;
+	private String previousName;
+	private ZipArchiveReader previous;
+	private CompressionPolicy policy = new CompressionPolicy();
+	private int copied = 0;
 	private int errors = 0;
 
 	/**
@@ -149,6 +235,8 @@ public class ZipDatasets {
 		this.outFileName = outFileName;
 		this.indsnames = indsnames;
 		this.targetEncoding = DEFAULT_TARGET_ENCODING;
+		this.catalog = new CachingDatasetCatalog(new CatalogSearchCatalog());
+		this.ddAllocator = new BpxwdynDDAllocator(BpxwdynDDAllocator.MSG_STDERR);
 	}
 	
 	/**
@@ -160,86 +248,334 @@ public class ZipDatasets {
 		this.targetEncoding = targetEncoding;
 	}
 	
+	/**
+	 * Sets the catalog used to expand dataset patterns.  If not called, 
+	 * a {@link CachingDatasetCatalog} over the z/OS Catalog Search facility
+	 * is used, so that overlapping patterns do not search the catalog repeatedly.
+	 * @param catalog
+	 */
+	public void setCatalog(DatasetCatalog catalog) {
+		this.catalog = catalog;
+	}
+	
+	/**
+	 * Sets the allocator used to allocate the DDs used to read datasets.
+	 * If not called, a {@link BpxwdynDDAllocator} is used.  In either case,
+	 * the DDs are pooled by a {@link DDPool} for the duration of {@link #run()},
+	 * so that datasets which are read more than once are allocated once.
+	 * @param ddAllocator
+	 */
+	public void setDDAllocator(DDAllocator ddAllocator) {
+		this.ddAllocator = ddAllocator;
+	}
+	
+	/**
+	 * Sets the name of a Zip archive previously written by this class.
+	 * Entries whose sources are unchanged, according to their stamps, are 
+	 * copied from it without being read or compressed again.
+	 * If the previous archive cannot be read, all entries are read.
+	 * @param previousName the name of a Unix file, //DATASET or //DD:name
+	 * @see ZipEntrySource#getStamp()
+	 */
+	public void setPrevious(String previousName) {
+		this.previousName = previousName;
+	}
+	
+	/**
+	 * Sets the policy that chooses the compression level of each entry from
+	 * a sample of its data, or whether it is stored.  If not called, a 
+	 * {@link CompressionPolicy} with no CPU budget is used.
+	 * @param policy
+	 */
+	public void setCompressionPolicy(CompressionPolicy policy) {
+		this.policy = policy;
+	}
+	
+	/**
+	 * Sets the number of threads used to read and compress entries concurrently.
+	 * If not called, or if zero, entries are read and compressed in turn
+	 * on the calling thread.
+	 * @param threads
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+	
 	/**
 	 * Process the given input datasets and create a Zip archive on the
 	 * given output file or dataset.
 	 */
 	public int run() throws IOException {
-		ZipOutputStream zipOutStream = openZipOutputStream();
+		// allow at least one idle DD for each entry that may be in flight
+		ddPool = new DDPool(ddAllocator, Math.max(DDPool.DEFAULT_MAX_IDLE, threads * 2));
 		try {
-			processInputFiles(zipOutStream);
-			zipOutStream.finish();
-			System.out.println("   done: " + errors + " errors");
-			return errors;
+			openPrevious();
+			if (threads > 0) {
+				return runParallel();
+			}
+			return runSerial();
 		} finally {
-			try {
-				zipOutStream.close();
-			} catch (Throwable ignore) {}
+			ddPool.close();
+			if (previous != null) {
+				try {
+					previous.close();
+				} catch (IOException ignore) {}
+			}
+		}
+	}
+
+	/**
+	 * Open the previous archive, if one was given.  If it cannot be read,
+	 * report it and continue without it.
+	 */
+	private void openPrevious() {
+		if (previousName == null) {
+			return;
+		}
+		try {
+			previous = new ZipArchiveReader(previousName);
+			System.out.println("previous: " + previousName + "  (" + previous.getEntries().size() + " entries)");
+		} catch (IOException ioe) {
+			System.out.println(">>> Unable to read previous archive, all entries will be read: " + ioe);
 		}
 	}
 	
 	/**
-	 * Open a ZipOutputStream on the given target file or dataset.
-	 * @return ZipOutputStream
+	 * Read each entry in turn, and deflate it directly to the Zip archive
+	 * using a streaming {@link ZipArchiveWriter}.
+	 */
+	private int runSerial() throws IOException {
+		BlockOutputStream out = openOutputStream();
+		ZipArchiveWriter writer = new ZipArchiveWriter(out);
+		boolean closed = false;
+		try {
+			processInputFiles(writer);
+			writer.close();  // writes the central directory and the last block
+			closed = true;
+		} finally {
+			if (!closed) {
+				try {
+					writer.close();
+				} catch (Throwable ignore) {}
+			}
+		}
+		reportDone(writer, out);
+		return errors;
+	}
+	
+	/**
+	 * Expand all of the input dataset names (or patterns) into a list of
+	 * entries, and then read and compress them concurrently using a 
+	 * {@link ZipEntryCompressor}.  Entries are written to the Zip archive in the 
+	 * same order as they would be by a serial run.
+	 */
+	private int runParallel() throws IOException {
+		List entries = collectInputEntries();
+		BlockOutputStream out = openOutputStream();
+		ZipArchiveWriter writer = new ZipArchiveWriter(out);
+		boolean closed = false;
+		try {
+			ZipEntryCompressor compressor = new ZipEntryCompressor(threads, targetEncoding);
+			compressor.setPrevious(previous);
+			compressor.setPolicy(policy);
+			errors += compressor.addAll(entries, writer);
+			copied += compressor.getCopied();
+			writer.close();  // writes the central directory and the last block
+			closed = true;
+		} finally {
+			if (!closed) {
+				try {
+					writer.close();
+				} catch (Throwable ignore) {}
+			}
+		}
+		reportDone(writer, out);
+		return errors;
+	}
+
+	/**
+	 * Create a (binary) OutputStream on either a Unix file
+	 * or dataset, depending on the name given, which writes
+	 * in large blocks.
+	 * @return BlockOutputStream
 	 * @throws IOException
 	 */
-	private ZipOutputStream openZipOutputStream() throws IOException {
-		// First create a (binary) OutputStream on either a Unix file
-		// or dataset, depending on the name given.
-		OutputStream os;
+	private BlockOutputStream openOutputStream() throws IOException {
 		if (outFileName.startsWith("//"))  {
-			os = openDataset(outFileName);
+			return openDataset(outFileName);
 		} else {
-			os = new FileOutputStream(outFileName);
+			return new BlockOutputStream(new FileOutputStream(outFileName), FILE_BLOCK_SIZE);
 		}
-		// Wrap the OutputStream in a new ZipOutputStream
-		return new ZipOutputStream(os);
 	}
 
 	/**
 	 * Given a "//data.set" or "//DD:name" or even //data.set(member)
-	 * or "//DD:name(member), open a ZFile on it in binary streaming mode.
-	 * The dataset is opened with DCB RECFM=VB,LRECL=1028,BLKSIZE=0.
-	 * mode and return it as an {@link OutputStream}.
+	 * or "//DD:name(member), open a ZFile on it in record mode,
+	 * and return an {@link OutputStream} that writes each block
+	 * of the archive as one record.
+	 * A new dataset is created with DCB RECFM=U,BLKSIZE=27998, so that each
+	 * write is a half track block.  An existing dataset or DD keeps its
+	 * own DCB attributes: records are written up to the BLKSIZE of 
+	 * a RECFM=U dataset, or the LRECL of other datasets, less 4 for RECFM=V.
+	 * Note that the last record of a RECFM=F dataset is padded.
 	 * Dataset names are assumed to be fully qualified.
 	 * 
 	 * @param name the dataset name
-	 * @return OutputStream
+	 * @return BlockOutputStream
 	 * @throws IOException
 	 * @see ZFile#getSlashSlashQuotedDSN(String, boolean)
 	 */
-	private OutputStream openDataset(String name) throws IOException {	
+	private BlockOutputStream openDataset(String name) throws IOException {	
 		
-		ZFile zfile = new ZFile(
+		final ZFile zfile = new ZFile(
 							ZFile.getSlashSlashQuotedDSN(name, true),
-							"wb,recfm=vb,lrecl=1028,blksize=0"); 
-		return zfile.getOutputStream();
+							"wb,type=record,noseek,recfm=u,blksize=" + DATASET_BLOCK_SIZE); 
+		int recfm = zfile.getRecfmBits() & ZFile.RECFM_U;
+		int blockSize;
+		if (recfm == ZFile.RECFM_U) {
+			blockSize = zfile.getBlksize();
+		} else if (recfm == ZFile.RECFM_V) {
+			blockSize = zfile.getLrecl() - 4;
+		} else {
+			blockSize = zfile.getLrecl();
+		}
+		OutputStream recordStream = new OutputStream() {
+			public void write(int b) throws IOException {
+				write(new byte[] { (byte)b }, 0, 1);
+			}
+			public void write(byte[] b, int off, int len) throws IOException {
+				zfile.write(b, off, len);  // one record
+			}
+			public void close() throws IOException {
+				zfile.close();
+			}
+		};
+		return new BlockOutputStream(recordStream, 
+										Math.max(1, blockSize), 
+										DATASET_BUFFER_SIZE / Math.max(1, blockSize) + 1);
 	}
 	
 	/**
 	 * Loop over each input dataset name (or pattern) given and
 	 * add entries for it to the Zip file.
-	 * If an exception occurs processing one entry, try to clean it
-	 * up and continue with the next entry. 
-	 * The {@link ZipDatasetSource} class does all of the real work.
+	 * If an exception occurs processing one input or one entry, 
+	 * report it and continue with the next.
+	 * The {@link ZipDatasetSource} class expands each input into entries.
 	 * <p/>
-	 * @param zipOutStream
+	 * @param writer
+	 * @throws IOException if the archive could not be written
 	 */
-	private void processInputFiles(ZipOutputStream zipOutStream) {
+	private void processInputFiles(ZipArchiveWriter writer) throws IOException {
 		for (int i=0; i<indsnames.length; i++) {
 			String inputName = indsnames[i];
-			ZipDatasetSource source = new ZipDatasetSource(inputName);
-			try {
-				source.addTo(zipOutStream, targetEncoding);
-			} catch( Throwable t) {
-				errors++;
-				try { 
-					zipOutStream.closeEntry(); 
-				} catch (IOException ignore) {}
-				System.out.println(">>> Error occuring processing input dataset: " + inputName);
-				System.err.println(">>> Error occuring processing input dataset: " + inputName);
-				t.printStackTrace();
+			List entries = new ArrayList();
+			collectEntries(inputName, entries);
+			for (int j=0; j<entries.size(); j++) {
+				ZipEntrySource source = (ZipEntrySource)entries.get(j);
+				ZipArchiveReader.Entry unchanged = previous == null 
+							? null 
+							: previous.getUnchangedEntry(source, targetEncoding);
+				if (unchanged != null) {
+					writer.copyEntry(previous, unchanged);
+					copied++;
+					System.out.println(" copied: " + unchanged.getName() 
+										+ "  (" + unchanged.getSize() + " -> " + unchanged.getCompressedSize() + ")");
+					continue;
+				}
+				int count = writer.getEntryCount();
+				try {
+					ZipEntryCompressor.CompressedEntry entry = writer.writeEntry(source, targetEncoding, policy);
+					System.out.println("  added: " + entry.describe());
+				} catch (IOException ioe) {
+					// If the entry was not completed, the archive itself has failed
+					if (writer.getEntryCount() == count) {
+						throw ioe;
+					}
+					errors++;
+					System.out.println(">>> Error occuring processing entry: " + source.getEntryName());
+					System.err.println(">>> Error occuring processing entry: " + source.getEntryName());
+					ioe.printStackTrace();
+				}
 			}
 		}
 	}
+	
+	/**
+	 * Expand each input dataset name (or pattern) into a list of
+	 * {@link ZipEntrySource}s.
+	 * @return a List of {@link ZipEntrySource}
+	 */
+	private List collectInputEntries() {
+		List entries = new ArrayList();
+		for (int i=0; i<indsnames.length; i++) {
+			collectEntries(indsnames[i], entries);
+		}
+		return entries;
+	}
+
+	/**
+	 * Expand one input dataset name (or pattern) into {@link ZipEntrySource}s
+	 * added to the given list.  If an exception occurs, report it and answer.
+	 */
+	private void collectEntries(String inputName, List entries) {
+		try {
+			if (ZipDirectorySource.isUnixPath(inputName)) {
+				new ZipDirectorySource(inputName).collectEntries(entries);
+			} else {
+				new ZipDatasetSource(inputName, catalog, ddPool).collectEntries(entries);
+			}
+		} catch( Throwable t) {
+			errors++;
+			System.out.println(">>> Error occuring processing input dataset: " + inputName);
+			System.err.println(">>> Error occuring processing input dataset: " + inputName);
+			t.printStackTrace();
+		}
+	}
+
+	/**
+	 * Report the errors, statistics and output throughput of a completed run.
+	 */
+	private void reportDone(ZipArchiveWriter writer, BlockOutputStream out) {
+		System.out.println("   done: " + writer.getEntryCount() + " entries"
+							+ (previous != null ? " (" + copied + " copied from previous)" : "")
+							+ ", " + errors + " errors");
+		System.out.println("   compression: " + policy.getSummary());
+		reportCatalogSearches();
+		reportDDAllocations();
+		System.out.println("  wrote: " + out.getBytesWritten() + " bytes"
+							+ " in " + out.getBlocksWritten() + " blocks of " + out.getBlockSize()
+							+ ", " + out.getElapsedMillis() + " ms"
+							+ " (" + out.getBytesPerSecond() + " bytes/sec)");
+	}
+
+	/**
+	 * If the catalog is a {@link CachingDatasetCatalog}, report how many 
+	 * dataset pattern searches were answered from the cache.
+	 */
+	private void reportCatalogSearches() {
+		if (catalog instanceof CachingDatasetCatalog) {
+			CachingDatasetCatalog cache = (CachingDatasetCatalog)catalog;
+			int searches = cache.getHits() + cache.getSubsumedHits() + cache.getMisses();
+			if (searches > 0) {
+				System.out.println("   catalog searches: " + searches
+									+ " (" + cache.getHits() + " cached, "
+									+ cache.getSubsumedHits() + " from broader patterns, "
+									+ cache.getMisses() + " searched)");
+			}
+		}
+	}
+
+	/**
+	 * Report how many dataset allocations were answered by a DD from the pool
+	 * that was already allocated to the dataset.
+	 */
+	private void reportDDAllocations() {
+		int acquires = ddPool.getHits() + ddPool.getMisses();
+		if (acquires > 0) {
+			System.out.println("   dataset allocations: " + acquires
+								+ " (" + ddPool.getHits() + " reused, "
+								+ ddPool.getMisses() + " allocated, "
+								+ ddPool.getRequestCount() + " dynalloc requests)");
+		}
+	}
 }
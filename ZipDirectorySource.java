@@ -0,0 +1,149 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A class that is used by {@link ZipDatasets} to create zip file entries
+ * for Unix files.
+ * <p/>
+ * A Unix directory is treated like a PDS: each regular file in the
+ * directory becomes an entry named "dirname/filename", in file name order.
+ * A single Unix file becomes an entry named by its file name.
+ * This allows the parallel pipeline used by {@link ZipDatasets} to be
+ * exercised on any platform, using a directory of files as a stand-in
+ * for a PDS.
+ * <p/>
+ * Files are read as text encoded in the given source encoding, which
+ * defaults to the "file.encoding" system property, and are converted to
+ * the target encoding by a {@link TranscodingOutputStream}.
+ * The stamp of each file is its modification time and size.
+ *
+ * @see ZipDatasetSource
+ * @see ZipEntrySource
+ * @since 2.3.0
+ */
+public class ZipDirectorySource {
+
+	private File file;
+	private String sourceEncoding;
+
+	/**
+	 * Construct an instance given a Unix file or directory name,
+	 * using the default source encoding.
+	 */
+	public ZipDirectorySource(String path) {
+		this(path, System.getProperty("file.encoding"));
+	}
+
+	/**
+	 * Construct an instance given a Unix file or directory name,
+	 * and the encoding of the files.
+	 */
+	public ZipDirectorySource(String path, String sourceEncoding) {
+		this.file = new File(path);
+		this.sourceEncoding = sourceEncoding;
+	}
+
+	/**
+	 * Answer true if the given input name is a Unix path name rather
+	 * than a dataset name.  Dataset names may not contain a '/', other than
+	 * in a leading "//" prefix.
+	 */
+	public static boolean isUnixPath(String name) {
+		return !name.startsWith(ZipDatasetSource.SLASH_SLASH_PREFIX)
+				&& name.indexOf('/') >= 0;
+	}
+
+	/**
+	 * Add one {@link ZipEntrySource} to the given list for this file,
+	 * or for each regular file in this directory.
+	 * @param entries a List to which {@link ZipEntrySource}s are added
+	 * @throws IOException
+	 */
+	public void collectEntries(List entries) throws IOException {
+		if (!file.exists()) {
+			throw new FileNotFoundException(file.getPath());
+		}
+		if (!file.isDirectory()) {
+			entries.add(new FileEntry(file, file.getName(), sourceEncoding));
+			return;
+		}
+		File[] files = file.listFiles();
+		if (files == null) {
+			throw new IOException("Unable to list directory: " + file.getPath());
+		}
+		Arrays.sort(files);
+		for (int i=0; i<files.length; i++) {
+			if (files[i].isFile()) {
+				entries.add(new FileEntry(files[i],
+											file.getName() + "/" + files[i].getName(),
+											sourceEncoding));
+			}
+		}
+	}
+
+	/**
+	 * A {@link ZipEntrySource} for a single Unix file.
+	 */
+	static class FileEntry implements ZipEntrySource {
+		private File file;
+		private String entryName;
+		private String sourceEncoding;
+
+		FileEntry(File file, String entryName, String sourceEncoding) {
+			this.file = file;
+			this.entryName = entryName;
+			this.sourceEncoding = sourceEncoding;
+		}
+
+		public String getEntryName() {
+			return entryName;
+		}
+
+		public String getStamp() {
+			return "modified=" + file.lastModified() + ";size=" + file.length();
+		}
+
+		public void copyTo(OutputStream os, String targetEncoding) throws IOException {
+			InputStream is = new FileInputStream(file);
+			try {
+				TranscodingOutputStream tos = new TranscodingOutputStream(os, sourceEncoding, targetEncoding);
+				byte[] buf = new byte[ZipDatasetSource.BUFSIZE];
+				int nRead;
+				while ((nRead = is.read(buf)) != -1) {
+					tos.write(buf, 0, nRead);
+				}
+				tos.finish();
+			} finally {
+				try {
+					is.close();
+				} catch (IOException ignore) {}
+			}
+		}
+	}
+}
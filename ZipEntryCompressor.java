@@ -0,0 +1,467 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * Reads and compresses {@link ZipEntrySource}s concurrently on a bounded
+ * pool of worker threads, and adds the compressed entries to a
+ * {@link ZipArchiveWriter} in the order that the sources were given.
+ * <p/>
+ * Each worker reads a source, encodes it in the target encoding and
+ * deflates it into a per-entry buffer.  Buffers are held in memory
+ * up to {@link #SPILL_THRESHOLD} bytes and are spilled to a temporary
+ * file beyond that, so that a single large sequential dataset does not
+ * exhaust the heap.  At most <code>2 * threads</code> entries are in flight
+ * at a time, which bounds the memory used when zipping very large libraries.
+ * <p/>
+ * If a previous archive is given, entries whose sources are unchanged
+ * are copied from it rather than read and compressed again.
+ * <p/>
+ * The level used to compress each entry, or whether it is stored,
+ * is chosen by a {@link CompressionPolicy} from a sample of its data.
+ *
+ * @see ZipDatasets
+ * @see ZipArchiveWriter
+ * @see CompressionPolicy
+ * @since 2.3.0
+ */
+public class ZipEntryCompressor {
+
+	/** The number of compressed bytes held in memory before spilling to a temporary file */
+	static final int SPILL_THRESHOLD = 8 * 1024 * 1024;
+
+	/** The buffer size used to read/write blocks of data */
+	static final int BUFSIZE = ZipDatasetSource.BUFSIZE;
+
+	private int threads;
+	private String targetEncoding;
+	private ZipArchiveReader previous;
+	private CompressionPolicy policy = new CompressionPolicy();
+	private int errors = 0;
+	private int copied = 0;
+
+	/**
+	 * Construct an instance
+	 * @param threads the number of worker threads (at least 1)
+	 * @param targetEncoding the codepage used to encode the data written to the Zip file
+	 */
+	public ZipEntryCompressor(int threads, String targetEncoding) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1");
+		}
+		this.threads = threads;
+		this.targetEncoding = targetEncoding;
+	}
+
+	/**
+	 * Sets a previous archive, from which unchanged entries are copied.
+	 * @see ZipArchiveReader#getUnchangedEntry(ZipEntrySource, String)
+	 */
+	public void setPrevious(ZipArchiveReader previous) {
+		this.previous = previous;
+	}
+
+	/**
+	 * Sets the policy that chooses how each entry is compressed.
+	 */
+	public void setPolicy(CompressionPolicy policy) {
+		this.policy = policy;
+	}
+
+	/**
+	 * Answer the policy that chooses how each entry is compressed.
+	 */
+	public CompressionPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Answer the number of entries that were copied from the previous archive.
+	 */
+	public int getCopied() {
+		return copied;
+	}
+
+	/**
+	 * Answer the number of entries that could not be added.
+	 */
+	public int getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Compress each of the given sources and add them to the given writer
+	 * in list order.  If an entry fails, an error is reported and
+	 * processing continues with the next entry.
+	 *
+	 * @param sources a List of {@link ZipEntrySource}
+	 * @param writer the target ZipArchiveWriter
+	 * @return the number of entries that could not be added
+	 * @throws IOException if the archive itself could not be written
+	 */
+	public int addAll(List sources, ZipArchiveWriter writer) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		LinkedList pending = new LinkedList();  // Futures or entries to copy, in source order
+		Iterator iter = sources.iterator();
+		try {
+			while (iter.hasNext() || !pending.isEmpty()) {
+				// keep the pipeline full, but bounded
+				while (iter.hasNext() && pending.size() < threads * 2) {
+					final ZipEntrySource source = (ZipEntrySource)iter.next();
+					ZipArchiveReader.Entry unchanged = previous == null 
+								? null 
+								: previous.getUnchangedEntry(source, targetEncoding);
+					if (unchanged != null) {
+						pending.add(unchanged);
+						continue;
+					}
+					pending.add(pool.submit(new Callable() {
+						public Object call() throws Exception {
+							return compress(source);
+						}
+					}));
+				}
+				Object next = pending.removeFirst();
+				if (next instanceof ZipArchiveReader.Entry) {
+					ZipArchiveReader.Entry unchanged = (ZipArchiveReader.Entry)next;
+					writer.copyEntry(previous, unchanged);
+					copied++;
+					System.out.println(" copied: " + unchanged.getName()
+										+ "  (" + unchanged.getSize() + " -> " + unchanged.getCompressedSize() + ")");
+					continue;
+				}
+				CompressedEntry entry = waitFor((Future)next);
+				if (entry == null) {
+					continue;
+				}
+				try {
+					writer.addEntry(entry);
+				} finally {
+					entry.dispose();
+				}
+				System.out.println("  added: " + entry.describe());
+			}
+		} finally {
+			// If the archive could not be written, discard any remaining work
+			for (Iterator i = pending.iterator(); i.hasNext(); ) {
+				Object next = i.next();
+				if (!(next instanceof Future)) {
+					continue;
+				}
+				CompressedEntry entry = waitFor((Future)next);
+				if (entry != null) {
+					entry.dispose();
+				}
+			}
+			pool.shutdown();
+		}
+		return errors;
+	}
+
+	/**
+	 * Wait for a compression task to complete.  Answers null and reports
+	 * an error if the task failed.
+	 */
+	private CompressedEntry waitFor(Future future) {
+		try {
+			return (CompressedEntry)future.get();
+		} catch (ExecutionException ee) {
+			errors++;
+			Throwable t = ee.getCause();
+			System.out.println(">>> Error occuring compressing entry: " + t);
+			System.err.println(">>> Error occuring compressing entry: " + t);
+			t.printStackTrace();
+		} catch (InterruptedException ie) {
+			errors++;
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+
+	/**
+	 * Read, encode and deflate (or store) a single source into a new CompressedEntry.
+	 * This method may be called concurrently from several threads.
+	 *
+	 * @param source the ZipEntrySource
+	 * @return CompressedEntry
+	 * @throws IOException
+	 */
+	public CompressedEntry compress(ZipEntrySource source) throws IOException {
+		long time = System.currentTimeMillis();
+		long cpuStart = CompressionPolicy.currentThreadCpuTime();
+		SpillBuffer buffer = new SpillBuffer();
+		CompressionPolicy.EntryOutputStream eos = new CompressionPolicy.EntryOutputStream(buffer, policy, true);
+		boolean ok = false;
+		try {
+			CrcOutputStream cos = new CrcOutputStream(eos);
+			source.copyTo(cos, targetEncoding);
+			eos.finish();
+			buffer.close();
+			CompressedEntry entry = new CompressedEntry(source.getEntryName(),
+												eos.getMethod(),
+												cos.getCrc(),
+												cos.getCount(),
+												time,
+												buffer);
+			entry.stamp = ZipArchiveWriter.makeStamp(source, targetEncoding);
+			entry.level = eos.getLevel();
+			entry.cpuTime = CompressionPolicy.currentThreadCpuTime() - cpuStart;
+			policy.addCpuTime(entry.cpuTime);
+			ok = true;
+			return entry;
+		} finally {
+			eos.end();
+			if (!ok) {
+				buffer.dispose();
+			}
+		}
+	}
+
+	/**
+	 * A Zip entry whose data has been compressed, and which can be added to
+	 * a {@link ZipArchiveWriter}, or which has been written by 
+	 * {@link ZipArchiveWriter#writeEntry(ZipEntrySource, String, CompressionPolicy)}.
+	 */
+	public static class CompressedEntry {
+		private String name;
+		private int method;
+		private long crc;
+		private long size;
+		private long time;
+		private String stamp;
+		private SpillBuffer data;
+		long compressedSize;
+		int level;
+		long cpuTime;
+
+		CompressedEntry(String name, int method, long crc, long size, long time, SpillBuffer data) {
+			this.name = name;
+			this.method = method;
+			this.crc = crc;
+			this.size = size;
+			this.time = time;
+			this.data = data;
+		}
+
+		/** Answer the entry name */
+		public String getName() {
+			return name;
+		}
+
+		/** Answer the compression method: {@link ZipEntry#DEFLATED} or {@link ZipEntry#STORED} */
+		public int getMethod() {
+			return method;
+		}
+
+		/** Answer the CRC-32 of the uncompressed data */
+		public long getCrc() {
+			return crc;
+		}
+
+		/** Answer the uncompressed size */
+		public long getSize() {
+			return size;
+		}
+
+		/** Answer the compressed size */
+		public long getCompressedSize() {
+			return data != null ? data.size() : compressedSize;
+		}
+
+		/** 
+		 * Answer the Deflater level used, or {@link CompressionPolicy#NO_COMPRESSION}
+		 * if the data was stored or deflated without compression 
+		 */
+		public int getLevel() {
+			return level;
+		}
+
+		/** Answer the CPU time used to read and compress the entry, in nanoseconds */
+		public long getCpuTime() {
+			return cpuTime;
+		}
+
+		/**
+		 * Answer a description of the entry for reporting: its name, sizes, 
+		 * compression ratio, method and level and CPU time.
+		 */
+		public String describe() {
+			long csize = getCompressedSize();
+			long ratio = size == 0 ? 0 : Math.round(100.0 * (size - csize) / size);
+			String how = method == ZipEntry.STORED ? "stored" : "level " + level;
+			return name + "  (" + size + " -> " + csize + ", " + ratio + "%, " + how
+					+ ", cpu " + (cpuTime / 1000) / 1000.0 + " ms)";
+		}
+
+		/** Answer the modification time of the entry */
+		public long getTime() {
+			return time;
+		}
+
+		/** Answer the stamp of the entry's source, or null */
+		public String getStamp() {
+			return stamp;
+		}
+
+		/** Write the compressed data to the given OutputStream */
+		public void writeCompressedData(OutputStream os) throws IOException {
+			data.writeTo(os);
+		}
+
+		/** Release the buffer or temporary file holding the compressed data, if any */
+		public void dispose() {
+			if (data != null) {
+				data.dispose();
+			}
+		}
+	}
+
+	/**
+	 * An OutputStream that computes a CRC-32 and count of the bytes
+	 * written through it.
+	 */
+	static class CrcOutputStream extends FilterOutputStream {
+		private CRC32 crc = new CRC32();
+		private long count = 0;
+
+		CrcOutputStream(OutputStream os) {
+			super(os);
+		}
+
+		public void write(int b) throws IOException {
+			out.write(b);
+			crc.update(b);
+			count++;
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			crc.update(b, off, len);
+			count += len;
+		}
+
+		long getCrc() {
+			return crc.getValue();
+		}
+
+		long getCount() {
+			return count;
+		}
+	}
+
+	/**
+	 * An OutputStream that holds data in memory up to {@link ZipEntryCompressor#SPILL_THRESHOLD}
+	 * bytes, and in a temporary file beyond that.
+	 */
+	static class SpillBuffer extends OutputStream {
+		private byte[] buf = new byte[BUFSIZE];
+		private int count = 0;
+		private File spillFile;
+		private OutputStream spillStream;
+		private long spillCount = 0;
+
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte)b }, 0, 1);
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (spillStream != null) {
+				spillStream.write(b, off, len);
+				spillCount += len;
+				return;
+			}
+			if (count + len > SPILL_THRESHOLD) {
+				spill();
+				write(b, off, len);
+				return;
+			}
+			if (count + len > buf.length) {
+				byte[] newBuf = new byte[Math.min(SPILL_THRESHOLD, Math.max(buf.length * 2, count + len))];
+				System.arraycopy(buf, 0, newBuf, 0, count);
+				buf = newBuf;
+			}
+			System.arraycopy(b, off, buf, count, len);
+			count += len;
+		}
+
+		private void spill() throws IOException {
+			spillFile = File.createTempFile("zipentry", ".tmp");
+			spillFile.deleteOnExit();
+			spillStream = new FileOutputStream(spillFile);
+			spillStream.write(buf, 0, count);
+			spillCount = count;
+			buf = null;
+		}
+
+		public void close() throws IOException {
+			if (spillStream != null) {
+				spillStream.close();
+			}
+		}
+
+		long size() {
+			return spillFile != null ? spillCount : count;
+		}
+
+		void writeTo(OutputStream os) throws IOException {
+			if (spillFile == null) {
+				os.write(buf, 0, count);
+				return;
+			}
+			InputStream is = new FileInputStream(spillFile);
+			try {
+				byte[] b = new byte[BUFSIZE];
+				int nRead;
+				while ((nRead = is.read(b)) != -1) {
+					os.write(b, 0, nRead);
+				}
+			} finally {
+				is.close();
+			}
+		}
+
+		void dispose() {
+			buf = null;
+			if (spillFile != null) {
+				try {
+					spillStream.close();
+				} catch (IOException ignore) {}
+				spillFile.delete();
+			}
+		}
+	}
+}
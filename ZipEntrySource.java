@@ -0,0 +1,71 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A single entry to be added to a Zip archive by {@link ZipDatasets}.
+ * <p/>
+ * Instances are produced by expanding a {@link ZipDatasetSource} (one per
+ * sequential dataset or PDS member) or a {@link ZipDirectorySource}
+ * (one per Unix file), before any data is read.  This allows the data for
+ * several entries to be read and compressed concurrently by a
+ * {@link ZipEntryCompressor}.
+ * <p/>
+ * Implementations must be safe to use from a thread other than the one
+ * that created them, but a single instance is only used by one thread at a time.
+ *
+ * @see ZipDatasetSource#collectEntries(java.util.List)
+ * @see ZipDirectorySource#collectEntries(java.util.List)
+ * @since 2.3.0
+ */
+public interface ZipEntrySource {
+
+	/**
+	 * Answer the name of the Zip entry.
+	 * <p/>
+	 * For sources that are opened by DD name, the actual dataset name
+	 * may not be known until the data has been copied, so this method
+	 * should be called after {@link #copyTo(OutputStream, String)}.
+	 */
+	String getEntryName();
+
+	/**
+	 * Open the source, copy its data to the given OutputStream encoded
+	 * in the given target encoding, and close the source.
+	 * The OutputStream is not closed.
+	 *
+	 * @param os the target OutputStream
+	 * @param targetEncoding the codepage used to encode the data written to os
+	 * @throws IOException
+	 */
+	void copyTo(OutputStream os, String targetEncoding) throws IOException;
+
+	/**
+	 * Answer a string that changes whenever the data of this source changes,
+	 * such as its modification time and size, or null if this is not known.
+	 * This is recorded in the Zip archive, so that an unchanged entry
+	 * can be copied from a previous archive rather than read again.
+	 * This method is called before {@link #copyTo(OutputStream, String)}.
+	 * @see ZipArchiveReader#getUnchangedEntry(ZipEntrySource, String)
+	 */
+	String getStamp();
+}
@@ -0,0 +1,425 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes records to an OutputStream, such as the stdin stream of a DFSORT
+ * child process, on a separate writer thread, so that producing records
+ * overlaps writing them.
+ * <p>
+ * The sink has a ring of pre-allocated blocks.  {@link #write(byte[], int, int)}
+ * copies each record (prefixed by an RDW, for variable length records) into the
+ * current block; when the record does not fit, the block is queued for the
+ * writer thread and the next free block is taken.  The writer thread writes each
+ * block to the stream in a single call and returns it to the free ring.
+ * <p>
+ * The ring gives backpressure: if every block is full, a producer waits for the
+ * writer, and if no block is full, the writer waits for the producers.  Both waits
+ * are counted as stalls, which show whether record production or the stream is
+ * the bottleneck.
+ * <p>
+ * Records may be written from several producer threads; each record is written
+ * whole, but the order of records from different threads is not defined.
+ * An error writing the stream is thrown by the next call to write or close.
+ * <p>
+ * This class may be run as a command to write generated records to stdout, or
+ * to the stdin of a command, and print the counters:
+ * <pre>
+ * AsyncRecordSink [-v] [-b blocks] [-s blocksize] lrecl numrecs [command args...]
+ * </pre>
+ *
+ * @see DfSortFixedJavaToDataset
+ * @see DfSortVariableJavaToDataset
+ * @since 2.3.0
+ */
+public class AsyncRecordSink {
+
+	public static final int DEFAULT_BLOCK_COUNT = 8;
+	public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+	private static final Block END = new Block(0);
+
+	private OutputStream os;
+	private boolean rdws;
+	private BlockingQueue free;
+	private BlockingQueue full;
+	private Block current;
+	private Thread writer;
+	private volatile IOException failure;
+	private boolean closed;
+
+	private long recordCount;
+	private long byteCount;
+	private long blockCount;
+	private long producerStalls;
+	private long producerStallNanos;
+	private volatile long writerStalls;
+	private volatile long writerStallNanos;
+	private volatile long writeNanos;
+
+	/**
+	 * Construct an instance with the default ring, and start its writer thread.
+	 * @param os the stream to write
+	 * @param rdws true if each record is to be prefixed by an RDW
+	 */
+	public AsyncRecordSink(OutputStream os, boolean rdws) {
+		this(os, rdws, DEFAULT_BLOCK_COUNT, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Construct an instance, and start its writer thread.
+	 * @param os the stream to write
+	 * @param rdws true if each record is to be prefixed by an RDW
+	 * @param blockCount the number of blocks in the ring (at least 2)
+	 * @param blockSize the size of each block, which is increased if needed
+	 *        to hold the largest record
+	 */
+	public AsyncRecordSink(OutputStream os, boolean rdws, int blockCount, int blockSize) {
+		if (blockCount < 2) {
+			throw new IllegalArgumentException("blockCount must be at least 2");
+		}
+		this.os = os;
+		this.rdws = rdws;
+		this.free = new ArrayBlockingQueue(blockCount);
+		this.full = new ArrayBlockingQueue(blockCount + 1);
+		for (int i=0; i<blockCount - 1; i++) {
+			free.add(new Block(blockSize));
+		}
+		this.current = new Block(blockSize);
+		this.writer = new Thread(new Runnable() {
+			public void run() {
+				drain();
+			}
+		}, "AsyncRecordSink");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Write a record.  The record is copied, so the caller may reuse its array.
+	 * @throws IOException if the writer thread has failed, or the sink is closed
+	 */
+	public synchronized void write(byte[] record, int offset, int length) throws IOException {
+		if (closed) {
+			throw new IOException("AsyncRecordSink is closed");
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		int needed = rdws ? length + 4 : length;
+		if (rdws && needed > 0xFFFF) {
+			throw new IOException("Record length " + length + " is too large for an RDW");
+		}
+		if (current.data.length - current.length < needed) {
+			if (current.length > 0) {
+				queue(current);
+				current = takeFree();
+			}
+			if (current.data.length < needed) {
+				current.data = new byte[needed];
+			}
+		}
+		byte[] data = current.data;
+		int pos = current.length;
+		if (rdws) {
+			data[pos++] = (byte)(needed >> 8);
+			data[pos++] = (byte)needed;
+			data[pos++] = 0;
+			data[pos++] = 0;
+		}
+		System.arraycopy(record, offset, data, pos, length);
+		current.length = pos + length;
+		recordCount++;
+		byteCount += needed;
+	}
+
+	/**
+	 * Write a record.
+	 */
+	public void write(byte[] record) throws IOException {
+		write(record, 0, record.length);
+	}
+
+	/**
+	 * Queue any partially filled block, wait for the writer thread to write
+	 * every block, and close the stream.
+	 * @throws IOException if the writer thread failed
+	 */
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (current.length > 0) {
+				queue(current);
+			}
+			current = null;
+			queue(END);
+			writer.join();
+		} catch (InterruptedException ie) {
+			throw new IOException("Interrupted closing AsyncRecordSink");
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void queue(Block block) throws IOException {
+		try {
+			full.put(block);
+		} catch (InterruptedException ie) {
+			throw new IOException("Interrupted queuing a block");
+		}
+	}
+
+	private Block takeFree() throws IOException {
+		Block block = (Block)free.poll();
+		if (block == null) {
+			producerStalls++;
+			long start = System.nanoTime();
+			try {
+				while (block == null) {
+					if (failure != null) {
+						throw failure;
+					}
+					block = (Block)free.poll(100, TimeUnit.MILLISECONDS);
+				}
+			} catch (InterruptedException ie) {
+				throw new IOException("Interrupted waiting for a free block");
+			} finally {
+				producerStallNanos += System.nanoTime() - start;
+			}
+		}
+		block.length = 0;
+		return block;
+	}
+
+	/*
+	 * The writer thread: write each full block, and return it to the free ring.
+	 * After a failure, blocks are still returned (unwritten) so that producers
+	 * do not wait forever.
+	 */
+	private void drain() {
+		try {
+			while (true) {
+				Block block = (Block)full.poll();
+				if (block == null) {
+					writerStalls++;
+					long start = System.nanoTime();
+					block = (Block)full.take();
+					writerStallNanos += System.nanoTime() - start;
+				}
+				if (block == END) {
+					break;
+				}
+				if (failure == null) {
+					long start = System.nanoTime();
+					try {
+						os.write(block.data, 0, block.length);
+						blockCount++;
+					} catch (IOException ioe) {
+						failure = ioe;
+					}
+					writeNanos += System.nanoTime() - start;
+				}
+				free.offer(block);
+			}
+			try {
+				os.close();
+			} catch (IOException ioe) {
+				if (failure == null) {
+					failure = ioe;
+				}
+			}
+		} catch (InterruptedException ie) {
+			failure = new IOException("AsyncRecordSink writer interrupted");
+		}
+	}
+
+	/**
+	 * Answer the number of records written to the sink.
+	 */
+	public synchronized long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Answer the number of bytes written to the sink, including any RDWs.
+	 */
+	public synchronized long getByteCount() {
+		return byteCount;
+	}
+
+	/**
+	 * Answer the number of blocks written to the stream.  Valid after close.
+	 */
+	public long getBlockCount() {
+		return blockCount;
+	}
+
+	/**
+	 * Answer the number of times a producer waited for a free block.
+	 */
+	public synchronized long getProducerStalls() {
+		return producerStalls;
+	}
+
+	/**
+	 * Answer the time, in milliseconds, that producers waited for free blocks.
+	 */
+	public synchronized long getProducerStallMillis() {
+		return producerStallNanos / 1000000L;
+	}
+
+	/**
+	 * Answer the number of times the writer thread waited for a full block.
+	 */
+	public long getWriterStalls() {
+		return writerStalls;
+	}
+
+	/**
+	 * Answer the time, in milliseconds, that the writer thread waited for full blocks.
+	 */
+	public long getWriterStallMillis() {
+		return writerStallNanos / 1000000L;
+	}
+
+	/**
+	 * Answer the time, in milliseconds, that the writer thread spent writing the stream.
+	 */
+	public long getWriteMillis() {
+		return writeNanos / 1000000L;
+	}
+
+	/**
+	 * Answer a summary of the counters.
+	 */
+	public String toString() {
+		return "RECORDS=" + getRecordCount() + " BYTES=" + getByteCount() + " BLOCKS=" + getBlockCount()
+				+ " WRITE TIME=" + getWriteMillis()
+				+ " PRODUCER STALLS=" + getProducerStalls() + " (" + getProducerStallMillis() + " ms)"
+				+ " WRITER STALLS=" + getWriterStalls() + " (" + getWriterStallMillis() + " ms)";
+	}
+
+	/**
+	 * A block of the ring, and the number of bytes used in it.
+	 */
+	static class Block {
+		byte[] data;
+		int length;
+
+		Block(int size) {
+			this.data = new byte[size];
+		}
+	}
+
+	/**
+	 * Write generated records to stdout, or to the stdin of a command, and
+	 * print the counters.  See the class description for the arguments.
+	 */
+	public static void main(String[] args) throws Exception {
+		boolean rdws = false;
+		int blockCount = DEFAULT_BLOCK_COUNT;
+		int blockSize = DEFAULT_BLOCK_SIZE;
+		List positional = new ArrayList();
+		List command = new ArrayList();
+		try {
+			for (int i=0; i<args.length; i++) {
+				if (positional.size() == 2) {
+					command.add(args[i]);
+				} else if ("-v".equals(args[i])) {
+					rdws = true;
+				} else if ("-b".equals(args[i])) {
+					blockCount = Integer.parseInt(args[++i]);
+				} else if ("-s".equals(args[i])) {
+					blockSize = Integer.parseInt(args[++i]);
+				} else {
+					positional.add(new Integer(args[i]));
+				}
+			}
+		} catch (RuntimeException e) {
+			positional.clear();
+		}
+		if (positional.size() < 2) {
+			System.err.println("Usage: " + AsyncRecordSink.class.getName()
+					+ " [-v] [-b blocks] [-s blocksize] lrecl numrecs [command args...]");
+			System.err.println("Where:");
+			System.err.println("\t-v writes RDW prefixed records of varying length up to lrecl");
+			System.err.println("\tcommand is a command whose stdin is written, as a stand-in for a DFSORT child process;");
+			System.err.println("\t\tstdout is written if no command is given");
+			System.exit(4);
+		}
+		int lrecl = ((Integer)positional.get(0)).intValue();
+		int numrecs = ((Integer)positional.get(1)).intValue();
+
+		Process process = null;
+		OutputStream os;
+		if (!command.isEmpty()) {
+			process = new ProcessBuilder(command).redirectErrorStream(true).start();
+			os = process.getOutputStream();
+			// drain the command's output, so that it does not block
+			final InputStream output = process.getInputStream();
+			Thread drainer = new Thread(new Runnable() {
+				public void run() {
+					byte[] buf = new byte[4096];
+					try {
+						while (output.read(buf) != -1) {
+						}
+					} catch (IOException ignore) {}
+				}
+			});
+			drainer.setDaemon(true);
+			drainer.start();
+		} else {
+			os = new FileOutputStream(FileDescriptor.out);
+		}
+		long startTime = System.currentTimeMillis();
+		AsyncRecordSink sink = new AsyncRecordSink(os, rdws, blockCount, blockSize);
+		byte[] record = new byte[lrecl];
+		try {
+			for (int i=0; i<numrecs; i++) {
+				for (int j=0; j<lrecl; j++) {
+					record[j] = (byte)('A' + (i * 7 + j) % 26);
+				}
+				sink.write(record, 0, rdws ? Math.max(1, i % lrecl) : lrecl);
+			}
+		} finally {
+			sink.close();
+		}
+		int rc = 0;
+		if (process != null) {
+			rc = process.waitFor();
+		}
+		long runtime = System.currentTimeMillis() - startTime;
+		System.err.println("RC=" + rc + " TIME=" + runtime + " " + sink);
+	}
+}
@@ -0,0 +1,387 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link RecordSource} which reads fixed length or RDW prefixed records
+ * from an InputStream, such as the stdout stream of a DFSORT child process.
+ * <p>
+ * Large blocks are read from the stream into a single buffer, and each record
+ * is answered as a slice of that buffer, so that a record is not copied again
+ * and no call is made per byte.  A record which spans two blocks is
+ * moved to the start of the buffer before the next block is read.
+ * <p>
+ * If the stream is a FileInputStream (as for a pipe or a Unix file),
+ * the buffer is by default a direct ByteBuffer which is filled through the stream's
+ * FileChannel.  Otherwise, or if a heap buffer is requested, the buffer is a heap
+ * ByteBuffer whose array is filled by the stream's read method, so that records
+ * can be read in place by JZOS Fields (see {@link SortedRecordIterator}).
+ * <p>
+ * The reader keeps throughput metrics: the number of records, bytes and reads,
+ * the time spent waiting in reads, and the elapsed time from the first read
+ * to the end of the stream.
+ * <p>
+ * This class may be run as a command to read records from a file, stdin, or
+ * the stdout of a command, and print the metrics:
+ * <pre>
+ * BlockRecordReader [-l lrecl | -v] [-b blocksize] [file | -c command args...]
+ * </pre>
+ *
+ * @see DfSortFixedDatasetToJava
+ * @see DfSortVariableDatasetToJava
+ * @since 2.3.0
+ */
+public class BlockRecordReader implements RecordSource {
+
+	public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+	private InputStream is;
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private boolean rdws;
+	private int lrecl;
+	private int blockSize;
+	private boolean includeRdw;
+	private boolean eof;
+	private int offset;
+	private int length;
+
+	private long recordCount;
+	private long byteCount;
+	private long readCount;
+	private long readNanos;
+	private long startNanos;
+	private long endNanos;
+
+	/**
+	 * Construct an instance which reads fixed length records of the given length.
+	 */
+	public BlockRecordReader(InputStream is, int lrecl) {
+		this(is, false, lrecl, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Construct an instance which reads RDW prefixed variable length records.
+	 */
+	public BlockRecordReader(InputStream is) {
+		this(is, true, 0, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Construct an instance.
+	 * @param is the stream to read
+	 * @param rdws true if each record is prefixed by an RDW
+	 * @param lrecl the length of fixed length records; ignored if rdws is true
+	 * @param blockSize the number of bytes to read at once
+	 */
+	public BlockRecordReader(InputStream is, boolean rdws, int lrecl, int blockSize) {
+		this(is, rdws, lrecl, blockSize, is instanceof FileInputStream);
+	}
+
+	/**
+	 * Construct an instance.
+	 * @param is the stream to read
+	 * @param rdws true if each record is prefixed by an RDW
+	 * @param lrecl the length of fixed length records; ignored if rdws is true
+	 * @param blockSize the number of bytes to read at once
+	 * @param direct true to read into a direct buffer, which requires a FileInputStream;
+	 *        false to read into a heap buffer, whose array holds the records
+	 */
+	public BlockRecordReader(InputStream is, boolean rdws, int lrecl, int blockSize, boolean direct) {
+		if (!rdws && lrecl <= 0) {
+			throw new IllegalArgumentException("Invalid lrecl: " + lrecl);
+		}
+		this.is = is;
+		this.rdws = rdws;
+		this.lrecl = lrecl;
+		this.blockSize = Math.max(blockSize, rdws ? 0xFFFF : lrecl);
+		if (direct && is instanceof FileInputStream) {
+			channel = ((FileInputStream)is).getChannel();
+			buffer = ByteBuffer.allocateDirect(this.blockSize);
+		} else {
+			buffer = ByteBuffer.allocate(this.blockSize);
+		}
+		buffer.limit(0);
+	}
+
+	/**
+	 * Set whether the current record of an RDW prefixed stream includes its RDW.
+	 * By default it does not, as with RDWInputRecordStream; the RDW must be included
+	 * for the record positions of a {@link SortFields} to apply.
+	 */
+	public void setIncludeRdw(boolean includeRdw) {
+		this.includeRdw = includeRdw;
+	}
+
+	/**
+	 * Advance to the next record.  For an RDW prefixed record, the current
+	 * record excludes the RDW unless {@link #setIncludeRdw(boolean)} is set.
+	 * @throws IOException if the stream ends within a record
+	 */
+	public boolean next() throws IOException {
+		if (rdws) {
+			if (!ensure(4)) {
+				return false;
+			}
+			int pos = buffer.position();
+			int rdwLength = ((buffer.get(pos) & 0xFF) << 8) | (buffer.get(pos+1) & 0xFF);
+			if (rdwLength < 4) {
+				throw new IOException("Invalid RDW length " + rdwLength + " in record " + (recordCount + 1));
+			}
+			if (!ensure(rdwLength)) {
+				throw new IOException("EOF encountered before all record bytes read");
+			}
+			offset = buffer.position();
+			buffer.position(offset + rdwLength);
+			if (includeRdw) {
+				length = rdwLength;
+			} else {
+				offset += 4;
+				length = rdwLength - 4;
+			}
+		} else {
+			if (!ensure(lrecl)) {
+				return false;
+			}
+			offset = buffer.position();
+			length = lrecl;
+			buffer.position(offset + length);
+		}
+		recordCount++;
+		return true;
+	}
+
+	/*
+	 * Ensure that at least n bytes remain in the buffer, reading more if needed.
+	 * Answer false if the stream ended before any byte was read; throw an
+	 * IOException if it ended after part of the n bytes.
+	 */
+	private boolean ensure(int n) throws IOException {
+		if (buffer.remaining() >= n) {
+			return true;
+		}
+		if (buffer.position() > 0) {
+			buffer.compact();
+			buffer.flip();
+		}
+		while (buffer.remaining() < n && !eof) {
+			fill();
+		}
+		if (buffer.remaining() >= n) {
+			return true;
+		}
+		if (buffer.hasRemaining()) {
+			throw new IOException("EOF encountered before all record bytes read");
+		}
+		return false;
+	}
+
+	/*
+	 * Read once from the stream into the free space after the buffer's limit.
+	 */
+	private void fill() throws IOException {
+		int pos = buffer.position();
+		int lim = buffer.limit();
+		long start = System.nanoTime();
+		if (startNanos == 0) {
+			startNanos = start;
+		}
+		int n;
+		if (channel != null) {
+			buffer.position(lim);
+			buffer.limit(buffer.capacity());
+			n = channel.read(buffer);
+		} else {
+			n = is.read(buffer.array(), lim, buffer.capacity() - lim);
+		}
+		long end = System.nanoTime();
+		readNanos += end - start;
+		readCount++;
+		if (n < 0) {
+			eof = true;
+			endNanos = end;
+			n = 0;
+		}
+		byteCount += n;
+		buffer.limit(lim + n);
+		buffer.position(pos);
+	}
+
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Copy the current record into the given array, and answer its length.
+	 */
+	public int getRecord(byte[] bytes) {
+		int pos = buffer.position();
+		buffer.position(offset);
+		buffer.get(bytes, 0, length);
+		buffer.position(pos);
+		return length;
+	}
+
+	/**
+	 * Close the underlying stream.
+	 */
+	public void close() throws IOException {
+		if (endNanos == 0) {
+			endNanos = System.nanoTime();
+		}
+		is.close();
+	}
+
+	/**
+	 * Answer the number of records read.
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Answer the number of bytes read from the stream.
+	 */
+	public long getByteCount() {
+		return byteCount;
+	}
+
+	/**
+	 * Answer the number of reads from the stream.
+	 */
+	public long getReadCount() {
+		return readCount;
+	}
+
+	/**
+	 * Answer the time, in milliseconds, spent waiting in reads from the stream.
+	 */
+	public long getReadMillis() {
+		return readNanos / 1000000L;
+	}
+
+	/**
+	 * Answer the time, in milliseconds, from the first read to the end of
+	 * the stream (or to now, if the stream has not ended).
+	 */
+	public long getElapsedMillis() {
+		if (startNanos == 0) {
+			return 0;
+		}
+		long end = (endNanos != 0) ? endNanos : System.nanoTime();
+		return (end - startNanos) / 1000000L;
+	}
+
+	/**
+	 * Answer the throughput, in megabytes per second, over the elapsed time.
+	 */
+	public double getMegabytesPerSecond() {
+		long millis = getElapsedMillis();
+		return (millis == 0) ? 0 : (byteCount / (1024.0 * 1024.0)) / (millis / 1000.0);
+	}
+
+	/**
+	 * Answer a summary of the throughput metrics.
+	 */
+	public String toString() {
+		return "RECORDS=" + recordCount + " BYTES=" + byteCount + " READS=" + readCount
+				+ " READ TIME=" + getReadMillis() + " ELAPSED=" + getElapsedMillis()
+				+ " MB/S=" + Math.round(getMegabytesPerSecond() * 10) / 10.0
+				+ (channel != null ? " (direct)" : " (heap)");
+	}
+
+	/**
+	 * Read records from a file, stdin, or the stdout of a command, and print
+	 * the throughput metrics.  See the class description for the arguments.
+	 */
+	public static void main(String[] args) throws Exception {
+		int lrecl = -1;
+		boolean rdws = false;
+		int blockSize = DEFAULT_BLOCK_SIZE;
+		String file = null;
+		List command = new ArrayList();
+		for (int i=0; i<args.length; i++) {
+			if ("-l".equals(args[i]) && i+1 < args.length) {
+				lrecl = Integer.parseInt(args[++i]);
+			} else if ("-v".equals(args[i])) {
+				rdws = true;
+			} else if ("-b".equals(args[i]) && i+1 < args.length) {
+				blockSize = Integer.parseInt(args[++i]);
+			} else if ("-c".equals(args[i])) {
+				while (++i < args.length) {
+					command.add(args[i]);
+				}
+			} else {
+				file = args[i];
+			}
+		}
+		if ((lrecl <= 0) == !rdws) {
+			System.err.println("Usage: " + BlockRecordReader.class.getName()
+					+ " [-l lrecl | -v] [-b blocksize] [file | -c command args...]");
+			System.err.println("Where:");
+			System.err.println("\t-l lrecl: fixed length records, or -v: RDW prefixed variable length records");
+			System.err.println("\tfile is a file to read; stdin is read if neither file nor command is given");
+			System.err.println("\tcommand is a command whose stdout is read, as a stand-in for a DFSORT child process");
+			System.exit(4);
+		}
+
+		Process process = null;
+		InputStream is;
+		if (!command.isEmpty()) {
+			process = new ProcessBuilder(command).start();
+			is = process.getInputStream();
+		} else if (file != null) {
+			is = new FileInputStream(file);
+		} else {
+			is = new FileInputStream(FileDescriptor.in);
+		}
+		BlockRecordReader reader = new BlockRecordReader(is, rdws, lrecl, blockSize);
+		long checksum = 0;
+		try {
+			while (reader.next()) {
+				ByteBuffer buf = reader.getBuffer();
+				int end = reader.getOffset() + reader.getLength();
+				for (int i=reader.getOffset(); i<end; i++) {
+					checksum = checksum * 31 + buf.get(i);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		int rc = (process != null) ? process.waitFor() : 0;
+		System.out.println("RC=" + rc + " " + reader + " CHECKSUM=" + Long.toHexString(checksum));
+	}
+}
@@ -18,10 +18,9 @@
  */
 package com.ibm.jzos.sample.dfsort;
 
+import java.io.IOException;
 import java.util.StringTokenizer;
 
-import com.ibm.jzos.ZFileException;
-
 /**
  * Helper class for parsing key=value pair arguments into a usable
  * form for the DFSORT sample programs. 
@@ -38,9 +37,12 @@ import com.ibm.jzos.ZFileException;
  * <li><code>int getLrecl()</code> from: lrecl=nnn</li>
  * <li><code>int getNumrecs()</code> from: numrecs=mmm</li>
  * <li><code>int getLogLevel()</code> from: loglevel=n</li>
+ * <li><code>String getEngine()</code> from: engine=dfsort/java</li>
  * </ul>
+ * The engine selects the {@link SortProcess} answered by {@link #newSortProcess()}:
+ * a DFSORT child process (the default), or an in-JVM {@link JavaSort}.
  */
-public class DfSortArguments {
+public class DfSortArguments implements SortProcessFactory {
 	
 	private DsInfo sortinDataset;
 	private DsInfo sortoutDataset;
@@ -49,13 +51,17 @@ public class DfSortArguments {
 	private int numrecs = -1;
 	private String encoding;
 	private int logLevel = -1;
+	private String engine = ENGINE_DFSORT;
+
+	public static final String ENGINE_DFSORT = "dfsort";
+	public static final String ENGINE_JAVA = "java";
 	
 	/**
 	 * Construct and parse a list of arguments as described by the class description.
 	 * @param args an array of key=value arguments
-	 * @throws ZFileException if a dataset cannot be opened
+	 * @throws IOException if a dataset's attributes cannot be read
 	 */
-	public DfSortArguments(String args[]) throws ZFileException {
+	public DfSortArguments(String args[]) throws IOException {
 		for (int i = 0; i<args.length; i++) {
 			StringTokenizer strtok = new StringTokenizer(args[i],"=");
 			if (strtok.countTokens() != 2) {
@@ -77,6 +83,11 @@ public class DfSortArguments {
 				encoding = value;
 			} else if ("loglevel".equalsIgnoreCase(name)) {
 				logLevel = Integer.parseInt(value);
+			} else if ("engine".equalsIgnoreCase(name)) {
+				if (!ENGINE_DFSORT.equalsIgnoreCase(value) && !ENGINE_JAVA.equalsIgnoreCase(value)) {
+					throw new IllegalArgumentException("Engine '" + value + "' not recognized.");
+				}
+				engine = value.toLowerCase();
 			} else {
 				throw new IllegalArgumentException("Argument '" + name + "' not recognized.");
 			}
@@ -145,4 +156,24 @@ public class DfSortArguments {
 		return logLevel;
 	}
 
+	/**
+	 * Answer the sort engine, either {@link #ENGINE_DFSORT} or {@link #ENGINE_JAVA}.
+	 * Answers {@link #ENGINE_DFSORT} if not supplied.
+	 * @return String
+	 */
+	public String getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Answer a new {@link SortProcess} for the selected engine.
+	 * @return SortProcess
+	 */
+	public SortProcess newSortProcess() {
+		if (ENGINE_JAVA.equals(engine)) {
+			return new JavaSort();
+		}
+		return new DfSortProcess();
+	}
+
 }
@@ -0,0 +1,591 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import com.ibm.jzos.RcException;
+import com.ibm.jzos.ZUtil;
+
+/**
+ * Sample program that benchmarks each of the data paths used by the DFSORT
+ * samples in this package:
+ * <ul>
+ * <li>dataset-dataset: SORTIN and SORTOUT are allocated, as in {@link DfSortFixedDatasetToFixedDataset}</li>
+ * <li>dataset-java: SORTIN is allocated and sorted records are read by a
+ * {@link SortedRecordIterator}, as in {@link DfSortFixedDatasetToJava}</li>
+ * <li>java-dataset: records are written through an {@link AsyncRecordSink} and
+ * SORTOUT is allocated, as in {@link DfSortFixedJavaToDataset}</li>
+ * <li>dataset-read: SORTIN is read by a {@link BlockRecordReader} without sorting,
+ * as a baseline for the others</li>
+ * </ul>
+ * Each path is run with fixed (F) and variable (V) length records, and with DFSORT in
+ * a separate address space and in the same address space as the JVM (shareas no/yes).
+ * <p>
+ * The "datasets" are z/OS Unix files written by this program, allocated with
+ * <code>path()</code> so that the same cases run with either engine; with
+ * <code>-e java</code> the sorts are done by {@link JavaSort}, so the benchmark
+ * can be run on any platform.  Each case is run <code>warmup</code> times untimed,
+ * then <code>iterations</code> times timed.  For each case the minimum, mean,
+ * 50th, 90th and 99th percentile and maximum elapsed times are reported, and the
+ * records and megabytes per second at the median time.  CPU time is taken from
+ * {@link ZUtil#getCpuTimeMicros()} where it is available; it includes DFSORT only
+ * when it runs in the same address space.
+ * <p>
+ * Progress is written to stderr, and the results are written as JSON to stdout
+ * or the given file.
+ * <p>
+ * Usage: <code>com.ibm.jzos.sample.dfsort.DfSortBenchmark [-e dfsort|java] [-r numrecs]
+ * [-l lrecl] [-w warmup] [-n iterations] [-c case] [-t tmpdir] [-o jsonfile]</code>
+ * <br>The defaults are DFSORT, 100000 records, LRECL 80 (and up to 4 times that
+ * for variable records), 2 warmup runs and 10 timed runs.  <code>case</code>
+ * selects the cases whose names contain it; for example "dataset-java/F".
+ *
+ * @since 2.3.0
+ */
+public class DfSortBenchmark {
+
+	public static final String PATH_DATASET_TO_DATASET = "dataset-dataset";
+	public static final String PATH_DATASET_TO_JAVA = "dataset-java";
+	public static final String PATH_JAVA_TO_DATASET = "java-dataset";
+	public static final String PATH_DATASET_READ = "dataset-read";
+
+	private static final String[] PATHS = {
+		PATH_DATASET_TO_DATASET, PATH_DATASET_TO_JAVA, PATH_JAVA_TO_DATASET, PATH_DATASET_READ
+	};
+	private static final double[] PERCENTILES = { 50, 90, 99 };
+	private static final int KEY_LENGTH = 25;
+	private static final int MAX_VARIABLE_DATA = 32752;
+	private static final String RECORD_DATA = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+	private SortProcessFactory factory;
+	private int numrecs;
+	private int lrecl;
+	private int maxVariableData;
+	private File tempDirectory;
+	private int warmup = 2;
+	private int iterations = 10;
+	private boolean cpuTimeAvailable = true;
+
+	/**
+	 * Construct an instance.
+	 * @param factory the factory of the SortProcess for each run
+	 * @param numrecs the number of records in the generated input
+	 * @param lrecl the length of the fixed length records
+	 * @param tempDirectory the directory to hold the input and output files
+	 */
+	public DfSortBenchmark(SortProcessFactory factory, int numrecs, int lrecl, File tempDirectory) {
+		this.factory = factory;
+		this.numrecs = numrecs;
+		this.lrecl = lrecl;
+		this.tempDirectory = tempDirectory;
+		this.maxVariableData = Math.min(4 * lrecl, MAX_VARIABLE_DATA);
+	}
+
+	/**
+	 * Set the number of untimed runs of each case.
+	 */
+	public void setWarmup(int warmup) {
+		this.warmup = warmup;
+	}
+
+	/**
+	 * Set the number of timed runs of each case.
+	 */
+	public void setIterations(int iterations) {
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Answer true if CPU times were available for the runs.
+	 */
+	public boolean isCpuTimeAvailable() {
+		return cpuTimeAvailable;
+	}
+
+	/**
+	 * Run each case whose name contains the given filter, or every case if it
+	 * is null, and answer a List of the {@link Result}s.
+	 */
+	public List run(String filter, PrintStream log) throws Exception {
+		File fixedIn = createTempFile(".fix");
+		File variableIn = createTempFile(".var");
+		File out = createTempFile(".out");
+		try {
+			writeInput(fixedIn, false);
+			writeInput(variableIn, true);
+			List results = new ArrayList();
+			for (int p=0; p<PATHS.length; p++) {
+				for (int v=0; v<2; v++) {
+					for (int s=0; s<2; s++) {
+						boolean rdws = v == 1;
+						boolean shareas = s == 1;
+						if (PATH_DATASET_READ.equals(PATHS[p]) && shareas) {
+							continue;
+						}
+						Case c = new Case(PATHS[p], rdws, shareas, rdws ? variableIn : fixedIn, out);
+						if (filter == null || c.getName().indexOf(filter) >= 0) {
+							Result result = run(c);
+							log.println(result);
+							results.add(result);
+						}
+					}
+				}
+			}
+			return results;
+		} finally {
+			fixedIn.delete();
+			variableIn.delete();
+			out.delete();
+		}
+	}
+
+	/**
+	 * Run a case, and answer its timings.
+	 */
+	private Result run(Case c) throws Exception {
+		long[] wallMicros = new long[iterations];
+		long[] cpuMicros = new long[iterations];
+		for (int i = -warmup; i < iterations; i++) {
+			long cpuStart = getCpuTimeMicros();
+			long start = System.nanoTime();
+			long count = c.runOnce();
+			long wall = (System.nanoTime() - start) / 1000;
+			long cpu = getCpuTimeMicros() - cpuStart;
+			if (count != numrecs) {
+				throw new IllegalStateException(c.getName() + ": " + count + " records, expected " + numrecs);
+			}
+			if (i >= 0) {
+				wallMicros[i] = wall;
+				cpuMicros[i] = cpu;
+			}
+		}
+		return new Result(c, numrecs, c.in.length(), wallMicros, cpuTimeAvailable ? cpuMicros : null);
+	}
+
+	/**
+	 * Answer the CPU time used by this address space, or 0 if it is not
+	 * available on this platform.
+	 */
+	private long getCpuTimeMicros() {
+		if (cpuTimeAvailable) {
+			try {
+				return ZUtil.getCpuTimeMicros();
+			} catch (Throwable notZos) {
+				// NoClassDefFoundError or UnsatisfiedLinkError off z/OS
+				cpuTimeAvailable = false;
+			}
+		}
+		return 0;
+	}
+
+	private File createTempFile(String suffix) throws IOException {
+		File file = File.createTempFile("dfsortbench", suffix, tempDirectory);
+		file.deleteOnExit();
+		return file;
+	}
+
+	/*
+	 * Write the generated input records.  Each record starts with a random key
+	 * of upper case letters; variable length records are from 1 byte to
+	 * 4 times LRECL (at most 32752 bytes) long, and are prefixed by an RDW.
+	 */
+	private void writeInput(File file, boolean rdws) throws IOException {
+		Random random = new Random(numrecs);
+		byte[] data = RECORD_DATA.getBytes("ISO-8859-1");
+		byte[] record = new byte[Math.max(lrecl, maxVariableData + 4)];
+		OutputStream os = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+		try {
+			for (int i=0; i<numrecs; i++) {
+				int length = rdws ? 1 + random.nextInt(maxVariableData) : lrecl;
+				int offset = 0;
+				if (rdws) {
+					record[0] = (byte)((length + 4) >> 8);
+					record[1] = (byte)(length + 4);
+					record[2] = 0;
+					record[3] = 0;
+					offset = 4;
+				}
+				for (int j=0; j<length; j++) {
+					record[offset + j] = j < KEY_LENGTH
+											? (byte)('A' + random.nextInt(26))
+											: data[(i + j) % data.length];
+				}
+				os.write(record, 0, offset + length);
+			}
+		} finally {
+			os.close();
+		}
+	}
+
+	/**
+	 * One data path, with fixed or variable records, and DFSORT in or out of
+	 * the JVM's address space.
+	 */
+	private class Case {
+		String path;
+		boolean rdws;
+		boolean shareas;
+		File in;
+		File out;
+
+		Case(String path, boolean rdws, boolean shareas, File in, File out) {
+			this.path = path;
+			this.rdws = rdws;
+			this.shareas = shareas;
+			this.in = in;
+			this.out = out;
+		}
+
+		String getName() {
+			return path + "/" + (rdws ? "V" : "F") + "/shareas=" + (shareas ? "yes" : "no");
+		}
+
+		/*
+		 * Run the case once, and answer the number of records sorted or read.
+		 */
+		long runOnce() throws Exception {
+			if (PATH_DATASET_READ.equals(path)) {
+				BlockRecordReader reader = rdws
+											? new BlockRecordReader(new FileInputStream(in))
+											: new BlockRecordReader(new FileInputStream(in), lrecl);
+				try {
+					while (reader.next()) {
+					}
+					return reader.getRecordCount();
+				} finally {
+					reader.close();
+				}
+			}
+
+			SortProcess sort = factory.newSortProcess();
+			sort.setSameAddressSpace(shareas);
+			String filedata = rdws ? "filedata(record)" : "filedata(binary)";
+			if (rdws) {
+				sort.addControlStatement("OPTION VLSHRT");
+				sort.addControlStatement("SORT FIELDS=(5," + KEY_LENGTH + ",CH,A)");
+				sort.addControlStatement("RECORD TYPE=V,LENGTH=(" + (maxVariableData + 4) + ")");
+			} else {
+				sort.addControlStatement("SORT FIELDS=(1," + KEY_LENGTH + ",CH,A)");
+				sort.addControlStatement("RECORD TYPE=F,LENGTH=(" + lrecl + ")");
+			}
+			if (PATH_JAVA_TO_DATASET.equals(path)) {
+				if (rdws) {
+					sort.setInputStreamHasRdws();
+				} else {
+					sort.setInputStreamRecLen(lrecl);
+				}
+			} else {
+				sort.addAllocation("alloc fi(sortin) path('" + in.getPath() + "') pathopts(ordonly) "
+									+ filedata + " msg(2)");
+			}
+			if (PATH_DATASET_TO_JAVA.equals(path)) {
+				if (rdws) {
+					sort.setOutputStreamHasRdws();
+				} else {
+					sort.setOutputStreamRecLen(lrecl);
+				}
+			} else {
+				sort.addAllocation("alloc fi(sortout) path('" + out.getPath() + "') "
+									+ "pathopts(owronly,ocreat,otrunc) pathmode(sirusr,siwusr) "
+									+ filedata + " msg(2)");
+			}
+
+			sort.execute();
+			long count = numrecs;
+			try {
+				if (PATH_JAVA_TO_DATASET.equals(path)) {
+					writeRecords(sort);
+				} else if (PATH_DATASET_TO_JAVA.equals(path)) {
+					count = readRecords(sort);
+				}
+			} finally {
+				checkReturnCode(sort);
+			}
+			if (!PATH_DATASET_TO_JAVA.equals(path) && out.length() != in.length()) {
+				throw new IllegalStateException(getName() + ": SORTOUT has " + out.length()
+												+ " bytes, expected " + in.length());
+			}
+			return count;
+		}
+
+		/*
+		 * Write the input records to the sort's stdin, as the JavaToDataset samples do
+		 */
+		private void writeRecords(SortProcess sort) throws IOException {
+			AsyncRecordSink sink = new AsyncRecordSink(sort.getChildStdinStream(), rdws);
+			BlockRecordReader reader = rdws
+										? new BlockRecordReader(new FileInputStream(in))
+										: new BlockRecordReader(new FileInputStream(in), lrecl);
+			byte[] record = new byte[Math.max(lrecl, maxVariableData)];
+			try {
+				while (reader.next()) {
+					sink.write(record, 0, reader.getRecord(record));
+				}
+			} finally {
+				try {
+					reader.close();
+				} finally {
+					sink.close();
+				}
+			}
+		}
+
+		/*
+		 * Read the sorted records from the sort's stdout, as the DatasetToJava samples do
+		 */
+		private long readRecords(SortProcess sort) throws IOException {
+			SortedRecordIterator records = rdws
+											? new SortedRecordIterator(sort)
+											: new SortedRecordIterator(sort, lrecl);
+			long count = 0;
+			try {
+				while (records.hasNext()) {
+					records.next();
+					count++;
+				}
+			} finally {
+				records.close();
+			}
+			return count;
+		}
+
+		private void checkReturnCode(SortProcess sort) {
+			int rc;
+			try {
+				rc = sort.getReturnCode();
+			} catch (RcException rce) {
+				System.err.println("Caught RcException: " + rce.getMessage());
+				rc = -1;
+			}
+			if (rc != 0) {
+				for (Iterator i=sort.getStderrLines().iterator(); i.hasNext(); ) {
+					System.err.println(i.next());
+				}
+				throw new IllegalStateException(getName() + ": RC=" + rc);
+			}
+		}
+	}
+
+	/**
+	 * The timings of the runs of a case.
+	 */
+	public static class Result {
+		private String name;
+		private String path;
+		private boolean rdws;
+		private boolean shareas;
+		private long records;
+		private long bytes;
+		private long[] wallMicros;
+		private long[] cpuMicros;
+
+		Result(Case c, long records, long bytes, long[] wallMicros, long[] cpuMicros) {
+			this.name = c.getName();
+			this.path = c.path;
+			this.rdws = c.rdws;
+			this.shareas = c.shareas;
+			this.records = records;
+			this.bytes = bytes;
+			this.wallMicros = wallMicros.clone();
+			Arrays.sort(this.wallMicros);
+			if (cpuMicros != null) {
+				this.cpuMicros = cpuMicros.clone();
+				Arrays.sort(this.cpuMicros);
+			}
+		}
+
+		/**
+		 * Answer the case name, such as "dataset-java/V/shareas=no".
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Answer the given percentile of the elapsed times, in microseconds.
+		 */
+		public long getWallMicros(double percentile) {
+			return percentile(wallMicros, percentile);
+		}
+
+		/**
+		 * Answer the records per second at the median elapsed time.
+		 */
+		public double getRecordsPerSecond() {
+			return records * 1000000.0 / Math.max(1, getWallMicros(50));
+		}
+
+		/**
+		 * Answer the megabytes per second at the median elapsed time.
+		 */
+		public double getMegabytesPerSecond() {
+			return bytes / (1024.0 * 1024.0) * 1000000.0 / Math.max(1, getWallMicros(50));
+		}
+
+		/*
+		 * Answer the nearest rank percentile of sorted values
+		 */
+		private static long percentile(long[] sorted, double percentile) {
+			int rank = (int)Math.ceil(percentile / 100 * sorted.length);
+			return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+		}
+
+		private static void appendStatistics(StringBuffer sb, long[] sorted) {
+			long total = 0;
+			for (int i=0; i<sorted.length; i++) {
+				total += sorted[i];
+			}
+			sb.append("{\"min\": ").append(sorted[0]);
+			sb.append(", \"mean\": ").append(total / sorted.length);
+			for (int i=0; i<PERCENTILES.length; i++) {
+				sb.append(", \"p").append((int)PERCENTILES[i]).append("\": ").append(percentile(sorted, PERCENTILES[i]));
+			}
+			sb.append(", \"max\": ").append(sorted[sorted.length - 1]).append("}");
+		}
+
+		/**
+		 * Answer this result as a JSON object.
+		 */
+		public String toJson() {
+			StringBuffer sb = new StringBuffer();
+			sb.append("{\"case\": \"").append(name).append("\"");
+			sb.append(", \"path\": \"").append(path).append("\"");
+			sb.append(", \"recfm\": \"").append(rdws ? "V" : "F").append("\"");
+			sb.append(", \"shareas\": ").append(shareas);
+			sb.append(", \"records\": ").append(records);
+			sb.append(", \"bytes\": ").append(bytes);
+			sb.append(", \"wallMicros\": ");
+			appendStatistics(sb, wallMicros);
+			sb.append(", \"cpuMicros\": ");
+			if (cpuMicros != null) {
+				appendStatistics(sb, cpuMicros);
+			} else {
+				sb.append("null");
+			}
+			sb.append(", \"recordsPerSecond\": ").append(Math.round(getRecordsPerSecond()));
+			sb.append(", \"megabytesPerSecond\": ").append(Math.round(getMegabytesPerSecond() * 100) / 100.0);
+			sb.append("}");
+			return sb.toString();
+		}
+
+		public String toString() {
+			return name + ": p50=" + getWallMicros(50) / 1000 + "ms"
+					+ " p90=" + getWallMicros(90) / 1000 + "ms"
+					+ " max=" + getWallMicros(100) / 1000 + "ms"
+					+ (cpuMicros != null ? " cpu(p50)=" + percentile(cpuMicros, 50) / 1000 + "ms" : "")
+					+ " " + Math.round(getRecordsPerSecond()) + " rec/s"
+					+ " " + Math.round(getMegabytesPerSecond() * 10) / 10.0 + " MB/s";
+		}
+	}
+
+	/**
+	 * Run the benchmark.  See the class description for the arguments.
+	 */
+	public static void main(String[] args) throws Exception {
+		String engine = DfSortArguments.ENGINE_DFSORT;
+		int numrecs = 100000;
+		int lrecl = 80;
+		int warmup = 2;
+		int iterations = 10;
+		String filter = null;
+		String tmpdir = System.getProperty("java.io.tmpdir");
+		String jsonFile = null;
+		boolean usage = false;
+		try {
+			for (int i=0; i<args.length; i++) {
+				if ("-e".equals(args[i])) {
+					engine = args[++i];
+				} else if ("-r".equals(args[i])) {
+					numrecs = Integer.parseInt(args[++i]);
+				} else if ("-l".equals(args[i])) {
+					lrecl = Integer.parseInt(args[++i]);
+				} else if ("-w".equals(args[i])) {
+					warmup = Integer.parseInt(args[++i]);
+				} else if ("-n".equals(args[i])) {
+					iterations = Integer.parseInt(args[++i]);
+				} else if ("-c".equals(args[i])) {
+					filter = args[++i];
+				} else if ("-t".equals(args[i])) {
+					tmpdir = args[++i];
+				} else if ("-o".equals(args[i])) {
+					jsonFile = args[++i];
+				} else {
+					usage = true;
+				}
+			}
+		} catch (RuntimeException e) {
+			usage = true;
+		}
+		if (usage || numrecs <= 0 || lrecl < KEY_LENGTH || warmup < 0 || iterations <= 0) {
+			System.err.println("Usage: " + DfSortBenchmark.class.getName()
+					+ " [-e dfsort|java] [-r numrecs] [-l lrecl] [-w warmup] [-n iterations]"
+					+ " [-c case] [-t tmpdir] [-o jsonfile]");
+			System.err.println("Where:");
+			System.err.println("\t-e selects DFSORT (the default) or the in-JVM JavaSort");
+			System.err.println("\tlrecl is the fixed record length, at least " + KEY_LENGTH);
+			System.err.println("\tcase selects the cases whose names contain it, such as \"dataset-java/F\"");
+			System.err.println("\tjsonfile receives the results, which default to stdout");
+			System.exit(4);
+		}
+
+		DfSortArguments engineArgs = new DfSortArguments(new String[] {"engine=" + engine});
+		DfSortBenchmark benchmark = new DfSortBenchmark(engineArgs, numrecs, lrecl, new File(tmpdir));
+		benchmark.setWarmup(warmup);
+		benchmark.setIterations(iterations);
+		long startTime = System.currentTimeMillis();
+		List results = benchmark.run(filter, System.err);
+
+		StringBuffer json = new StringBuffer();
+		json.append("{\"benchmark\": \"").append(DfSortBenchmark.class.getName()).append("\"");
+		json.append(", \"engine\": \"").append(engineArgs.getEngine()).append("\"");
+		json.append(", \"records\": ").append(numrecs);
+		json.append(", \"lrecl\": ").append(lrecl);
+		json.append(", \"warmup\": ").append(warmup);
+		json.append(", \"iterations\": ").append(iterations);
+		json.append(", \"cpuTimeAvailable\": ").append(benchmark.isCpuTimeAvailable());
+		json.append(", \"results\": [");
+		for (Iterator i=results.iterator(); i.hasNext(); ) {
+			json.append("\n  ").append(((Result)i.next()).toJson());
+			if (i.hasNext()) {
+				json.append(",");
+			}
+		}
+		json.append("\n]}");
+
+		PrintStream out = jsonFile != null ? new PrintStream(new FileOutputStream(jsonFile)) : System.out;
+		out.println(json);
+		if (out != System.out) {
+			out.close();
+		}
+		System.err.println("RC=0 TIME=" + (System.currentTimeMillis() - startTime)
+				+ " CASES=" + results.size() + " " + DfSortBenchmark.class.getName());
+	}
+}
@@ -42,6 +42,9 @@ import com.ibm.jzos.ZFile;
  * <dd>Sets the logging level for the child process and prints the resulting
  * child process output is written to System.err.  The valid levels are those defined
  * in the ZUtil.LOG_* constants.</dd>
+ * <dt>[engine=&lt;dfsort | java&gt;]</dt>
+ * <dd>Selects the sort engine.  If java, the records are sorted in the JVM by {@link JavaSort}
+ * rather than by a DFSORT child process.</dd>
  * </dl>
  * <p>
  * Features illustrated:
@@ -56,7 +59,7 @@ public class DfSortCopyFixedDataset {
 	public static void main(String[] args) throws Exception {
 		DfSortArguments dfsortArgs = new DfSortArguments(args);
 		if ((dfsortArgs.getSortinDataset() == null) || (dfsortArgs.getSortoutDataset() == null)) { 
-    		System.err.println("Usage: " + DfSortCopyFixedDataset.class.getName() + " sortin=<dsn> sortout=<dsn> [shareas=<yes|NO>]");
+    		System.err.println("Usage: " + DfSortCopyFixedDataset.class.getName() + " sortin=<dsn> sortout=<dsn> [shareas=<yes|NO>] [engine=<DFSORT|java>]");
     		System.err.println("Where:");
     		System.err.println("\tsortin is a RECFM=F dataset");
     		System.err.println("\tsortout is a RECFM=F dataset");
@@ -89,7 +92,7 @@ public class DfSortCopyFixedDataset {
 		DsInfo inDs = dfsortArgs.getSortinDataset();
 		DsInfo outDs = dfsortArgs.getSortoutDataset();
 		
-		DfSort dfSort = new DfSort();
+		SortProcess dfSort = dfsortArgs.newSortProcess();
 		
 		if (dfsortArgs.getLogLevel() != -1) {
 			dfSort.setLoggingLevel(dfsortArgs.getLogLevel());
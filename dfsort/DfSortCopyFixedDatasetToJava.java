@@ -18,9 +18,6 @@
  */
 package com.ibm.jzos.sample.dfsort;
 
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
 
@@ -45,6 +42,9 @@ import com.ibm.jzos.ZFile;
  * <dd>Sets the logging level for the child process and prints the resulting
  * child process output is written to System.err.  The valid levels are those defined
  * in the ZUtil.LOG_* constants.</dd>
+ * <dt>[engine=&lt;dfsort | java&gt;]</dt>
+ * <dd>Selects the sort engine.  If java, the records are sorted in the JVM by {@link JavaSort}
+ * rather than by a DFSORT child process.</dd>
  * </dl>
  * <p>
  * Features illustrated:
@@ -59,7 +59,7 @@ public class DfSortCopyFixedDatasetToJava {
 	public static void main(String[] args) throws Exception {
 		DfSortArguments dfsortArgs = new DfSortArguments(args);
 		if ((dfsortArgs.getSortinDataset() == null)) { 
-    		System.err.println("Usage: " + DfSortCopyFixedDatasetToJava.class.getName() + " sortin=<dsn> [encoding=<codepage>] [shareas=<yes|NO>]");
+    		System.err.println("Usage: " + DfSortCopyFixedDatasetToJava.class.getName() + " sortin=<dsn> [encoding=<codepage>] [shareas=<yes|NO>] [engine=<DFSORT|java>]");
     		System.err.println("Where:");
     		System.err.println("\tsortin is a RECFM=F dataset");
     		System.err.println("\tencoding is the source character set.  If not supplied, raw bytes are processed.");
@@ -80,7 +80,7 @@ public class DfSortCopyFixedDatasetToJava {
 	private static void doSort(DfSortArguments dfsortArgs) throws Exception {
 		DsInfo inDs = dfsortArgs.getSortinDataset();
 		
-		DfSort dfSort = new DfSort();
+		SortProcess dfSort = dfsortArgs.newSortProcess();
 		
 		if (dfsortArgs.getLogLevel() != -1) {
 			dfSort.setLoggingLevel(dfsortArgs.getLogLevel());
@@ -106,22 +106,28 @@ public class DfSortCopyFixedDatasetToJava {
 		long startTime = System.currentTimeMillis();
 		dfSort.execute();
 		
-		//Once the child starts, open a BufferedInputStream on the child process' stdout
-		//and read the sort result.
-		BufferedInputStream bis = new BufferedInputStream(dfSort.getChildStdoutStream());
+		//Once the child starts, open a BlockRecordReader on the child process' stdout
+		//and read the sort result.  The reader reads large blocks and answers each
+		//record as a slice of its buffer, without copying it.
+		BlockRecordReader reader = new BlockRecordReader(dfSort.getChildStdoutStream(), inDs.getLrecl());
 		byte[] bytes = new byte[inDs.getLrecl()];
 		int recordCount = 0;
-		while (readRecord(bis,bytes)) {
-			//Process data
-			if (dfsortArgs.getEncoding() != null) {
-				String line = new String(bytes,dfsortArgs.getEncoding());
-				//Process encoded string...
-			} else {
-				//Process raw bytes...
+		try {
+			while (reader.next()) {
+				//Process data
+				if (dfsortArgs.getEncoding() != null) {
+					reader.getRecord(bytes);
+					String line = new String(bytes,dfsortArgs.getEncoding());
+					//Process encoded string...
+				} else {
+					//Process raw bytes in reader.getBuffer(), from reader.getOffset()
+					//for reader.getLength() bytes...
+				}
+				recordCount++;
 			}
-			recordCount++;
+		} finally {
+			reader.close();
 		}
-		bis.close();
 	
 		//Wait for dfSort to finish and check the result
 		int rc =0;
@@ -139,6 +145,9 @@ public class DfSortCopyFixedDatasetToJava {
 				System.err.println(i.next());
 			}
 		}
+		if (dfsortArgs.getLogLevel() >= 0) {
+			System.err.println(reader);
+		}
 		
 		startTime = System.currentTimeMillis();
         ZFile zFileIn = new ZFile(inDs.getZFileDsn(), "rb,type=record,noseek");
@@ -159,30 +168,4 @@ public class DfSortCopyFixedDatasetToJava {
 		
 	}
 
-	/*
-	 * Read exactly bytesToRead from the underlying stream (this call may block).  Throw
-	 * an IOException if EOF is encountered before all of the bytes are read.
-	 */
-	private static boolean readRecord(InputStream is, byte[] bytes) throws IOException {
-		int offset = 0;
-		int bytesToRead = bytes.length;
-		int c = is.read();
-		if (c == -1) {
-			return false;
-		} else {
-			bytes[offset++] = (byte) c;
-			--bytesToRead;
-		}
-		
-		while (bytesToRead > 0) {
-			int bytesRead = is.read(bytes, offset, bytesToRead);
-			if (bytesRead == -1) {
-				throw new IOException("EOF encountered before all record bytes read");
-			}
-			bytesToRead -= bytesRead;
-			offset += bytesRead;
-		}
-		return true;
-	}
-
 }
@@ -18,9 +18,6 @@
  */
 package com.ibm.jzos.sample.dfsort;
 
-import java.io.BufferedInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
 
@@ -45,6 +42,9 @@ import com.ibm.jzos.ZFile;
  * <dd>Sets the logging level for the child process and prints the resulting
  * child process output is written to System.err.  The valid levels are those defined
  * in the ZUtil.LOG_* constants.</dd>
+ * <dt>[engine=&lt;dfsort | java&gt;]</dt>
+ * <dd>Selects the sort engine.  If java, the records are sorted in the JVM by {@link JavaSort}
+ * rather than by a DFSORT child process.</dd>
  * </dl>
  * <p>
  * Features illustrated:
@@ -59,7 +59,7 @@ public class DfSortFixedDatasetToJava {
 	public static void main(String[] args) throws Exception {
 		DfSortArguments dfsortArgs = new DfSortArguments(args);
 		if ((dfsortArgs.getSortinDataset() == null)) { 
-    		System.err.println("Usage: " + DfSortFixedDatasetToJava.class.getName() + " sortin=<dsn> [encoding=<codepage>] [shareas=<yes|NO>]");
+    		System.err.println("Usage: " + DfSortFixedDatasetToJava.class.getName() + " sortin=<dsn> [encoding=<codepage>] [shareas=<yes|NO>] [engine=<DFSORT|java>]");
     		System.err.println("Where:");
     		System.err.println("\tsortin is a RECFM=F dataset");
     		System.err.println("\tencoding is the source character set.  If not supplied, raw bytes are processed.");
@@ -80,7 +80,7 @@ public class DfSortFixedDatasetToJava {
 	private static void doSort(DfSortArguments dfsortArgs) throws Exception {
 		DsInfo inDs = dfsortArgs.getSortinDataset();
 		
-		DfSort dfSort = new DfSort();
+		SortProcess dfSort = dfsortArgs.newSortProcess();
 		
 		if (dfsortArgs.getLogLevel() != -1) {
 			dfSort.setLoggingLevel(dfsortArgs.getLogLevel());
@@ -106,22 +106,29 @@ public class DfSortFixedDatasetToJava {
 		long startTime = System.currentTimeMillis();
 		dfSort.execute();
 		
-		//Once the child starts, open a BufferedInputStream on the child process' stdout
-		//and read the sort result.
-		BufferedInputStream bis = new BufferedInputStream(dfSort.getChildStdoutStream());
-		byte[] bytes = new byte[inDs.getLrecl()];
+		//Once the child starts, open a SortedRecordIterator on the child process' stdout
+		//and read the sort result.  The iterator reads large blocks and answers each
+		//record as a RecordView on its buffer, without copying it.  A RecordLayout
+		//may be set on the iterator, so that the view reads fields by name.
+		//Closing the iterator early cancels the sort.
+		SortedRecordIterator records = new SortedRecordIterator(dfSort, inDs.getLrecl());
 		int recordCount = 0;
-		while (readRecord(bis,bytes)) {
-			//Process data
-			if (dfsortArgs.getEncoding() != null) {
-				String line = new String(bytes,dfsortArgs.getEncoding());
-				//Process encoded string...
-			} else {
-				//Process raw bytes...
+		try {
+			while (records.hasNext()) {
+				RecordView record = (RecordView)records.next();
+				//Process data
+				if (dfsortArgs.getEncoding() != null) {
+					String line = record.toString(dfsortArgs.getEncoding());
+					//Process encoded string...
+				} else {
+					//Process raw bytes in record.getBytes(), from record.getOffset()
+					//for record.getLength() bytes...
+				}
+				recordCount++;
 			}
-			recordCount++;
+		} finally {
+			records.close();
 		}
-		bis.close();
 	
 		//Wait for dfSort to finish and check the result
 		int rc =0;
@@ -139,36 +146,13 @@ public class DfSortFixedDatasetToJava {
 				System.err.println(i.next());
 			}
 		}
+		if (dfsortArgs.getLogLevel() >= 0) {
+			System.err.println(records.getReader());
+		}
 
 		System.out.println("RC=" + rc + " TIME=" + runtime + " RECORD COUNT=" + recordCount + " "
 				+ DfSortFixedDatasetToJava.class.getName());		
 		
 	}
 
-	/*
-	 * Read exactly bytesToRead from the underlying stream (this call may block).  Throw
-	 * an IOException if EOF is encountered before all of the bytes are read.
-	 */
-	private static boolean readRecord(InputStream is, byte[] bytes) throws IOException {
-		int offset = 0;
-		int bytesToRead = bytes.length;
-		int c = is.read();
-		if (c == -1) {
-			return false;
-		} else {
-			bytes[offset++] = (byte) c;
-			--bytesToRead;
-		}
-		
-		while (bytesToRead > 0) {
-			int bytesRead = is.read(bytes, offset, bytesToRead);
-			if (bytesRead == -1) {
-				throw new IOException("EOF encountered before all record bytes read");
-			}
-			bytesToRead -= bytesRead;
-			offset += bytesRead;
-		}
-		return true;
-	}
-
 }
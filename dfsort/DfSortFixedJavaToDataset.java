@@ -18,7 +18,6 @@
  */
 package com.ibm.jzos.sample.dfsort;
 
-import java.io.BufferedOutputStream;
 import java.util.Iterator;
 import java.util.List;
 
@@ -42,6 +41,9 @@ import com.ibm.jzos.RcException;
  * <dd>Sets the logging level for the child process and prints the resulting
  * child process output is written to System.err.  The valid levels are those defined
  * in the ZUtil.LOG_* constants.</dd>
+ * <dt>[engine=&lt;dfsort | java&gt;]</dt>
+ * <dd>Selects the sort engine.  If java, the records are sorted in the JVM by {@link JavaSort}
+ * rather than by a DFSORT child process.</dd>
  * </dl>
  * <p>
  * Concepts illustrated:
@@ -57,7 +59,7 @@ public class DfSortFixedJavaToDataset {
 	public static void main(String[] args) throws Exception {
 		DfSortArguments dfsortArgs = new DfSortArguments(args);
     	if (dfsortArgs.getSortoutDataset() == null || dfsortArgs.getNumrecs() < 0) {
-    		System.err.println("Usage: " + DfSortFixedJavaToDataset.class.getName() + " sortout=<dsn> numrecs=<nn> [shareas=<yes|NO>]");
+    		System.err.println("Usage: " + DfSortFixedJavaToDataset.class.getName() + " sortout=<dsn> numrecs=<nn> [shareas=<yes|NO>] [engine=<DFSORT|java>]");
        		System.err.println("\tsortout is an existing RECFM=F DSN to hold DFSORT output");
     		System.err.println("\tnumrecs is the number of records to generate");
     		System.err.println("\tshareas = yes: DFSORT executes in the same address space as the JVM");
@@ -76,7 +78,7 @@ public class DfSortFixedJavaToDataset {
 	private static void doSort(DfSortArguments dfsortArgs) throws Exception {
 		DsInfo outDs = dfsortArgs.getSortoutDataset();
 
-		DfSort dfSort = new DfSort();
+		SortProcess dfSort = dfsortArgs.newSortProcess();
 		
 		if (dfsortArgs.getLogLevel() != -1) {
 			dfSort.setLoggingLevel(dfsortArgs.getLogLevel());
@@ -106,9 +108,11 @@ public class DfSortFixedJavaToDataset {
 		//Kick off the sort. 
 		dfSort.execute();
 
-		//Once the child starts, open a BufferedOutputStream on dfSort's stdin
-		//and write the records.
-		BufferedOutputStream bos = new BufferedOutputStream(dfSort.getChildStdinStream());
+		//Once the child starts, open an AsyncRecordSink on dfSort's stdin
+		//and write the records.  The sink copies each record into a ring of
+		//blocks, which a separate thread writes to DFSORT while this thread
+		//generates the next records.
+		AsyncRecordSink sink = new AsyncRecordSink(dfSort.getChildStdinStream(), false);
 		byte[] byte_data = RECORD_DATA.getBytes();
 		byte[] record = new byte[outDs.getLrecl()];
 		try {
@@ -117,12 +121,12 @@ public class DfSortFixedJavaToDataset {
 				for (int j=0; j<record.length; j++,s++) {
 					record[j] = byte_data[s % (byte_data.length - 1)];
 				}
-				bos.write(record);
+				sink.write(record);
 			}
 		} catch (Exception ioe) {
 			ioe.printStackTrace();
 		} finally {
-			bos.close();
+			sink.close();
 		}
 				
 		//Wait for dfSort to finish and check the result
@@ -141,6 +145,9 @@ public class DfSortFixedJavaToDataset {
 				System.err.println(i.next());
 			}
 		}
+		if (dfsortArgs.getLogLevel() >= 0) {
+			System.err.println(sink);
+		}
 
 		System.out.println("RC=" + rc + " TIME=" + runtime + " RECORD COUNT=" + dfsortArgs.getNumrecs() + " "
 				+ DfSortFixedJavaToDataset.class.getName());		
@@ -0,0 +1,112 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.ibm.jzos.DfSort;
+import com.ibm.jzos.RcException;
+
+/**
+ * A {@link SortProcess} which runs DFSORT as a child process, by delegating
+ * to an instance of {@link DfSort}.
+ *
+ * @see JavaSort
+ * @since 2.3.0
+ */
+public class DfSortProcess implements SortProcess {
+
+	private DfSort dfSort;
+
+	/**
+	 * Construct an instance on a new {@link DfSort}.
+	 */
+	public DfSortProcess() {
+		this(new DfSort());
+	}
+
+	/**
+	 * Construct an instance on the given {@link DfSort}.
+	 */
+	public DfSortProcess(DfSort dfSort) {
+		this.dfSort = dfSort;
+	}
+
+	/**
+	 * Answer the underlying {@link DfSort}.
+	 */
+	public DfSort getDfSort() {
+		return dfSort;
+	}
+
+	public void setLoggingLevel(int level) {
+		dfSort.setLoggingLevel(level);
+	}
+
+	public void addAllocation(String allocation) {
+		dfSort.addAllocation(allocation);
+	}
+
+	public void addControlStatement(String statement) {
+		dfSort.addControlStatement(statement);
+	}
+
+	public void setInputStreamRecLen(int lrecl) {
+		dfSort.setInputStreamRecLen(lrecl);
+	}
+
+	public void setInputStreamHasRdws() {
+		dfSort.setInputStreamHasRdws();
+	}
+
+	public void setOutputStreamRecLen(int lrecl) {
+		dfSort.setOutputStreamRecLen(lrecl);
+	}
+
+	public void setOutputStreamHasRdws() {
+		dfSort.setOutputStreamHasRdws();
+	}
+
+	public void setSameAddressSpace(boolean sameAddressSpace) {
+		dfSort.setSameAddressSpace(sameAddressSpace);
+	}
+
+	public void execute() throws IOException, RcException {
+		dfSort.execute();
+	}
+
+	public OutputStream getChildStdinStream() {
+		return dfSort.getChildStdinStream();
+	}
+
+	public InputStream getChildStdoutStream() {
+		return dfSort.getChildStdoutStream();
+	}
+
+	public int getReturnCode() throws RcException {
+		return dfSort.getReturnCode();
+	}
+
+	public List getStderrLines() {
+		return dfSort.getStderrLines();
+	}
+}
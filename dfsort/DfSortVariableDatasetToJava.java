@@ -18,12 +18,10 @@
  */
 package com.ibm.jzos.sample.dfsort;
 
-import java.io.BufferedInputStream;
 import java.util.Iterator;
 import java.util.List;
 
 import com.ibm.jzos.DfSort;
-import com.ibm.jzos.RDWInputRecordStream;
 import com.ibm.jzos.RcException;
 import com.ibm.jzos.ZUtil;
 
@@ -44,6 +42,9 @@ import com.ibm.jzos.ZUtil;
  * <dd>Sets the logging level for the child process and prints the resulting
  * child process output is written to System.err.  The valid levels are those defined
  * in the ZUtil.LOG_* constants.</dd>
+ * <dt>[engine=&lt;dfsort | java&gt;]</dt>
+ * <dd>Selects the sort engine.  If java, the records are sorted in the JVM by {@link JavaSort}
+ * rather than by a DFSORT child process.</dd>
  * </dl>
  * <p>
  * Features illustrated:
@@ -59,7 +60,7 @@ public class DfSortVariableDatasetToJava {
 	public static void main(String[] args) throws Exception {
 		DfSortArguments dfsortArgs = new DfSortArguments(args);
 		if ((dfsortArgs.getSortinDataset() == null)) { 
-    		System.err.println("Usage: " + DfSortVariableDatasetToJava.class.getName() + " sortin=<dsn> [encoding=<codepage>] [shareas=<yes|NO>]");
+    		System.err.println("Usage: " + DfSortVariableDatasetToJava.class.getName() + " sortin=<dsn> [encoding=<codepage>] [shareas=<yes|NO>] [engine=<DFSORT|java>]");
     		System.err.println("Where:");
     		System.err.println("\tsortin is a RECFM=F dataset");
     		System.err.println("\tencoding is the source character set.  If not supplied, binary data is assumed.");
@@ -80,7 +81,7 @@ public class DfSortVariableDatasetToJava {
 	private static void doSort(DfSortArguments dfsortArgs) throws Exception {
 		DsInfo inDs = dfsortArgs.getSortinDataset();
 
-		DfSort dfSort = new DfSort();
+		SortProcess dfSort = dfsortArgs.newSortProcess();
 				
 		if (dfsortArgs.getLogLevel() != -1) {
 			dfSort.setLoggingLevel(dfsortArgs.getLogLevel());
@@ -110,26 +111,26 @@ public class DfSortVariableDatasetToJava {
 		long startTime = System.currentTimeMillis();
 		dfSort.execute();
 		
-		//Use a RDWInputRecordStream wrapper around a BufferedInputStream wrapper around
-		//the InputStream used to read the sorted output from DFSORT.
-		//The RDWInputRecordStream will pick off records delineated by RDWs as required
-		//by DFSORT for variable length records.
-		RDWInputRecordStream rdwis = new RDWInputRecordStream(new BufferedInputStream(dfSort.getChildStdoutStream()));
+		//Use a SortedRecordIterator to read the sorted output from DFSORT.
+		//The iterator reads large blocks and picks off records delineated
+		//by RDWs as required by DFSORT for variable length records, answering each
+		//record (without its RDW) as a RecordView on its buffer.
+		SortedRecordIterator records = new SortedRecordIterator(dfSort);
 		int recordCount = 0;
-		byte[] record = new byte[inDs.getLrecl()]; //Allocate a byte array big enough for largest record
-		int recLen = 0;
 		try {
-			while ((recLen = rdwis.read(record)) != -1) {
+			while (records.hasNext()) {
+				RecordView record = (RecordView)records.next();
 				if (dfsortArgs.getEncoding() != null) {
-					String line = new String(record,0,recLen,dfsortArgs.getEncoding());
+					String line = record.toString(dfsortArgs.getEncoding());
 					//Process encoded string...
 				} else {
-					//Process raw bytes...
+					//Process raw bytes in record.getBytes(), from record.getOffset()
+					//for record.getLength() bytes...
 				}
 				recordCount++;
 			}
 		} finally {
-			rdwis.close();
+			records.close();
 		}
 
 		//Wait for dfSort to finish and check the result
@@ -148,6 +149,9 @@ public class DfSortVariableDatasetToJava {
 				System.err.println(i.next());
 			}
 		}
+		if (dfsortArgs.getLogLevel() >= 0) {
+			System.err.println(records.getReader());
+		}
 
 		System.out.println("RC=" + rc + " TIME=" + runtime + " RECORD COUNT=" + recordCount + " "
 				+ DfSortVariableDatasetToJava.class.getName());		
@@ -18,12 +18,10 @@
  */
 package com.ibm.jzos.sample.dfsort;
 
-import java.io.BufferedOutputStream;
 import java.util.Iterator;
 import java.util.List;
 
 import com.ibm.jzos.DfSort;
-import com.ibm.jzos.RDWOutputRecordStream;
 import com.ibm.jzos.RcException;
 
 /**
@@ -43,6 +41,9 @@ import com.ibm.jzos.RcException;
  * <dd>Sets the logging level for the child process and prints the resulting
  * child process output is written to System.err.  The valid levels are those defined
  * in the ZUtil.LOG_* constants.</dd>
+ * <dt>[engine=&lt;dfsort | java&gt;]</dt>
+ * <dd>Selects the sort engine.  If java, the records are sorted in the JVM by {@link JavaSort}
+ * rather than by a DFSORT child process.</dd>
  * </dl>
  * <p>
  * Concepts illustrated:
@@ -58,7 +59,7 @@ public class DfSortVariableJavaToDataset {
 	public static void main(String[] args) throws Exception {
 		DfSortArguments dfsortArgs = new DfSortArguments(args);
     	if (dfsortArgs.getSortoutDataset() == null || dfsortArgs.getNumrecs() < 0) {
-    		System.err.println("Usage: " + DfSortVariableJavaToDataset.class.getName() + " sortout=<dsn> numrecs=<nn> [shareas=<yes|NO>]");
+    		System.err.println("Usage: " + DfSortVariableJavaToDataset.class.getName() + " sortout=<dsn> numrecs=<nn> [shareas=<yes|NO>] [engine=<DFSORT|java>]");
        		System.err.println("\tsortout is an existing RECFM=V DSN to hold DFSORT output");
     		System.err.println("\tnumrecs is the number of records to generate");
     		System.err.println("\tshareas = yes: DFSORT executes in the same address space as the JVM");
@@ -78,7 +79,7 @@ public class DfSortVariableJavaToDataset {
 	private static void doSort(DfSortArguments dfsortArgs) throws Exception {
 		DsInfo outDs = dfsortArgs.getSortoutDataset();
 
-		DfSort dfSort = new DfSort();
+		SortProcess dfSort = dfsortArgs.newSortProcess();
 				
 		if (dfsortArgs.getLogLevel() != -1) {
 			dfSort.setLoggingLevel(dfsortArgs.getLogLevel());
@@ -111,10 +112,11 @@ public class DfSortVariableJavaToDataset {
 		//Kick off the sort.  
 		dfSort.execute();
 
-		//Once the child starts, open an RDWOutputRecordStream on dfSort's stdin
-		//and write generated test records to it.
-		RDWOutputRecordStream rdwos = new RDWOutputRecordStream(
-										new BufferedOutputStream(dfSort.getChildStdinStream()));
+		//Once the child starts, open an AsyncRecordSink on dfSort's stdin
+		//and write generated test records to it.  The sink copies each record
+		//into a ring of blocks, which a separate thread writes to DFSORT while
+		//this thread generates the next records.
+		AsyncRecordSink sink = new AsyncRecordSink(dfSort.getChildStdinStream(), true);
 		byte[] byte_data = RECORD_DATA.getBytes();
 		byte[] record = new byte[outDs.getLrecl()];
 		try {
@@ -126,13 +128,13 @@ public class DfSortVariableJavaToDataset {
 				// Make record lengths vary up to lrecl (minus RDW)
 				int dataLen = Math.max(1, i % outDs.getLrecl() - 4);
 				// Write the generated variable length record.
-				// The RDWOutputStream will prefix the data by an RDW expected by DFSORT
-				rdwos.write(record, 0, dataLen); 
+				// The AsyncRecordSink will prefix the data by an RDW expected by DFSORT
+				sink.write(record, 0, dataLen); 
 			}
 		} catch (Exception ioe) {
 			ioe.printStackTrace();
 		} finally {
-			rdwos.close();
+			sink.close();
 		}
 				
 		//Wait for dfSort to finish and check the result
@@ -151,6 +153,9 @@ public class DfSortVariableJavaToDataset {
 				System.err.println(i.next());
 			}
 		}
+		if (dfsortArgs.getLogLevel() >= 0) {
+			System.err.println(sink);
+		}
 
 		System.out.println("RC=" + rc + " TIME=" + runtime + " RECORD COUNT=" + dfsortArgs.getNumrecs() + " "
 				+ DfSortVariableJavaToDataset.class.getName());		
@@ -18,41 +18,40 @@
  */
 package com.ibm.jzos.sample.dfsort;
 
+import java.io.IOException;
+
 import com.ibm.jzos.ZFile;
-import com.ibm.jzos.ZFileException;
+import com.ibm.jzos.sample.CachingDatasetAttributeProvider;
+import com.ibm.jzos.sample.DatasetAttributes;
 
 /**
  * Helper class for DFSORT samples.  
- * Used to open a dataset using ZFile and retrieve attributes from it.
+ * Used to retrieve the attributes of a dataset.
+ * <p>
+ * Attributes are answered by the shared {@link CachingDatasetAttributeProvider},
+ * so a dataset named in many runs is only opened when its cached
+ * attributes have expired.
  */
 public class DsInfo {
 
 	private String dsn;
 	private String fullyQualifiedDsn;
 	private String zFileDsn;
-	private int recfmBits;
-	private int lrecl;
+	private DatasetAttributes attributes;
 	
 	/**
 	 * Construct a new instance on an (unqualified) MVS dataset name
 	 * @param dsn the dateset name
-	 * @throws ZFileException if unable to open the dataset
+	 * @throws IOException if unable to read the dataset's attributes
 	 */
-	public DsInfo(String dsn) throws ZFileException {
+	public DsInfo(String dsn) throws IOException {
 		this.dsn = dsn;
 		this.fullyQualifiedDsn = ZFile.getFullyQualifiedDSN(dsn);
 		this.zFileDsn = ZFile.getSlashSlashQuotedDSN(dsn);
-		if (!ZFile.dsExists(zFileDsn)) {
+		this.attributes = CachingDatasetAttributeProvider.getShared().getAttributes(fullyQualifiedDsn);
+		if (attributes == null) {
 			throw new RuntimeException("Dataset " + fullyQualifiedDsn + " does not exist.");
 		}
-
-		ZFile zfile = new ZFile(zFileDsn, "rb,type=record");
-		try {
-			recfmBits = zfile.getRecfmBits();
-			lrecl = zfile.getLrecl();
-		} finally {
-			zfile.close();
-		}
 	}
 
 	/**
@@ -84,7 +83,24 @@ public class DsInfo {
 	 * @return int the logical record length
 	 */
 	public int getLrecl() {
-		return lrecl;
+		return attributes.getLrecl();
+	}
+
+	/**
+	 * Answers the datasets BLKSIZE
+	 * @return int the block size
+	 */
+	public int getBlksize() {
+		return attributes.getBlksize();
+	}
+
+	/**
+	 * Answers the datasets DSORG
+	 * @return int the dataset organization
+	 * @see ZFile#DSORG_PS
+	 */
+	public int getDsorg() {
+		return attributes.getDsorg();
 	}
 
 	/**
@@ -92,7 +108,7 @@ public class DsInfo {
 	 * @return boolean 
 	 */
 	public boolean isFixedRecfm() {
-		return (ZFile.RECFM_F & recfmBits) != 0;
+		return attributes.isFixedRecfm();
 	}
 
 	/**
@@ -100,7 +116,7 @@ public class DsInfo {
 	 * @return boolean
 	 */
 	public boolean isVariableRecfm() {
-		return (ZFile.RECFM_V & recfmBits) != 0;
+		return attributes.isVariableRecfm();
 	}
 
 }
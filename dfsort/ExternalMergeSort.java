@@ -0,0 +1,425 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An external merge sort of byte records, in the order given by a {@link SortFields}.
+ * <p>
+ * Records are added to a run buffer, which is a direct (off-heap) ByteBuffer
+ * allocated once and reused for each run, along with an int index of the offset
+ * of each record in the buffer.  When the buffer is full, the index is sorted
+ * and the run is written to a temporary file, so that sorting a large input
+ * neither holds the records on the Java heap nor creates an object per record.
+ * <p>
+ * {@link #finish()} answers the sorted records as a {@link RecordSource}:
+ * directly from the run buffer if nothing was spilled, otherwise from a
+ * {@link RecordMerger} over the spilled runs and the last run.  If there are more
+ * than {@link #getMergeOrder()} runs, groups of runs are first merged into
+ * longer runs.
+ * <p>
+ * The sort is stable.  If the SortFields are null (as for SORT FIELDS=COPY)
+ * the records are answered in the order they were added.
+ *
+ * @see JavaSort
+ * @since 2.3.0
+ */
+public class ExternalMergeSort {
+
+	public static final int DEFAULT_MEMORY_SIZE = 32 * 1024 * 1024;
+	public static final int DEFAULT_MERGE_ORDER = 64;
+
+	private static final int RUN_FILE_BUFSIZE = 64 * 1024;
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	private SortFields sortFields;
+	private ByteBuffer runBuffer;
+	private int[] index = new int[1024];
+	private int indexCount;
+	private File tempDirectory;
+	private int mergeOrder = DEFAULT_MERGE_ORDER;
+	private List runFiles = new ArrayList();
+	private byte[] copyBuffer = new byte[4096];
+
+	private long recordCount;
+	private long spilledBytes;
+	private int runCount;
+	private int mergePasses;
+
+	/**
+	 * Construct an instance with the default run buffer size.
+	 * @param sortFields the order, or null to keep the records in their input order
+	 */
+	public ExternalMergeSort(SortFields sortFields) {
+		this(sortFields, DEFAULT_MEMORY_SIZE);
+	}
+
+	/**
+	 * Construct an instance with the given run buffer size.
+	 * @param sortFields the order, or null to keep the records in their input order
+	 * @param memorySize the size in bytes of the run buffer
+	 */
+	public ExternalMergeSort(SortFields sortFields, int memorySize) {
+		this.sortFields = sortFields;
+		this.runBuffer = ByteBuffer.allocateDirect(memorySize);
+	}
+
+	/**
+	 * Set the directory in which runs are spilled.  By default, the
+	 * "java.io.tmpdir" directory is used.
+	 */
+	public void setTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+	/**
+	 * Answer the maximum number of runs merged at once.
+	 */
+	public int getMergeOrder() {
+		return mergeOrder;
+	}
+
+	/**
+	 * Set the maximum number of runs merged at once, which must be at least 2.
+	 */
+	public void setMergeOrder(int mergeOrder) {
+		if (mergeOrder < 2) {
+			throw new IllegalArgumentException("Merge order must be at least 2: " + mergeOrder);
+		}
+		this.mergeOrder = mergeOrder;
+	}
+
+	/**
+	 * Add a record to the sort.
+	 * @throws IOException if a run cannot be spilled, or the record does not
+	 * fit in an empty run buffer
+	 */
+	public void add(byte[] record, int offset, int length) throws IOException {
+		int needed = length + 4;
+		if (runBuffer.remaining() < needed) {
+			if (indexCount == 0) {
+				throw new IOException("Record of length " + length + " exceeds the sort memory size");
+			}
+			spill();
+		}
+		if (indexCount == index.length) {
+			int[] newIndex = new int[index.length * 2];
+			System.arraycopy(index, 0, newIndex, 0, indexCount);
+			index = newIndex;
+		}
+		index[indexCount++] = runBuffer.position();
+		runBuffer.putInt(length);
+		runBuffer.put(record, offset, length);
+		recordCount++;
+	}
+
+	/**
+	 * Finish adding records, and answer the sorted records.  The answered
+	 * source must be closed, which removes any spilled runs.
+	 */
+	public RecordSource finish() throws IOException {
+		sortRun();
+		RecordSource lastRun = new BufferSource(runBuffer, index, indexCount);
+		if (runFiles.isEmpty()) {
+			runCount = 1;
+			return lastRun;
+		}
+		runCount++;
+		int start = 0;
+		while (runFiles.size() + 1 > mergeOrder) {
+			if (start + mergeOrder > runFiles.size()) {
+				start = 0;
+			}
+			mergeRuns(start++);
+		}
+		RecordSource[] sources = new RecordSource[runFiles.size() + 1];
+		for (int i=0; i<runFiles.size(); i++) {
+			sources[i] = new RunFileSource((File)runFiles.get(i));
+		}
+		sources[runFiles.size()] = lastRun;
+		runFiles.clear();
+		mergePasses++;
+		return new RecordMerger(sortFields, sources);
+	}
+
+	/**
+	 * Answer the number of records added.
+	 */
+	public long getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Answer the number of sorted runs, including the last run held in memory.
+	 * Valid after {@link #finish()}.
+	 */
+	public int getRunCount() {
+		return runCount;
+	}
+
+	/**
+	 * Answer the number of merges, including the final merge.
+	 * Valid after {@link #finish()}.
+	 */
+	public int getMergePasses() {
+		return mergePasses;
+	}
+
+	/**
+	 * Answer the number of bytes written to spilled runs.
+	 */
+	public long getSpilledBytes() {
+		return spilledBytes;
+	}
+
+	/*
+	 * Sort the run buffer and write it to a new run file.
+	 */
+	private void spill() throws IOException {
+		sortRun();
+		File file = File.createTempFile("jsort", ".run", tempDirectory);
+		file.deleteOnExit();
+		DataOutputStream dos = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file), RUN_FILE_BUFSIZE));
+		try {
+			for (int i=0; i<indexCount; i++) {
+				int offset = index[i];
+				int length = runBuffer.getInt(offset);
+				writeRecord(dos, runBuffer, offset + 4, length);
+			}
+		} finally {
+			dos.close();
+		}
+		spilledBytes += file.length();
+		runFiles.add(file);
+		runCount++;
+		runBuffer.clear();
+		indexCount = 0;
+	}
+
+	/*
+	 * Merge mergeOrder adjacent run files, starting at the given index, into
+	 * one which replaces them, so that the order of equal records is kept.
+	 */
+	private void mergeRuns(int start) throws IOException {
+		RecordSource[] sources = new RecordSource[mergeOrder];
+		for (int i=0; i<mergeOrder; i++) {
+			sources[i] = new RunFileSource((File)runFiles.get(start + i));
+		}
+		RecordMerger merger = new RecordMerger(sortFields, sources);
+		File file = File.createTempFile("jsort", ".run", tempDirectory);
+		file.deleteOnExit();
+		DataOutputStream dos = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file), RUN_FILE_BUFSIZE));
+		try {
+			while (merger.next()) {
+				writeRecord(dos, merger.getBuffer(), merger.getOffset(), merger.getLength());
+			}
+		} finally {
+			dos.close();
+			merger.close();
+		}
+		spilledBytes += file.length();
+		runFiles.subList(start, start + mergeOrder).clear();
+		runFiles.add(start, file);
+		mergePasses++;
+	}
+
+	private void writeRecord(DataOutputStream dos, ByteBuffer buffer, int offset, int length) throws IOException {
+		if (copyBuffer.length < length) {
+			copyBuffer = new byte[length];
+		}
+		ByteBuffer dup = buffer.duplicate();
+		dup.position(offset);
+		dup.get(copyBuffer, 0, length);
+		dos.writeInt(length);
+		dos.write(copyBuffer, 0, length);
+	}
+
+	/*
+	 * Sort the index of the run buffer with a stable merge sort,
+	 * using insertion sort for short sub-ranges.
+	 */
+	private void sortRun() {
+		if (sortFields == null || indexCount < 2) {
+			return;
+		}
+		int[] src = index;
+		int[] dst = new int[indexCount];
+		for (int lo=0; lo<indexCount; lo+=INSERTION_SORT_THRESHOLD) {
+			insertionSort(src, lo, Math.min(lo + INSERTION_SORT_THRESHOLD, indexCount));
+		}
+		for (int width=INSERTION_SORT_THRESHOLD; width<indexCount; width*=2) {
+			for (int lo=0; lo<indexCount; lo+=2*width) {
+				int mid = Math.min(lo + width, indexCount);
+				int hi = Math.min(lo + 2*width, indexCount);
+				merge(src, dst, lo, mid, hi);
+			}
+			int[] t = src;
+			src = dst;
+			dst = t;
+		}
+		if (src != index) {
+			System.arraycopy(src, 0, index, 0, indexCount);
+		}
+	}
+
+	private void insertionSort(int[] a, int lo, int hi) {
+		for (int i=lo+1; i<hi; i++) {
+			int x = a[i];
+			int j = i - 1;
+			while (j >= lo && compare(a[j], x) > 0) {
+				a[j+1] = a[j];
+				j--;
+			}
+			a[j+1] = x;
+		}
+	}
+
+	private void merge(int[] src, int[] dst, int lo, int mid, int hi) {
+		int i = lo;
+		int j = mid;
+		for (int k=lo; k<hi; k++) {
+			if (j >= hi || (i < mid && compare(src[i], src[j]) <= 0)) {
+				dst[k] = src[i++];
+			} else {
+				dst[k] = src[j++];
+			}
+		}
+	}
+
+	private int compare(int aOffset, int bOffset) {
+		return sortFields.compare(runBuffer, aOffset + 4, runBuffer.getInt(aOffset),
+									runBuffer, bOffset + 4, runBuffer.getInt(bOffset));
+	}
+
+	/**
+	 * A RecordSource over the sorted index of the run buffer.
+	 */
+	static class BufferSource implements RecordSource {
+		private ByteBuffer buffer;
+		private int[] index;
+		private int count;
+		private int next;
+		private int offset;
+		private int length;
+
+		BufferSource(ByteBuffer buffer, int[] index, int count) {
+			this.buffer = buffer;
+			this.index = index;
+			this.count = count;
+		}
+
+		public boolean next() {
+			if (next >= count) {
+				return false;
+			}
+			offset = index[next++];
+			length = buffer.getInt(offset);
+			offset += 4;
+			return true;
+		}
+
+		public ByteBuffer getBuffer() {
+			return buffer;
+		}
+
+		public int getOffset() {
+			return offset;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		public void close() {
+			next = count;
+		}
+	}
+
+	/**
+	 * A RecordSource over a spilled run file, which is deleted when closed.
+	 */
+	static class RunFileSource implements RecordSource {
+		private File file;
+		private DataInputStream dis;
+		private byte[] record = new byte[4096];
+		private ByteBuffer buffer = ByteBuffer.wrap(record);
+		private int length;
+
+		RunFileSource(File file) throws IOException {
+			this.file = file;
+			this.dis = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(file), RUN_FILE_BUFSIZE));
+		}
+
+		public boolean next() throws IOException {
+			if (dis == null) {
+				return false;
+			}
+			try {
+				length = dis.readInt();
+			} catch (EOFException eof) {
+				close();
+				return false;
+			}
+			if (record.length < length) {
+				record = new byte[Math.max(length, record.length * 2)];
+				buffer = ByteBuffer.wrap(record);
+			}
+			dis.readFully(record, 0, length);
+			return true;
+		}
+
+		public ByteBuffer getBuffer() {
+			return buffer;
+		}
+
+		public int getOffset() {
+			return 0;
+		}
+
+		public int getLength() {
+			return length;
+		}
+
+		public void close() throws IOException {
+			if (dis != null) {
+				try {
+					dis.close();
+				} finally {
+					dis = null;
+					file.delete();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,750 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.ibm.jzos.ZFile;
+
+/**
+ * A {@link SortProcess} which sorts records in the JVM with an {@link ExternalMergeSort},
+ * rather than in a DFSORT child process.  This avoids the cost of starting DFSORT
+ * and of moving records through pipes for small and medium sorts, and allows
+ * the samples in this package to be run where DFSORT is not available.
+ * <p>
+ * The following subset of DFSORT is supported:
+ * <ul>
+ * <li>SORT FIELDS=(p,m,f,s,...), SORT FIELDS=COPY and OPTION COPY, as described
+ * by {@link SortFields}</li>
+ * <li>OPTION VLSHRT; other options are ignored</li>
+ * <li>RECORD TYPE=F|V,LENGTH=(n)</li>
+ * <li>Allocations of SORTIN and SORTOUT to a dataset with
+ * "alloc fi(sortin) da(dsn) ..." or to a Unix file with
+ * "alloc fi(sortin) path('/path') ..." (or a da() name containing a '/').
+ * Datasets are read and written with {@link ZFile}, so are only available on z/OS.</li>
+ * <li>SORTIN and SORTOUT streams, with fixed length records or RDW prefixed
+ * variable length records</li>
+ * </ul>
+ * As with DFSORT, the positions of the control fields of a variable length
+ * record include its 4 byte RDW.  A Unix file holds fixed length records
+ * of the RECORD LENGTH, or RDW prefixed records if RECORD TYPE=V.
+ * <p>
+ * There is no child process: when SORTIN is a stream, records are sorted as
+ * they are written to {@link #getChildStdinStream()}, and the sort completes when
+ * that stream is closed.  When SORTIN is allocated, the sort completes in
+ * {@link #execute()}.  When SORTOUT is a stream, the final merge is done as
+ * records are read from {@link #getChildStdoutStream()}.  An error sets a return
+ * code of 16 and adds a message to {@link #getStderrLines()}.
+ * <p>
+ * This class may also be run as a command on any platform, to sort records from a
+ * file or stdin to a file or stdout:
+ * <pre>
+ * JavaSort [-l lrecl | -v] [-i infile] [-o outfile] [-m memory] [-t tmpdir] statement...
+ * </pre>
+ * For example: <code>JavaSort -l 80 "SORT FIELDS=(1,10,CH,A,11,5,PD,D)" &lt; in &gt; out</code>
+ *
+ * @see DfSortArguments#newSortProcess()
+ * @since 2.3.0
+ */
+public class JavaSort implements SortProcess {
+
+	public static final int ERROR_RC = 16;
+
+	private static final String MSG_PREFIX = "JavaSort: ";
+	private static final int BUFSIZE = 64 * 1024;
+
+	private static final Pattern DDNAME_PATTERN = Pattern.compile("fi(?:le)?\\(\\s*(\\w+)\\s*\\)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern DSN_PATTERN = Pattern.compile("da(?:taset)?\\(\\s*([^)\\s]+)\\s*\\)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern PATH_PATTERN = Pattern.compile("path\\(\\s*'?([^')]+)'?\\s*\\)", Pattern.CASE_INSENSITIVE);
+
+	private int memorySize = ExternalMergeSort.DEFAULT_MEMORY_SIZE;
+	private File tempDirectory;
+	private int loggingLevel = -1;
+	private Map allocations = new HashMap();
+	private SortFields sortFields;
+	private boolean sortSpecified;
+	private boolean vlshrt;
+	private boolean recordTypeVariable;
+	private int recordLength = -1;
+	private int inputRecLen = -1;
+	private boolean inputHasRdws;
+	private int outputRecLen = -1;
+	private boolean outputHasRdws;
+
+	private List messages = new ArrayList();
+	private String error;
+	private boolean variable;
+	private ExternalMergeSort sorter;
+	private RecordSource sorted;
+	private long recordsOut;
+	private OutputStream sortinStream;
+	private InputStream sortoutStream;
+
+	/**
+	 * Set the size in bytes of the run buffer, which is allocated off the Java heap.
+	 */
+	public void setMemorySize(int memorySize) {
+		this.memorySize = memorySize;
+	}
+
+	/**
+	 * Set the directory for spilled runs.  Defaults to "java.io.tmpdir".
+	 */
+	public void setTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+	public void setLoggingLevel(int level) {
+		this.loggingLevel = level;
+	}
+
+	/**
+	 * Answer the logging level, or -1 if not set.
+	 */
+	public int getLoggingLevel() {
+		return loggingLevel;
+	}
+
+	/**
+	 * Add an allocation for SORTIN or SORTOUT.  Allocations of other DDs,
+	 * such as SORTWKnn, are not needed and are ignored.
+	 */
+	public void addAllocation(String allocation) {
+		Matcher ddMatcher = DDNAME_PATTERN.matcher(allocation);
+		if (!ddMatcher.find()) {
+			fail("No DD name in allocation: " + allocation);
+			return;
+		}
+		String ddName = ddMatcher.group(1).toUpperCase();
+		if (!"SORTIN".equals(ddName) && !"SORTOUT".equals(ddName)) {
+			messages.add(MSG_PREFIX + "Allocation of " + ddName + " ignored");
+			return;
+		}
+		Matcher pathMatcher = PATH_PATTERN.matcher(allocation);
+		Matcher dsnMatcher = DSN_PATTERN.matcher(allocation);
+		if (pathMatcher.find()) {
+			allocations.put(ddName, new File(pathMatcher.group(1)));
+		} else if (dsnMatcher.find()) {
+			String dsn = dsnMatcher.group(1);
+			if (dsn.startsWith("'") && dsn.endsWith("'") && dsn.length() > 1) {
+				dsn = dsn.substring(1, dsn.length() - 1);
+			}
+			if (dsn.indexOf('/') >= 0) {
+				allocations.put(ddName, new File(dsn));
+			} else {
+				allocations.put(ddName, "//'" + dsn.toUpperCase() + "'");
+			}
+		} else {
+			fail("No dataset or path in allocation: " + allocation);
+		}
+	}
+
+	public void addControlStatement(String statement) {
+		String stmt = statement.trim().toUpperCase();
+		try {
+			if (stmt.startsWith("SORT ")) {
+				sortFields = SortFields.parse(stmt);
+				sortSpecified = true;
+			} else if (stmt.startsWith("OPTION ")) {
+				StringTokenizer st = new StringTokenizer(stmt.substring("OPTION ".length()), ", ");
+				while (st.hasMoreTokens()) {
+					String option = st.nextToken();
+					if ("VLSHRT".equals(option)) {
+						vlshrt = true;
+					} else if ("NOVLSHRT".equals(option)) {
+						vlshrt = false;
+					} else if ("COPY".equals(option)) {
+						sortFields = null;
+						sortSpecified = true;
+					} else {
+						messages.add(MSG_PREFIX + "OPTION " + option + " ignored");
+					}
+				}
+			} else if (stmt.startsWith("RECORD ")) {
+				parseRecordStatement(stmt);
+			} else {
+				fail("Unsupported control statement: " + statement);
+			}
+		} catch (IllegalArgumentException iae) {
+			fail(iae.getMessage());
+		}
+	}
+
+	/*
+	 * Parse RECORD TYPE=x,LENGTH=(l1,...) where only TYPE and the first LENGTH
+	 * value are used.
+	 */
+	private void parseRecordStatement(String stmt) {
+		int typeIx = stmt.indexOf("TYPE=");
+		if (typeIx > 0) {
+			char type = stmt.charAt(typeIx + "TYPE=".length());
+			if (type != 'F' && type != 'V') {
+				throw new IllegalArgumentException("Unsupported record type: " + stmt);
+			}
+			recordTypeVariable = (type == 'V');
+		}
+		int lengthIx = stmt.indexOf("LENGTH=");
+		if (lengthIx > 0) {
+			StringTokenizer st = new StringTokenizer(stmt.substring(lengthIx + "LENGTH=".length()), "(), ");
+			if (st.hasMoreTokens()) {
+				try {
+					recordLength = Integer.parseInt(st.nextToken());
+				} catch (NumberFormatException nfe) {
+					throw new IllegalArgumentException("Invalid record length: " + stmt);
+				}
+			}
+		}
+	}
+
+	public void setInputStreamRecLen(int lrecl) {
+		this.inputRecLen = lrecl;
+		this.inputHasRdws = false;
+	}
+
+	public void setInputStreamHasRdws() {
+		this.inputHasRdws = true;
+		this.inputRecLen = -1;
+	}
+
+	public void setOutputStreamRecLen(int lrecl) {
+		this.outputRecLen = lrecl;
+		this.outputHasRdws = false;
+	}
+
+	public void setOutputStreamHasRdws() {
+		this.outputHasRdws = true;
+		this.outputRecLen = -1;
+	}
+
+	/**
+	 * Ignored, since the sort always runs in the JVM.
+	 */
+	public void setSameAddressSpace(boolean sameAddressSpace) {
+	}
+
+	/**
+	 * Start the sort.  If SORTIN is allocated, it is read and sorted, and if
+	 * SORTOUT is also allocated it is written, before this method returns.
+	 */
+	public void execute() throws IOException {
+		if (sorter != null) {
+			throw new IllegalStateException("Sort already executed");
+		}
+		if (!sortSpecified) {
+			fail("No SORT statement");
+		}
+		if (!isInputStream() && allocations.get("SORTIN") == null) {
+			fail("SORTIN is not allocated");
+		}
+		if (!isOutputStream() && allocations.get("SORTOUT") == null) {
+			fail("SORTOUT is not allocated");
+		}
+		sorter = new ExternalMergeSort(sortFields, memorySize);
+		sorter.setTempDirectory(tempDirectory);
+		variable = inputHasRdws || recordTypeVariable;
+		if (error != null) {
+			return;
+		}
+		if (loggingLevel >= 0) {
+			messages.add(MSG_PREFIX + (sortFields != null ? sortFields.toString() : "SORT FIELDS=COPY"));
+		}
+		if (!isInputStream()) {
+			try {
+				readSortin(allocations.get("SORTIN"));
+				finishInput();
+			} catch (IOException ioe) {
+				fail(ioe.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Answer the stream to which SORTIN records are written.
+	 * @throws IllegalStateException if SORTIN is not a stream, or the sort has not been executed
+	 */
+	public OutputStream getChildStdinStream() {
+		if (!isInputStream() || sorter == null) {
+			throw new IllegalStateException("SORTIN is not a stream, or the sort has not been executed");
+		}
+		if (sortinStream == null) {
+			sortinStream = new SortinStream(inputHasRdws, inputRecLen);
+		}
+		return sortinStream;
+	}
+
+	/**
+	 * Answer the stream from which SORTOUT records are read.
+	 * @throws IllegalStateException if SORTOUT is not a stream, or the sort has not been executed
+	 */
+	public InputStream getChildStdoutStream() {
+		if (!isOutputStream() || sorter == null) {
+			throw new IllegalStateException("SORTOUT is not a stream, or the sort has not been executed");
+		}
+		if (sortoutStream == null) {
+			sortoutStream = new SortoutStream(outputHasRdws);
+		}
+		return sortoutStream;
+	}
+
+	/**
+	 * Answer 0 if the sort succeeded, otherwise {@link #ERROR_RC}.
+	 */
+	public int getReturnCode() {
+		return (error == null) ? 0 : ERROR_RC;
+	}
+
+	public List getStderrLines() {
+		return messages;
+	}
+
+	/**
+	 * Answer the number of records sorted.
+	 */
+	public long getRecordCount() {
+		return (sorter == null) ? 0 : sorter.getRecordCount();
+	}
+
+	private boolean isInputStream() {
+		return inputHasRdws || inputRecLen > 0;
+	}
+
+	private boolean isOutputStream() {
+		return outputHasRdws || outputRecLen > 0;
+	}
+
+	private void fail(String message) {
+		if (error == null) {
+			error = message;
+		}
+		messages.add(MSG_PREFIX + message);
+	}
+
+	/*
+	 * Add a record, including its RDW if variable, to the sort.
+	 */
+	private void addRecord(byte[] record, int offset, int length) throws IOException {
+		if (sortFields != null && !vlshrt && length < sortFields.getMinimumLength()) {
+			throw new IOException("Record " + (sorter.getRecordCount() + 1) + " of length " + length
+					+ " does not contain all control fields; use OPTION VLSHRT");
+		}
+		sorter.add(record, offset, length);
+	}
+
+	/*
+	 * Read SORTIN from a dataset or Unix file into the sort.
+	 */
+	private void readSortin(Object sortin) throws IOException {
+		if (sortin instanceof File) {
+			if (!variable && recordLength <= 0) {
+				throw new IOException("RECORD LENGTH is required for a fixed length SORTIN file");
+			}
+			InputStream is = new FileInputStream((File)sortin);
+			try {
+				OutputStream os = new SortinStream(variable, recordLength);
+				byte[] buf = new byte[BUFSIZE];
+				int n;
+				while ((n = is.read(buf)) != -1) {
+					os.write(buf, 0, n);
+				}
+				((SortinStream)os).checkComplete();
+			} finally {
+				is.close();
+			}
+			return;
+		}
+		ZFile zFile = new ZFile((String)sortin, "rb,type=record,noseek");
+		try {
+			variable = (zFile.getRecfmBits() & ZFile.RECFM_V) != 0;
+			int prefix = variable ? 4 : 0;
+			byte[] buf = new byte[zFile.getLrecl() + prefix];
+			int n;
+			while ((n = zFile.read(buf, prefix, buf.length - prefix)) >= 0) {
+				if (variable) {
+					setRdw(buf, n + 4);
+				}
+				addRecord(buf, 0, n + prefix);
+			}
+		} finally {
+			zFile.close();
+		}
+	}
+
+	/*
+	 * Complete the sort of the input records, and write them to SORTOUT
+	 * unless it is a stream.
+	 */
+	private void finishInput() throws IOException {
+		sorted = sorter.finish();
+		if (!isOutputStream()) {
+			try {
+				writeSortout(allocations.get("SORTOUT"));
+			} finally {
+				complete();
+			}
+		}
+	}
+
+	private void writeSortout(Object sortout) throws IOException {
+		byte[] buf = new byte[4096];
+		if (sortout instanceof File) {
+			OutputStream os = new BufferedOutputStream(new FileOutputStream((File)sortout), BUFSIZE);
+			try {
+				while (sorted.next()) {
+					buf = copyRecord(buf);
+					os.write(buf, 0, sorted.getLength());
+					recordsOut++;
+				}
+			} finally {
+				os.close();
+			}
+			return;
+		}
+		ZFile zFile = new ZFile((String)sortout, "wb,type=record,noseek");
+		try {
+			int prefix = variable ? 4 : 0;
+			while (sorted.next()) {
+				buf = copyRecord(buf);
+				zFile.write(buf, prefix, sorted.getLength() - prefix);
+				recordsOut++;
+			}
+		} finally {
+			zFile.close();
+		}
+	}
+
+	/*
+	 * Copy the current sorted record into the given buffer, or a larger one.
+	 */
+	private byte[] copyRecord(byte[] buf) {
+		int length = sorted.getLength();
+		if (buf.length < length) {
+			buf = new byte[Math.max(length, buf.length * 2)];
+		}
+		ByteBuffer dup = sorted.getBuffer().duplicate();
+		dup.position(sorted.getOffset());
+		dup.get(buf, 0, length);
+		return buf;
+	}
+
+	private void complete() throws IOException {
+		RecordSource s = sorted;
+		sorted = null;
+		if (s != null) {
+			s.close();
+			messages.add(MSG_PREFIX + "Records in: " + sorter.getRecordCount() + ", out: " + recordsOut
+					+ ", runs: " + sorter.getRunCount() + ", merges: " + sorter.getMergePasses()
+					+ ", spilled bytes: " + sorter.getSpilledBytes());
+		}
+	}
+
+	private static void setRdw(byte[] buf, int length) {
+		buf[0] = (byte)(length >> 8);
+		buf[1] = (byte)length;
+		buf[2] = 0;
+		buf[3] = 0;
+	}
+
+	/**
+	 * An OutputStream which divides the bytes written to it into fixed length
+	 * or RDW prefixed records, and adds them to the sort.
+	 */
+	class SortinStream extends OutputStream {
+		private boolean rdws;
+		private int lrecl;
+		private byte[] record;
+		private int fill;
+		private int need;
+		private boolean closed;
+
+		SortinStream(boolean rdws, int lrecl) {
+			this.rdws = rdws;
+			this.lrecl = lrecl;
+			this.need = rdws ? 4 : lrecl;
+			this.record = new byte[rdws ? 32760 : lrecl];
+		}
+
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte)b}, 0, 1);
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (error != null) {
+				throw new IOException(error);
+			}
+			try {
+				while (len > 0) {
+					int n = Math.min(len, need - fill);
+					System.arraycopy(b, off, record, fill, n);
+					fill += n;
+					off += n;
+					len -= n;
+					if (fill < need) {
+						break;
+					}
+					if (rdws && need == 4) {
+						need = ((record[0] & 0xFF) << 8) | (record[1] & 0xFF);
+						if (need < 4) {
+							throw new IOException("Invalid RDW length " + need + " in record " + (sorter.getRecordCount() + 1));
+						}
+						if (need > record.length) {
+							byte[] newRecord = new byte[need];
+							System.arraycopy(record, 0, newRecord, 0, 4);
+							record = newRecord;
+						}
+						if (need > 4) {
+							continue;
+						}
+					}
+					addRecord(record, 0, need);
+					fill = 0;
+					need = rdws ? 4 : lrecl;
+				}
+			} catch (IOException ioe) {
+				fail(ioe.getMessage());
+				throw ioe;
+			}
+		}
+
+		void checkComplete() throws IOException {
+			if (fill > 0) {
+				throw new IOException("Incomplete record at the end of SORTIN");
+			}
+		}
+
+		/**
+		 * Complete the sort.  If SORTOUT is allocated, the sorted records
+		 * are written to it before this method returns.
+		 */
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (error != null) {
+				return;
+			}
+			try {
+				checkComplete();
+				finishInput();
+			} catch (IOException ioe) {
+				fail(ioe.getMessage());
+				throw ioe;
+			}
+		}
+	}
+
+	/**
+	 * An InputStream which answers the sorted records, merging them as they are read.
+	 */
+	class SortoutStream extends InputStream {
+		private boolean rdws;
+		private byte[] rdw = new byte[4];
+		private int rdwPos = 4;
+		private ByteBuffer source;
+		private ByteBuffer view;
+		private int pos;
+		private int end;
+		private boolean eof;
+
+		SortoutStream(boolean rdws) {
+			this.rdws = rdws;
+		}
+
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return (read(b, 0, 1) == -1) ? -1 : (b[0] & 0xFF);
+		}
+
+		public int read(byte[] b, int off, int len) throws IOException {
+			int total = 0;
+			while (total < len) {
+				if (rdwPos < 4) {
+					int n = Math.min(len - total, 4 - rdwPos);
+					System.arraycopy(rdw, rdwPos, b, off + total, n);
+					rdwPos += n;
+					total += n;
+				} else if (pos < end) {
+					int n = Math.min(len - total, end - pos);
+					view.position(pos);
+					view.get(b, off + total, n);
+					pos += n;
+					total += n;
+				} else if (!nextRecord()) {
+					break;
+				}
+			}
+			return (total == 0 && len > 0) ? -1 : total;
+		}
+
+		private boolean nextRecord() throws IOException {
+			if (eof) {
+				return false;
+			}
+			if (sorted == null) {
+				if (error == null && isInputStream() && sortinStream == null) {
+					fail("SORTIN stream was not written");
+				} else if (error == null) {
+					fail("SORTIN stream was not closed");
+				}
+			}
+			if (error != null || !sorted.next()) {
+				eof = true;
+				if (error == null) {
+					complete();
+				}
+				return false;
+			}
+			recordsOut++;
+			if (sorted.getBuffer() != source) {
+				source = sorted.getBuffer();
+				view = source.duplicate();
+			}
+			pos = sorted.getOffset();
+			end = pos + sorted.getLength();
+			if (variable && !rdws) {
+				pos += 4;
+			} else if (!variable && rdws) {
+				setRdw(rdw, end - pos + 4);
+				rdwPos = 0;
+			}
+			return true;
+		}
+
+		public void close() throws IOException {
+			eof = true;
+			if (error == null) {
+				complete();
+			}
+		}
+	}
+
+	/**
+	 * Sort records from a file or stdin to a file or stdout.
+	 * See the class description for the arguments.
+	 */
+	public static void main(String[] args) throws Exception {
+		JavaSort sort = new JavaSort();
+		int lrecl = -1;
+		boolean rdws = false;
+		String in = null;
+		String out = null;
+		List statements = new ArrayList();
+		try {
+			for (int i=0; i<args.length; i++) {
+				if ("-l".equals(args[i])) {
+					lrecl = Integer.parseInt(args[++i]);
+				} else if ("-v".equals(args[i])) {
+					rdws = true;
+				} else if ("-i".equals(args[i])) {
+					in = args[++i];
+				} else if ("-o".equals(args[i])) {
+					out = args[++i];
+				} else if ("-m".equals(args[i])) {
+					sort.setMemorySize(Integer.parseInt(args[++i]));
+				} else if ("-t".equals(args[i])) {
+					sort.setTempDirectory(new File(args[++i]));
+				} else {
+					statements.add(args[i]);
+				}
+			}
+		} catch (RuntimeException e) {
+			statements.clear();
+		}
+		if (statements.isEmpty() || (lrecl <= 0) == !rdws) {
+			System.err.println("Usage: " + JavaSort.class.getName()
+					+ " [-l lrecl | -v] [-i infile] [-o outfile] [-m memory] [-t tmpdir] statement...");
+			System.err.println("Where:");
+			System.err.println("\t-l lrecl: fixed length records, or -v: RDW prefixed variable length records");
+			System.err.println("\tinfile, outfile default to stdin, stdout");
+			System.err.println("\tstatement is a DFSORT control statement, such as \"SORT FIELDS=(1,10,CH,A)\"");
+			System.exit(4);
+		}
+
+		sort.setLoggingLevel(0);
+		sort.addControlStatement(rdws ? "RECORD TYPE=V" : "RECORD TYPE=F,LENGTH=(" + lrecl + ")");
+		for (Iterator i=statements.iterator(); i.hasNext(); ) {
+			sort.addControlStatement((String)i.next());
+		}
+		if (in != null) {
+			sort.addAllocation("alloc fi(sortin) path('" + in + "')");
+		} else if (rdws) {
+			sort.setInputStreamHasRdws();
+		} else {
+			sort.setInputStreamRecLen(lrecl);
+		}
+		if (out != null) {
+			sort.addAllocation("alloc fi(sortout) path('" + out + "')");
+		} else if (rdws) {
+			sort.setOutputStreamHasRdws();
+		} else {
+			sort.setOutputStreamRecLen(lrecl);
+		}
+
+		long startTime = System.currentTimeMillis();
+		sort.execute();
+		try {
+			if (in == null) {
+				copy(new BufferedInputStream(System.in, BUFSIZE), sort.getChildStdinStream());
+			}
+			if (out == null) {
+				OutputStream os = new BufferedOutputStream(System.out, BUFSIZE);
+				copy(sort.getChildStdoutStream(), os);
+				os.flush();
+			}
+		} catch (IOException ioe) {
+			// the error is reported by the return code and messages
+		}
+		int rc = sort.getReturnCode();
+		long runtime = System.currentTimeMillis() - startTime;
+		for (Iterator i=sort.getStderrLines().iterator(); i.hasNext(); ) {
+			System.err.println(i.next());
+		}
+		System.err.println("RC=" + rc + " TIME=" + runtime + " RECORD COUNT=" + sort.getRecordCount());
+		System.exit(rc);
+	}
+
+	private static void copy(InputStream is, OutputStream os) throws IOException {
+		byte[] buf = new byte[BUFSIZE];
+		int n;
+		try {
+			while ((n = is.read(buf)) != -1) {
+				os.write(buf, 0, n);
+			}
+		} finally {
+			is.close();
+			os.close();
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link RecordSource} which merges several sources, each of which is
+ * already in the order given by a {@link SortFields}, into a single source
+ * in that order.
+ * <p>
+ * The current record of each source is kept in a binary heap, so that each
+ * record costs log2(k) comparisons for k sources.  Records which compare equal
+ * are answered in source order, so merging with null SortFields (as for
+ * SORT FIELDS=COPY) answers each source's records in turn.
+ *
+ * @see ExternalMergeSort
+ * @since 2.3.0
+ */
+public class RecordMerger implements RecordSource {
+
+	private SortFields sortFields;
+	private RecordSource[] sources;
+	private int[] heap;
+	private int heapSize;
+	private RecordSource current;
+	private boolean started;
+
+	/**
+	 * Construct an instance given the sort order (or null to concatenate),
+	 * and the ordered sources to merge.
+	 */
+	public RecordMerger(SortFields sortFields, RecordSource[] sources) {
+		this.sortFields = sortFields;
+		this.sources = sources;
+		this.heap = new int[sources.length];
+	}
+
+	public boolean next() throws IOException {
+		if (!started) {
+			started = true;
+			for (int i=0; i<sources.length; i++) {
+				if (sources[i].next()) {
+					heap[heapSize++] = i;
+				}
+			}
+			for (int i=heapSize/2 - 1; i>=0; i--) {
+				siftDown(i);
+			}
+		} else if (heapSize > 0) {
+			if (!sources[heap[0]].next()) {
+				heap[0] = heap[--heapSize];
+			}
+			siftDown(0);
+		}
+		current = (heapSize > 0) ? sources[heap[0]] : null;
+		return current != null;
+	}
+
+	public ByteBuffer getBuffer() {
+		return current.getBuffer();
+	}
+
+	public int getOffset() {
+		return current.getOffset();
+	}
+
+	public int getLength() {
+		return current.getLength();
+	}
+
+	/**
+	 * Close each of the merged sources.
+	 */
+	public void close() throws IOException {
+		IOException failure = null;
+		for (int i=0; i<sources.length; i++) {
+			try {
+				sources[i].close();
+			} catch (IOException ioe) {
+				failure = ioe;
+			}
+		}
+		heapSize = 0;
+		current = null;
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void siftDown(int i) {
+		int x = heap[i];
+		while (true) {
+			int child = 2*i + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && less(heap[child+1], heap[child])) {
+				child++;
+			}
+			if (!less(heap[child], x)) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = x;
+	}
+
+	/*
+	 * Answer true if the current record of source a is merged before that
+	 * of source b.
+	 */
+	private boolean less(int a, int b) {
+		if (sortFields != null) {
+			RecordSource sa = sources[a];
+			RecordSource sb = sources[b];
+			int result = sortFields.compare(sa.getBuffer(), sa.getOffset(), sa.getLength(),
+											sb.getBuffer(), sb.getOffset(), sb.getLength());
+			if (result != 0) {
+				return result < 0;
+			}
+		}
+		return a < b;
+	}
+}
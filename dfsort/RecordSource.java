@@ -0,0 +1,61 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A sequence of records, each of which is available in a ByteBuffer
+ * after a call to {@link #next()}, without being copied to the caller.
+ * <p>
+ * The contents of the buffer at the current record are only valid until the
+ * next call to {@link #next()} or {@link #close()}.
+ *
+ * @see ExternalMergeSort
+ * @see RecordMerger
+ * @since 2.3.0
+ */
+public interface RecordSource {
+
+	/**
+	 * Advance to the next record.  Answers false if there are no more records.
+	 */
+	boolean next() throws IOException;
+
+	/**
+	 * Answer the buffer which holds the current record.
+	 */
+	ByteBuffer getBuffer();
+
+	/**
+	 * Answer the offset of the current record in its buffer.
+	 */
+	int getOffset();
+
+	/**
+	 * Answer the length of the current record.
+	 */
+	int getLength();
+
+	/**
+	 * Release any resources held by this source.
+	 */
+	void close() throws IOException;
+}
@@ -0,0 +1,188 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+
+import com.ibm.jzos.sample.fields.RecordLayout;
+
+/**
+ * A view of one record in a byte array, which is read in place through an
+ * optional {@link RecordLayout}.
+ * <p>
+ * A view answered by {@link SortedRecordIterator} is reused for each record,
+ * and refers to the iterator's buffer, so it is only valid until the next record
+ * is read; use {@link #copy()} to keep a record.
+ * <p>
+ * Fields are named as in the layout; for example, with a layout compiled from the
+ * {@link com.ibm.jzos.sample.fields.MedicareRecord} copybook:
+ * <pre>
+ * String provider = view.getString("MedicareProvider");
+ * BigDecimal charges = view.getBigDecimal("TotalCharges");
+ * </pre>
+ * Looking up a field index once with {@link #indexOf(String)} avoids a map lookup per record.
+ *
+ * @see SortedRecordIterator
+ * @since 2.3.0
+ */
+public class RecordView {
+
+	private RecordLayout layout;
+	private byte[] bytes;
+	private int offset;
+	private int length;
+
+	/**
+	 * Construct an instance on a record of a byte array.
+	 * @param layout the layout of the record, or null
+	 */
+	public RecordView(RecordLayout layout, byte[] bytes, int offset, int length) {
+		this.layout = layout;
+		set(bytes, offset, length);
+	}
+
+	/*
+	 * Point this view at another record.
+	 */
+	void set(byte[] bytes, int offset, int length) {
+		this.bytes = bytes;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	/**
+	 * Answer the layout of the record, or null.
+	 */
+	public RecordLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Answer the array which holds the record.
+	 */
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Answer the offset of the record in its array.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Answer the length of the record.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Answer the index of the named field of the layout.
+	 * @throws IllegalArgumentException if there is no layout or no such field
+	 */
+	public int indexOf(String fieldName) {
+		if (layout == null) {
+			throw new IllegalArgumentException("No record layout");
+		}
+		return layout.indexOf(fieldName);
+	}
+
+	/**
+	 * Answer the value of an int field.
+	 */
+	public int getInt(int index) {
+		return layout.getInt(index, bytes, offset);
+	}
+
+	/**
+	 * Answer the value of an int field.
+	 */
+	public int getInt(String fieldName) {
+		return getInt(indexOf(fieldName));
+	}
+
+	/**
+	 * Answer the value of an int or long field.
+	 */
+	public long getLong(int index) {
+		return layout.getLong(index, bytes, offset);
+	}
+
+	/**
+	 * Answer the value of an int or long field.
+	 */
+	public long getLong(String fieldName) {
+		return getLong(indexOf(fieldName));
+	}
+
+	/**
+	 * Answer the value of a character field.
+	 */
+	public String getString(int index) {
+		return layout.getString(index, bytes, offset);
+	}
+
+	/**
+	 * Answer the value of a character field.
+	 */
+	public String getString(String fieldName) {
+		return getString(indexOf(fieldName));
+	}
+
+	/**
+	 * Answer the value of a numeric field.
+	 */
+	public BigDecimal getBigDecimal(int index) {
+		return layout.getBigDecimal(index, bytes, offset);
+	}
+
+	/**
+	 * Answer the value of a numeric field.
+	 */
+	public BigDecimal getBigDecimal(String fieldName) {
+		return getBigDecimal(indexOf(fieldName));
+	}
+
+	/**
+	 * Answer the value of a field as an object.
+	 * @see RecordLayout#getValue(int, byte[], int)
+	 */
+	public Object getValue(int index) {
+		return layout.getValue(index, bytes, offset);
+	}
+
+	/**
+	 * Answer the whole record decoded in the given encoding.
+	 */
+	public String toString(String encoding) throws UnsupportedEncodingException {
+		return new String(bytes, offset, length, encoding);
+	}
+
+	/**
+	 * Answer a new view on a copy of this record, which remains valid.
+	 */
+	public RecordView copy() {
+		byte[] copy = new byte[length];
+		System.arraycopy(bytes, offset, copy, 0, length);
+		return new RecordView(layout, copy, 0, length);
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * The control fields of a DFSORT SORT (or MERGE) statement, which can be
+ * used to compare two records in the same order as DFSORT.
+ * <p>
+ * The following forms are accepted:
+ * <ul>
+ * <li><code>SORT FIELDS=(p,m,f,s,...)</code></li>
+ * <li><code>SORT FIELDS=(p,m,s,...),FORMAT=f</code></li>
+ * <li><code>SORT FIELDS=COPY</code> and <code>OPTION COPY</code>, for which
+ * {@link #parse(String)} answers null</li>
+ * </ul>
+ * where p is the 1-based position of the field in the record (including the RDW
+ * of a variable length record), m is its length in bytes, s is A (ascending) or
+ * D (descending), and f is one of the formats:
+ * <ul>
+ * <li>CH or BI - unsigned bytes, in EBCDIC or binary order</li>
+ * <li>FI - a signed binary integer</li>
+ * <li>PD - a signed packed decimal number</li>
+ * <li>ZD - a signed zoned decimal number, with the sign in the last byte</li>
+ * </ul>
+ * <p>
+ * A field that extends past the end of a short variable length record
+ * (allowed by OPTION VLSHRT) is compared as if padded with binary zeros.
+ * 
+ * @see JavaSort
+ * @since 2.3.0
+ */
+public class SortFields {
+
+	public static final int CH = 0;
+	public static final int BI = 1;
+	public static final int FI = 2;
+	public static final int PD = 3;
+	public static final int ZD = 4;
+
+	private static final String[] FORMAT_NAMES = {"CH", "BI", "FI", "PD", "ZD"};
+
+	private int[] offsets;
+	private int[] lengths;
+	private int[] formats;
+	private boolean[] descending;
+	private int minimumLength;
+
+	/**
+	 * Construct an instance from arrays of 0-based field offsets, lengths,
+	 * formats and orders.
+	 */
+	public SortFields(int[] offsets, int[] lengths, int[] formats, boolean[] descending) {
+		this.offsets = offsets;
+		this.lengths = lengths;
+		this.formats = formats;
+		this.descending = descending;
+		for (int i=0; i<offsets.length; i++) {
+			minimumLength = Math.max(minimumLength, offsets[i] + lengths[i]);
+		}
+	}
+
+	/**
+	 * Parse a SORT or MERGE control statement.  Answers null if the statement
+	 * specifies FIELDS=COPY, since records are then not reordered.
+	 * @throws IllegalArgumentException if the statement is not valid or uses
+	 * an unsupported format
+	 */
+	public static SortFields parse(String statement) {
+		String stmt = statement.trim().toUpperCase();
+		int fieldsIx = stmt.indexOf("FIELDS=");
+		if (!(stmt.startsWith("SORT") || stmt.startsWith("MERGE")) || fieldsIx < 0) {
+			throw new IllegalArgumentException("Not a SORT statement: " + statement);
+		}
+		String rest = stmt.substring(fieldsIx + "FIELDS=".length()).trim();
+		if (rest.startsWith("COPY")) {
+			return null;
+		}
+		int close = rest.indexOf(')');
+		if (!rest.startsWith("(") || close < 0) {
+			throw new IllegalArgumentException("Invalid FIELDS operand: " + statement);
+		}
+		String defaultFormat = null;
+		int formatIx = rest.indexOf("FORMAT=", close);
+		if (formatIx > 0) {
+			StringTokenizer st = new StringTokenizer(rest.substring(formatIx + "FORMAT=".length()), ", ");
+			defaultFormat = st.nextToken();
+		}
+
+		List tokens = new ArrayList();
+		StringTokenizer st = new StringTokenizer(rest.substring(1, close), ", ");
+		while (st.hasMoreTokens()) {
+			tokens.add(st.nextToken());
+		}
+		int width = (defaultFormat == null) ? 4 : 3;
+		if (tokens.isEmpty() || tokens.size() % width != 0) {
+			throw new IllegalArgumentException("Invalid FIELDS operand: " + statement);
+		}
+		int n = tokens.size() / width;
+		int[] offsets = new int[n];
+		int[] lengths = new int[n];
+		int[] formats = new int[n];
+		boolean[] descending = new boolean[n];
+		for (int i=0; i<n; i++) {
+			int t = i * width;
+			try {
+				offsets[i] = Integer.parseInt((String)tokens.get(t)) - 1;
+				lengths[i] = Integer.parseInt((String)tokens.get(t+1));
+			} catch (NumberFormatException nfe) {
+				throw new IllegalArgumentException("Invalid FIELDS operand: " + statement);
+			}
+			if (offsets[i] < 0 || lengths[i] <= 0) {
+				throw new IllegalArgumentException("Invalid field position or length: " + statement);
+			}
+			formats[i] = formatCode(defaultFormat != null ? defaultFormat : (String)tokens.get(t+2));
+			String order = (String)tokens.get(t + width - 1);
+			if (!"A".equals(order) && !"D".equals(order)) {
+				throw new IllegalArgumentException("Invalid sort order '" + order + "': " + statement);
+			}
+			descending[i] = "D".equals(order);
+		}
+		return new SortFields(offsets, lengths, formats, descending);
+	}
+
+	private static int formatCode(String name) {
+		for (int i=0; i<FORMAT_NAMES.length; i++) {
+			if (FORMAT_NAMES[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unsupported field format: " + name);
+	}
+
+	/**
+	 * Answer the minimum record length that contains all of the control fields.
+	 */
+	public int getMinimumLength() {
+		return minimumLength;
+	}
+
+	/**
+	 * Answer the number of control fields.
+	 */
+	public int getFieldCount() {
+		return offsets.length;
+	}
+
+	/**
+	 * Compare two records, which begin at the given offsets of the given buffers.
+	 * @return a negative number, zero or a positive number as record a sorts before,
+	 * equal to or after record b.
+	 */
+	public int compare(ByteBuffer a, int aOffset, int aLength, ByteBuffer b, int bOffset, int bLength) {
+		for (int i=0; i<offsets.length; i++) {
+			int pos = offsets[i];
+			int len = lengths[i];
+			int aLen = Math.max(0, Math.min(len, aLength - pos));
+			int bLen = Math.max(0, Math.min(len, bLength - pos));
+			int result;
+			switch (formats[i]) {
+			case PD:
+				result = compareDecimal(a, aOffset + pos, aLen, b, bOffset + pos, bLen, len, true);
+				break;
+			case ZD:
+				result = compareDecimal(a, aOffset + pos, aLen, b, bOffset + pos, bLen, len, false);
+				break;
+			case FI:
+				result = (byteAt(a, aOffset + pos, aLen, 0) ^ 0x80) - (byteAt(b, bOffset + pos, bLen, 0) ^ 0x80);
+				if (result == 0) {
+					result = compareUnsigned(a, aOffset + pos + 1, aLen - 1, b, bOffset + pos + 1, bLen - 1, len - 1);
+				}
+				break;
+			default:
+				result = compareUnsigned(a, aOffset + pos, aLen, b, bOffset + pos, bLen, len);
+			}
+			if (result != 0) {
+				return descending[i] ? -result : result;
+			}
+		}
+		return 0;
+	}
+
+	/*
+	 * Answer the unsigned byte at index i of a field with avail bytes present,
+	 * or zero if the byte is past the end of a short record.
+	 */
+	private static int byteAt(ByteBuffer buf, int offset, int avail, int i) {
+		return (i < avail) ? (buf.get(offset + i) & 0xFF) : 0;
+	}
+
+	private static int compareUnsigned(ByteBuffer a, int aOff, int aLen, ByteBuffer b, int bOff, int bLen, int len) {
+		int common = Math.min(aLen, bLen);
+		for (int i=0; i<common; i++) {
+			int diff = (a.get(aOff + i) & 0xFF) - (b.get(bOff + i) & 0xFF);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		for (int i=common; i<len; i++) {
+			int diff = byteAt(a, aOff, aLen, i) - byteAt(b, bOff, bLen, i);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return 0;
+	}
+
+	/*
+	 * Compare two packed or zoned decimal fields of the same length: first by
+	 * sign, then by the digits of their magnitudes.  Negative zero is equal to zero.
+	 */
+	private static int compareDecimal(ByteBuffer a, int aOff, int aLen, ByteBuffer b, int bOff, int bLen, int len, boolean packed) {
+		boolean aNeg = isNegative(byteAt(a, aOff, aLen, len - 1), packed);
+		boolean bNeg = isNegative(byteAt(b, bOff, bLen, len - 1), packed);
+		int magnitude = 0;
+		for (int i=0; i<len && magnitude == 0; i++) {
+			magnitude = digits(byteAt(a, aOff, aLen, i), i == len - 1, packed)
+							- digits(byteAt(b, bOff, bLen, i), i == len - 1, packed);
+		}
+		if (aNeg == bNeg) {
+			return aNeg ? -magnitude : magnitude;
+		}
+		if (magnitude == 0 && isZero(a, aOff, aLen, len, packed)) {
+			return 0;
+		}
+		return aNeg ? -1 : 1;
+	}
+
+	private static boolean isNegative(int lastByte, boolean packed) {
+		int sign = packed ? (lastByte & 0x0F) : (lastByte >> 4);
+		return sign == 0x0D || sign == 0x0B;
+	}
+
+	/*
+	 * Answer the digit value of a byte of a decimal field, ignoring its sign and zone.
+	 */
+	private static int digits(int b, boolean last, boolean packed) {
+		if (packed) {
+			return last ? (b >> 4) : b;
+		}
+		return b & 0x0F;
+	}
+
+	private static boolean isZero(ByteBuffer buf, int off, int avail, int len, boolean packed) {
+		for (int i=0; i<len; i++) {
+			if (digits(byteAt(buf, off, avail, i), i == len - 1, packed) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public String toString() {
+		StringBuffer sb = new StringBuffer("SORT FIELDS=(");
+		for (int i=0; i<offsets.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(offsets[i] + 1).append(',').append(lengths[i]).append(',')
+				.append(FORMAT_NAMES[formats[i]]).append(',').append(descending[i] ? 'D' : 'A');
+		}
+		return sb.append(')').toString();
+	}
+}
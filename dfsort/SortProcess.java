@@ -0,0 +1,114 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.ibm.jzos.RcException;
+
+/**
+ * The operations of {@link com.ibm.jzos.DfSort} that are used by the DFSORT
+ * samples in this package, so that a sample may run with either DFSORT
+ * or the in-JVM {@link JavaSort} engine.
+ * <p>
+ * An instance is obtained from {@link DfSortArguments#newSortProcess()}.
+ *
+ * @see DfSortProcess
+ * @see JavaSort
+ * @since 2.3.0
+ */
+public interface SortProcess {
+
+	/**
+	 * Set the logging level, as defined by the ZUtil.LOG_* constants.
+	 */
+	void setLoggingLevel(int level);
+
+	/**
+	 * Add a BPXWDYN allocation command for one of the sort DDs,
+	 * for example "alloc fi(sortin) da(MY.DATA) reuse shr msg(2)".
+	 */
+	void addAllocation(String allocation);
+
+	/**
+	 * Add a DFSORT control statement.
+	 */
+	void addControlStatement(String statement);
+
+	/**
+	 * Read SORTIN from the stream answered by {@link #getChildStdinStream()},
+	 * as fixed length records of the given length.
+	 */
+	void setInputStreamRecLen(int lrecl);
+
+	/**
+	 * Read SORTIN from the stream answered by {@link #getChildStdinStream()},
+	 * as variable length records each prefixed by an RDW.
+	 */
+	void setInputStreamHasRdws();
+
+	/**
+	 * Write SORTOUT to the stream answered by {@link #getChildStdoutStream()},
+	 * as fixed length records of the given length.
+	 */
+	void setOutputStreamRecLen(int lrecl);
+
+	/**
+	 * Write SORTOUT to the stream answered by {@link #getChildStdoutStream()},
+	 * as variable length records each prefixed by an RDW.
+	 */
+	void setOutputStreamHasRdws();
+
+	/**
+	 * Set whether the sort runs in the same address space as the JVM.
+	 */
+	void setSameAddressSpace(boolean sameAddressSpace);
+
+	/**
+	 * Start the sort.
+	 */
+	void execute() throws IOException, RcException;
+
+	/**
+	 * Answer the stream to which SORTIN records are written, if
+	 * {@link #setInputStreamRecLen(int)} or {@link #setInputStreamHasRdws()}
+	 * was called.  The stream must be closed once all records are written.
+	 */
+	OutputStream getChildStdinStream();
+
+	/**
+	 * Answer the stream from which SORTOUT records are read, if
+	 * {@link #setOutputStreamRecLen(int)} or {@link #setOutputStreamHasRdws()}
+	 * was called.
+	 */
+	InputStream getChildStdoutStream();
+
+	/**
+	 * Wait for the sort to complete and answer its return code.
+	 */
+	int getReturnCode() throws RcException;
+
+	/**
+	 * Answer the List of Strings written by the sort as messages.
+	 */
+	List getStderrLines();
+}
@@ -0,0 +1,35 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+/**
+ * A source of new {@link SortProcess} instances, such as DFSORT child processes
+ * or in-JVM {@link JavaSort}s, which allows a {@link SortScheduler} to run
+ * without DFSORT.
+ *
+ * @see DfSortArguments
+ * @since 2.3.0
+ */
+public interface SortProcessFactory {
+
+	/**
+	 * Answer a new SortProcess, which has not been executed.
+	 */
+	SortProcess newSortProcess();
+}
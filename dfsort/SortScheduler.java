@@ -0,0 +1,723 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sorts a large input by dividing it into partitions, sorting the partitions
+ * concurrently with several {@link SortProcess}es, and merging their sorted
+ * outputs in Java.
+ * <p>
+ * Records are read from a {@link RecordSource} and written to a temporary spool
+ * file per partition.  A partition is either:
+ * <ul>
+ * <li>a run of consecutive records ({@link #setRecordsPerPartition(int)}); each
+ * partition is submitted for sorting as soon as it is complete, so sorting overlaps
+ * partitioning, and the sorted partitions are combined by a k-way {@link RecordMerger}.</li>
+ * <li>a key range ({@link #setKeyRangePartitions(int, int)}); the range boundaries are
+ * chosen from a sorted sample of the first records, and since the ranges do not
+ * overlap, the sorted partitions are simply concatenated.</li>
+ * </ul>
+ * At most <code>parallelism</code> sorts run at once.  Each sort gets a new
+ * SortProcess from a {@link SortProcessFactory}, reads its partition from
+ * the SortProcess's stdin stream, and its output is drained to a temporary file.
+ * With DFSORT, each sort should run in a separate address space
+ * (setSameAddressSpace(false)) so that the sorts' DDs do not collide.  With the
+ * {@link JavaSort} engine, the scheduler runs on any platform.
+ * <p>
+ * The time each partition waited, and the time it took to sort, are kept
+ * as a {@link PartitionResult}.
+ * <p>
+ * This class may be run as a command:
+ * <pre>
+ * SortScheduler [-e dfsort|java] [-n partitions | -r recordsPerPartition] [-p parallelism]
+ *               [-l lrecl | -v] [-i infile] [-o outfile] statement...
+ * </pre>
+ * where -n partitions by key range, and -r by record count.
+ *
+ * @see DfSortArguments
+ * @since 2.3.0
+ */
+public class SortScheduler {
+
+	public static final int DEFAULT_SAMPLE_SIZE = 10000;
+
+	private static final int BUFSIZE = 64 * 1024;
+
+	private SortProcessFactory factory;
+	private int parallelism;
+	private List statements = new ArrayList();
+	private SortFields sortFields;
+	private boolean rdws;
+	private int lrecl;
+	private boolean sameAddressSpace;
+	private int recordsPerPartition = -1;
+	private int keyPartitions = -1;
+	private int sampleSize = DEFAULT_SAMPLE_SIZE;
+	private File tempDirectory;
+	private List results = new ArrayList();
+	private volatile boolean abandoned;
+
+	/**
+	 * Construct an instance.
+	 * @param factory the source of SortProcesses
+	 * @param parallelism the maximum number of concurrent sorts (at least 1)
+	 * @param rdws true if records are RDW prefixed and variable length
+	 * @param lrecl the record length of fixed length records, or
+	 *        the maximum record length of variable length records
+	 */
+	public SortScheduler(SortProcessFactory factory, int parallelism, boolean rdws, int lrecl) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be at least 1");
+		}
+		this.factory = factory;
+		this.parallelism = parallelism;
+		this.rdws = rdws;
+		this.lrecl = lrecl;
+	}
+
+	/**
+	 * Add a control statement which is given to each sort.  One of these
+	 * must be a SORT statement, which is also used to merge the sorted partitions.
+	 * If no RECORD statement is added, one is generated from the record format.
+	 * @throws IllegalArgumentException if a SORT statement is not valid, or is FIELDS=COPY
+	 */
+	public void addControlStatement(String statement) {
+		String stmt = statement.trim().toUpperCase();
+		if (stmt.startsWith("SORT ")) {
+			sortFields = SortFields.parse(stmt);
+			if (sortFields == null) {
+				throw new IllegalArgumentException("A SORT FIELDS=COPY cannot be scheduled: " + statement);
+			}
+		}
+		statements.add(statement);
+	}
+
+	/**
+	 * Set whether DFSORT runs in the JVM's address space.  Defaults to false.
+	 */
+	public void setSameAddressSpace(boolean sameAddressSpace) {
+		this.sameAddressSpace = sameAddressSpace;
+	}
+
+	/**
+	 * Partition the input into runs of the given number of consecutive records.
+	 */
+	public void setRecordsPerPartition(int recordsPerPartition) {
+		this.recordsPerPartition = recordsPerPartition;
+		this.keyPartitions = -1;
+	}
+
+	/**
+	 * Partition the input into the given number of key ranges, with boundaries
+	 * chosen from a sample of the given number of leading records.
+	 */
+	public void setKeyRangePartitions(int partitions, int sampleSize) {
+		this.keyPartitions = partitions;
+		this.sampleSize = sampleSize;
+		this.recordsPerPartition = -1;
+	}
+
+	/**
+	 * Set the directory for spool and sorted partition files.
+	 * Defaults to "java.io.tmpdir".
+	 */
+	public void setTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+	/**
+	 * Answer a List of {@link PartitionResult}, in partition order.
+	 */
+	public List getPartitionResults() {
+		return results;
+	}
+
+	/**
+	 * Sort the records of the given source, and answer the sorted records.  The
+	 * answered source must be closed, which removes the sorted partition files.
+	 * @throws IOException if the input cannot be read or spooled, or if any
+	 *         of the sorts fail
+	 */
+	public RecordSource sort(RecordSource input) throws IOException {
+		if (sortFields == null) {
+			throw new IllegalStateException("No SORT statement");
+		}
+		if (recordsPerPartition <= 0 && keyPartitions <= 0) {
+			setKeyRangePartitions(parallelism, sampleSize);
+		}
+		results.clear();
+		abandoned = false;
+		ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+		List futures = new ArrayList();
+		boolean awaited = false;
+		try {
+			if (keyPartitions > 0) {
+				partitionByKey(input, pool, futures);
+			} else {
+				partitionByCount(input, pool, futures);
+			}
+			IOException failure = null;
+			for (Iterator i=futures.iterator(); i.hasNext(); ) {
+				PartitionResult result = waitFor((Future)i.next());
+				results.add(result);
+				if (failure == null && result.failure != null) {
+					failure = result.failure;
+				}
+			}
+			awaited = true;
+			if (failure != null) {
+				deleteSortedFiles();
+				throw failure;
+			}
+		} finally {
+			if (!awaited) {
+				abandon(futures);
+			}
+			pool.shutdown();
+		}
+
+		RecordSource[] sources = new RecordSource[results.size()];
+		for (int i=0; i<sources.length; i++) {
+			PartitionResult result = (PartitionResult)results.get(i);
+			BlockRecordReader reader = new BlockRecordReader(new FileInputStream(result.sortedFile), rdws, lrecl, BUFSIZE);
+			reader.setIncludeRdw(true);
+			sources[i] = reader;
+		}
+		// key range partitions do not overlap, so are concatenated in order
+		return new SortedPartitions(keyPartitions > 0 ? null : sortFields, sources);
+	}
+
+	/*
+	 * Spool runs of consecutive records, submitting each to be sorted when complete.
+	 */
+	private void partitionByCount(RecordSource input, ExecutorService pool, List futures) throws IOException {
+		Spool spool = null;
+		try {
+			while (input.next()) {
+				if (spool == null) {
+					spool = new Spool(futures.size());
+				}
+				spool.write(input.getBuffer(), input.getOffset(), input.getLength());
+				if (spool.records == recordsPerPartition) {
+					futures.add(submit(pool, spool));
+					spool = null;
+				}
+			}
+			if (spool != null) {
+				futures.add(submit(pool, spool));
+			}
+		} catch (IOException ioe) {
+			if (spool != null) {
+				spool.discard();
+			}
+			throw ioe;
+		}
+	}
+
+	/*
+	 * Choose key boundaries from a sorted sample of the leading records, then
+	 * spool each record to the partition of its key range.
+	 */
+	private void partitionByKey(RecordSource input, ExecutorService pool, List futures) throws IOException {
+		List sample = new ArrayList();
+		while (sample.size() < sampleSize && input.next()) {
+			byte[] record = new byte[input.getLength()];
+			ByteBuffer dup = input.getBuffer().duplicate();
+			dup.position(input.getOffset());
+			dup.get(record);
+			sample.add(record);
+		}
+		List sorted = new ArrayList(sample);
+		Collections.sort(sorted, new Comparator() {
+			public int compare(Object a, Object b) {
+				byte[] ra = (byte[])a;
+				byte[] rb = (byte[])b;
+				return sortFields.compare(ByteBuffer.wrap(ra), 0, ra.length, ByteBuffer.wrap(rb), 0, rb.length);
+			}
+		});
+		int partitions = Math.max(1, Math.min(keyPartitions, sorted.size()));
+		ByteBuffer[] bounds = new ByteBuffer[partitions - 1];
+		for (int i=1; i<partitions; i++) {
+			bounds[i-1] = ByteBuffer.wrap((byte[])sorted.get(i * sorted.size() / partitions));
+		}
+
+		Spool[] spools = new Spool[partitions];
+		try {
+			for (int i=0; i<partitions; i++) {
+				spools[i] = new Spool(i);
+			}
+			for (Iterator i=sample.iterator(); i.hasNext(); ) {
+				byte[] record = (byte[])i.next();
+				ByteBuffer rec = ByteBuffer.wrap(record);
+				spools[partitionOf(bounds, rec, 0, record.length)].write(rec, 0, record.length);
+			}
+			sample = null;
+			sorted = null;
+			while (input.next()) {
+				int p = partitionOf(bounds, input.getBuffer(), input.getOffset(), input.getLength());
+				spools[p].write(input.getBuffer(), input.getOffset(), input.getLength());
+			}
+			for (int i=0; i<partitions; i++) {
+				futures.add(submit(pool, spools[i]));
+				spools[i] = null;
+			}
+		} catch (IOException ioe) {
+			for (int i=0; i<partitions; i++) {
+				if (spools[i] != null) {
+					spools[i].discard();
+				}
+			}
+			throw ioe;
+		}
+	}
+
+	/*
+	 * Answer the index of the first boundary which sorts after the record, which
+	 * is the record's partition.  Records equal to a boundary go to the later partition.
+	 */
+	private int partitionOf(ByteBuffer[] bounds, ByteBuffer buf, int offset, int length) {
+		int lo = 0;
+		int hi = bounds.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			ByteBuffer b = bounds[mid];
+			if (sortFields.compare(buf, offset, length, b, 0, b.capacity()) < 0) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	private Future submit(ExecutorService pool, final Spool spool) throws IOException {
+		spool.close();
+		final long queued = System.currentTimeMillis();
+		return pool.submit(new Callable() {
+			public Object call() throws Exception {
+				return sortPartition(spool, queued);
+			}
+		});
+	}
+
+	/*
+	 * Sort one spooled partition with a new SortProcess, writing its output to a
+	 * temporary file.  Any failure is kept in the answered result.
+	 */
+	private PartitionResult sortPartition(Spool spool, long queued) {
+		PartitionResult result = new PartitionResult(spool.index, spool.records, spool.bytes);
+		result.queuedMillis = queued;
+		result.startMillis = System.currentTimeMillis();
+		try {
+			if (abandoned) {
+				throw new IOException("Partition " + spool.index + " was cancelled");
+			}
+			result.sortedFile = createTempFile("sorted");
+			SortProcess sort = factory.newSortProcess();
+			if (rdws) {
+				sort.setInputStreamHasRdws();
+				sort.setOutputStreamHasRdws();
+			} else {
+				sort.setInputStreamRecLen(lrecl);
+				sort.setOutputStreamRecLen(lrecl);
+			}
+			boolean hasRecord = false;
+			for (Iterator i=statements.iterator(); i.hasNext(); ) {
+				String stmt = (String)i.next();
+				hasRecord |= stmt.trim().toUpperCase().startsWith("RECORD ");
+				sort.addControlStatement(stmt);
+			}
+			if (!hasRecord) {
+				sort.addControlStatement("RECORD TYPE=" + (rdws ? "V" : "F") + ",LENGTH=(" + lrecl + ")");
+			}
+			sort.setSameAddressSpace(sameAddressSpace);
+			sort.execute();
+
+			// DFSORT reads all of its input before it writes any output, so the
+			// partition is written and then the output is read by this thread
+			copy(new FileInputStream(spool.file), sort.getChildStdinStream());
+			copy(sort.getChildStdoutStream(), new FileOutputStream(result.sortedFile));
+			result.rc = sort.getReturnCode();
+			result.messages = sort.getStderrLines();
+			if (result.rc != 0) {
+				result.failure = new IOException("Partition " + spool.index + " failed with RC=" + result.rc);
+			}
+		} catch (Exception e) {
+			result.failure = (e instanceof IOException) ? (IOException)e
+					: new IOException("Partition " + spool.index + " failed: " + e);
+		} finally {
+			spool.discard();
+			result.endMillis = System.currentTimeMillis();
+		}
+		return result;
+	}
+
+	private PartitionResult waitFor(Future future) throws IOException {
+		try {
+			return (PartitionResult)future.get();
+		} catch (InterruptedException ie) {
+			throw new IOException("Interrupted waiting for a partition sort");
+		} catch (ExecutionException ee) {
+			throw new IOException("Partition sort failed: " + ee.getCause());
+		}
+	}
+
+	/*
+	 * Clean up after a failure to partition the input or to wait for the sorts:
+	 * cancel the partition sorts which have not started, so that they only
+	 * discard their spools, then wait for all of them and delete their sorted files.
+	 */
+	private void abandon(List futures) {
+		abandoned = true;
+		boolean interrupted = false;
+		for (Iterator i=futures.iterator(); i.hasNext(); ) {
+			Future future = (Future)i.next();
+			PartitionResult result = null;
+			while (true) {
+				try {
+					result = (PartitionResult)future.get();
+					break;
+				} catch (InterruptedException ie) {
+					interrupted = true;
+				} catch (ExecutionException ee) {
+					break;
+				}
+			}
+			if (result != null && result.sortedFile != null) {
+				result.sortedFile.delete();
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void deleteSortedFiles() {
+		for (Iterator i=results.iterator(); i.hasNext(); ) {
+			PartitionResult result = (PartitionResult)i.next();
+			if (result.sortedFile != null) {
+				result.sortedFile.delete();
+			}
+		}
+	}
+
+	private File createTempFile(String kind) throws IOException {
+		File file = File.createTempFile("jsort", "." + kind, tempDirectory);
+		file.deleteOnExit();
+		return file;
+	}
+
+	private static void copy(InputStream is, OutputStream os) throws IOException {
+		byte[] buf = new byte[BUFSIZE];
+		int n;
+		try {
+			while ((n = is.read(buf)) != -1) {
+				os.write(buf, 0, n);
+			}
+		} finally {
+			try {
+				is.close();
+			} finally {
+				os.close();
+			}
+		}
+	}
+
+	/**
+	 * Print the partition results to the given stream.
+	 */
+	public void printReport(PrintStream ps) {
+		for (Iterator i=results.iterator(); i.hasNext(); ) {
+			ps.println(i.next());
+		}
+	}
+
+	/**
+	 * The outcome of sorting one partition.
+	 */
+	public static class PartitionResult {
+		private int index;
+		private long records;
+		private long bytes;
+		private long queuedMillis;
+		private long startMillis;
+		private long endMillis;
+		private int rc = -1;
+		private List messages = Collections.EMPTY_LIST;
+		private File sortedFile;
+		private IOException failure;
+
+		PartitionResult(int index, long records, long bytes) {
+			this.index = index;
+			this.records = records;
+			this.bytes = bytes;
+		}
+
+		/**
+		 * Answer the index of the partition.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Answer the number of records in the partition.
+		 */
+		public long getRecordCount() {
+			return records;
+		}
+
+		/**
+		 * Answer the number of bytes in the partition.
+		 */
+		public long getByteCount() {
+			return bytes;
+		}
+
+		/**
+		 * Answer the time, in milliseconds, that the partition waited for a sort slot.
+		 */
+		public long getWaitMillis() {
+			return startMillis - queuedMillis;
+		}
+
+		/**
+		 * Answer the time, in milliseconds, taken to sort the partition.
+		 */
+		public long getSortMillis() {
+			return endMillis - startMillis;
+		}
+
+		/**
+		 * Answer the return code of the sort, or -1 if it did not complete.
+		 */
+		public int getReturnCode() {
+			return rc;
+		}
+
+		/**
+		 * Answer the messages of the sort.
+		 */
+		public List getMessages() {
+			return messages;
+		}
+
+		/**
+		 * Answer the failure of the sort, or null if it succeeded.
+		 */
+		public IOException getFailure() {
+			return failure;
+		}
+
+		public String toString() {
+			return "PARTITION=" + index + " RC=" + rc + " RECORDS=" + records + " BYTES=" + bytes
+					+ " WAIT=" + getWaitMillis() + " TIME=" + getSortMillis()
+					+ (failure != null ? " ERROR=" + failure.getMessage() : "");
+		}
+	}
+
+	/**
+	 * A temporary file of the records of one partition, in sort input format.
+	 */
+	class Spool {
+		private int index;
+		private File file;
+		private OutputStream os;
+		private long records;
+		private long bytes;
+		private byte[] buf = new byte[4096];
+
+		Spool(int index) throws IOException {
+			this.index = index;
+			this.file = createTempFile("part");
+			this.os = new BufferedOutputStream(new FileOutputStream(file), BUFSIZE);
+		}
+
+		void write(ByteBuffer source, int offset, int length) throws IOException {
+			if (buf.length < length) {
+				buf = new byte[Math.max(length, buf.length * 2)];
+			}
+			ByteBuffer dup = source.duplicate();
+			dup.position(offset);
+			dup.get(buf, 0, length);
+			os.write(buf, 0, length);
+			records++;
+			bytes += length;
+		}
+
+		void close() throws IOException {
+			os.close();
+		}
+
+		void discard() {
+			try {
+				os.close();
+			} catch (IOException ignore) {}
+			file.delete();
+		}
+	}
+
+	/**
+	 * The merged or concatenated sorted partitions, whose files are
+	 * deleted when closed.
+	 */
+	class SortedPartitions extends RecordMerger {
+		private List files = new ArrayList();
+
+		SortedPartitions(SortFields sortFields, RecordSource[] sources) {
+			super(sortFields, sources);
+			for (Iterator i=results.iterator(); i.hasNext(); ) {
+				files.add(((PartitionResult)i.next()).sortedFile);
+			}
+		}
+
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				for (Iterator i=files.iterator(); i.hasNext(); ) {
+					((File)i.next()).delete();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sort records from a file or stdin to a file or stdout.
+	 * See the class description for the arguments.
+	 */
+	public static void main(String[] args) throws Exception {
+		String engine = DfSortArguments.ENGINE_DFSORT;
+		int partitions = -1;
+		int recordsPerPartition = -1;
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		int lrecl = -1;
+		boolean rdws = false;
+		String in = null;
+		String out = null;
+		List statements = new ArrayList();
+		try {
+			for (int i=0; i<args.length; i++) {
+				if ("-e".equals(args[i])) {
+					engine = args[++i];
+				} else if ("-n".equals(args[i])) {
+					partitions = Integer.parseInt(args[++i]);
+				} else if ("-r".equals(args[i])) {
+					recordsPerPartition = Integer.parseInt(args[++i]);
+				} else if ("-p".equals(args[i])) {
+					parallelism = Integer.parseInt(args[++i]);
+				} else if ("-l".equals(args[i])) {
+					lrecl = Integer.parseInt(args[++i]);
+				} else if ("-v".equals(args[i])) {
+					rdws = true;
+				} else if ("-i".equals(args[i])) {
+					in = args[++i];
+				} else if ("-o".equals(args[i])) {
+					out = args[++i];
+				} else {
+					statements.add(args[i]);
+				}
+			}
+		} catch (RuntimeException e) {
+			statements.clear();
+		}
+		if (statements.isEmpty() || (lrecl <= 0 && !rdws)) {
+			System.err.println("Usage: " + SortScheduler.class.getName()
+					+ " [-e dfsort|java] [-n partitions | -r recordsPerPartition] [-p parallelism]"
+					+ " [-l lrecl | -v] [-i infile] [-o outfile] statement...");
+			System.err.println("Where:");
+			System.err.println("\t-e selects DFSORT (the default) or the in-JVM JavaSort for each partition");
+			System.err.println("\t-n partitions by key range, -r by record count; -p is the number of concurrent sorts");
+			System.err.println("\t-l lrecl: fixed length records, or -v: RDW prefixed variable length records");
+			System.err.println("\tinfile, outfile default to stdin, stdout");
+			System.exit(4);
+		}
+
+		DfSortArguments engineArgs = new DfSortArguments(new String[] {"engine=" + engine});
+		SortScheduler scheduler = new SortScheduler(engineArgs, parallelism, rdws, rdws ? Math.max(lrecl, 32756) : lrecl);
+		for (Iterator i=statements.iterator(); i.hasNext(); ) {
+			scheduler.addControlStatement((String)i.next());
+		}
+		if (recordsPerPartition > 0) {
+			scheduler.setRecordsPerPartition(recordsPerPartition);
+		} else if (partitions > 0) {
+			scheduler.setKeyRangePartitions(partitions, DEFAULT_SAMPLE_SIZE);
+		}
+
+		long startTime = System.currentTimeMillis();
+		InputStream is = (in != null) ? new FileInputStream(in) : new FileInputStream(FileDescriptor.in);
+		BlockRecordReader reader = new BlockRecordReader(is, rdws, lrecl, BlockRecordReader.DEFAULT_BLOCK_SIZE);
+		reader.setIncludeRdw(true);
+		int rc = 0;
+		long recordCount = 0;
+		try {
+			RecordSource sorted = scheduler.sort(reader);
+			OutputStream os = new BufferedOutputStream(
+					(out != null) ? new FileOutputStream(out) : new FileOutputStream(FileDescriptor.out), BUFSIZE);
+			byte[] buf = new byte[4096];
+			try {
+				while (sorted.next()) {
+					int length = sorted.getLength();
+					if (buf.length < length) {
+						buf = new byte[length];
+					}
+					ByteBuffer dup = sorted.getBuffer().duplicate();
+					dup.position(sorted.getOffset());
+					dup.get(buf, 0, length);
+					os.write(buf, 0, length);
+					recordCount++;
+				}
+			} finally {
+				os.close();
+				sorted.close();
+			}
+		} catch (IOException ioe) {
+			System.err.println(">>> Error occuring sorting: " + ioe.getMessage());
+			rc = 16;
+		} finally {
+			reader.close();
+		}
+		long runtime = System.currentTimeMillis() - startTime;
+		scheduler.printReport(System.err);
+		System.err.println("RC=" + rc + " TIME=" + runtime + " RECORD COUNT=" + recordCount + " "
+				+ SortScheduler.class.getName());
+		System.exit(rc);
+	}
+}
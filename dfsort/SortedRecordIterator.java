@@ -0,0 +1,412 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * (C) Copyright IBM Corp. 2005. All Rights Reserved
+ * 
+ * DISCLAIMER: 
+ * The following [enclosed] code is sample code created by IBM 
+ * Corporation.  This sample code is not part of any standard IBM product 
+ * and is provided to you solely for the purpose of assisting you in the 
+ * development of your applications.  The code is provided 'AS IS', 
+ * without warranty of any kind.  IBM shall not be liable for any damages 
+ * arising out of your use of the sample code, even if they have been 
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.dfsort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.ibm.jzos.sample.fields.RecordLayout;
+import com.ibm.jzos.sample.fields.RecordLayoutCompiler;
+
+/**
+ * An Iterator over the sorted output of a {@link SortProcess}, which answers
+ * each record as a {@link RecordView} that reads the record in place.
+ * <p>
+ * The output is read with a {@link BlockRecordReader} into a heap buffer, and the
+ * view answered by {@link #next()} refers to that buffer, so no record is copied
+ * or decoded unless its fields are read.  The same view is answered for every
+ * record, and is only valid until the next call to {@link #hasNext()} or {@link #next()}.
+ * If a {@link RecordLayout} is set, the view reads the layout's fields by name.
+ * <p>
+ * {@link #trySplit(int)} removes a batch of the following records, copied into a
+ * single array, and answers an independent Iterator over them, which may be
+ * processed by another thread while this iterator continues.
+ * <p>
+ * The iterator must be closed.  Closing it before the end of the output
+ * closes the sort's stdout stream, which cancels the sort: DFSORT ends with
+ * an error when it can no longer write SORTOUT, and {@link JavaSort} discards its
+ * remaining runs.  {@link #isCancelled()} tells whether the output was abandoned,
+ * so that such an error can be expected.
+ * <p>
+ * This class may be run as a command to sort a Unix file of fixed length records and
+ * print the first records using a copybook, or to process the sorted records in parallel:
+ * <pre>
+ * SortedRecordIterator [-e dfsort|java] [-c copybook] [-n limit] [-p threads] -l lrecl -i infile statement...
+ * </pre>
+ *
+ * @see DfSortFixedDatasetToJava
+ * @since 2.3.0
+ */
+public class SortedRecordIterator implements Iterator {
+
+	private BlockRecordReader reader;
+	private RecordLayout layout;
+	private RecordView view;
+	private boolean lookedAhead;
+	private boolean hasNext;
+	private boolean exhausted;
+	private boolean closed;
+	private boolean cancelled;
+
+	/**
+	 * Construct an instance on the output of a sort with fixed length records.
+	 * The sort must have been executed.
+	 */
+	public SortedRecordIterator(SortProcess sort, int lrecl) {
+		this(new BlockRecordReader(sort.getChildStdoutStream(), false, lrecl,
+								BlockRecordReader.DEFAULT_BLOCK_SIZE, false));
+	}
+
+	/**
+	 * Construct an instance on the output of a sort with RDW prefixed variable
+	 * length records.  The records answered do not include their RDWs.
+	 * The sort must have been executed.
+	 */
+	public SortedRecordIterator(SortProcess sort) {
+		this(new BlockRecordReader(sort.getChildStdoutStream(), true, 0,
+								BlockRecordReader.DEFAULT_BLOCK_SIZE, false));
+	}
+
+	/**
+	 * Construct an instance on a reader whose buffer is a heap buffer.
+	 */
+	public SortedRecordIterator(BlockRecordReader reader) {
+		this.reader = reader;
+		this.view = new RecordView(null, null, 0, 0);
+	}
+
+	/**
+	 * Set the layout used by the answered views.
+	 */
+	public void setLayout(RecordLayout layout) {
+		this.layout = layout;
+		this.view = new RecordView(layout, null, 0, 0);
+	}
+
+	/**
+	 * Answer the reader, which holds the throughput metrics.
+	 */
+	public BlockRecordReader getReader() {
+		return reader;
+	}
+
+	/**
+	 * Answer true if there is another record.
+	 * @throws SortOutputException if the output cannot be read
+	 */
+	public boolean hasNext() {
+		if (!lookedAhead) {
+			lookedAhead = true;
+			hasNext = !closed && advance();
+		}
+		return hasNext;
+	}
+
+	/**
+	 * Answer a view of the next record.
+	 * @throws NoSuchElementException if there are no more records
+	 */
+	public Object next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		lookedAhead = false;
+		ByteBuffer buffer = reader.getBuffer();
+		view.set(buffer.array(), buffer.arrayOffset() + reader.getOffset(), reader.getLength());
+		return view;
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Remove up to the given number of the following records from this iterator,
+	 * and answer an Iterator of {@link RecordView}s over a copy of them, or null
+	 * if there are no more records.  The answered iterator does not depend on this one.
+	 * @param maxRecords the maximum number of records to remove (at least 1)
+	 * @throws IllegalArgumentException if maxRecords is less than 1
+	 */
+	public Iterator trySplit(int maxRecords) {
+		if (maxRecords < 1) {
+			throw new IllegalArgumentException("maxRecords must be at least 1");
+		}
+		byte[] bytes = new byte[Math.min(maxRecords, 1024) * 64];
+		int[] offsets = new int[Math.min(maxRecords, 1024) + 1];
+		int count = 0;
+		int used = 0;
+		while (count < maxRecords && hasNext()) {
+			lookedAhead = false;
+			int length = reader.getLength();
+			if (used + length > bytes.length) {
+				byte[] newBytes = new byte[Math.max(used + length, bytes.length * 2)];
+				System.arraycopy(bytes, 0, newBytes, 0, used);
+				bytes = newBytes;
+			}
+			if (count + 1 == offsets.length) {
+				int[] newOffsets = new int[offsets.length * 2];
+				System.arraycopy(offsets, 0, newOffsets, 0, offsets.length);
+				offsets = newOffsets;
+			}
+			ByteBuffer buffer = reader.getBuffer();
+			System.arraycopy(buffer.array(), buffer.arrayOffset() + reader.getOffset(), bytes, used, length);
+			used += length;
+			offsets[++count] = used;
+		}
+		return (count == 0) ? null : new Batch(layout, bytes, offsets, count);
+	}
+
+	/**
+	 * Answer true if the iterator was closed before the end of the output.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Close the sort's output stream, which cancels the sort if not all of
+	 * its output has been read.  The sort's return code should then be checked.
+	 */
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		cancelled = !exhausted;
+		lookedAhead = true;
+		hasNext = false;
+		reader.close();
+	}
+
+	private boolean advance() {
+		try {
+			if (reader.next()) {
+				return true;
+			}
+		} catch (IOException ioe) {
+			throw new SortOutputException(ioe);
+		}
+		exhausted = true;
+		return false;
+	}
+
+	/**
+	 * An unchecked exception which wraps an IOException reading the sort output,
+	 * since an Iterator cannot throw a checked exception.
+	 */
+	public static class SortOutputException extends RuntimeException {
+		public SortOutputException(IOException cause) {
+			super(cause.getMessage(), cause);
+		}
+	}
+
+	/**
+	 * An Iterator over a batch of records copied into one array.
+	 */
+	static class Batch implements Iterator {
+		private byte[] bytes;
+		private int[] offsets;
+		private int count;
+		private int next;
+		private RecordView view;
+
+		Batch(RecordLayout layout, byte[] bytes, int[] offsets, int count) {
+			this.bytes = bytes;
+			this.offsets = offsets;
+			this.count = count;
+			this.view = new RecordView(layout, null, 0, 0);
+		}
+
+		public boolean hasNext() {
+			return next < count;
+		}
+
+		public Object next() {
+			if (next >= count) {
+				throw new NoSuchElementException();
+			}
+			view.set(bytes, offsets[next], offsets[next+1] - offsets[next]);
+			next++;
+			return view;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Sort a Unix file of fixed length records, and print the first records
+	 * or process the records in parallel batches.
+	 * See the class description for the arguments.
+	 */
+	public static void main(String[] args) throws Exception {
+		String engine = DfSortArguments.ENGINE_DFSORT;
+		String copybook = null;
+		int limit = -1;
+		int threads = 0;
+		int lrecl = -1;
+		String in = null;
+		List statements = new ArrayList();
+		try {
+			for (int i=0; i<args.length; i++) {
+				if ("-e".equals(args[i])) {
+					engine = args[++i];
+				} else if ("-c".equals(args[i])) {
+					copybook = args[++i];
+				} else if ("-n".equals(args[i])) {
+					limit = Integer.parseInt(args[++i]);
+				} else if ("-p".equals(args[i])) {
+					threads = Integer.parseInt(args[++i]);
+				} else if ("-l".equals(args[i])) {
+					lrecl = Integer.parseInt(args[++i]);
+				} else if ("-i".equals(args[i])) {
+					in = args[++i];
+				} else {
+					statements.add(args[i]);
+				}
+			}
+		} catch (RuntimeException e) {
+			statements.clear();
+		}
+		if (statements.isEmpty() || lrecl <= 0 || in == null) {
+			System.err.println("Usage: " + SortedRecordIterator.class.getName()
+					+ " [-e dfsort|java] [-c copybook] [-n limit] [-p threads] -l lrecl -i infile statement...");
+			System.err.println("Where:");
+			System.err.println("\tcopybook is a COBOL record layout used to print the records' fields");
+			System.err.println("\tlimit is the number of records to read before cancelling the sort");
+			System.err.println("\tthreads is the number of threads processing batches of records");
+			System.exit(4);
+		}
+
+		SortProcess sort = new DfSortArguments(new String[] {"engine=" + engine}).newSortProcess();
+		sort.addAllocation("alloc fi(sortin) path('" + in + "') pathopts(ordonly) filedata(binary) msg(2)");
+		sort.setOutputStreamRecLen(lrecl);
+		sort.addControlStatement("RECORD TYPE=F,LENGTH=(" + lrecl + ")");
+		for (Iterator i=statements.iterator(); i.hasNext(); ) {
+			sort.addControlStatement((String)i.next());
+		}
+		long startTime = System.currentTimeMillis();
+		sort.execute();
+
+		SortedRecordIterator records = new SortedRecordIterator(sort, lrecl);
+		if (copybook != null) {
+			records.setLayout(RecordLayoutCompiler.getLayout(RecordLayoutCompiler.COBOL, null,
+									RecordLayoutCompiler.readSource(copybook)));
+		}
+		long recordCount = 0;
+		try {
+			if (threads > 0) {
+				recordCount = processBatches(records, threads);
+			} else {
+				while ((limit < 0 || recordCount < limit) && records.hasNext()) {
+					RecordView record = (RecordView)records.next();
+					recordCount++;
+					if (limit >= 0) {
+						printRecord(record);
+					}
+				}
+			}
+		} finally {
+			records.close();
+		}
+
+		int rc = sort.getReturnCode();
+		long runtime = System.currentTimeMillis() - startTime;
+		if (rc != 0 && !records.isCancelled()) {
+			for (Iterator i=sort.getStderrLines().iterator(); i.hasNext(); ) {
+				System.err.println(i.next());
+			}
+		}
+		System.out.println("RC=" + rc + " TIME=" + runtime + " RECORD COUNT=" + recordCount
+				+ (records.isCancelled() ? " CANCELLED" : "") + " " + SortedRecordIterator.class.getName());
+	}
+
+	private static void printRecord(RecordView record) {
+		RecordLayout layout = record.getLayout();
+		if (layout == null) {
+			System.out.println(record.getLength() + " bytes");
+			return;
+		}
+		StringBuffer sb = new StringBuffer();
+		for (int i=0; i<layout.getFieldCount(); i++) {
+			if (i > 0) {
+				sb.append(' ');
+			}
+			Object value = record.getValue(i);
+			sb.append(layout.getFieldName(i)).append('=').append(value instanceof byte[] ? "..." : value);
+		}
+		System.out.println(sb);
+	}
+
+	/*
+	 * Split the records into batches, and sum a checksum of each batch on a
+	 * pool of threads, with at most 2*threads batches in flight.
+	 * Answer the number of records.
+	 */
+	private static long processBatches(SortedRecordIterator records, int threads) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List pending = new ArrayList();
+		long recordCount = 0;
+		long checksum = 0;
+		try {
+			Iterator batch;
+			while ((batch = records.trySplit(10000)) != null) {
+				final Iterator batchRecords = batch;
+				pending.add(pool.submit(new Callable() {
+					public Object call() {
+						long count = 0;
+						long sum = 0;
+						while (batchRecords.hasNext()) {
+							RecordView record = (RecordView)batchRecords.next();
+							byte[] bytes = record.getBytes();
+							for (int i=record.getOffset(); i<record.getOffset() + record.getLength(); i++) {
+								sum += bytes[i] & 0xFF;
+							}
+							count++;
+						}
+						return new long[] {count, sum};
+					}
+				}));
+				while (pending.size() >= threads * 2 || (!pending.isEmpty() && ((Future)pending.get(0)).isDone())) {
+					long[] result = (long[])((Future)pending.remove(0)).get();
+					recordCount += result[0];
+					checksum += result[1];
+				}
+			}
+			for (Iterator i=pending.iterator(); i.hasNext(); ) {
+				long[] result = (long[])((Future)i.next()).get();
+				recordCount += result[0];
+				checksum += result[1];
+			}
+		} finally {
+			pool.shutdown();
+		}
+		System.out.println("CHECKSUM=" + checksum);
+		return recordCount;
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+/**
+ * Static methods which decode and encode packed decimal (COMP-3) and 
+ * external (zoned) decimal values as unscaled longs, without 
+ * allocating a BigDecimal.
+ * <p/>
+ * The scale of a value is implied by its field: a PIC S9(4)V99 field
+ * holding 12.34 is answered as 1234.  Packed decimal bytes are decoded 
+ * two digits at a time by a table lookup.
+ * <p/>
+ * Values with invalid digits or signs are rejected with an 
+ * IllegalArgumentException, as are values that do not fit in the field.
+ *
+ * @see MedicareRecord#getTotalChargesUnscaled()
+ * @see MedicareRecordBatch
+ * @since 2.3.0
+ */
+public class DecimalCodec {
+
+	/** The value of each packed byte holding two digits, or -1 if either is not a digit */
+	private static final int[] PACKED_DIGITS = new int[256];
+
+	/** The powers of ten that fit in a long */
+	private static final long[] POWERS_OF_TEN = new long[19];
+
+	static {
+		for (int b = 0; b < 256; b++) {
+			int hi = b >> 4;
+			int lo = b & 0x0f;
+			PACKED_DIGITS[b] = hi <= 9 && lo <= 9 ? hi * 10 + lo : -1;
+		}
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private DecimalCodec() {
+	}
+
+	/**
+	 * Answer the value of a packed decimal field.
+	 * @param bytes the buffer
+	 * @param offset the offset of the field in the buffer
+	 * @param length the length of the field in bytes (at most 10)
+	 * @return long the unscaled value
+	 * @throws IllegalArgumentException if the field holds an invalid digit or sign
+	 */
+	public static long getPacked(byte[] bytes, int offset, int length) {
+		int last = offset + length - 1;
+		long value = 0;
+		for (int i = offset; i < last; i++) {
+			int digits = PACKED_DIGITS[bytes[i] & 0xff];
+			if (digits < 0) {
+				throw invalid("packed", bytes, offset, length);
+			}
+			value = value * 100 + digits;
+		}
+		int b = bytes[last] & 0xff;
+		int digit = b >> 4;
+		int sign = b & 0x0f;
+		if (digit > 9 || sign < 0x0a) {
+			throw invalid("packed", bytes, offset, length);
+		}
+		value = value * 10 + digit;
+		return sign == 0x0d || sign == 0x0b ? -value : value;
+	}
+
+	/**
+	 * Store a value in a packed decimal field.  Signed fields are given
+	 * a sign of C or D, and unsigned fields a sign of F.
+	 * @param value the unscaled value
+	 * @param precision the number of digits in the field
+	 * @param signed true if the field is signed
+	 * @param bytes the buffer
+	 * @param offset the offset of the field in the buffer
+	 * @param length the length of the field in bytes
+	 * @throws IllegalArgumentException if the value does not fit in the field
+	 */
+	public static void putPacked(long value, int precision, boolean signed, 
+									byte[] bytes, int offset, int length) {
+		long abs = checkRange(value, precision, signed);
+		int sign = !signed ? 0x0f : (value < 0 ? 0x0d : 0x0c);
+		int i = offset + length - 1;
+		bytes[i] = (byte)((int)(abs % 10) << 4 | sign);
+		abs /= 10;
+		while (--i >= offset) {
+			int lo = (int)(abs % 10);
+			abs /= 10;
+			int hi = (int)(abs % 10);
+			abs /= 10;
+			bytes[i] = (byte)(hi << 4 | lo);
+		}
+	}
+
+	/**
+	 * Answer the value of an external decimal field, whose sign 
+	 * (if any) is held in the zone of its first or last byte.
+	 * @param bytes the buffer
+	 * @param offset the offset of the field in the buffer
+	 * @param length the length of the field in bytes, which is its number of digits (at most 18)
+	 * @param signTrailing true if the sign is in the last byte, false if it is in the first
+	 * @return long the unscaled value
+	 * @throws IllegalArgumentException if the field holds an invalid digit or sign
+	 */
+	public static long getZoned(byte[] bytes, int offset, int length, boolean signTrailing) {
+		long value = 0;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			int digit = bytes[i] & 0x0f;
+			if (digit > 9) {
+				throw invalid("external", bytes, offset, length);
+			}
+			value = value * 10 + digit;
+		}
+		int zone = (bytes[signTrailing ? offset + length - 1 : offset] & 0xff) >> 4;
+		if (zone < 0x0a) {
+			throw invalid("external", bytes, offset, length);
+		}
+		return zone == 0x0d || zone == 0x0b ? -value : value;
+	}
+
+	/**
+	 * Store a value in an external decimal field.  The sign of a signed field
+	 * is given as a zone of C or D in its first or last byte; all other 
+	 * zones are F.
+	 * @param value the unscaled value
+	 * @param signed true if the field is signed
+	 * @param signTrailing true if the sign is in the last byte, false if it is in the first
+	 * @param bytes the buffer
+	 * @param offset the offset of the field in the buffer
+	 * @param length the length of the field in bytes, which is its number of digits
+	 * @throws IllegalArgumentException if the value does not fit in the field
+	 */
+	public static void putZoned(long value, boolean signed, boolean signTrailing, 
+									byte[] bytes, int offset, int length) {
+		long abs = checkRange(value, length, signed);
+		for (int i = offset + length - 1; i >= offset; i--) {
+			bytes[i] = (byte)(0xf0 | (int)(abs % 10));
+			abs /= 10;
+		}
+		if (signed) {
+			int i = signTrailing ? offset + length - 1 : offset;
+			bytes[i] = (byte)((bytes[i] & 0x0f) | (value < 0 ? 0xd0 : 0xc0));
+		}
+	}
+
+	/*
+	 * Answer the absolute value of the given value, if it fits in a field.
+	 */
+	private static long checkRange(long value, int precision, boolean signed) {
+		if (precision < 1 || precision >= POWERS_OF_TEN.length) {
+			throw new IllegalArgumentException("Invalid precision: " + precision);
+		}
+		if ((value < 0 && !signed) 
+				|| value <= -POWERS_OF_TEN[precision] 
+				|| value >= POWERS_OF_TEN[precision]) {
+			throw new IllegalArgumentException("Value " + value + " does not fit in " 
+												+ precision + " digits");
+		}
+		return Math.abs(value);
+	}
+
+	private static IllegalArgumentException invalid(String type, byte[] bytes, int offset, int length) {
+		StringBuffer sb = new StringBuffer("Invalid ").append(type).append(" decimal data: ");
+		for (int i = offset; i < offset + length; i++) {
+			String hex = Integer.toHexString(bytes[i] & 0xff).toUpperCase();
+			sb.append(hex.length() < 2 ? "0" + hex : hex);
+		}
+		return new IllegalArgumentException(sb.toString());
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+
+import com.ibm.jzos.ZUtil;
+import com.ibm.jzos.fields.StringField;
+
+/**
+ * Decodes and compares fixed width character fields, such as PIC X(n) and CLn,
+ * encoded in a single byte encoding such as EBCDIC.
+ * <p/>
+ * Characters are decoded with a 256 entry table, after trailing blanks have 
+ * been trimmed from the bytes, so only the String and its chars are allocated.
+ * Values can also be compared with a field without decoding it at all,
+ * by encoding the value once and comparing bytes:
+ * <pre>
+ * FixedStringCodec codec = FixedStringCodec.getDefault();
+ * byte[] status = codec.encode("01", 2);
+ * for (...) {
+ *     if (codec.equals(statusField, bytes, offset, status)) ...
+ * }
+ * </pre>
+ * A codec is immutable, and so may be shared between threads.
+ *
+ * @see StringField
+ * @since 2.3.0
+ */
+public class FixedStringCodec {
+
+	private static FixedStringCodec defaultCodec;
+
+	private String encoding;
+	private char[] decodeTable = new char[256];
+	private byte blank;
+
+	/**
+	 * Answer a shared codec for the default platform encoding, which is the 
+	 * encoding used by {@link StringField}s by default.
+	 */
+	public static synchronized FixedStringCodec getDefault() {
+		if (defaultCodec == null) {
+			defaultCodec = new FixedStringCodec(ZUtil.getDefaultPlatformEncoding());
+		}
+		return defaultCodec;
+	}
+
+	/**
+	 * Construct a codec for the given encoding.
+	 * @throws IllegalArgumentException if the encoding is not a supported single byte encoding
+	 */
+	public FixedStringCodec(String encoding) {
+		this.encoding = encoding;
+		try {
+			if (Charset.forName(encoding).newEncoder().maxBytesPerChar() != 1.0f) {
+				throw new IllegalArgumentException("Not a single byte encoding: " + encoding);
+			}
+			byte[] bytes = new byte[256];
+			for (int i = 0; i < 256; i++) {
+				bytes[i] = (byte)i;
+			}
+			String chars = new String(bytes, encoding);
+			if (chars.length() != 256) {
+				throw new IllegalArgumentException("Not a single byte encoding: " + encoding);
+			}
+			chars.getChars(0, 256, decodeTable, 0);
+			blank = " ".getBytes(encoding)[0];
+		} catch (UnsupportedEncodingException uee) {
+			throw new IllegalArgumentException("Unsupported encoding: " + encoding);
+		} catch (UnsupportedOperationException uoe) {
+			throw new IllegalArgumentException("Unsupported encoding: " + encoding); // decode only charsets
+		}
+	}
+
+	/**
+	 * Answer the encoding of this codec.
+	 */
+	public String getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * Answer the value of the given field, with trailing blanks trimmed.
+	 * @param field the field, which must be in the encoding of this codec
+	 * @param bytes the buffer
+	 * @param bufOffset the offset of the record in the buffer
+	 */
+	public String getString(StringField field, byte[] bytes, int bufOffset) {
+		return decode(bytes, bufOffset + field.getOffset(), field.getByteLength(), true);
+	}
+
+	/**
+	 * Answer the value of the given field.
+	 * @param trim true if trailing blanks are to be trimmed
+	 */
+	public String getString(StringField field, byte[] bytes, int bufOffset, boolean trim) {
+		return decode(bytes, bufOffset + field.getOffset(), field.getByteLength(), trim);
+	}
+
+	/**
+	 * Answer the String decoded from the given bytes.
+	 * @param trim true if trailing blanks are to be trimmed before decoding
+	 */
+	public String decode(byte[] bytes, int offset, int length, boolean trim) {
+		if (trim) {
+			length = trimmedLength(bytes, offset, length);
+		}
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = decodeTable[bytes[offset + i] & 0xff];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Answer the length of the given bytes without any trailing blanks.
+	 */
+	public int trimmedLength(byte[] bytes, int offset, int length) {
+		while (length > 0 && bytes[offset + length - 1] == blank) {
+			length--;
+		}
+		return length;
+	}
+
+	/**
+	 * Answer the given value encoded and padded with blanks to the given length,
+	 * as it would be stored in a field of that length.
+	 * @throws IllegalArgumentException if the encoded value is longer than the length
+	 */
+	public byte[] encode(String value, int length) {
+		byte[] encoded;
+		try {
+			encoded = value.getBytes(encoding);
+		} catch (UnsupportedEncodingException uee) {
+			throw new IllegalArgumentException("Unsupported encoding: " + encoding); // checked by the constructor
+		}
+		if (encoded.length > length) {
+			throw new IllegalArgumentException("Value is longer than " + length + " bytes: " + value);
+		}
+		byte[] padded = new byte[length];
+		System.arraycopy(encoded, 0, padded, 0, encoded.length);
+		for (int i = encoded.length; i < length; i++) {
+			padded[i] = blank;
+		}
+		return padded;
+	}
+
+	/**
+	 * Answer true if the given field holds the given encoded value.
+	 * @param field the field
+	 * @param bytes the buffer
+	 * @param bufOffset the offset of the record in the buffer
+	 * @param value a value returned by {@link #encode(String, int)} with the length of the field
+	 */
+	public boolean equals(StringField field, byte[] bytes, int bufOffset, byte[] value) {
+		return value.length == field.getByteLength()
+				&& equals(bytes, bufOffset + field.getOffset(), value);
+	}
+
+	/**
+	 * Answer true if the bytes at the given offset are equal to the given encoded value.
+	 */
+	public static boolean equals(byte[] bytes, int offset, byte[] value) {
+		for (int i = 0; i < value.length; i++) {
+			if (bytes[offset + i] != value[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -22,6 +22,9 @@ import com.ibm.jzos.fields.*;
 /**
  * A class which maps a Format 5 DSCB (VTOC free space)
  * <p>
+ * Maintained by hand: DS5KEYID is cached in a primitive long, with a bit in
+ * <code>loaded</code> once it has been read, as in {@link Smf83BaseRecord}.
+ * <p>
  * @see Format5DSCB
  * @since 2.1.0
  */
@@ -85,8 +88,12 @@ public class Format5DSCBBase {
 	protected byte[] bytes;
 	protected int bufOffset;
 
+	// Bits in loaded for the numeric fields which have been cached
+	private static final int LOADED_DS5KEYID = 0x1;
+
 	// Instance variables used to cache field values 
-	private Long ds5keyid;
+	private int loaded;
+	private long ds5keyid;
 	private byte[] ds5avext;
 	private byte[] ds5extav;
 	private String ds5fmtid;
@@ -101,17 +108,19 @@ public class Format5DSCBBase {
 
 
 	public long getDs5keyid() {
-		if (ds5keyid == null) {
-			ds5keyid = new Long(DS5KEYID.getLong(bytes, bufOffset));
+		if ((loaded & LOADED_DS5KEYID) == 0) {
+			ds5keyid = DS5KEYID.getLong(bytes, bufOffset);
+			loaded |= LOADED_DS5KEYID;
 		}
-		return ds5keyid.longValue();
+		return ds5keyid;
 	}
 
 	public void setDs5keyid(long ds5keyid) {
-		if (DS5KEYID.equals(this.ds5keyid, ds5keyid))
+		if ((loaded & LOADED_DS5KEYID) != 0 && this.ds5keyid == ds5keyid)
 			return;
 		DS5KEYID.putLong(ds5keyid, bytes, bufOffset);
-		this.ds5keyid = new Long(ds5keyid);
+		this.ds5keyid = ds5keyid;
+		loaded |= LOADED_DS5KEYID;
 	}
 
 	public byte[] getDs5avext() {
@@ -21,6 +21,10 @@ import com.ibm.jzos.fields.*;
 
 /**
  * A class which maps an available extent in a Format5 DSCB.
+ * <p>
+ * Maintained by hand: the extent fields are cached in primitive ints, 
+ * with a bit in <code>loaded</code> for each one that has been read, 
+ * as in {@link Smf83BaseRecord}.
  * 
  * @see Format5DSCB
  * @since 2.1.0
@@ -47,10 +51,16 @@ public class Format5Extent {
 	protected byte[] bytes;
 	protected int bufOffset;
 
+	// Bits in loaded for the numeric fields which have been cached
+	private static final int LOADED_FIRSTTRK = 0x1;
+	private static final int LOADED_UNUSEDCYL = 0x2;
+	private static final int LOADED_UNUSEDTRK = 0x4;
+
 	// Instance variables used to cache field values 
-	private Integer firsttrk;
-	private Integer unusedcyl;
-	private Integer unusedtrk;
+	private int loaded;
+	private int firsttrk;
+	private int unusedcyl;
+	private int unusedtrk;
 
 
 	public Format5Extent(byte[] buffer, int bufOffset) {
@@ -60,45 +70,51 @@ public class Format5Extent {
 
 
 	public int getFirsttrk() {
-		if (firsttrk == null) {
-			firsttrk = new Integer(FIRSTTRK.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_FIRSTTRK) == 0) {
+			firsttrk = FIRSTTRK.getInt(bytes, bufOffset);
+			loaded |= LOADED_FIRSTTRK;
 		}
-		return firsttrk.intValue();
+		return firsttrk;
 	}
 
 	public void setFirsttrk(int firsttrk) {
-		if (FIRSTTRK.equals(this.firsttrk, firsttrk))
+		if ((loaded & LOADED_FIRSTTRK) != 0 && this.firsttrk == firsttrk)
 			return;
 		FIRSTTRK.putInt(firsttrk, bytes, bufOffset);
-		this.firsttrk = new Integer(firsttrk);
+		this.firsttrk = firsttrk;
+		loaded |= LOADED_FIRSTTRK;
 	}
 
 	public int getUnusedcyl() {
-		if (unusedcyl == null) {
-			unusedcyl = new Integer(UNUSEDCYL.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_UNUSEDCYL) == 0) {
+			unusedcyl = UNUSEDCYL.getInt(bytes, bufOffset);
+			loaded |= LOADED_UNUSEDCYL;
 		}
-		return unusedcyl.intValue();
+		return unusedcyl;
 	}
 
 	public void setUnusedcyl(int unusedcyl) {
-		if (UNUSEDCYL.equals(this.unusedcyl, unusedcyl))
+		if ((loaded & LOADED_UNUSEDCYL) != 0 && this.unusedcyl == unusedcyl)
 			return;
 		UNUSEDCYL.putInt(unusedcyl, bytes, bufOffset);
-		this.unusedcyl = new Integer(unusedcyl);
+		this.unusedcyl = unusedcyl;
+		loaded |= LOADED_UNUSEDCYL;
 	}
 
 	public int getUnusedtrk() {
-		if (unusedtrk == null) {
-			unusedtrk = new Integer(UNUSEDTRK.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_UNUSEDTRK) == 0) {
+			unusedtrk = UNUSEDTRK.getInt(bytes, bufOffset);
+			loaded |= LOADED_UNUSEDTRK;
 		}
-		return unusedtrk.intValue();
+		return unusedtrk;
 	}
 
 	public void setUnusedtrk(int unusedtrk) {
-		if (UNUSEDTRK.equals(this.unusedtrk, unusedtrk))
+		if ((loaded & LOADED_UNUSEDTRK) != 0 && this.unusedtrk == unusedtrk)
 			return;
 		UNUSEDTRK.putInt(unusedtrk, bytes, bufOffset);
-		this.unusedtrk = new Integer(unusedtrk);
+		this.unusedtrk = unusedtrk;
+		loaded |= LOADED_UNUSEDTRK;
 	}
 
 }
@@ -0,0 +1,206 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link RecordAggregate} of {@link MedicareRecord}s, which sums the 
+ * TotalCharges by MedicareProvider and counts the records by PatientStatus.
+ * <p/>
+ * Records are read with the Fields of {@link MedicareRecord} directly from
+ * the buffer, and keys are looked up by their bytes, so that no object is
+ * allocated for a record unless its key has not been seen before. 
+ * Keys are decoded to Strings, by a {@link FixedStringCodec}, only when 
+ * the results are requested.
+ *
+ * @see ParallelRecordAggregator
+ * @since 2.3.0
+ */
+public class MedicareAggregate implements RecordAggregate {
+
+	private static final int PROVIDER_OFFSET = MedicareRecord.MedicareProvider.getOffset();
+	private static final int PROVIDER_LENGTH = MedicareRecord.MedicareProvider.getByteLength();
+	private static final int STATUS_OFFSET = MedicareRecord.PatientStatus.getOffset();
+	private static final int STATUS_LENGTH = MedicareRecord.PatientStatus.getByteLength();
+	private static final int CHARGES_OFFSET = MedicareRecord.TotalCharges.getOffset();
+	private static final int CHARGES_LENGTH = MedicareRecord.TotalCharges.getByteLength();
+
+	private Map chargesByProvider = new HashMap();	// ByteKey -> long[1] of cents
+	private Map countsByStatus = new HashMap();		// ByteKey -> long[1]
+	private ByteKey probe = new ByteKey();
+	private long count = 0;
+
+	public RecordAggregate newAggregate() {
+		return new MedicareAggregate();
+	}
+
+	public void add(byte[] buffer, int offset) {
+		long charges = DecimalCodec.getZoned(buffer, offset + CHARGES_OFFSET, CHARGES_LENGTH, false);
+		total(chargesByProvider, buffer, offset + PROVIDER_OFFSET, PROVIDER_LENGTH)[0] += charges;
+		total(countsByStatus, buffer, offset + STATUS_OFFSET, STATUS_LENGTH)[0]++;
+		count++;
+	}
+
+	public void merge(RecordAggregate other) {
+		MedicareAggregate aggregate = (MedicareAggregate)other;
+		mergeTotals(chargesByProvider, aggregate.chargesByProvider);
+		mergeTotals(countsByStatus, aggregate.countsByStatus);
+		count += aggregate.count;
+	}
+
+	/**
+	 * Answer the number of records aggregated.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Answer the MedicareProviders, in order.
+	 */
+	public List getProviders() {
+		return decodeKeys(chargesByProvider, false);
+	}
+
+	/**
+	 * Answer the sum of the TotalCharges of the given MedicareProvider, 
+	 * or null if it has no records.
+	 */
+	public BigDecimal getTotalCharges(String provider) {
+		long[] total = (long[])chargesByProvider.get(encodeKey(provider, PROVIDER_LENGTH));
+		return total == null ? null : BigDecimal.valueOf(total[0], MedicareRecord.MONEY_SCALE);
+	}
+
+	/**
+	 * Answer the PatientStatus values, in order.
+	 */
+	public List getPatientStatuses() {
+		return decodeKeys(countsByStatus, true);
+	}
+
+	/**
+	 * Answer the number of records with the given PatientStatus.
+	 */
+	public long getPatientStatusCount(String status) {
+		long[] total = (long[])countsByStatus.get(encodeKey(status, STATUS_LENGTH));
+		return total == null ? 0 : total[0];
+	}
+
+	/*
+	 * Answer the total for the key at the given offset, adding it if necessary.
+	 */
+	private long[] total(Map totals, byte[] buffer, int offset, int length) {
+		probe.set(buffer, offset, length);
+		long[] total = (long[])totals.get(probe);
+		if (total == null) {
+			total = new long[1];
+			totals.put(probe.copy(), total);
+		}
+		return total;
+	}
+
+	private static void mergeTotals(Map totals, Map others) {
+		for (Iterator iter = others.entrySet().iterator(); iter.hasNext(); ) {
+			Map.Entry entry = (Map.Entry)iter.next();
+			long[] total = (long[])totals.get(entry.getKey());
+			if (total == null) {
+				totals.put(entry.getKey(), entry.getValue());
+			} else {
+				total[0] += ((long[])entry.getValue())[0];
+			}
+		}
+	}
+
+	private static List decodeKeys(Map totals, boolean trim) {
+		FixedStringCodec codec = FixedStringCodec.getDefault();
+		List keys = new ArrayList();
+		for (Iterator iter = totals.keySet().iterator(); iter.hasNext(); ) {
+			ByteKey key = (ByteKey)iter.next();
+			keys.add(codec.decode(key.bytes, key.offset, key.length, trim));
+		}
+		Collections.sort(keys);
+		return keys;
+	}
+
+	private static ByteKey encodeKey(String value, int length) {
+		byte[] bytes = FixedStringCodec.getDefault().encode(value, length);
+		ByteKey key = new ByteKey();
+		key.set(bytes, 0, bytes.length);
+		return key;
+	}
+
+	/**
+	 * A key which is a range of bytes.  A single instance is reset to probe 
+	 * a map for each record, and is copied only when a new key is added.
+	 */
+	static class ByteKey {
+		byte[] bytes;
+		int offset;
+		int length;
+		int hash;
+
+		void set(byte[] bytes, int offset, int length) {
+			this.bytes = bytes;
+			this.offset = offset;
+			this.length = length;
+			int h = 0;
+			for (int i = 0; i < length; i++) {
+				h = 31 * h + bytes[offset + i];
+			}
+			this.hash = h;
+		}
+
+		ByteKey copy() {
+			ByteKey key = new ByteKey();
+			byte[] copy = new byte[length];
+			System.arraycopy(bytes, offset, copy, 0, length);
+			key.bytes = copy;
+			key.length = length;
+			key.hash = hash;
+			return key;
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ByteKey)) {
+				return false;
+			}
+			ByteKey other = (ByteKey)obj;
+			if (other.length != length || other.hash != hash) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if (bytes[offset + i] != other.bytes[other.offset + i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
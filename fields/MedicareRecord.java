@@ -45,6 +45,11 @@ import com.ibm.jzos.fields.StringField;
  * {@link #setBytes(byte[])}.  This byte array represents a COBOL record matching
  * the MedicareRecord described by the copybook.  Individual fields can be accessed via
  * the supplied getter and setter methods.
+ * <p>
+ * The PIC S9(n)V99 fields can also be accessed as unscaled longs (in cents),
+ * with a scale of {@link #MONEY_SCALE}, which avoids allocating a BigDecimal
+ * on each access.  The PIC X(n) fields are decoded by a {@link FixedStringCodec},
+ * and the PatientStatus can be compared without decoding it.
  * <p/>
  * @since 2.1.0
  */
@@ -52,27 +57,32 @@ public class MedicareRecord {
 	
 	public static final int BUF_LEN = 120;
 	
+	/** The scale of the unscaled values of the PIC S9(n)V99 fields */
+	public static final int MONEY_SCALE = 2;
+	
 	private byte[] bytes;
 
+	private static final FixedStringCodec codec = FixedStringCodec.getDefault();
+
 	private static CobolDatatypeFactory factory = new CobolDatatypeFactory();
 	
 	//	05 ClaimNumber                        PIC X(19).
 	private static final StringField ClaimNumber = factory.getStringField(19);
 	
 	//	05 AdmissionDate       PACKED-DECIMAL PIC S9(7).
-	private static final PackedDecimalAsIntField AdmissionDate  = factory.getPackedDecimalAsIntField(7, true);
+	static final PackedDecimalAsIntField AdmissionDate  = factory.getPackedDecimalAsIntField(7, true);
 
 	//	05 FromDate            PACKED-DECIMAL PIC S9(7).
-	private static final PackedDecimalAsIntField FromDate = factory.getPackedDecimalAsIntField(7, true);
+	static final PackedDecimalAsIntField FromDate = factory.getPackedDecimalAsIntField(7, true);
 
 	//	05 ThruDate            PACKED-DECIMAL PIC S9(7).
-	private static final PackedDecimalAsIntField ThruDate = factory.getPackedDecimalAsIntField(7, true);
+	static final PackedDecimalAsIntField ThruDate = factory.getPackedDecimalAsIntField(7, true);
 
 	//	05 DischargeDate       PACKED-DECIMAL PIC S9(7).
-	private static final PackedDecimalAsIntField DischargeDate = factory.getPackedDecimalAsIntField(7, true);
+	static final PackedDecimalAsIntField DischargeDate = factory.getPackedDecimalAsIntField(7, true);
 
 	//	05 FullDays            PACKED-DECIMAL PIC S9(5).
-	private static final PackedDecimalAsIntField FullDays = factory.getPackedDecimalAsIntField(5, true);
+	static final PackedDecimalAsIntField FullDays = factory.getPackedDecimalAsIntField(5, true);
 
 	//	05 CoinsuranceDays     BINARY         PIC 9(4).
 	private static final BinaryAsIntField CoinsuranceDays = factory.getBinaryAsIntField(4, false);
@@ -84,19 +94,19 @@ public class MedicareRecord {
 	private static final BinaryAsLongField IntermediaryNum = factory.getBinaryAsLongField(10, false);
 
 	//	05 MedicareProvider                   PIC X(13).
-	private static final StringField MedicareProvider  = factory.getStringField(13, false);
+	static final StringField MedicareProvider  = factory.getStringField(13, false);
 
 	//	05 InpatientDed        PACKED-DECIMAL PIC S9(4)V99.
-	private static final PackedDecimalAsBigDecimalField InpatientDed = factory.getPackedDecimalAsBigDecimalField(6, 2, true);
+	static final PackedDecimalAsBigDecimalField InpatientDed = factory.getPackedDecimalAsBigDecimalField(6, 2, true);
 	
 	//	05 BloodDed            PACKED-DECIMAL PIC S9(4)V99.
-	private static final PackedDecimalAsBigDecimalField BloodDed = factory.getPackedDecimalAsBigDecimalField(6, 2, true);
+	static final PackedDecimalAsBigDecimalField BloodDed = factory.getPackedDecimalAsBigDecimalField(6, 2, true);
 	
 	//	05 TotalCharges                       PIC S9(7)V99 DISPLAY SIGN LEADING.
-	private static final ExternalDecimalAsBigDecimalField TotalCharges = factory.getExternalDecimalAsBigDecimalField(9, 2, true, false, false, false);
+	static final ExternalDecimalAsBigDecimalField TotalCharges = factory.getExternalDecimalAsBigDecimalField(9, 2, true, false, false, false);
 	
 	//	05 PatientStatus                      PIC X(2).
-	private static final StringField PatientStatus = factory.getStringField(2);
+	static final StringField PatientStatus = factory.getStringField(2);
 
 	//	05 BloodPintsFurnished BINARY         PIC 9(5).
 	private static final BinaryAsIntField BloodPintsFurnished = factory.getBinaryAsIntField(5, false);
@@ -157,7 +167,7 @@ public class MedicareRecord {
 	}
 
 	public String getAutoAdjustmentInd() {
-		return AutoAdjustmentInd.getString(bytes);
+		return codec.getString(AutoAdjustmentInd, bytes, 0);
 	}
 
 	public void setAutoAdjustmentInd(String autoAdjustmentInd) {
@@ -196,6 +206,24 @@ public class MedicareRecord {
 		BloodDed.putBigDecimal(bloodDed, bytes);
 	}
 
+	/**
+	 * Get the BloodDed as an unscaled long, with a scale of {@link #MONEY_SCALE}.
+	 * <pre>
+	 * 05 BloodDed            PACKED-DECIMAL PIC S9(4)V99.
+	 * </pre>
+	 * @return long the BloodDed in cents
+	 */
+	public long getBloodDedUnscaled() {
+		return DecimalCodec.getPacked(bytes, BloodDed.getOffset(), BloodDed.getByteLength());
+	}
+
+	/**
+	 * @see #getBloodDedUnscaled()
+	 */
+	public void setBloodDedUnscaled(long bloodDed) {
+		DecimalCodec.putPacked(bloodDed, 6, true, bytes, BloodDed.getOffset(), BloodDed.getByteLength());
+	}
+
 	public int getBloodPintsFurnished() {
 		return BloodPintsFurnished.getInt(bytes);
 	}
@@ -220,7 +248,7 @@ public class MedicareRecord {
 	 * @return String the ClaimNumber
 	 */
 	public String getClaimNumber() {
-		return ClaimNumber.getString(bytes);
+		return codec.getString(ClaimNumber, bytes, 0);
 	}
 
 	/** 
@@ -320,6 +348,24 @@ public class MedicareRecord {
 		InpatientDed.putBigDecimal(inpatientDed, bytes);
 	}
 
+	/**
+	 * Get the InpatientDed as an unscaled long, with a scale of {@link #MONEY_SCALE}.
+	 * <pre>
+	 * 05 InpatientDed        PACKED-DECIMAL PIC S9(4)V99.
+	 * </pre>
+	 * @return long the InpatientDed in cents
+	 */
+	public long getInpatientDedUnscaled() {
+		return DecimalCodec.getPacked(bytes, InpatientDed.getOffset(), InpatientDed.getByteLength());
+	}
+
+	/**
+	 * @see #getInpatientDedUnscaled()
+	 */
+	public void setInpatientDedUnscaled(long inpatientDed) {
+		DecimalCodec.putPacked(inpatientDed, 6, true, bytes, InpatientDed.getOffset(), InpatientDed.getByteLength());
+	}
+
 	/**
 	 * Get the IntermediaryCtrlNum.
 	 * <pre>
@@ -328,7 +374,7 @@ public class MedicareRecord {
 	 * @return String the IntermediaryCtrlNum
 	 */
 	public String getIntermediaryCtrlNum() {
-		return IntermediaryCtrlNum.getString(bytes);
+		return codec.getString(IntermediaryCtrlNum, bytes, 0);
 	}
 
 	/**
@@ -382,7 +428,7 @@ public class MedicareRecord {
 	 * @return int the MedicareProvider
 	 */
 	public String getMedicareProvider() {
-		return MedicareProvider.getString(bytes);
+		return codec.getString(MedicareProvider, bytes, 0, false);
 	}
 
 	/**
@@ -400,7 +446,24 @@ public class MedicareRecord {
 	 * @return String the PatientStatus
 	 */
 	public String getPatientStatus() {
-		return PatientStatus.getString(bytes);
+		return codec.getString(PatientStatus, bytes, 0);
+	}
+
+	/**
+	 * Answer true if the PatientStatus equals the given value, without
+	 * decoding the PatientStatus into a String.
+	 * @param patientStatus a value returned by {@link #encodePatientStatus(String)}
+	 */
+	public boolean isPatientStatus(byte[] patientStatus) {
+		return codec.equals(PatientStatus, bytes, 0, patientStatus);
+	}
+
+	/**
+	 * Answer the given PatientStatus encoded and padded as it is stored in a record,
+	 * for use with {@link #isPatientStatus(byte[])}.
+	 */
+	public static byte[] encodePatientStatus(String patientStatus) {
+		return codec.encode(patientStatus, PatientStatus.getByteLength());
 	}
 
 	/**
@@ -464,6 +527,24 @@ public class MedicareRecord {
 		TotalCharges.putBigDecimal(totalCharges, bytes);
 	}
 
+	/**
+	 * Get the TotalCharges as an unscaled long, with a scale of {@link #MONEY_SCALE}.
+	 * <pre>
+	 * 05 TotalCharges                       PIC S9(7)V99 DISPLAY SIGN LEADING.
+	 * </pre>
+	 * @return long the TotalCharges in cents
+	 */
+	public long getTotalChargesUnscaled() {
+		return DecimalCodec.getZoned(bytes, TotalCharges.getOffset(), TotalCharges.getByteLength(), false);
+	}
+
+	/**
+	 * @see #getTotalChargesUnscaled()
+	 */
+	public void setTotalChargesUnscaled(long totalCharges) {
+		DecimalCodec.putZoned(totalCharges, true, false, bytes, TotalCharges.getOffset(), TotalCharges.getByteLength());
+	}
+
 	/**
 	 * Get the TransactionInd.
 	 * <pre>
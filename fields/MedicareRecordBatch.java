@@ -0,0 +1,275 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import com.ibm.jzos.fields.Field;
+import com.ibm.jzos.fields.PackedDecimalAsIntField;
+
+/**
+ * A columnar decoder for batches of {@link MedicareRecord}s.
+ * <p/>
+ * Where a {@link MedicareRecord} decodes one field of one record on each call,
+ * and allocates a BigDecimal for each of the PIC S9(n)V99 fields, 
+ * this class decodes selected fields from a buffer of contiguous 
+ * {@link MedicareRecord#BUF_LEN} byte records into arrays of primitives, 
+ * one array (column) per field:
+ * <ul>
+ * <li>the dates and FullDays into <code>int[]</code></li>
+ * <li>InpatientDed, BloodDed and TotalCharges into <code>long[]</code>, 
+ *     unscaled: that is, in cents</li>
+ * </ul>
+ * Each column is decoded in turn, so that the loop over the records is
+ * tight, and no objects are allocated per record.  The amounts are decoded
+ * by {@link DecimalCodec}.  The columns are allocated 
+ * once for a given capacity, and are reused after {@link #clear()}, so that a 
+ * large file can be aggregated by reading and decoding a batch at a time:
+ * <pre>
+ * MedicareRecordBatch batch = new MedicareRecordBatch(10000, MedicareRecordBatch.TOTAL_CHARGES);
+ * byte[] buf = new byte[10000 * MedicareRecord.BUF_LEN];
+ * int len;
+ * while ((len = readFully(is, buf)) &gt; 0) {
+ *     batch.clear();
+ *     batch.decode(buf, 0, len);
+ *     long[] charges = batch.getTotalCharges();
+ *     for (int i = 0; i &lt; batch.size(); i++) {
+ *         total += charges[i];
+ *     }
+ * }
+ * </pre>
+ * 
+ * @see MedicareRecord
+ * @see MedicareRecordGenerator
+ * @since 2.3.0
+ */
+public class MedicareRecordBatch {
+
+	/** Selects the AdmissionDate column */
+	public static final int ADMISSION_DATE = 0x01;
+
+	/** Selects the FromDate column */
+	public static final int FROM_DATE = 0x02;
+
+	/** Selects the ThruDate column */
+	public static final int THRU_DATE = 0x04;
+
+	/** Selects the DischargeDate column */
+	public static final int DISCHARGE_DATE = 0x08;
+
+	/** Selects the FullDays column */
+	public static final int FULL_DAYS = 0x10;
+
+	/** Selects the InpatientDed column */
+	public static final int INPATIENT_DED = 0x20;
+
+	/** Selects the BloodDed column */
+	public static final int BLOOD_DED = 0x40;
+
+	/** Selects the TotalCharges column */
+	public static final int TOTAL_CHARGES = 0x80;
+
+	/** Selects all columns */
+	public static final int ALL = 0xff;
+
+	private int columns;
+	private int capacity;
+	private int size = 0;
+
+	private int[] admissionDates;
+	private int[] fromDates;
+	private int[] thruDates;
+	private int[] dischargeDates;
+	private int[] fullDays;
+	private long[] inpatientDeds;
+	private long[] bloodDeds;
+	private long[] totalCharges;
+
+	/**
+	 * Construct an instance
+	 * @param capacity the maximum number of records in a batch
+	 * @param columns the columns to decode: a combination of {@link #ADMISSION_DATE},
+	 * 			{@link #TOTAL_CHARGES}, etc, or {@link #ALL}
+	 */
+	public MedicareRecordBatch(int capacity, int columns) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be at least 1");
+		}
+		this.capacity = capacity;
+		this.columns = columns;
+		admissionDates = (columns & ADMISSION_DATE) != 0 ? new int[capacity] : null;
+		fromDates = (columns & FROM_DATE) != 0 ? new int[capacity] : null;
+		thruDates = (columns & THRU_DATE) != 0 ? new int[capacity] : null;
+		dischargeDates = (columns & DISCHARGE_DATE) != 0 ? new int[capacity] : null;
+		fullDays = (columns & FULL_DAYS) != 0 ? new int[capacity] : null;
+		inpatientDeds = (columns & INPATIENT_DED) != 0 ? new long[capacity] : null;
+		bloodDeds = (columns & BLOOD_DED) != 0 ? new long[capacity] : null;
+		totalCharges = (columns & TOTAL_CHARGES) != 0 ? new long[capacity] : null;
+	}
+
+	/**
+	 * Decode the selected columns of the whole records in the given buffer,
+	 * appending them to this batch, up to its capacity.  
+	 * @param buf a buffer of contiguous {@link MedicareRecord#BUF_LEN} byte records
+	 * @param off the offset of the first record in the buffer
+	 * @param len the number of bytes in the buffer; any partial record at the end is ignored
+	 * @return the number of records decoded
+	 */
+	public int decode(byte[] buf, int off, int len) {
+		int count = Math.min(len / MedicareRecord.BUF_LEN, capacity - size);
+		decodeInts(MedicareRecord.AdmissionDate, admissionDates, buf, off, count);
+		decodeInts(MedicareRecord.FromDate, fromDates, buf, off, count);
+		decodeInts(MedicareRecord.ThruDate, thruDates, buf, off, count);
+		decodeInts(MedicareRecord.DischargeDate, dischargeDates, buf, off, count);
+		decodeInts(MedicareRecord.FullDays, fullDays, buf, off, count);
+		decodePacked(MedicareRecord.InpatientDed, inpatientDeds, buf, off, count);
+		decodePacked(MedicareRecord.BloodDed, bloodDeds, buf, off, count);
+		if (totalCharges != null) {
+			int fieldOffset = MedicareRecord.TotalCharges.getOffset();
+			int fieldLength = MedicareRecord.TotalCharges.getByteLength();
+			for (int i = 0, pos = off + fieldOffset; i < count; i++, pos += MedicareRecord.BUF_LEN) {
+				totalCharges[size + i] = DecimalCodec.getZoned(buf, pos, fieldLength, false);
+			}
+		}
+		size += count;
+		return count;
+	}
+
+	/*
+	 * Decode one int column, if it is selected.
+	 */
+	private void decodeInts(PackedDecimalAsIntField field, int[] column, byte[] buf, int off, int count) {
+		if (column == null) {
+			return;
+		}
+		for (int i = 0, pos = off; i < count; i++, pos += MedicareRecord.BUF_LEN) {
+			column[size + i] = field.getInt(buf, pos);
+		}
+	}
+
+	/*
+	 * Decode one packed decimal column, unscaled, if it is selected.
+	 */
+	private void decodePacked(Field field, long[] column, byte[] buf, int off, int count) {
+		if (column == null) {
+			return;
+		}
+		int fieldLength = field.getByteLength();
+		for (int i = 0, pos = off + field.getOffset(); i < count; i++, pos += MedicareRecord.BUF_LEN) {
+			column[size + i] = DecimalCodec.getPacked(buf, pos, fieldLength);
+		}
+	}
+
+	/**
+	 * Empty this batch, so that its columns can be reused.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Answer the number of records in this batch.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Answer the maximum number of records in this batch.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Answer true if this batch holds as many records as it can.
+	 */
+	public boolean isFull() {
+		return size == capacity;
+	}
+
+	/**
+	 * Answer the selected columns.
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Answer the AdmissionDate column, of which the first {@link #size()}
+	 * elements are valid, or null if it is not selected.
+	 */
+	public int[] getAdmissionDates() {
+		return admissionDates;
+	}
+
+	/**
+	 * Answer the FromDate column, or null if it is not selected.
+	 * @see #getAdmissionDates()
+	 */
+	public int[] getFromDates() {
+		return fromDates;
+	}
+
+	/**
+	 * Answer the ThruDate column, or null if it is not selected.
+	 * @see #getAdmissionDates()
+	 */
+	public int[] getThruDates() {
+		return thruDates;
+	}
+
+	/**
+	 * Answer the DischargeDate column, or null if it is not selected.
+	 * @see #getAdmissionDates()
+	 */
+	public int[] getDischargeDates() {
+		return dischargeDates;
+	}
+
+	/**
+	 * Answer the FullDays column, or null if it is not selected.
+	 * @see #getAdmissionDates()
+	 */
+	public int[] getFullDays() {
+		return fullDays;
+	}
+
+	/**
+	 * Answer the InpatientDed column, in cents, or null if it is not selected.
+	 * @see #getAdmissionDates()
+	 */
+	public long[] getInpatientDeds() {
+		return inpatientDeds;
+	}
+
+	/**
+	 * Answer the BloodDed column, in cents, or null if it is not selected.
+	 * @see #getAdmissionDates()
+	 */
+	public long[] getBloodDeds() {
+		return bloodDeds;
+	}
+
+	/**
+	 * Answer the TotalCharges column, in cents, or null if it is not selected.
+	 * @see #getAdmissionDates()
+	 */
+	public long[] getTotalCharges() {
+		return totalCharges;
+	}
+}
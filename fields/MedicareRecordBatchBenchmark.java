@@ -0,0 +1,182 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+
+import com.ibm.jzos.FileFactory;
+
+/**
+ * Sample program that compares three ways of aggregating {@link MedicareRecord}s:
+ * <ul>
+ * <li>record: map each record with a {@link MedicareRecord} and call its getters,
+ *     which allocate a BigDecimal for each PIC S9(n)V99 field</li>
+ * <li>unscaled: map each record with a {@link MedicareRecord} and call its
+ *     unscaled getters, which decode the amounts as longs</li>
+ * <li>batch: decode the records into columns with a {@link MedicareRecordBatch}</li>
+ * </ul>
+ * Each method sums the three amounts and the FullDays of every record.
+ * The records are generated in memory by {@link MedicareRecordGenerator}, or are
+ * read from a file, so this program can be run on any platform.
+ * After a warmup, each method is timed over several iterations and the
+ * best time per record and throughput are reported.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.fields.MedicareRecordBatchBenchmark [numrecs | infile]</code>
+ * <br/>The default is 1000000 generated records.
+ *
+ * @see MedicareRecordBatch
+ * @since 2.3.0
+ */
+public class MedicareRecordBatchBenchmark {
+
+	static final int WARMUP = 5;
+	static final int ITERATIONS = 10;
+	static final int BATCH_SIZE = 10000;
+
+	public static void main(String[] args) throws Exception {
+		byte[] records;
+		String arg = args.length > 0 ? args[0] : "1000000";
+		if (arg.matches("\\d+")) {
+			records = MedicareRecordGenerator.generate(Integer.parseInt(arg), 0);
+		} else {
+			records = readFile(arg);
+		}
+		int numrecs = records.length / MedicareRecord.BUF_LEN;
+		System.out.println("records=" + numrecs + " lrecl=" + MedicareRecord.BUF_LEN);
+
+		String[] names = { "record", "unscaled", "batch" };
+		for (int method = 0; method < names.length; method++) {
+			String name = names[method];
+			long best = Long.MAX_VALUE;
+			long[] sums = null;
+			for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+				long start = System.nanoTime();
+				if (method == 0) {
+					sums = sumRecords(records);
+				} else if (method == 1) {
+					sums = sumUnscaled(records);
+				} else {
+					sums = sumBatches(records);
+				}
+				long time = System.nanoTime() - start;
+				if (i >= WARMUP && time < best) {
+					best = time;
+				}
+			}
+			double mbPerSec = (records.length / (1024.0 * 1024.0)) / (best / 1e9);
+			System.out.println(name
+								+ ": ns/record=" + (best / Math.max(1, numrecs))
+								+ " MB/sec=" + Math.round(mbPerSec)
+								+ " sums=" + BigDecimal.valueOf(sums[0], 2) 
+								+ "," + BigDecimal.valueOf(sums[1], 2)
+								+ "," + BigDecimal.valueOf(sums[2], 2)
+								+ "," + sums[3]);
+		}
+	}
+
+	/*
+	 * Sum the amounts (in cents) and days using a MedicareRecord.
+	 */
+	static long[] sumRecords(byte[] records) {
+		BigDecimal inpatientDed = BigDecimal.ZERO;
+		BigDecimal bloodDed = BigDecimal.ZERO;
+		BigDecimal totalCharges = BigDecimal.ZERO;
+		long fullDays = 0;
+		MedicareRecord record = new MedicareRecord();
+		byte[] bytes = record.getBytes();
+		for (int off = 0; off + MedicareRecord.BUF_LEN <= records.length; off += MedicareRecord.BUF_LEN) {
+			System.arraycopy(records, off, bytes, 0, MedicareRecord.BUF_LEN);
+			inpatientDed = inpatientDed.add(record.getInpatientDed());
+			bloodDed = bloodDed.add(record.getBloodDed());
+			totalCharges = totalCharges.add(record.getTotalCharges());
+			fullDays += record.getFullDays();
+		}
+		return new long[] { inpatientDed.unscaledValue().longValue(),
+							bloodDed.unscaledValue().longValue(),
+							totalCharges.unscaledValue().longValue(),
+							fullDays };
+	}
+
+	/*
+	 * Sum the amounts (in cents) and days using the unscaled getters of a MedicareRecord.
+	 */
+	static long[] sumUnscaled(byte[] records) {
+		long[] sums = new long[4];
+		MedicareRecord record = new MedicareRecord();
+		byte[] bytes = record.getBytes();
+		for (int off = 0; off + MedicareRecord.BUF_LEN <= records.length; off += MedicareRecord.BUF_LEN) {
+			System.arraycopy(records, off, bytes, 0, MedicareRecord.BUF_LEN);
+			sums[0] += record.getInpatientDedUnscaled();
+			sums[1] += record.getBloodDedUnscaled();
+			sums[2] += record.getTotalChargesUnscaled();
+			sums[3] += record.getFullDays();
+		}
+		return sums;
+	}
+
+	/*
+	 * Sum the amounts (in cents) and days using a MedicareRecordBatch.
+	 */
+	static long[] sumBatches(byte[] records) {
+		long[] sums = new long[4];
+		MedicareRecordBatch batch = new MedicareRecordBatch(BATCH_SIZE, 
+								MedicareRecordBatch.INPATIENT_DED | MedicareRecordBatch.BLOOD_DED
+								| MedicareRecordBatch.TOTAL_CHARGES | MedicareRecordBatch.FULL_DAYS);
+		for (int off = 0; off < records.length; ) {
+			batch.clear();
+			int count = batch.decode(records, off, records.length - off);
+			if (count == 0) {
+				break;
+			}
+			off += count * MedicareRecord.BUF_LEN;
+			long[] inpatientDeds = batch.getInpatientDeds();
+			long[] bloodDeds = batch.getBloodDeds();
+			long[] totalCharges = batch.getTotalCharges();
+			int[] fullDays = batch.getFullDays();
+			for (int i = 0; i < count; i++) {
+				sums[0] += inpatientDeds[i];
+				sums[1] += bloodDeds[i];
+				sums[2] += totalCharges[i];
+				sums[3] += fullDays[i];
+			}
+		}
+		return sums;
+	}
+
+	/*
+	 * Read a whole file (or dataset) into memory.
+	 */
+	static byte[] readFile(String name) throws IOException {
+		InputStream is = FileFactory.newBufferedInputStream(name);
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			byte[] buf = new byte[64 * 1024];
+			int nRead;
+			while ((nRead = is.read(buf)) != -1) {
+				baos.write(buf, 0, nRead);
+			}
+			return baos.toByteArray();
+		} finally {
+			is.close();
+		}
+	}
+}
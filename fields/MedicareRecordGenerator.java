@@ -0,0 +1,139 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Random;
+
+import com.ibm.jzos.FileFactory;
+
+/**
+ * Sample program that writes a file of synthetic {@link MedicareRecord}s,
+ * so that programs which process them, such as {@link MedicareRecordBatchBenchmark},
+ * can be run on any platform.
+ * <p/>
+ * Records are filled in using the {@link MedicareRecord} setters, with 
+ * values chosen from a seeded Random so that a given seed always generates
+ * the same file.  Claims are spread over {@link #PROVIDERS} providers
+ * and a handful of patient status codes.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.fields.MedicareRecordGenerator outfile numrecs [seed]</code>
+ * <br/>where outfile is a Unix file name or a //DATASET name (which should
+ * have RECFM=FB,LRECL=120).
+ *
+ * @see MedicareRecord
+ * @see com.ibm.jzos.FileFactory
+ * @since 2.3.0
+ */
+public class MedicareRecordGenerator {
+
+	/** The number of distinct providers */
+	public static final int PROVIDERS = 500;
+
+	static final String[] PATIENT_STATUS = { "01", "02", "03", "06", "20", "30" };
+
+	static final int RECORDS_PER_WRITE = 1000;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Usage: com.ibm.jzos.sample.fields.MedicareRecordGenerator outfile numrecs [seed]");
+			System.exit(12);
+		}
+		String outfile = args[0];
+		int numrecs = Integer.parseInt(args[1]);
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+		OutputStream os = FileFactory.newBufferedOutputStream(outfile);
+		try {
+			byte[] buf = new byte[RECORDS_PER_WRITE * MedicareRecord.BUF_LEN];
+			Random random = new Random(seed);
+			for (int i = 0; i < numrecs; i += RECORDS_PER_WRITE) {
+				int n = Math.min(RECORDS_PER_WRITE, numrecs - i);
+				generate(random, i, buf, n);
+				os.write(buf, 0, n * MedicareRecord.BUF_LEN);
+			}
+		} finally {
+			os.close();
+		}
+		System.out.println("wrote " + numrecs + " records to " + outfile);
+	}
+
+	/**
+	 * Answer a buffer holding the given number of generated records.
+	 */
+	public static byte[] generate(int numrecs, long seed) {
+		byte[] buf = new byte[numrecs * MedicareRecord.BUF_LEN];
+		generate(new Random(seed), 0, buf, numrecs);
+		return buf;
+	}
+
+	/**
+	 * Fill the given buffer with generated records.
+	 * @param random the source of values
+	 * @param first the sequence number of the first record, used in the claim numbers
+	 * @param buf the buffer
+	 * @param numrecs the number of records to generate
+	 */
+	public static void generate(Random random, int first, byte[] buf, int numrecs) {
+		MedicareRecord record = new MedicareRecord();
+		byte[] bytes = record.getBytes();
+		for (int i = 0; i < numrecs; i++) {
+			fill(record, random, first + i);
+			System.arraycopy(bytes, 0, buf, i * MedicareRecord.BUF_LEN, MedicareRecord.BUF_LEN);
+		}
+	}
+
+	/*
+	 * Fill a record with generated values.  Dates are in the form YYYYDDD.
+	 */
+	private static void fill(MedicareRecord record, Random random, int seq) {
+		int admission = 2000000 + random.nextInt(9) * 1000 + 1 + random.nextInt(365);
+		int days = random.nextInt(30);
+		record.setClaimNumber("CLM" + pad(seq, 16));
+		record.setAdmissionDate(admission);
+		record.setFromDate(admission);
+		record.setThruDate(admission + days);
+		record.setDischargeDate(admission + days);
+		record.setFullDays(days);
+		record.setIntermediaryNum(random.nextInt(100000));
+		record.setMedicareProvider("PRV" + pad(random.nextInt(PROVIDERS), 10));
+		record.setInpatientDed(BigDecimal.valueOf(random.nextInt(1000000), 2));
+		record.setBloodDed(BigDecimal.valueOf(random.nextInt(100) == 0 ? random.nextInt(50000) : 0, 2));
+		record.setTotalCharges(BigDecimal.valueOf(random.nextInt(1000000000), 2));
+		record.setPatientStatus(PATIENT_STATUS[random.nextInt(PATIENT_STATUS.length)]);
+		record.setBloodPintsFurnished(random.nextInt(4));
+		record.setBloodPintsReplaced(0);
+		record.setSequenceCounter(seq % 1000);
+		record.setTransactionInd(random.nextInt(10));
+		record.setBillSource(random.nextInt(10));
+		record.setBenefitsExhaustInd(0);
+		record.setBenefitsPayInd(1);
+		record.setAutoAdjustmentInd("N");
+		record.setIntermediaryCtrlNum("ICN" + pad(seq, 20));
+	}
+
+	private static String pad(int n, int width) {
+		StringBuffer sb = new StringBuffer(Integer.toString(n));
+		while (sb.length() < width) {
+			sb.insert(0, '0');
+		}
+		return sb.toString();
+	}
+}
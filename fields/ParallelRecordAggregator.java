@@ -0,0 +1,386 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.ibm.jzos.FileFactory;
+
+/**
+ * Aggregates a file or dataset of fixed length records on a pool of worker threads.
+ * <p/>
+ * The records are split into record-aligned chunks, each chunk is 
+ * added to a new partial {@link RecordAggregate} by a worker, and the partial
+ * aggregates are merged, in chunk order, into the given aggregate.  
+ * At most <code>2 * threads</code> chunks are in flight at a time, 
+ * which bounds the memory used for very large inputs.
+ * <p/>
+ * A local (Unix) file is memory mapped, and each worker copies its chunk from
+ * the mapped file, so the file is read in parallel. Other inputs, such as
+ * datasets, are read sequentially by the calling thread with 
+ * {@link FileFactory#newBufferedInputStream(String)}, and only the aggregation
+ * is parallel.  A partial record at the end of the input is not aggregated,
+ * and its length is answered by {@link #getTrailingBytes()}.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.fields.ParallelRecordAggregator [-t threads] [-c chunkRecords] [-p] file</code>
+ * <br/>Sums the TotalCharges by MedicareProvider and counts the PatientStatus of the 
+ * {@link MedicareRecord}s in the given file or dataset, using a {@link MedicareAggregate}.  
+ * The totals of each provider are printed if -p is given.
+ *
+ * @see RecordAggregate
+ * @see MedicareAggregate
+ * @since 2.3.0
+ */
+public class ParallelRecordAggregator {
+
+	/** The default number of records in a chunk */
+	public static final int DEFAULT_CHUNK_RECORDS = 8192;
+
+	/** The largest region of a file mapped at once */
+	static final int MAX_MAPPED_REGION = 1 << 30;
+
+	private int lrecl;
+	private int threads;
+	private int chunkRecords = DEFAULT_CHUNK_RECORDS;
+	private long records = 0;
+	private long trailingBytes = 0;
+	private int chunks = 0;
+	private boolean mapped = false;
+
+	public static void main(String[] args) throws Exception {
+		int threads = Runtime.getRuntime().availableProcessors();
+		int chunkRecords = DEFAULT_CHUNK_RECORDS;
+		boolean printProviders = false;
+		int argx = 0;
+		while (argx < args.length - 1 && args[argx].startsWith("-")) {
+			if (args[argx].equals("-t")) {
+				threads = Integer.parseInt(args[++argx]);
+			} else if (args[argx].equals("-c")) {
+				chunkRecords = Integer.parseInt(args[++argx]);
+			} else if (args[argx].equals("-p")) {
+				printProviders = true;
+			} else {
+				break;
+			}
+			argx++;
+		}
+		if (argx != args.length - 1) {
+			System.err.println("Usage: com.ibm.jzos.sample.fields.ParallelRecordAggregator [-t threads] [-c chunkRecords] [-p] file");
+			System.exit(8);
+		}
+
+		ParallelRecordAggregator aggregator = new ParallelRecordAggregator(MedicareRecord.BUF_LEN, threads);
+		aggregator.setChunkRecords(chunkRecords);
+		long start = System.currentTimeMillis();
+		MedicareAggregate aggregate = (MedicareAggregate)aggregator.aggregate(args[argx], new MedicareAggregate());
+		long time = Math.max(1, System.currentTimeMillis() - start);
+
+		System.out.println("records=" + aggregator.getRecordCount()
+							+ " chunks=" + aggregator.getChunkCount()
+							+ " threads=" + threads
+							+ " mapped=" + aggregator.isMapped()
+							+ " ms=" + time
+							+ " records/sec=" + (aggregator.getRecordCount() * 1000 / time));
+		if (aggregator.getTrailingBytes() > 0) {
+			System.out.println("ignored a partial record of " + aggregator.getTrailingBytes() + " bytes");
+		}
+		List statuses = aggregate.getPatientStatuses();
+		for (Iterator iter = statuses.iterator(); iter.hasNext(); ) {
+			String status = (String)iter.next();
+			System.out.println("PatientStatus " + status + ": " + aggregate.getPatientStatusCount(status));
+		}
+		List providers = aggregate.getProviders();
+		BigDecimal total = BigDecimal.valueOf(0, MedicareRecord.MONEY_SCALE);
+		for (Iterator iter = providers.iterator(); iter.hasNext(); ) {
+			String provider = (String)iter.next();
+			BigDecimal charges = aggregate.getTotalCharges(provider);
+			total = total.add(charges);
+			if (printProviders) {
+				System.out.println("MedicareProvider " + provider + ": " + charges);
+			}
+		}
+		System.out.println("providers=" + providers.size() + " TotalCharges=" + total);
+	}
+
+	/**
+	 * Construct an instance
+	 * @param lrecl the length of each record
+	 * @param threads the number of worker threads (at least 1)
+	 */
+	public ParallelRecordAggregator(int lrecl, int threads) {
+		if (lrecl < 1 || threads < 1) {
+			throw new IllegalArgumentException("lrecl and threads must be at least 1");
+		}
+		this.lrecl = lrecl;
+		this.threads = threads;
+	}
+
+	/**
+	 * Set the number of records in each chunk.
+	 */
+	public void setChunkRecords(int chunkRecords) {
+		if (chunkRecords < 1) {
+			throw new IllegalArgumentException("chunkRecords must be at least 1");
+		}
+		this.chunkRecords = chunkRecords;
+	}
+
+	/**
+	 * Aggregate the records of the given file or dataset into the given aggregate.
+	 * A name which is an existing local file is memory mapped.
+	 * @return the given aggregate
+	 * @throws IOException if the input could not be read, or a chunk could not be aggregated
+	 */
+	public RecordAggregate aggregate(String name, RecordAggregate aggregate) throws IOException {
+		File file = new File(name);
+		if (!name.startsWith("//") && file.isFile()) {
+			return aggregateMapped(file, aggregate);
+		}
+		InputStream is = FileFactory.newBufferedInputStream(name);
+		try {
+			return aggregate(is, aggregate);
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Aggregate the records read from the given stream into the given aggregate.
+	 * @return the given aggregate
+	 */
+	public RecordAggregate aggregate(InputStream is, RecordAggregate aggregate) throws IOException {
+		reset(false);
+		int chunkBytes = chunkRecords * lrecl;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		LinkedList pending = new LinkedList();
+		try {
+			while (true) {
+				byte[] chunk = new byte[chunkBytes];
+				int count = 0;
+				int nRead = 0;
+				while (count < chunkBytes && (nRead = is.read(chunk, count, chunkBytes - count)) != -1) {
+					count += nRead;
+				}
+				int recordBytes = count - count % lrecl;
+				trailingBytes = count - recordBytes;
+				if (recordBytes > 0) {
+					submit(pool, pending, new ArrayChunk(chunk, 0, recordBytes, aggregate.newAggregate()), aggregate);
+				}
+				if (count < chunkBytes) {
+					break;
+				}
+			}
+			mergeAll(pending, aggregate);
+		} finally {
+			pool.shutdownNow();
+		}
+		return aggregate;
+	}
+
+	/**
+	 * Aggregate the records in the given buffer into the given aggregate.
+	 * @return the given aggregate
+	 */
+	public RecordAggregate aggregate(byte[] buffer, int offset, int length, RecordAggregate aggregate) throws IOException {
+		reset(false);
+		int recordBytes = length - length % lrecl;
+		trailingBytes = length - recordBytes;
+		int chunkBytes = chunkRecords * lrecl;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		LinkedList pending = new LinkedList();
+		try {
+			for (int pos = 0; pos < recordBytes; pos += chunkBytes) {
+				int len = Math.min(chunkBytes, recordBytes - pos);
+				submit(pool, pending, new ArrayChunk(buffer, offset + pos, len, aggregate.newAggregate()), aggregate);
+			}
+			mergeAll(pending, aggregate);
+		} finally {
+			pool.shutdownNow();
+		}
+		return aggregate;
+	}
+
+	/*
+	 * Aggregate a local file, mapping it in regions of whole chunks.
+	 */
+	private RecordAggregate aggregateMapped(File file, RecordAggregate aggregate) throws IOException {
+		reset(true);
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		LinkedList pending = new LinkedList();
+		try {
+			FileChannel channel = raf.getChannel();
+			long size = channel.size();
+			long recordBytes = size - size % lrecl;
+			trailingBytes = size - recordBytes;
+			int chunkBytes = chunkRecords * lrecl;
+			long regionBytes = Math.max(chunkBytes, (MAX_MAPPED_REGION / chunkBytes) * (long)chunkBytes);
+			for (long regionPos = 0; regionPos < recordBytes; regionPos += regionBytes) {
+				int regionLen = (int)Math.min(regionBytes, recordBytes - regionPos);
+				ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, regionPos, regionLen);
+				for (int pos = 0; pos < regionLen; pos += chunkBytes) {
+					int len = Math.min(chunkBytes, regionLen - pos);
+					submit(pool, pending, new MappedChunk(region, pos, len, aggregate.newAggregate()), aggregate);
+				}
+			}
+			mergeAll(pending, aggregate);
+		} finally {
+			pool.shutdownNow();
+			raf.close();
+		}
+		return aggregate;
+	}
+
+	private void reset(boolean mapped) {
+		this.mapped = mapped;
+		records = 0;
+		trailingBytes = 0;
+		chunks = 0;
+	}
+
+	/*
+	 * Submit a chunk, first merging the oldest chunk if too many are in flight.
+	 */
+	private void submit(ExecutorService pool, LinkedList pending, Callable chunk, 
+						RecordAggregate aggregate) throws IOException {
+		while (pending.size() >= threads * 2) {
+			merge((Future)pending.removeFirst(), aggregate);
+		}
+		pending.add(pool.submit(chunk));
+		chunks++;
+	}
+
+	private void mergeAll(LinkedList pending, RecordAggregate aggregate) throws IOException {
+		while (!pending.isEmpty()) {
+			merge((Future)pending.removeFirst(), aggregate);
+		}
+	}
+
+	/*
+	 * Wait for a chunk, and merge its partial aggregate.
+	 */
+	private void merge(Future future, RecordAggregate aggregate) throws IOException {
+		try {
+			Object[] result = (Object[])future.get();
+			aggregate.merge((RecordAggregate)result[0]);
+			records += ((Long)result[1]).longValue();
+		} catch (ExecutionException ee) {
+			IOException ioe = new IOException("Unable to aggregate a chunk: " + ee.getCause());
+			ioe.initCause(ee.getCause());
+			throw ioe;
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while aggregating");
+		}
+	}
+
+	/**
+	 * Answer the number of records aggregated by the last call.
+	 */
+	public long getRecordCount() {
+		return records;
+	}
+
+	/**
+	 * Answer the number of chunks aggregated by the last call.
+	 */
+	public int getChunkCount() {
+		return chunks;
+	}
+
+	/**
+	 * Answer the length of a partial record at the end of the last input, or 0.
+	 */
+	public long getTrailingBytes() {
+		return trailingBytes;
+	}
+
+	/**
+	 * Answer true if the last input was memory mapped.
+	 */
+	public boolean isMapped() {
+		return mapped;
+	}
+
+	/**
+	 * A task that aggregates a chunk of records in an array.
+	 * Answers the partial aggregate and the number of records.
+	 */
+	class ArrayChunk implements Callable {
+		private byte[] buffer;
+		private int offset;
+		private int length;
+		private RecordAggregate partial;
+
+		ArrayChunk(byte[] buffer, int offset, int length, RecordAggregate partial) {
+			this.buffer = buffer;
+			this.offset = offset;
+			this.length = length;
+			this.partial = partial;
+		}
+
+		public Object call() {
+			int end = offset + length;
+			for (int pos = offset; pos < end; pos += lrecl) {
+				partial.add(buffer, pos);
+			}
+			return new Object[] { partial, new Long(length / lrecl) };
+		}
+	}
+
+	/**
+	 * A task that aggregates a chunk of records in a mapped region of a file,
+	 * by copying it into an array.
+	 */
+	class MappedChunk implements Callable {
+		private ByteBuffer region;
+		private int position;
+		private int length;
+		private RecordAggregate partial;
+
+		MappedChunk(ByteBuffer region, int position, int length, RecordAggregate partial) {
+			this.region = region;
+			this.position = position;
+			this.length = length;
+			this.partial = partial;
+		}
+
+		public Object call() {
+			ByteBuffer bb = region.duplicate();	// each task has its own position
+			bb.position(position);
+			byte[] buffer = new byte[length];
+			bb.get(buffer);
+			return new ArrayChunk(buffer, 0, length, partial).call();
+		}
+	}
+}
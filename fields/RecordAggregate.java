@@ -0,0 +1,48 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+/**
+ * A partial aggregate of fixed length records, such as sums and counts
+ * by key, which is computed for one chunk of records by a 
+ * {@link ParallelRecordAggregator} and merged with the aggregates of other chunks.
+ * <p/>
+ * An instance is only used by one thread at a time.
+ *
+ * @see ParallelRecordAggregator
+ * @see MedicareAggregate
+ * @since 2.3.0
+ */
+public interface RecordAggregate {
+
+	/**
+	 * Answer a new, empty aggregate of the same kind as this aggregate.
+	 */
+	RecordAggregate newAggregate();
+
+	/**
+	 * Add the record at the given offset of the given buffer to this aggregate.
+	 */
+	void add(byte[] buffer, int offset);
+
+	/**
+	 * Merge another aggregate of the same kind into this aggregate.
+	 */
+	void merge(RecordAggregate other);
+}
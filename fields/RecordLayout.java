@@ -0,0 +1,273 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ibm.jzos.fields.BinaryAsIntField;
+import com.ibm.jzos.fields.BinaryAsLongField;
+import com.ibm.jzos.fields.ByteArrayField;
+import com.ibm.jzos.fields.ExternalDecimalAsBigDecimalField;
+import com.ibm.jzos.fields.ExternalDecimalAsIntField;
+import com.ibm.jzos.fields.ExternalDecimalAsLongField;
+import com.ibm.jzos.fields.Field;
+import com.ibm.jzos.fields.PackedDecimalAsBigDecimalField;
+import com.ibm.jzos.fields.PackedDecimalAsIntField;
+import com.ibm.jzos.fields.PackedDecimalAsLongField;
+import com.ibm.jzos.fields.StringField;
+
+/**
+ * A record layout compiled at runtime by {@link RecordLayoutCompiler}, 
+ * which holds the JZOS {@link Field}s of a record in the order they were defined.
+ * <p/>
+ * Each Field has a constant offset, exactly like the static Fields of a
+ * hand-written class such as {@link MedicareRecord}, so the fastest way to 
+ * use a layout is to look up its Fields once and then call them directly:
+ * <pre>
+ * RecordLayout layout = RecordLayoutCompiler.getLayout(RecordLayoutCompiler.COBOL, null, copybook);
+ * PackedDecimalAsIntField fullDays = (PackedDecimalAsIntField)layout.getField("FullDays");
+ * for (...) {
+ *     total += fullDays.getInt(records, offset);
+ * }
+ * </pre>
+ * Fields may also be read by index with the typed getters of this class, or
+ * as objects with {@link #getValue(int, byte[], int)}, which is convenient
+ * for formatting but allocates.
+ * <p/>
+ * A layout is immutable, and so may be shared between threads.
+ *
+ * @see RecordLayoutCompiler
+ * @since 2.3.0
+ */
+public class RecordLayout {
+
+	/* The kinds of field, so that values can be decoded without instanceof tests */
+	static final int STRING = 1;
+	static final int BYTES = 2;
+	static final int BINARY_INT = 3;
+	static final int BINARY_LONG = 4;
+	static final int PACKED_INT = 5;
+	static final int PACKED_LONG = 6;
+	static final int PACKED_DECIMAL = 7;
+	static final int ZONED_INT = 8;
+	static final int ZONED_LONG = 9;
+	static final int ZONED_DECIMAL = 10;
+
+	private String name;
+	private int length;
+	private String[] names;
+	private Field[] fields;
+	private int[] kinds;
+	private Map indexes = new HashMap();
+
+	/**
+	 * Construct a layout given lists of field names and Fields.
+	 */
+	RecordLayout(String name, int length, List fieldNames, List fieldList) {
+		this.name = name;
+		this.length = length;
+		this.names = (String[])fieldNames.toArray(new String[fieldNames.size()]);
+		this.fields = (Field[])fieldList.toArray(new Field[fieldList.size()]);
+		this.kinds = new int[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			kinds[i] = kindOf(fields[i]);
+			if (!indexes.containsKey(names[i])) {
+				indexes.put(names[i], new Integer(i));
+			}
+		}
+	}
+
+	/**
+	 * Answer the name of the record (the 01 level item or DSECT), or null.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Answer the length of the record in bytes.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Answer the number of fields in the record.
+	 */
+	public int getFieldCount() {
+		return fields.length;
+	}
+
+	/**
+	 * Answer the name of the field at the given index.
+	 */
+	public String getFieldName(int index) {
+		return names[index];
+	}
+
+	/**
+	 * Answer the field at the given index.
+	 */
+	public Field getField(int index) {
+		return fields[index];
+	}
+
+	/**
+	 * Answer the index of the first field with the given name, or -1.
+	 */
+	public int indexOf(String fieldName) {
+		Integer index = (Integer)indexes.get(fieldName);
+		return index == null ? -1 : index.intValue();
+	}
+
+	/**
+	 * Answer the first field with the given name.
+	 * @throws IllegalArgumentException if there is no such field
+	 */
+	public Field getField(String fieldName) {
+		int index = indexOf(fieldName);
+		if (index < 0) {
+			throw new IllegalArgumentException("No field named " + fieldName 
+												+ (name == null ? "" : " in " + name));
+		}
+		return fields[index];
+	}
+
+	/**
+	 * Answer the value of a binary, packed or zoned integer field.
+	 * @param index the index of the field
+	 * @param bytes the buffer
+	 * @param bufOffset the offset of the record in the buffer
+	 * @throws ClassCastException if the field is not an int field
+	 */
+	public int getInt(int index, byte[] bytes, int bufOffset) {
+		switch (kinds[index]) {
+		case BINARY_INT:
+			return ((BinaryAsIntField)fields[index]).getInt(bytes, bufOffset);
+		case PACKED_INT:
+			return ((PackedDecimalAsIntField)fields[index]).getInt(bytes, bufOffset);
+		case ZONED_INT:
+			return ((ExternalDecimalAsIntField)fields[index]).getInt(bytes, bufOffset);
+		default:
+			throw new ClassCastException(names[index] + " is not an int field");
+		}
+	}
+
+	/**
+	 * Answer the value of a binary, packed or zoned integer field as a long.
+	 * @throws ClassCastException if the field is not an int or long field
+	 */
+	public long getLong(int index, byte[] bytes, int bufOffset) {
+		switch (kinds[index]) {
+		case BINARY_LONG:
+			return ((BinaryAsLongField)fields[index]).getLong(bytes, bufOffset);
+		case PACKED_LONG:
+			return ((PackedDecimalAsLongField)fields[index]).getLong(bytes, bufOffset);
+		case ZONED_LONG:
+			return ((ExternalDecimalAsLongField)fields[index]).getLong(bytes, bufOffset);
+		default:
+			return getInt(index, bytes, bufOffset);
+		}
+	}
+
+	/**
+	 * Answer the value of a character field.
+	 * @throws ClassCastException if the field is not a character field
+	 */
+	public String getString(int index, byte[] bytes, int bufOffset) {
+		return ((StringField)fields[index]).getString(bytes, bufOffset);
+	}
+
+	/**
+	 * Answer the value of a numeric field as a BigDecimal.
+	 * @throws ClassCastException if the field is not numeric
+	 */
+	public BigDecimal getBigDecimal(int index, byte[] bytes, int bufOffset) {
+		switch (kinds[index]) {
+		case PACKED_DECIMAL:
+			return ((PackedDecimalAsBigDecimalField)fields[index]).getBigDecimal(bytes, bufOffset);
+		case ZONED_DECIMAL:
+			return ((ExternalDecimalAsBigDecimalField)fields[index]).getBigDecimal(bytes, bufOffset);
+		default:
+			return BigDecimal.valueOf(getLong(index, bytes, bufOffset));
+		}
+	}
+
+	/**
+	 * Answer the value of the field at the given index as an object:
+	 * a String, byte[], Integer, Long or BigDecimal.
+	 */
+	public Object getValue(int index, byte[] bytes, int bufOffset) {
+		switch (kinds[index]) {
+		case STRING:
+			return getString(index, bytes, bufOffset);
+		case BYTES:
+			return ((ByteArrayField)fields[index]).getByteArray(bytes, bufOffset);
+		case BINARY_INT:
+		case PACKED_INT:
+		case ZONED_INT:
+			return new Integer(getInt(index, bytes, bufOffset));
+		case BINARY_LONG:
+		case PACKED_LONG:
+		case ZONED_LONG:
+			return new Long(getLong(index, bytes, bufOffset));
+		default:
+			return getBigDecimal(index, bytes, bufOffset);
+		}
+	}
+
+	/**
+	 * Answer a short description of the type of the field at the given index.
+	 */
+	public String getTypeName(int index) {
+		String className = fields[index].getClass().getName();
+		return className.substring(className.lastIndexOf('.') + 1);
+	}
+
+	/*
+	 * Answer the kind of the given field.
+	 */
+	private static int kindOf(Field field) {
+		if (field instanceof StringField) {
+			return STRING;
+		} else if (field instanceof ByteArrayField) {
+			return BYTES;
+		} else if (field instanceof BinaryAsIntField) {
+			return BINARY_INT;
+		} else if (field instanceof BinaryAsLongField) {
+			return BINARY_LONG;
+		} else if (field instanceof PackedDecimalAsIntField) {
+			return PACKED_INT;
+		} else if (field instanceof PackedDecimalAsLongField) {
+			return PACKED_LONG;
+		} else if (field instanceof PackedDecimalAsBigDecimalField) {
+			return PACKED_DECIMAL;
+		} else if (field instanceof ExternalDecimalAsIntField) {
+			return ZONED_INT;
+		} else if (field instanceof ExternalDecimalAsLongField) {
+			return ZONED_LONG;
+		} else if (field instanceof ExternalDecimalAsBigDecimalField) {
+			return ZONED_DECIMAL;
+		}
+		throw new IllegalArgumentException("Unsupported field type: " + field.getClass().getName());
+	}
+}
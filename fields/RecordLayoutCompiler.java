@@ -0,0 +1,940 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ibm.jzos.FileFactory;
+import com.ibm.jzos.fields.AssemblerDatatypeFactory;
+import com.ibm.jzos.fields.CobolDatatypeFactory;
+import com.ibm.jzos.fields.Field;
+
+/**
+ * Compiles a COBOL copybook or an assembler DSECT into a {@link RecordLayout} at runtime,
+ * so that a new record format can be mapped without generating and compiling a class.
+ * <p/>
+ * The Fields of a layout are created with a {@link CobolDatatypeFactory} or an 
+ * {@link AssemblerDatatypeFactory}, in the same way as the static Fields of 
+ * {@link MedicareRecord} or {@link Smf83BaseRecord}, and so have constant offsets
+ * and decode as quickly as the Fields of a hand-written class.
+ * Layouts are cached by {@link #getLayout(int, String, String)}, keyed by their source, 
+ * so each layout is compiled only once.
+ * <p/>
+ * COBOL data description entries may span lines, and each ends with a period.
+ * Sequence numbers (columns 1-6), comment lines, and a leading "//" are ignored, 
+ * so the comments in {@link MedicareRecord} can be compiled as they are.
+ * The following are supported:
+ * <ul>
+ * <li>PIC X(n), A(n), 9(n), S9(n)V9(n)</li>
+ * <li>USAGE DISPLAY, BINARY (COMP, COMP-4, COMP-5) and PACKED-DECIMAL (COMP-3)</li>
+ * <li>SIGN LEADING/TRAILING [SEPARATE], BLANK WHEN ZERO</li>
+ * <li>group items, FILLER, REDEFINES, and OCCURS on elementary items, 
+ *     whose fields are named NAME(1), NAME(2) ...</li>
+ * </ul>
+ * VALUE, SYNC and JUSTIFIED clauses and level 88 items are ignored.
+ * If the source has several 01 level records, the first, or the one named by
+ * the section argument, is compiled.
+ * <p/>
+ * Assembler DS and DC statements are mapped as by RecordClassGenerator:
+ * CLn to a StringField, BLn and XLn to a binary field of up to 4 bytes or else
+ * a ByteArrayField, F and H to signed binary fields, A to unsigned binary fields, 
+ * and PLn to a packed decimal field.  F, H, A and D without an explicit length are 
+ * aligned, duplication factors (including 0) and ORG are supported, and
+ * the first DSECT, or the one named by the section argument, is compiled.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.fields.RecordLayoutCompiler [-a] [-s section] layout [data [numrecs]]</code>
+ * <br/>Compiles the COBOL copybook (or with -a, the assembler DSECT) in the
+ * file or dataset "layout" and prints its fields.  If a "data" file or dataset
+ * is given, the fields of its first numrecs fixed length records (default 10)
+ * are printed.
+ *
+ * @see RecordLayout
+ * @since 2.3.0
+ */
+public class RecordLayoutCompiler {
+
+	/** The language of a COBOL copybook */
+	public static final int COBOL = 1;
+
+	/** The language of an assembler DSECT */
+	public static final int ASSEMBLER = 2;
+
+	private static Map cache = new HashMap();
+
+	public static void main(String[] args) throws Exception {
+		int language = COBOL;
+		String section = null;
+		int argx = 0;
+		while (argx < args.length && args[argx].startsWith("-")) {
+			if (args[argx].equals("-a")) {
+				language = ASSEMBLER;
+			} else if (args[argx].equals("-s") && argx + 1 < args.length) {
+				section = args[++argx];
+			} else {
+				usage();
+				return;
+			}
+			argx++;
+		}
+		if (argx >= args.length) {
+			usage();
+			return;
+		}
+		String source = readSource(args[argx++]);
+
+		long start = System.nanoTime();
+		RecordLayout layout = getLayout(language, section, source);
+		long time = System.nanoTime() - start;
+		System.out.println("layout=" + layout.getName() + " length=" + layout.getLength()
+							+ " fields=" + layout.getFieldCount()
+							+ " compile ms=" + (time / 1000000.0));
+		for (int i = 0; i < layout.getFieldCount(); i++) {
+			Field field = layout.getField(i);
+			System.out.println("  " + layout.getFieldName(i) 
+								+ " offset=" + field.getOffset()
+								+ " length=" + field.getByteLength()
+								+ " " + layout.getTypeName(i));
+		}
+		if (argx < args.length) {
+			String data = args[argx++];
+			int numrecs = argx < args.length ? Integer.parseInt(args[argx]) : 10;
+			printRecords(layout, data, numrecs);
+		}
+	}
+
+	private static void usage() {
+		System.err.println("Usage: com.ibm.jzos.sample.fields.RecordLayoutCompiler [-a] [-s section] layout [data [numrecs]]");
+	}
+
+	/**
+	 * Answer the layout compiled from the given source, compiling it only if
+	 * the same source has not been compiled before.
+	 * @param language {@link #COBOL} or {@link #ASSEMBLER}
+	 * @param section the name of the 01 level record or DSECT, or null for the first
+	 * @param source the text of the copybook or DSECT
+	 * @throws IllegalArgumentException if the source cannot be compiled
+	 */
+	public static RecordLayout getLayout(int language, String section, String source) {
+		String key = language + ":" + section + ":" + source;
+		synchronized (cache) {
+			RecordLayout layout = (RecordLayout)cache.get(key);
+			if (layout == null) {
+				layout = compile(language, section, source);
+				cache.put(key, layout);
+			}
+			return layout;
+		}
+	}
+
+	/**
+	 * Answer a new layout compiled from the given source.
+	 * @param language {@link #COBOL} or {@link #ASSEMBLER}
+	 * @param section the name of the 01 level record or DSECT, or null for the first
+	 * @param source the text of the copybook or DSECT
+	 * @throws IllegalArgumentException if the source cannot be compiled
+	 */
+	public static RecordLayout compile(int language, String section, String source) {
+		switch (language) {
+		case COBOL:
+			return new CobolCompiler(section).compile(source);
+		case ASSEMBLER:
+			return new DsectCompiler(section).compile(source);
+		default:
+			throw new IllegalArgumentException("Unknown language: " + language);
+		}
+	}
+
+	/**
+	 * Answer the whole text of a file or dataset, such as a copybook.
+	 */
+	public static String readSource(String name) throws IOException {
+		BufferedReader reader = FileFactory.newBufferedReader(name);
+		try {
+			StringBuffer sb = new StringBuffer();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				sb.append(line).append('\n');
+			}
+			return sb.toString();
+		} finally {
+			reader.close();
+		}
+	}
+
+	/*
+	 * Print the fields of the first records of a file or dataset of fixed length records.
+	 */
+	static void printRecords(RecordLayout layout, String name, int numrecs) throws IOException {
+		BufferedInputStream is = FileFactory.newBufferedInputStream(name);
+		try {
+			byte[] record = new byte[layout.getLength()];
+			for (int n = 0; n < numrecs; n++) {
+				int count = 0;
+				int nRead = 0;
+				while (count < record.length && (nRead = is.read(record, count, record.length - count)) != -1) {
+					count += nRead;
+				}
+				if (count < record.length) {
+					break;
+				}
+				System.out.println("record " + (n + 1) + ":");
+				for (int i = 0; i < layout.getFieldCount(); i++) {
+					Object value = layout.getValue(i, record, 0);
+					if (value instanceof byte[]) {
+						value = toHex((byte[])value);
+					}
+					System.out.println("  " + layout.getFieldName(i) + "=" + value);
+				}
+			}
+		} finally {
+			is.close();
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuffer sb = new StringBuffer("X'");
+		for (int i = 0; i < bytes.length; i++) {
+			String hex = Integer.toHexString(bytes[i] & 0xff).toUpperCase();
+			if (hex.length() == 1) {
+				sb.append('0');
+			}
+			sb.append(hex);
+		}
+		return sb.append('\'').toString();
+	}
+
+	/*
+	 * Split a line into blank delimited tokens, keeping quoted literals whole.
+	 */
+	static List tokenize(String line) {
+		List tokens = new ArrayList();
+		int i = 0;
+		int n = line.length();
+		while (i < n) {
+			while (i < n && Character.isWhitespace(line.charAt(i))) {
+				i++;
+			}
+			if (i >= n) {
+				break;
+			}
+			int start = i;
+			char quote = 0;
+			while (i < n && (quote != 0 || !Character.isWhitespace(line.charAt(i)))) {
+				char c = line.charAt(i);
+				if (quote == 0 && (c == '\'' || c == '"')) {
+					quote = c;
+				} else if (c == quote) {
+					quote = 0;
+				}
+				i++;
+			}
+			tokens.add(line.substring(start, i));
+		}
+		return tokens;
+	}
+
+	private static IllegalArgumentException error(int lineNumber, String message) {
+		return new IllegalArgumentException("line " + lineNumber + ": " + message);
+	}
+
+	/**
+	 * Compiles the data description entries of a COBOL copybook.
+	 */
+	static class CobolCompiler {
+
+		private static final int DISPLAY = 0;
+		private static final int BINARY = 1;
+		private static final int PACKED = 2;
+
+		private String section;
+		private String name;
+		private CobolDatatypeFactory factory = new CobolDatatypeFactory();
+		private List names = new ArrayList();
+		private List fields = new ArrayList();
+		private List stack = new ArrayList();
+		private Map starts = new HashMap();
+		private Map ends = new HashMap();
+		private int maxOffset = 0;
+
+		/* The clauses of the current entry */
+		private int lineNumber;
+		private int level;
+		private String itemName;
+		private String picture;
+		private int usage;
+		private boolean signLeading;
+		private boolean signSeparate;
+		private boolean blankWhenZero;
+		private String redefines;
+		private int occurs;
+
+		CobolCompiler(String section) {
+			this.section = section;
+		}
+
+		RecordLayout compile(String source) {
+			List entries = new ArrayList();
+			List lineNumbers = new ArrayList();
+			splitEntries(source, entries, lineNumbers);
+			boolean found = false;
+			boolean seen01 = false;
+			for (int i = 0; i < entries.size(); i++) {
+				List tokens = (List)entries.get(i);
+				lineNumber = ((Integer)lineNumbers.get(i)).intValue();
+				parseEntry(tokens);
+				if (level == 88) {
+					continue;
+				}
+				if (level == 1) {
+					if (found) {
+						break;
+					}
+					seen01 = true;
+					if (section == null || section.equalsIgnoreCase(itemName)) {
+						found = true;
+						name = itemName;
+					}
+				} else if (!found && seen01) {
+					continue;
+				}
+				if (found || !seen01) {
+					defineEntry();
+				}
+			}
+			if (section != null && !found) {
+				throw new IllegalArgumentException("01 level record not found: " + section);
+			}
+			closeItems(0);
+			return new RecordLayout(name, maxOffset, names, fields);
+		}
+
+		/*
+		 * Split the source into entries, each a List of tokens ending with a period.
+		 */
+		private void splitEntries(String source, List entries, List lineNumbers) {
+			BufferedReader reader = new BufferedReader(new StringReader(source));
+			List tokens = new ArrayList();
+			int n = 0;
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					n++;
+					String text = line.trim();
+					if (text.startsWith("//")) {
+						text = text.substring(2);
+					} else if (line.length() >= 7 && isSequenceArea(line)) {
+						char indicator = line.charAt(6);
+						if (indicator == '*' || indicator == '/') {
+							continue;
+						}
+						text = line.substring(7, Math.min(line.length(), 72));
+					}
+					text = text.trim();
+					if (text.length() == 0 || text.startsWith("*")) {
+						continue;
+					}
+					List lineTokens = tokenize(text);
+					for (int i = 0; i < lineTokens.size(); i++) {
+						String token = (String)lineTokens.get(i);
+						if (tokens.isEmpty()) {
+							lineNumbers.add(new Integer(n));
+						}
+						boolean end = token.endsWith(".");
+						if (end) {
+							token = token.substring(0, token.length() - 1);
+						}
+						if (token.length() > 0) {
+							tokens.add(token);
+						}
+						if (end) {
+							entries.add(tokens);
+							tokens = new ArrayList();
+						}
+					}
+				}
+			} catch (IOException ioe) {
+				throw new IllegalStateException(ioe.getMessage()); // not expected from a StringReader
+			}
+			if (!tokens.isEmpty()) {
+				entries.add(tokens);
+			}
+		}
+
+		/*
+		 * Answer true if columns 1-6 of a fixed format line hold a sequence 
+		 * number or blanks, and column 7 holds an indicator.
+		 */
+		private static boolean isSequenceArea(String line) {
+			for (int i = 0; i < 6; i++) {
+				char c = line.charAt(i);
+				if (c != ' ' && !Character.isDigit(c)) {
+					return false;
+				}
+			}
+			char indicator = line.charAt(6);
+			return indicator == ' ' || indicator == '*' || indicator == '/';
+		}
+
+		/*
+		 * Parse the clauses of an entry into the instance variables.
+		 */
+		private void parseEntry(List tokens) {
+			itemName = "FILLER";
+			picture = null;
+			usage = DISPLAY;
+			signLeading = false;
+			signSeparate = false;
+			blankWhenZero = false;
+			redefines = null;
+			occurs = 1;
+			try {
+				level = Integer.parseInt((String)tokens.get(0));
+			} catch (NumberFormatException nfe) {
+				throw error(lineNumber, "expected a level number: " + tokens.get(0));
+			}
+			if (level == 88) {
+				return;
+			}
+			if (level == 66) {
+				throw error(lineNumber, "RENAMES is not supported");
+			}
+			int i = 1;
+			if (i < tokens.size() && !isClause(((String)tokens.get(i)).toUpperCase())) {
+				itemName = (String)tokens.get(i++);
+			}
+			while (i < tokens.size()) {
+				String token = ((String)tokens.get(i++)).toUpperCase();
+				if (token.equals("IS") || token.equals("CHARACTER") || token.equals("TIMES")
+						|| token.equals("LEFT") || token.equals("RIGHT")) {
+					continue;
+				} else if (token.equals("PIC") || token.equals("PICTURE")) {
+					i = skip(tokens, i, "IS");
+					picture = next(tokens, i++, token);
+				} else if (token.equals("USAGE")) {
+					i = skip(tokens, i, "IS");
+					usage = parseUsage(next(tokens, i++, token).toUpperCase());
+				} else if (token.equals("SIGN")) {
+					i = skip(tokens, i, "IS");
+					signLeading = next(tokens, i++, token).equalsIgnoreCase("LEADING");
+				} else if (token.equals("LEADING")) {
+					signLeading = true;
+				} else if (token.equals("TRAILING")) {
+					signLeading = false;
+				} else if (token.equals("SEPARATE")) {
+					signSeparate = true;
+				} else if (token.equals("BLANK")) {
+					i = skip(tokens, i, "WHEN");
+					next(tokens, i++, token);
+					blankWhenZero = true;
+				} else if (token.equals("REDEFINES")) {
+					redefines = next(tokens, i++, token);
+				} else if (token.equals("OCCURS")) {
+					try {
+						occurs = Integer.parseInt(next(tokens, i++, token));
+					} catch (NumberFormatException nfe) {
+						throw error(lineNumber, "OCCURS DEPENDING ON is not supported");
+					}
+				} else if (token.equals("VALUE") || token.equals("VALUES")) {
+					i = skip(tokens, i, "IS");
+					next(tokens, i++, token);
+				} else if (token.startsWith("SYNC") || token.startsWith("JUST")) {
+					continue;
+				} else if (isUsage(token)) {
+					usage = parseUsage(token);
+				} else {
+					throw error(lineNumber, "unsupported clause: " + token);
+				}
+			}
+		}
+
+		private static boolean isClause(String token) {
+			return token.equals("PIC") || token.equals("PICTURE") || token.equals("USAGE")
+				|| token.equals("REDEFINES") || token.equals("OCCURS") || token.equals("VALUE")
+				|| token.equals("SIGN") || token.equals("BLANK") || isUsage(token);
+		}
+
+		private static boolean isUsage(String token) {
+			return token.equals("DISPLAY") || token.equals("BINARY") || token.equals("PACKED-DECIMAL")
+				|| token.startsWith("COMP");
+		}
+
+		private int parseUsage(String token) {
+			if (token.equals("DISPLAY")) {
+				return DISPLAY;
+			} else if (token.equals("BINARY") || token.equals("COMP") || token.equals("COMPUTATIONAL")
+					|| token.equals("COMP-4") || token.equals("COMPUTATIONAL-4")
+					|| token.equals("COMP-5") || token.equals("COMPUTATIONAL-5")) {
+				return BINARY;
+			} else if (token.equals("PACKED-DECIMAL") || token.equals("COMP-3") || token.equals("COMPUTATIONAL-3")) {
+				return PACKED;
+			}
+			throw error(lineNumber, "unsupported usage: " + token);
+		}
+
+		private static int skip(List tokens, int i, String word) {
+			if (i < tokens.size() && ((String)tokens.get(i)).equalsIgnoreCase(word)) {
+				return i + 1;
+			}
+			return i;
+		}
+
+		private String next(List tokens, int i, String clause) {
+			if (i >= tokens.size()) {
+				throw error(lineNumber, "incomplete " + clause + " clause");
+			}
+			return (String)tokens.get(i);
+		}
+
+		/*
+		 * Define the fields of the parsed entry, and track the offsets of group items.
+		 */
+		private void defineEntry() {
+			closeItems(level);
+			int restore = -1;
+			if (redefines != null) {
+				Integer start = (Integer)starts.get(redefines);
+				if (start == null) {
+					throw error(lineNumber, "REDEFINES an unknown item: " + redefines);
+				}
+				Integer end = (Integer)ends.get(redefines);
+				restore = Math.max(factory.getOffset(), end == null ? 0 : end.intValue());
+				moveTo(start.intValue());
+			}
+			starts.put(itemName, new Integer(factory.getOffset()));
+			stack.add(new Item(level, itemName, restore));
+			if (picture == null) {
+				if (occurs != 1) {
+					throw error(lineNumber, "OCCURS on a group item is not supported");
+				}
+				return;
+			}
+			for (int i = 1; i <= occurs; i++) {
+				Field field = newField();
+				if (!itemName.equalsIgnoreCase("FILLER")) {
+					names.add(occurs == 1 ? itemName : itemName + "(" + i + ")");
+					fields.add(field);
+				}
+			}
+			maxOffset = Math.max(maxOffset, factory.getOffset());
+		}
+
+		/*
+		 * Close the group and elementary items at or below the given level.
+		 */
+		private void closeItems(int newLevel) {
+			while (!stack.isEmpty()) {
+				Item item = (Item)stack.get(stack.size() - 1);
+				if (item.level < newLevel) {
+					break;
+				}
+				stack.remove(stack.size() - 1);
+				ends.put(item.name, new Integer(factory.getOffset()));
+				maxOffset = Math.max(maxOffset, factory.getOffset());
+				if (item.restore > factory.getOffset()) {
+					moveTo(item.restore);
+				}
+			}
+		}
+
+		private void moveTo(int offset) {
+			factory.incrementOffset(offset - factory.getOffset());
+		}
+
+		/*
+		 * Answer a new Field for the parsed elementary item.
+		 */
+		private Field newField() {
+			boolean signed = false;
+			boolean alphanumeric = false;
+			boolean afterV = false;
+			int digits = 0;
+			int scale = 0;
+			int chars = 0;
+			String pic = picture.toUpperCase();
+			for (int i = 0; i < pic.length(); i++) {
+				char c = pic.charAt(i);
+				int repeat = 1;
+				if (i + 1 < pic.length() && pic.charAt(i + 1) == '(') {
+					int close = pic.indexOf(')', i);
+					if (close < 0) {
+						throw error(lineNumber, "invalid picture: " + picture);
+					}
+					try {
+						repeat = Integer.parseInt(pic.substring(i + 2, close));
+					} catch (NumberFormatException nfe) {
+						throw error(lineNumber, "invalid picture: " + picture);
+					}
+					i = close;
+				}
+				switch (c) {
+				case 'S':
+					signed = true;
+					break;
+				case 'V':
+					afterV = true;
+					break;
+				case '9':
+					digits += repeat;
+					if (afterV) {
+						scale += repeat;
+					}
+					break;
+				case 'X':
+				case 'A':
+					alphanumeric = true;
+					chars += repeat;
+					break;
+				default:
+					throw error(lineNumber, "unsupported picture symbol '" + c + "': " + picture);
+				}
+			}
+			if (alphanumeric) {
+				if (usage != DISPLAY || signed || scale > 0) {
+					throw error(lineNumber, "invalid alphanumeric item: " + picture);
+				}
+				return factory.getStringField(chars + digits);
+			}
+			switch (usage) {
+			case BINARY:
+				if (scale > 0 || digits > 18) {
+					throw error(lineNumber, "unsupported binary item: " + picture);
+				}
+				return digits <= 9 
+						? (Field)factory.getBinaryAsIntField(digits, signed) 
+						: factory.getBinaryAsLongField(digits, signed);
+			case PACKED:
+				if (scale == 0 && digits <= 9) {
+					return factory.getPackedDecimalAsIntField(digits, signed);
+				} else if (scale == 0 && digits <= 18) {
+					return factory.getPackedDecimalAsLongField(digits, signed);
+				}
+				return factory.getPackedDecimalAsBigDecimalField(digits, scale, signed);
+			default:
+				boolean signTrailing = !signLeading;
+				if (scale == 0 && digits <= 9) {
+					return factory.getExternalDecimalAsIntField(digits, signed, signTrailing, 
+																signSeparate, blankWhenZero);
+				} else if (scale == 0 && digits <= 18) {
+					return factory.getExternalDecimalAsLongField(digits, signed, signTrailing, 
+																signSeparate, blankWhenZero);
+				}
+				return factory.getExternalDecimalAsBigDecimalField(digits, scale, signed, signTrailing, 
+																	signSeparate, blankWhenZero);
+			}
+		}
+	}
+
+	/**
+	 * An open group or elementary item of a copybook.
+	 */
+	static class Item {
+		int level;
+		String name;
+		int restore;	// the offset after a REDEFINES item, or -1
+
+		Item(int level, String name, int restore) {
+			this.level = level;
+			this.name = name;
+			this.restore = restore;
+		}
+	}
+
+	/**
+	 * Compiles the DS and DC statements of an assembler DSECT.
+	 */
+	static class DsectCompiler {
+
+		private String section;
+		private String name;
+		private AssemblerDatatypeFactory factory = new AssemblerDatatypeFactory();
+		private List names = new ArrayList();
+		private List fields = new ArrayList();
+		private Map symbols = new HashMap();
+		private int maxOffset = 0;
+		private int lineNumber;
+
+		DsectCompiler(String section) {
+			this.section = section;
+		}
+
+		RecordLayout compile(String source) {
+			BufferedReader reader = new BufferedReader(new StringReader(source));
+			boolean active = section == null;
+			lineNumber = 0;
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					lineNumber++;
+					if (line.length() > 71) {
+						line = line.substring(0, 71);
+					}
+					if (line.trim().length() == 0 || line.startsWith("*") || line.startsWith(".*")) {
+						continue;
+					}
+					List tokens = tokenize(line);
+					String label = null;
+					if (!Character.isWhitespace(line.charAt(0))) {
+						label = (String)tokens.remove(0);
+					}
+					if (tokens.isEmpty()) {
+						continue;
+					}
+					String op = ((String)tokens.get(0)).toUpperCase();
+					String operand = tokens.size() > 1 ? (String)tokens.get(1) : "";
+					if (op.equals("DSECT") || op.equals("CSECT") || op.equals("END")) {
+						if (active && (name != null || !fields.isEmpty())) {
+							break;
+						}
+						active = op.equals("DSECT") && (section == null || section.equalsIgnoreCase(label));
+						if (active) {
+							name = label;
+						}
+					} else if (!active) {
+						continue;
+					} else if (op.equals("DS") || op.equals("DC")) {
+						defineStorage(label, operand);
+					} else if (op.equals("ORG")) {
+						org(operand.equals(",") ? "" : operand);
+					} else if (op.equals("EQU") && label != null && operand.equals("*")) {
+						symbols.put(label, new Integer(factory.getOffset()));
+					}
+				}
+			} catch (IOException ioe) {
+				throw new IllegalStateException(ioe.getMessage()); // not expected from a StringReader
+			}
+			if (section != null && name == null) {
+				throw new IllegalArgumentException("DSECT not found: " + section);
+			}
+			return new RecordLayout(name, maxOffset, names, fields);
+		}
+
+		/*
+		 * Define a field for each operand of a DS or DC statement.
+		 */
+		private void defineStorage(String label, String operands) {
+			int i = 0;
+			while (i < operands.length()) {
+				int dup = 1;
+				int start = i;
+				while (i < operands.length() && Character.isDigit(operands.charAt(i))) {
+					i++;
+				}
+				if (i > start) {
+					dup = Integer.parseInt(operands.substring(start, i));
+				}
+				if (i >= operands.length()) {
+					throw error(lineNumber, "invalid operand: " + operands);
+				}
+				String type = operands.substring(i, i + 1).toUpperCase();
+				i++;
+				if (i < operands.length() && Character.toUpperCase(operands.charAt(i)) == 'D'
+						&& (type.equals("F") || type.equals("A"))) {
+					type += "D";
+					i++;
+				}
+				int length = -1;
+				if (i < operands.length() && Character.toUpperCase(operands.charAt(i)) == 'L') {
+					i++;
+					boolean paren = i < operands.length() && operands.charAt(i) == '(';
+					if (paren) {
+						i++;
+					}
+					start = i;
+					while (i < operands.length() && Character.isDigit(operands.charAt(i))) {
+						i++;
+					}
+					if (i == start) {
+						throw error(lineNumber, "invalid length: " + operands);
+					}
+					length = Integer.parseInt(operands.substring(start, i));
+					if (paren) {
+						i++;
+					}
+				}
+				String literal = null;
+				if (i < operands.length() && operands.charAt(i) == '\'') {
+					int close = operands.indexOf('\'', i + 1);
+					while (close > 0 && close + 1 < operands.length() && operands.charAt(close + 1) == '\'') {
+						close = operands.indexOf('\'', close + 2);
+					}
+					if (close < 0) {
+						throw error(lineNumber, "unterminated literal: " + operands);
+					}
+					literal = operands.substring(i + 1, close);
+					i = close + 1;
+				}
+				if (i < operands.length()) {
+					if (operands.charAt(i) != ',') {
+						throw error(lineNumber, "invalid operand: " + operands);
+					}
+					i++;
+				}
+				define(label, dup, type, length, literal);
+				label = null;
+			}
+		}
+
+		/*
+		 * Define the field of one operand.
+		 */
+		private void define(String label, int dup, String type, int length, String literal) {
+			int alignment = 1;
+			int implied;
+			if (type.equals("F") || type.equals("A") || type.equals("V") || type.equals("E")) {
+				alignment = implied = 4;
+			} else if (type.equals("H") || type.equals("Y")) {
+				alignment = implied = 2;
+			} else if (type.equals("D") || type.equals("FD") || type.equals("AD")) {
+				alignment = implied = 8;
+			} else if (type.equals("C") || type.equals("X") || type.equals("B") 
+					|| type.equals("P") || type.equals("Z")) {
+				implied = literalLength(type, literal);
+			} else {
+				throw error(lineNumber, "unsupported type: " + type);
+			}
+			if (length < 0) {
+				length = implied;
+				int pad = (alignment - factory.getOffset() % alignment) % alignment;
+				factory.incrementOffset(pad);
+			}
+			int start = factory.getOffset();
+			if (label != null) {
+				symbols.put(label, new Integer(start));
+				Field field;
+				if (dup <= 1) {
+					field = newField(type, length);
+				} else if (type.equals("C")) {
+					field = factory.getStringField(dup * length, true);
+				} else {
+					field = factory.getByteArrayField(dup * length);
+				}
+				names.add(label);
+				fields.add(field);
+				maxOffset = Math.max(maxOffset, factory.getOffset());
+				if (dup == 0) {
+					factory.incrementOffset(-length);
+				}
+			} else {
+				factory.incrementOffset(dup * length);
+			}
+			maxOffset = Math.max(maxOffset, factory.getOffset());
+		}
+
+		/*
+		 * Answer a new Field for a single value of the given type and length.
+		 */
+		private Field newField(String type, int length) {
+			char t = type.charAt(0);
+			switch (t) {
+			case 'C':
+				return factory.getStringField(length, true);
+			case 'X':
+			case 'B':
+			case 'A':
+			case 'Y':
+			case 'V':
+				if (length <= 3) {
+					return factory.getBinaryAsIntField(length, false);
+				} else if (length <= 4 || (length <= 8 && t != 'X' && t != 'B')) {
+					return factory.getBinaryAsLongField(length, false);
+				}
+				return factory.getByteArrayField(length);
+			case 'F':
+			case 'H':
+				if (length <= 4) {
+					return factory.getBinaryAsIntField(length, true);
+				} else if (length <= 8) {
+					return factory.getBinaryAsLongField(length, true);
+				}
+				return factory.getByteArrayField(length);
+			case 'P':
+				if (length <= 5) {
+					return factory.getPackedDecimalAsIntField(length, true);
+				} else if (length <= 10) {
+					return factory.getPackedDecimalAsLongField(length, true);
+				}
+				return factory.getByteArrayField(length);
+			default:
+				return factory.getByteArrayField(length);
+			}
+		}
+
+		/*
+		 * Answer the length implied by the literal of a DC operand, or 1 if there is none.
+		 */
+		private int literalLength(String type, String literal) {
+			if (literal == null) {
+				return 1;
+			}
+			if (type.equals("C")) {
+				int quotes = 0;
+				for (int i = literal.indexOf("''"); i >= 0; i = literal.indexOf("''", i + 2)) {
+					quotes++;
+				}
+				return Math.max(1, literal.length() - quotes);
+			} else if (type.equals("X")) {
+				return Math.max(1, (literal.length() + 1) / 2);
+			} else if (type.equals("B")) {
+				return Math.max(1, (literal.length() + 7) / 8);
+			} else if (type.equals("P")) {
+				return literal.replaceAll("[^0-9]", "").length() / 2 + 1;
+			}
+			return Math.max(1, literal.replaceAll("[^0-9]", "").length());
+		}
+
+		/*
+		 * Set the location counter: to the highest offset so far if there
+		 * is no operand, or else to a symbol or '*', plus or minus a number.
+		 */
+		private void org(String operand) {
+			if (operand.length() == 0) {
+				factory.incrementOffset(maxOffset - factory.getOffset());
+				return;
+			}
+			int sign = Math.max(operand.indexOf('+'), operand.indexOf('-'));
+			String symbol = sign > 0 ? operand.substring(0, sign) : operand;
+			int base;
+			if (symbol.equals("*")) {
+				base = factory.getOffset();
+			} else {
+				Integer offset = (Integer)symbols.get(symbol);
+				if (offset == null) {
+					throw error(lineNumber, "ORG to an unknown symbol: " + symbol);
+				}
+				base = offset.intValue();
+			}
+			if (sign > 0) {
+				try {
+					int delta = Integer.parseInt(operand.substring(sign + 1));
+					base += operand.charAt(sign) == '+' ? delta : -delta;
+				} catch (NumberFormatException nfe) {
+					throw error(lineNumber, "unsupported ORG operand: " + operand);
+				}
+			}
+			factory.incrementOffset(base - factory.getOffset());
+		}
+	}
+}
@@ -19,11 +19,12 @@
 package com.ibm.jzos.sample.fields;
 import com.ibm.jzos.fields.*;
 
-// Generated by com.ibm.jzos.recordgen.asm.RecordClassGenerator on: Tue Jul 17 12:10:53 EDT 2007
+// Originally generated by com.ibm.jzos.recordgen.asm.RecordClassGenerator on: Tue Jul 17 12:10:53 EDT 2007
+// Hand-maintained since 2.3.0: see the class description
 
 /** 
  * Base class to map the fixed portion of SMF record 83 (RACF Security information).
- * This code (excluding these notes) was generated using 
+ * This code (excluding these notes) was originally generated using 
  * <code>com.ibm.jzos.recordgen.asm.RecordClassGenerator</code> using the following JCL:
  * 
  * <pre><code>
@@ -48,6 +49,13 @@ com.ibm.jzos.recordgen.asm.RecordClassGenerator
 //STDENV DD *
 ...
    </code></pre>
+ * <p/>
+ * This class is maintained by hand: its numeric fields are cached in primitive
+ * instance variables, with a bit in <code>loaded</code> for each field that has been
+ * read, rather than in the boxed Integer and Long objects that 
+ * RecordClassGenerator generates, so that reading a field does not allocate.
+ * RecordClassGenerator has no option for this, so regenerating the class would
+ * restore the boxed caches; change it by hand instead.
  * @see Smf83Record Smf83Record for a hand-coded subclass of this class that glues together the components
  * of a SMF 83 record
  * @since 2.1.0
@@ -146,29 +154,50 @@ public class Smf83BaseRecord {
 
 	protected byte[] bytes;
 
+	// Bits in loaded for the numeric fields which have been cached
+	private static final int LOADED_SMF83LEN = 0x1;
+	private static final int LOADED_SMF83SEG = 0x2;
+	private static final int LOADED_SMF83FLG = 0x4;
+	private static final int LOADED_SMF83RTY = 0x8;
+	private static final int LOADED_SMF83TME = 0x10;
+	private static final int LOADED_SMF83DTE = 0x20;
+	private static final int LOADED_SMF83TYP = 0x40;
+	private static final int LOADED_SMF83TRP = 0x80;
+	private static final int LOADED_SMF83XXX = 0x100;
+	private static final int LOADED_SMF83OPD = 0x200;
+	private static final int LOADED_SMF83LPD = 0x400;
+	private static final int LOADED_SMF83NPD = 0x800;
+	private static final int LOADED_SMF83OD1 = 0x1000;
+	private static final int LOADED_SMF83LD1 = 0x2000;
+	private static final int LOADED_SMF83ND1 = 0x4000;
+	private static final int LOADED_SMF83OD2 = 0x8000;
+	private static final int LOADED_SMF83LD2 = 0x10000;
+	private static final int LOADED_SMF83ND2 = 0x20000;
+
 	// Instance variables used to cache field values 
-	private Integer smf83len;
-	private Integer smf83seg;
-	private Integer smf83flg;
-	private Integer smf83rty;
-	private Long smf83tme;
-	private Integer smf83dte;
+	private int loaded;
+	private int smf83len;
+	private int smf83seg;
+	private int smf83flg;
+	private int smf83rty;
+	private long smf83tme;
+	private int smf83dte;
 	private String smf83sid;
 	private byte[] smf83df1;
 	private String smf83ssi;
-	private Integer smf83typ;
+	private int smf83typ;
 	private byte[] smf83sds;
-	private Integer smf83trp;
-	private Integer smf83xxx;
-	private Long smf83opd;
-	private Integer smf83lpd;
-	private Integer smf83npd;
-	private Long smf83od1;
-	private Integer smf83ld1;
-	private Integer smf83nd1;
-	private Long smf83od2;
-	private Integer smf83ld2;
-	private Integer smf83nd2;
+	private int smf83trp;
+	private int smf83xxx;
+	private long smf83opd;
+	private int smf83lpd;
+	private int smf83npd;
+	private long smf83od1;
+	private int smf83ld1;
+	private int smf83nd1;
+	private long smf83od2;
+	private int smf83ld2;
+	private int smf83nd2;
 
 
 	public Smf83BaseRecord(byte[] buffer) {
@@ -177,87 +206,99 @@ public class Smf83BaseRecord {
 
 
 	public int getSmf83len() {
-		if (smf83len == null) {
-			smf83len = new Integer(SMF83LEN.getInt(bytes));
+		if ((loaded & LOADED_SMF83LEN) == 0) {
+			smf83len = SMF83LEN.getInt(bytes);
+			loaded |= LOADED_SMF83LEN;
 		}
-		return smf83len.intValue();
+		return smf83len;
 	}
 
 	public void setSmf83len(int smf83len) {
-		if (SMF83LEN.equals(this.smf83len, smf83len))
+		if ((loaded & LOADED_SMF83LEN) != 0 && this.smf83len == smf83len)
 			return;
 		SMF83LEN.putInt(smf83len, bytes);
-		this.smf83len = new Integer(smf83len);
+		this.smf83len = smf83len;
+		loaded |= LOADED_SMF83LEN;
 	}
 
 	public int getSmf83seg() {
-		if (smf83seg == null) {
-			smf83seg = new Integer(SMF83SEG.getInt(bytes));
+		if ((loaded & LOADED_SMF83SEG) == 0) {
+			smf83seg = SMF83SEG.getInt(bytes);
+			loaded |= LOADED_SMF83SEG;
 		}
-		return smf83seg.intValue();
+		return smf83seg;
 	}
 
 	public void setSmf83seg(int smf83seg) {
-		if (SMF83SEG.equals(this.smf83seg, smf83seg))
+		if ((loaded & LOADED_SMF83SEG) != 0 && this.smf83seg == smf83seg)
 			return;
 		SMF83SEG.putInt(smf83seg, bytes);
-		this.smf83seg = new Integer(smf83seg);
+		this.smf83seg = smf83seg;
+		loaded |= LOADED_SMF83SEG;
 	}
 
 	public int getSmf83flg() {
-		if (smf83flg == null) {
-			smf83flg = new Integer(SMF83FLG.getInt(bytes));
+		if ((loaded & LOADED_SMF83FLG) == 0) {
+			smf83flg = SMF83FLG.getInt(bytes);
+			loaded |= LOADED_SMF83FLG;
 		}
-		return smf83flg.intValue();
+		return smf83flg;
 	}
 
 	public void setSmf83flg(int smf83flg) {
-		if (SMF83FLG.equals(this.smf83flg, smf83flg))
+		if ((loaded & LOADED_SMF83FLG) != 0 && this.smf83flg == smf83flg)
 			return;
 		SMF83FLG.putInt(smf83flg, bytes);
-		this.smf83flg = new Integer(smf83flg);
+		this.smf83flg = smf83flg;
+		loaded |= LOADED_SMF83FLG;
 	}
 
 	public int getSmf83rty() {
-		if (smf83rty == null) {
-			smf83rty = new Integer(SMF83RTY.getInt(bytes));
+		if ((loaded & LOADED_SMF83RTY) == 0) {
+			smf83rty = SMF83RTY.getInt(bytes);
+			loaded |= LOADED_SMF83RTY;
 		}
-		return smf83rty.intValue();
+		return smf83rty;
 	}
 
 	public void setSmf83rty(int smf83rty) {
-		if (SMF83RTY.equals(this.smf83rty, smf83rty))
+		if ((loaded & LOADED_SMF83RTY) != 0 && this.smf83rty == smf83rty)
 			return;
 		SMF83RTY.putInt(smf83rty, bytes);
-		this.smf83rty = new Integer(smf83rty);
+		this.smf83rty = smf83rty;
+		loaded |= LOADED_SMF83RTY;
 	}
 
 	public long getSmf83tme() {
-		if (smf83tme == null) {
-			smf83tme = new Long(SMF83TME.getLong(bytes));
+		if ((loaded & LOADED_SMF83TME) == 0) {
+			smf83tme = SMF83TME.getLong(bytes);
+			loaded |= LOADED_SMF83TME;
 		}
-		return smf83tme.longValue();
+		return smf83tme;
 	}
 
 	public void setSmf83tme(long smf83tme) {
-		if (SMF83TME.equals(this.smf83tme, smf83tme))
+		if ((loaded & LOADED_SMF83TME) != 0 && this.smf83tme == smf83tme)
 			return;
 		SMF83TME.putLong(smf83tme, bytes);
-		this.smf83tme = new Long(smf83tme);
+		this.smf83tme = smf83tme;
+		loaded |= LOADED_SMF83TME;
 	}
 
 	public int getSmf83dte() {
-		if (smf83dte == null) {
-			smf83dte = new Integer(SMF83DTE.getInt(bytes));
+		if ((loaded & LOADED_SMF83DTE) == 0) {
+			smf83dte = SMF83DTE.getInt(bytes);
+			loaded |= LOADED_SMF83DTE;
 		}
-		return smf83dte.intValue();
+		return smf83dte;
 	}
 
 	public void setSmf83dte(int smf83dte) {
-		if (SMF83DTE.equals(this.smf83dte, smf83dte))
+		if ((loaded & LOADED_SMF83DTE) != 0 && this.smf83dte == smf83dte)
 			return;
 		SMF83DTE.putInt(smf83dte, bytes);
-		this.smf83dte = new Integer(smf83dte);
+		this.smf83dte = smf83dte;
+		loaded |= LOADED_SMF83DTE;
 	}
 
 	public String getSmf83sid() {
@@ -303,17 +344,19 @@ public class Smf83BaseRecord {
 	}
 
 	public int getSmf83typ() {
-		if (smf83typ == null) {
-			smf83typ = new Integer(SMF83TYP.getInt(bytes));
+		if ((loaded & LOADED_SMF83TYP) == 0) {
+			smf83typ = SMF83TYP.getInt(bytes);
+			loaded |= LOADED_SMF83TYP;
 		}
-		return smf83typ.intValue();
+		return smf83typ;
 	}
 
 	public void setSmf83typ(int smf83typ) {
-		if (SMF83TYP.equals(this.smf83typ, smf83typ))
+		if ((loaded & LOADED_SMF83TYP) != 0 && this.smf83typ == smf83typ)
 			return;
 		SMF83TYP.putInt(smf83typ, bytes);
-		this.smf83typ = new Integer(smf83typ);
+		this.smf83typ = smf83typ;
+		loaded |= LOADED_SMF83TYP;
 	}
 
 	public byte[] getSmf83sds() {
@@ -331,157 +374,179 @@ public class Smf83BaseRecord {
 	}
 
 	public int getSmf83trp() {
-		if (smf83trp == null) {
-			smf83trp = new Integer(SMF83TRP.getInt(bytes));
+		if ((loaded & LOADED_SMF83TRP) == 0) {
+			smf83trp = SMF83TRP.getInt(bytes);
+			loaded |= LOADED_SMF83TRP;
 		}
-		return smf83trp.intValue();
+		return smf83trp;
 	}
 
 	public void setSmf83trp(int smf83trp) {
-		if (SMF83TRP.equals(this.smf83trp, smf83trp))
+		if ((loaded & LOADED_SMF83TRP) != 0 && this.smf83trp == smf83trp)
 			return;
 		SMF83TRP.putInt(smf83trp, bytes);
-		this.smf83trp = new Integer(smf83trp);
+		this.smf83trp = smf83trp;
+		loaded |= LOADED_SMF83TRP;
 	}
 
 	public int getSmf83xxx() {
-		if (smf83xxx == null) {
-			smf83xxx = new Integer(SMF83XXX.getInt(bytes));
+		if ((loaded & LOADED_SMF83XXX) == 0) {
+			smf83xxx = SMF83XXX.getInt(bytes);
+			loaded |= LOADED_SMF83XXX;
 		}
-		return smf83xxx.intValue();
+		return smf83xxx;
 	}
 
 	public void setSmf83xxx(int smf83xxx) {
-		if (SMF83XXX.equals(this.smf83xxx, smf83xxx))
+		if ((loaded & LOADED_SMF83XXX) != 0 && this.smf83xxx == smf83xxx)
 			return;
 		SMF83XXX.putInt(smf83xxx, bytes);
-		this.smf83xxx = new Integer(smf83xxx);
+		this.smf83xxx = smf83xxx;
+		loaded |= LOADED_SMF83XXX;
 	}
 
 	public long getSmf83opd() {
-		if (smf83opd == null) {
-			smf83opd = new Long(SMF83OPD.getLong(bytes));
+		if ((loaded & LOADED_SMF83OPD) == 0) {
+			smf83opd = SMF83OPD.getLong(bytes);
+			loaded |= LOADED_SMF83OPD;
 		}
-		return smf83opd.longValue();
+		return smf83opd;
 	}
 
 	public void setSmf83opd(long smf83opd) {
-		if (SMF83OPD.equals(this.smf83opd, smf83opd))
+		if ((loaded & LOADED_SMF83OPD) != 0 && this.smf83opd == smf83opd)
 			return;
 		SMF83OPD.putLong(smf83opd, bytes);
-		this.smf83opd = new Long(smf83opd);
+		this.smf83opd = smf83opd;
+		loaded |= LOADED_SMF83OPD;
 	}
 
 	public int getSmf83lpd() {
-		if (smf83lpd == null) {
-			smf83lpd = new Integer(SMF83LPD.getInt(bytes));
+		if ((loaded & LOADED_SMF83LPD) == 0) {
+			smf83lpd = SMF83LPD.getInt(bytes);
+			loaded |= LOADED_SMF83LPD;
 		}
-		return smf83lpd.intValue();
+		return smf83lpd;
 	}
 
 	public void setSmf83lpd(int smf83lpd) {
-		if (SMF83LPD.equals(this.smf83lpd, smf83lpd))
+		if ((loaded & LOADED_SMF83LPD) != 0 && this.smf83lpd == smf83lpd)
 			return;
 		SMF83LPD.putInt(smf83lpd, bytes);
-		this.smf83lpd = new Integer(smf83lpd);
+		this.smf83lpd = smf83lpd;
+		loaded |= LOADED_SMF83LPD;
 	}
 
 	public int getSmf83npd() {
-		if (smf83npd == null) {
-			smf83npd = new Integer(SMF83NPD.getInt(bytes));
+		if ((loaded & LOADED_SMF83NPD) == 0) {
+			smf83npd = SMF83NPD.getInt(bytes);
+			loaded |= LOADED_SMF83NPD;
 		}
-		return smf83npd.intValue();
+		return smf83npd;
 	}
 
 	public void setSmf83npd(int smf83npd) {
-		if (SMF83NPD.equals(this.smf83npd, smf83npd))
+		if ((loaded & LOADED_SMF83NPD) != 0 && this.smf83npd == smf83npd)
 			return;
 		SMF83NPD.putInt(smf83npd, bytes);
-		this.smf83npd = new Integer(smf83npd);
+		this.smf83npd = smf83npd;
+		loaded |= LOADED_SMF83NPD;
 	}
 
 	public long getSmf83od1() {
-		if (smf83od1 == null) {
-			smf83od1 = new Long(SMF83OD1.getLong(bytes));
+		if ((loaded & LOADED_SMF83OD1) == 0) {
+			smf83od1 = SMF83OD1.getLong(bytes);
+			loaded |= LOADED_SMF83OD1;
 		}
-		return smf83od1.longValue();
+		return smf83od1;
 	}
 
 	public void setSmf83od1(long smf83od1) {
-		if (SMF83OD1.equals(this.smf83od1, smf83od1))
+		if ((loaded & LOADED_SMF83OD1) != 0 && this.smf83od1 == smf83od1)
 			return;
 		SMF83OD1.putLong(smf83od1, bytes);
-		this.smf83od1 = new Long(smf83od1);
+		this.smf83od1 = smf83od1;
+		loaded |= LOADED_SMF83OD1;
 	}
 
 	public int getSmf83ld1() {
-		if (smf83ld1 == null) {
-			smf83ld1 = new Integer(SMF83LD1.getInt(bytes));
+		if ((loaded & LOADED_SMF83LD1) == 0) {
+			smf83ld1 = SMF83LD1.getInt(bytes);
+			loaded |= LOADED_SMF83LD1;
 		}
-		return smf83ld1.intValue();
+		return smf83ld1;
 	}
 
 	public void setSmf83ld1(int smf83ld1) {
-		if (SMF83LD1.equals(this.smf83ld1, smf83ld1))
+		if ((loaded & LOADED_SMF83LD1) != 0 && this.smf83ld1 == smf83ld1)
 			return;
 		SMF83LD1.putInt(smf83ld1, bytes);
-		this.smf83ld1 = new Integer(smf83ld1);
+		this.smf83ld1 = smf83ld1;
+		loaded |= LOADED_SMF83LD1;
 	}
 
 	public int getSmf83nd1() {
-		if (smf83nd1 == null) {
-			smf83nd1 = new Integer(SMF83ND1.getInt(bytes));
+		if ((loaded & LOADED_SMF83ND1) == 0) {
+			smf83nd1 = SMF83ND1.getInt(bytes);
+			loaded |= LOADED_SMF83ND1;
 		}
-		return smf83nd1.intValue();
+		return smf83nd1;
 	}
 
 	public void setSmf83nd1(int smf83nd1) {
-		if (SMF83ND1.equals(this.smf83nd1, smf83nd1))
+		if ((loaded & LOADED_SMF83ND1) != 0 && this.smf83nd1 == smf83nd1)
 			return;
 		SMF83ND1.putInt(smf83nd1, bytes);
-		this.smf83nd1 = new Integer(smf83nd1);
+		this.smf83nd1 = smf83nd1;
+		loaded |= LOADED_SMF83ND1;
 	}
 
 	public long getSmf83od2() {
-		if (smf83od2 == null) {
-			smf83od2 = new Long(SMF83OD2.getLong(bytes));
+		if ((loaded & LOADED_SMF83OD2) == 0) {
+			smf83od2 = SMF83OD2.getLong(bytes);
+			loaded |= LOADED_SMF83OD2;
 		}
-		return smf83od2.longValue();
+		return smf83od2;
 	}
 
 	public void setSmf83od2(long smf83od2) {
-		if (SMF83OD2.equals(this.smf83od2, smf83od2))
+		if ((loaded & LOADED_SMF83OD2) != 0 && this.smf83od2 == smf83od2)
 			return;
 		SMF83OD2.putLong(smf83od2, bytes);
-		this.smf83od2 = new Long(smf83od2);
+		this.smf83od2 = smf83od2;
+		loaded |= LOADED_SMF83OD2;
 	}
 
 	public int getSmf83ld2() {
-		if (smf83ld2 == null) {
-			smf83ld2 = new Integer(SMF83LD2.getInt(bytes));
+		if ((loaded & LOADED_SMF83LD2) == 0) {
+			smf83ld2 = SMF83LD2.getInt(bytes);
+			loaded |= LOADED_SMF83LD2;
 		}
-		return smf83ld2.intValue();
+		return smf83ld2;
 	}
 
 	public void setSmf83ld2(int smf83ld2) {
-		if (SMF83LD2.equals(this.smf83ld2, smf83ld2))
+		if ((loaded & LOADED_SMF83LD2) != 0 && this.smf83ld2 == smf83ld2)
 			return;
 		SMF83LD2.putInt(smf83ld2, bytes);
-		this.smf83ld2 = new Integer(smf83ld2);
+		this.smf83ld2 = smf83ld2;
+		loaded |= LOADED_SMF83LD2;
 	}
 
 	public int getSmf83nd2() {
-		if (smf83nd2 == null) {
-			smf83nd2 = new Integer(SMF83ND2.getInt(bytes));
+		if ((loaded & LOADED_SMF83ND2) == 0) {
+			smf83nd2 = SMF83ND2.getInt(bytes);
+			loaded |= LOADED_SMF83ND2;
 		}
-		return smf83nd2.intValue();
+		return smf83nd2;
 	}
 
 	public void setSmf83nd2(int smf83nd2) {
-		if (SMF83ND2.equals(this.smf83nd2, smf83nd2))
+		if ((loaded & LOADED_SMF83ND2) != 0 && this.smf83nd2 == smf83nd2)
 			return;
 		SMF83ND2.putInt(smf83nd2, bytes);
-		this.smf83nd2 = new Integer(smf83nd2);
+		this.smf83nd2 = smf83nd2;
+		loaded |= LOADED_SMF83ND2;
 	}
 
 }
@@ -0,0 +1,263 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+
+import com.ibm.jzos.ZUtil;
+
+/**
+ * A filter which selects SMF type 83 (RACF) records by evaluating 
+ * predicates directly on their raw bytes, before any record or 
+ * section object is created.
+ * <p/>
+ * A record matches if it is a type 83 record (of the given subtype, if any) 
+ * and at least one of its security sections matches all of the given predicates:
+ * <ul>
+ * <li>its event code (SMF83EVT) is one of the given codes</li>
+ * <li>its user id (SMF83USR) is one of the given user ids</li>
+ * <li>it is a violation (SMF83DES bit 0)</li>
+ * </ul>
+ * Predicates that are not given match any section.  The sections are found with a 
+ * {@link Smf83TripletIndex}.  Event codes are tested with one byte compare,
+ * and each user id is tested as a single long, by a binary search of the given 
+ * user ids, which have been encoded and padded with blanks:
+ * <pre>
+ * Smf83Filter filter = new Smf83Filter()
+ *     .addEventCode(8)
+ *     .addUsers(new String[] { "IBMUSER", "SYSPROG" });
+ * dispatcher.register(83, filter.filter(handler));
+ * </pre>
+ * A filter is not thread-safe, since it holds a reusable index; 
+ * use one filter for each thread.
+ *
+ * @see Smf83TripletIndex
+ * @see SmfDispatcher
+ * @since 2.3.0
+ */
+public class Smf83Filter {
+
+	/** The length of SMF83USR */
+	static final int USER_LENGTH = 8;
+
+	private static final int RTY_OFFSET = Smf83BaseRecord.SMF83RTY.getOffset();
+	private static final int FLG_OFFSET = Smf83BaseRecord.SMF83FLG.getOffset();
+	private static final int TYP_OFFSET = Smf83BaseRecord.SMF83TYP.getOffset();
+	private static final int EVT_OFFSET = Smf83Security.SMF83EVT.getOffset();
+	private static final int DES_OFFSET = Smf83Security.SMF83DES.getOffset();
+	private static final int USR_OFFSET = Smf83Security.SMF83USR.getOffset();
+
+	private String encoding;
+	private boolean[] eventCodes;
+	private long[] users;
+	private int subtype = -1;
+	private boolean violationsOnly = false;
+	private Smf83TripletIndex index = new Smf83TripletIndex();
+	private long accepted = 0;
+	private long rejected = 0;
+
+	/**
+	 * Construct a filter which matches all type 83 records, and which
+	 * encodes user ids in the default platform encoding.
+	 */
+	public Smf83Filter() {
+		this(ZUtil.getDefaultPlatformEncoding());
+	}
+
+	/**
+	 * Construct a filter which matches all type 83 records, and which
+	 * encodes user ids in the given encoding.
+	 */
+	public Smf83Filter(String encoding) {
+		this.encoding = encoding;
+	}
+
+	/**
+	 * Match sections with the given event code, as well as any others
+	 * already added.
+	 * @return this filter
+	 */
+	public Smf83Filter addEventCode(int eventCode) {
+		if (eventCodes == null) {
+			eventCodes = new boolean[256];
+		}
+		eventCodes[eventCode & 0xff] = true;
+		return this;
+	}
+
+	/**
+	 * Match sections with the given user id, as well as any others already added.
+	 * @return this filter
+	 * @throws IllegalArgumentException if the user id is longer than 8 bytes
+	 */
+	public Smf83Filter addUser(String user) {
+		return addUsers(new String[] { user });
+	}
+
+	/**
+	 * Match sections with any of the given user ids, as well as any others already added.
+	 * @return this filter
+	 * @throws IllegalArgumentException if a user id is longer than 8 bytes
+	 */
+	public Smf83Filter addUsers(String[] userIds) {
+		int n = users == null ? 0 : users.length;
+		long[] newUsers = new long[n + userIds.length];
+		if (users != null) {
+			System.arraycopy(users, 0, newUsers, 0, n);
+		}
+		for (int i = 0; i < userIds.length; i++) {
+			newUsers[n + i] = encodeUser(userIds[i]);
+		}
+		Arrays.sort(newUsers);
+		users = newUsers;
+		return this;
+	}
+
+	/**
+	 * Match only records of the given subtype (SMF83TYP).
+	 * @return this filter
+	 */
+	public Smf83Filter setSubtype(int subtype) {
+		this.subtype = subtype;
+		return this;
+	}
+
+	/**
+	 * Match only sections which record violations.
+	 * @return this filter
+	 */
+	public Smf83Filter setViolationsOnly(boolean violationsOnly) {
+		this.violationsOnly = violationsOnly;
+		return this;
+	}
+
+	/**
+	 * Answer true if the record held by the given buffer matches.
+	 */
+	public boolean matches(SmfRecordBuffer record) {
+		return matches(record.getBytes(), 0, record.getLength());
+	}
+
+	/**
+	 * Answer true if the record at the given offset of the given buffer matches.
+	 * @param bytes the buffer
+	 * @param offset the offset of the record, starting with its RDW
+	 * @param length the length of the record in the buffer
+	 */
+	public boolean matches(byte[] bytes, int offset, int length) {
+		boolean match = matchesRecord(bytes, offset, length);
+		if (match) {
+			accepted++;
+		} else {
+			rejected++;
+		}
+		return match;
+	}
+
+	private boolean matchesRecord(byte[] bytes, int offset, int length) {
+		if (length <= TYP_OFFSET + 1 || (bytes[offset + RTY_OFFSET] & 0xff) != 83) {
+			return false;
+		}
+		if (subtype >= 0) {
+			if ((bytes[offset + FLG_OFFSET] & SmfRecordBuffer.FLG_SUBTYPE_UTILIZED) == 0
+					|| getShort(bytes, offset + TYP_OFFSET) != subtype) {
+				return false;
+			}
+		}
+		index.rebind(bytes, offset, length);
+		int count = index.getSecurityCount();
+		for (int i = 0; i < count; i++) {
+			if (matchesSection(bytes, index.getSecurityOffset(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean matchesSection(byte[] bytes, int section) {
+		if (eventCodes != null && !eventCodes[bytes[section + EVT_OFFSET] & 0xff]) {
+			return false;
+		}
+		if (violationsOnly && (getShort(bytes, section + DES_OFFSET) & Smf83SecurityCursor.DES_VIOLATION) == 0) {
+			return false;
+		}
+		if (users != null && Arrays.binarySearch(users, getLong(bytes, section + USR_OFFSET)) < 0) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Answer a handler which passes the records which match this filter
+	 * to the given handler, and discards the others.
+	 */
+	public SmfRecordHandler filter(final SmfRecordHandler handler) {
+		return new SmfRecordHandler() {
+			public void handleRecord(SmfRecordBuffer record) throws Exception {
+				if (matches(record)) {
+					handler.handleRecord(record);
+				}
+			}
+		};
+	}
+
+	/** Answer the number of records which matched */
+	public long getAccepted() {
+		return accepted;
+	}
+
+	/** Answer the number of records which did not match */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/*
+	 * Answer a user id encoded, padded with blanks, as a long.
+	 */
+	private long encodeUser(String user) {
+		byte[] b;
+		byte blank;
+		try {
+			b = user.getBytes(encoding);
+			blank = " ".getBytes(encoding)[0];
+		} catch (UnsupportedEncodingException uee) {
+			throw new IllegalArgumentException("Unsupported encoding: " + encoding);
+		}
+		if (b.length > USER_LENGTH) {
+			throw new IllegalArgumentException("User id is longer than " + USER_LENGTH + " bytes: " + user);
+		}
+		byte[] padded = new byte[USER_LENGTH];
+		Arrays.fill(padded, blank);
+		System.arraycopy(b, 0, padded, 0, b.length);
+		return getLong(padded, 0);
+	}
+
+	private static int getShort(byte[] b, int off) {
+		return (b[off] & 0xff) << 8 | (b[off + 1] & 0xff);
+	}
+
+	private static long getLong(byte[] b, int off) {
+		long value = 0;
+		for (int i = 0; i < 8; i++) {
+			value = value << 8 | (b[off + i] & 0xff);
+		}
+		return value;
+	}
+}
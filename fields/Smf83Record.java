@@ -26,6 +26,7 @@ package com.ibm.jzos.sample.fields;
  *
  * @see Smf83Product
  * @see Smf83Security 
+ * @see Smf83RecordCursor Smf83RecordCursor for a reusable view that scans many records without allocation
  * @since 2.1.0
  */
 public class Smf83Record extends Smf83BaseRecord {
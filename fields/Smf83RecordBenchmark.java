@@ -0,0 +1,185 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Sample program that compares two ways of reading the fields of SMF 83 records:
+ * <ul>
+ * <li>record: map each record with a new {@link Smf83Record}, and each of its
+ *     security sections with a new {@link Smf83Security}, and call their getters</li>
+ * <li>cursor: rebind a {@link Smf83RecordCursor} and a {@link Smf83SecurityCursor} 
+ *     to each record and section, and call their getters</li>
+ * </ul>
+ * Each method reads five fields from the base section and five fields from
+ * each of three security sections of every record, and reads each field twice,
+ * as is common when a field is both tested and reported.
+ * The records are generated in memory, so this program can be run on any platform.
+ * After a warmup, each method is timed over several iterations and the
+ * best time per field is reported, with the number of bytes allocated per record
+ * where the JVM's ThreadMXBean can answer it.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.fields.Smf83RecordBenchmark [numrecs]</code>
+ * <br/>The default is 100000 records.
+ *
+ * @see Smf83BaseRecord
+ * @see Smf83RecordCursor
+ * @since 2.3.0
+ */
+public class Smf83RecordBenchmark {
+
+	static final int WARMUP = 5;
+	static final int ITERATIONS = 10;
+	static final int SECTIONS = 3;
+	static final int FIELDS_PER_RECORD = 2 * (5 + 5 * SECTIONS);
+
+	static final int BASE_LENGTH = Smf83BaseRecord.factory.getOffset();
+	static final int SECTION_LENGTH = Smf83Security.factory.getOffset();
+	static final int RECORD_LENGTH = BASE_LENGTH + SECTIONS * SECTION_LENGTH;
+
+	public static void main(String[] args) throws Exception {
+		int numrecs = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		byte[] records = generate(numrecs);
+		System.out.println("records=" + numrecs + " length=" + RECORD_LENGTH
+							+ " fields/record=" + FIELDS_PER_RECORD);
+
+		String[] names = { "record", "cursor" };
+		for (int method = 0; method < names.length; method++) {
+			long best = Long.MAX_VALUE;
+			long allocated = -1;
+			long sum = 0;
+			for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+				long bytesBefore = allocatedBytes();
+				long start = System.nanoTime();
+				if (method == 0) {
+					sum = readRecords(records);
+				} else {
+					sum = readCursors(records);
+				}
+				long time = System.nanoTime() - start;
+				long bytesAfter = allocatedBytes();
+				if (i >= WARMUP && time < best) {
+					best = time;
+					allocated = bytesBefore < 0 ? -1 : bytesAfter - bytesBefore;
+				}
+			}
+			System.out.println(names[method]
+								+ ": ns/field=" + (Math.round(100.0 * best / numrecs / FIELDS_PER_RECORD) / 100.0)
+								+ " bytes/record=" + (allocated < 0 ? "n/a" : String.valueOf(allocated / numrecs))
+								+ " sum=" + sum);
+		}
+	}
+
+	/*
+	 * Read the fields with new record and section objects for each record.
+	 */
+	static long readRecords(byte[] records) {
+		long sum = 0;
+		byte[] bytes = new byte[RECORD_LENGTH];
+		for (int off = 0; off + RECORD_LENGTH <= records.length; off += RECORD_LENGTH) {
+			System.arraycopy(records, off, bytes, 0, RECORD_LENGTH);
+			Smf83Record record = new Smf83Record(bytes);
+			for (int pass = 0; pass < 2; pass++) {
+				sum += record.getSmf83len() + record.getSmf83rty() + record.getSmf83tme()
+						+ record.getSmf83dte() + record.getSmf83typ();
+			}
+			for (int i = 0; i < SECTIONS; i++) {
+				Smf83Security section = record.getSecuritySection(i);
+				for (int pass = 0; pass < 2; pass++) {
+					sum += section.getSmf83des() + section.getSmf83evt() + section.getSmf83evq()
+							+ section.getSmf83rea() + section.getSmf83cnt();
+				}
+			}
+		}
+		return sum;
+	}
+
+	/*
+	 * Read the fields with a cursor rebound to each record and section.
+	 */
+	static long readCursors(byte[] records) {
+		long sum = 0;
+		Smf83RecordCursor record = new Smf83RecordCursor();
+		Smf83SecurityCursor section = new Smf83SecurityCursor();
+		for (int off = 0; off + RECORD_LENGTH <= records.length; off += RECORD_LENGTH) {
+			record.rebind(records, off);
+			for (int pass = 0; pass < 2; pass++) {
+				sum += record.getSmf83len() + record.getSmf83rty() + record.getSmf83tme()
+						+ record.getSmf83dte() + record.getSmf83typ();
+			}
+			for (int i = 0; i < SECTIONS; i++) {
+				record.positionSecuritySection(section, i);
+				for (int pass = 0; pass < 2; pass++) {
+					sum += section.getSmf83des() + section.getSmf83evt() + section.getSmf83evq()
+							+ section.getSmf83rea() + section.getSmf83cnt();
+				}
+			}
+		}
+		return sum;
+	}
+
+	/*
+	 * Generate SMF 83 records, each with three security sections.
+	 */
+	static byte[] generate(int numrecs) {
+		byte[] records = new byte[numrecs * RECORD_LENGTH];
+		byte[] bytes = new byte[RECORD_LENGTH];
+		for (int n = 0; n < numrecs; n++) {
+			Smf83Record record = new Smf83Record(bytes);
+			record.setSmf83len(RECORD_LENGTH);
+			record.setSmf83flg(0x40);
+			record.setSmf83rty(83);
+			record.setSmf83tme(n * 10L);
+			record.setSmf83dte(0x0109001F);
+			record.setSmf83typ(1);
+			record.setSmf83od1(BASE_LENGTH);
+			record.setSmf83ld1(SECTION_LENGTH);
+			record.setSmf83nd1(SECTIONS);
+			for (int i = 0; i < SECTIONS; i++) {
+				Smf83Security section = new Smf83Security(bytes, BASE_LENGTH + i * SECTION_LENGTH);
+				section.setSmf83des(i == 0 && n % 7 == 0 ? Smf83SecurityCursor.DES_VIOLATION : 0);
+				section.setSmf83evt(1 + (n + i) % 8);
+				section.setSmf83evq(i);
+				section.setSmf83rea(n % 3);
+				section.setSmf83cnt(i + 1);
+			}
+			System.arraycopy(bytes, 0, records, n * RECORD_LENGTH, RECORD_LENGTH);
+		}
+		return records;
+	}
+
+	/*
+	 * Answer the number of bytes allocated by the current thread, or -1
+	 * if the ThreadMXBean of this JVM does not support it.
+	 */
+	static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		try {
+			Class beanClass = Class.forName("com.sun.management.ThreadMXBean");
+			Method method = beanClass.getMethod("getThreadAllocatedBytes", new Class[] { long.class });
+			Long bytes = (Long)method.invoke(bean, new Object[] { new Long(Thread.currentThread().getId()) });
+			return bytes.longValue();
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,317 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+/**
+ * A reusable, flyweight view of the base section of SMF record 83 
+ * (RACF Security information), which can be repositioned over any buffer.
+ * <p/>
+ * Where a {@link Smf83Record} is constructed for each record, caches 
+ * each field that is read in a boxed Integer or Long, and allocates a new 
+ * section object on each call to <code>getSecuritySection</code>, a cursor 
+ * is constructed once and {@link #rebind(byte[], int) rebound} to each record.
+ * Its getters answer primitives decoded directly from the buffer on each
+ * call, at offsets taken once from the field definitions of {@link Smf83BaseRecord}
+ * rather than through a field lookup on each call, so that a scan of many 
+ * records creates no garbage for numeric fields:
+ * <pre>
+ * Smf83RecordCursor record = new Smf83RecordCursor();
+ * Smf83SecurityCursor section = new Smf83SecurityCursor();
+ * while ((len = reader.read(buf)) &gt;= 0) {
+ *     record.rebind(buf, 0);
+ *     for (int i = 0; i &lt; record.getSecuritySectionCount(); i++) {
+ *         record.positionSecuritySection(section, i);
+ *         if (section.isViolation()) {
+ *             ...
+ *         }
+ *     }
+ * }
+ * </pre>
+ * The offsets of the sections are found once per record, by a
+ * {@link Smf83TripletIndex}, when a section is first requested.
+ * Character fields are answered as Strings, decoded by a {@link FixedStringCodec},
+ * which are allocated on each call.
+ * The Product/Subsystem section has only character fields, so it is not given
+ * a cursor: use {@link #getProductSectionOffset(int)} with {@link Smf83Product}.
+ * <p/>
+ * A cursor is not thread-safe, and answers values from whatever is in its 
+ * buffer at the time of the call.
+ *
+ * @see Smf83SecurityCursor
+ * @see Smf83Record
+ * @since 2.3.0
+ */
+public class Smf83RecordCursor {
+
+	private static final FixedStringCodec codec = FixedStringCodec.getDefault();
+
+	// Offsets of the numeric fields, looked up once rather than on each call
+	private static final int SMF83LEN_OFFSET = Smf83BaseRecord.SMF83LEN.getOffset();
+	private static final int SMF83SEG_OFFSET = Smf83BaseRecord.SMF83SEG.getOffset();
+	private static final int SMF83FLG_OFFSET = Smf83BaseRecord.SMF83FLG.getOffset();
+	private static final int SMF83RTY_OFFSET = Smf83BaseRecord.SMF83RTY.getOffset();
+	private static final int SMF83TME_OFFSET = Smf83BaseRecord.SMF83TME.getOffset();
+	private static final int SMF83DTE_OFFSET = Smf83BaseRecord.SMF83DTE.getOffset();
+	private static final int SMF83TYP_OFFSET = Smf83BaseRecord.SMF83TYP.getOffset();
+	private static final int SMF83TRP_OFFSET = Smf83BaseRecord.SMF83TRP.getOffset();
+	private static final int SMF83OPD_OFFSET = Smf83BaseRecord.SMF83OPD.getOffset();
+	private static final int SMF83LPD_OFFSET = Smf83BaseRecord.SMF83LPD.getOffset();
+	private static final int SMF83NPD_OFFSET = Smf83BaseRecord.SMF83NPD.getOffset();
+	private static final int SMF83OD1_OFFSET = Smf83BaseRecord.SMF83OD1.getOffset();
+	private static final int SMF83LD1_OFFSET = Smf83BaseRecord.SMF83LD1.getOffset();
+	private static final int SMF83ND1_OFFSET = Smf83BaseRecord.SMF83ND1.getOffset();
+	private static final int SMF83OD2_OFFSET = Smf83BaseRecord.SMF83OD2.getOffset();
+	private static final int SMF83LD2_OFFSET = Smf83BaseRecord.SMF83LD2.getOffset();
+	private static final int SMF83ND2_OFFSET = Smf83BaseRecord.SMF83ND2.getOffset();
+	private static final int SMF83DTE_LENGTH = Smf83BaseRecord.SMF83DTE.getByteLength();
+
+	private byte[] bytes;
+	private int offset;
+	private Smf83TripletIndex sections = new Smf83TripletIndex();
+
+	/**
+	 * Construct a cursor that is not yet bound to a record.
+	 */
+	public Smf83RecordCursor() {
+	}
+
+	/**
+	 * Construct a cursor bound to the record at the start of the given buffer.
+	 */
+	public Smf83RecordCursor(byte[] buffer) {
+		rebind(buffer, 0);
+	}
+
+	/**
+	 * Reposition this cursor over the record that starts (with its RDW)
+	 * at the given offset in the given buffer.
+	 * @return this cursor
+	 */
+	public Smf83RecordCursor rebind(byte[] buffer, int offset) {
+		return rebind(buffer, offset, -1);
+	}
+
+	/**
+	 * Reposition this cursor over the record of the given length that starts
+	 * (with its RDW) at the given offset in the given buffer.  The length 
+	 * bounds the sections that are indexed, in place of SMF83LEN, which is 0
+	 * for records of more than 65535 bytes.
+	 * @param length the length of the record including its RDW, or -1 to 
+	 * take it from SMF83LEN
+	 * @return this cursor
+	 */
+	public Smf83RecordCursor rebind(byte[] buffer, int offset, int length) {
+		this.bytes = buffer;
+		this.offset = offset;
+		sections.rebind(buffer, offset, length);
+		return this;
+	}
+
+	/**
+	 * Reposition this cursor over the record held by the given buffer.
+	 * @return this cursor
+	 */
+	public Smf83RecordCursor rebind(SmfRecordBuffer buffer) {
+		return rebind(buffer.getBytes(), 0, buffer.getLength());
+	}
+
+	/**
+	 * Answer the index of the sections of the record.
+	 */
+	public Smf83TripletIndex getTripletIndex() {
+		return sections;
+	}
+
+	/**
+	 * Answer the buffer that this cursor is bound to.
+	 */
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Answer the offset of the record in the buffer.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Answer the number of Product/Subsystem sections (SMF83NPD), 
+	 * excluding any which lie outside the record.
+	 */
+	public int getProductSectionCount() {
+		return sections.getProductCount();
+	}
+
+	/**
+	 * Answer the offset in the buffer of a Product/Subsystem section, 
+	 * for use with {@link Smf83Product#Smf83Product(byte[], int)}.
+	 * @param index the 0-based index of the product section 
+	 * @throws IndexOutOfBoundsException
+	 */
+	public int getProductSectionOffset(int index) {
+		if (index < 0 || index >= sections.getProductCount()) {
+			throw new IndexOutOfBoundsException();
+		}
+		return sections.getProductOffset(index);
+	}
+
+	/**
+	 * Answer the number of Security sections (SMF83ND1),
+	 * excluding any which lie outside the record.
+	 */
+	public int getSecuritySectionCount() {
+		return sections.getSecurityCount();
+	}
+
+	/**
+	 * Answer the offset in the buffer of a Security section.
+	 * @param index the 0-based index of the security section 
+	 * @throws IndexOutOfBoundsException
+	 */
+	public int getSecuritySectionOffset(int index) {
+		if (index < 0 || index >= sections.getSecurityCount()) {
+			throw new IndexOutOfBoundsException();
+		}
+		return sections.getSecurityOffset(index);
+	}
+
+	/**
+	 * Reposition the given section cursor over one of the Security sections
+	 * of this record.
+	 * @param section the cursor to reposition
+	 * @param index the 0-based index of the security section 
+	 * @return the section cursor
+	 * @throws IndexOutOfBoundsException
+	 */
+	public Smf83SecurityCursor positionSecuritySection(Smf83SecurityCursor section, int index) {
+		return section.rebind(bytes, getSecuritySectionOffset(index));
+	}
+
+	/** SMF83LEN: record length */
+	public int getSmf83len() {
+		return getUnsignedShort(bytes, offset + SMF83LEN_OFFSET);
+	}
+
+	/** SMF83SEG: segment descriptor */
+	public int getSmf83seg() {
+		return getUnsignedShort(bytes, offset + SMF83SEG_OFFSET);
+	}
+
+	/** SMF83FLG: system indicator */
+	public int getSmf83flg() {
+		return bytes[offset + SMF83FLG_OFFSET] & 0xff;
+	}
+
+	/** SMF83RTY: record type (83) */
+	public int getSmf83rty() {
+		return bytes[offset + SMF83RTY_OFFSET] & 0xff;
+	}
+
+	/** SMF83TME: time, in hundredths of a second since midnight */
+	public long getSmf83tme() {
+		return getUnsignedInt(bytes, offset + SMF83TME_OFFSET);
+	}
+
+	/** SMF83DTE: date, in the form 0CYYDDDF */
+	public int getSmf83dte() {
+		return (int)DecimalCodec.getPacked(bytes, offset + SMF83DTE_OFFSET, SMF83DTE_LENGTH);
+	}
+
+	/** SMF83SID: system identification (allocates a String) */
+	public String getSmf83sid() {
+		return codec.getString(Smf83BaseRecord.SMF83SID, bytes, offset);
+	}
+
+	/** SMF83SSI: subsystem identification (allocates a String) */
+	public String getSmf83ssi() {
+		return codec.getString(Smf83BaseRecord.SMF83SSI, bytes, offset);
+	}
+
+	/** SMF83TYP: record subtype */
+	public int getSmf83typ() {
+		return getUnsignedShort(bytes, offset + SMF83TYP_OFFSET);
+	}
+
+	/** SMF83TRP: number of triplets */
+	public int getSmf83trp() {
+		return getUnsignedShort(bytes, offset + SMF83TRP_OFFSET);
+	}
+
+	/** SMF83OPD: offset to product section */
+	public long getSmf83opd() {
+		return getUnsignedInt(bytes, offset + SMF83OPD_OFFSET);
+	}
+
+	/** SMF83LPD: length of product section */
+	public int getSmf83lpd() {
+		return getUnsignedShort(bytes, offset + SMF83LPD_OFFSET);
+	}
+
+	/** SMF83NPD: number of product sections */
+	public int getSmf83npd() {
+		return getUnsignedShort(bytes, offset + SMF83NPD_OFFSET);
+	}
+
+	/** SMF83OD1: offset to security section */
+	public long getSmf83od1() {
+		return getUnsignedInt(bytes, offset + SMF83OD1_OFFSET);
+	}
+
+	/** SMF83LD1: length of security section */
+	public int getSmf83ld1() {
+		return getUnsignedShort(bytes, offset + SMF83LD1_OFFSET);
+	}
+
+	/** SMF83ND1: number of security sections */
+	public int getSmf83nd1() {
+		return getUnsignedShort(bytes, offset + SMF83ND1_OFFSET);
+	}
+
+	/** SMF83OD2: offset to relocate section */
+	public long getSmf83od2() {
+		return getUnsignedInt(bytes, offset + SMF83OD2_OFFSET);
+	}
+
+	/** SMF83LD2: length of relocate section */
+	public int getSmf83ld2() {
+		return getUnsignedShort(bytes, offset + SMF83LD2_OFFSET);
+	}
+
+	/** SMF83ND2: number of relocate sections */
+	public int getSmf83nd2() {
+		return getUnsignedShort(bytes, offset + SMF83ND2_OFFSET);
+	}
+
+	/**
+	 * Answer the big-endian unsigned 2-byte integer at the given offset.
+	 */
+	static int getUnsignedShort(byte[] b, int off) {
+		return (b[off] & 0xff) << 8 | (b[off + 1] & 0xff);
+	}
+
+	/**
+	 * Answer the big-endian unsigned 4-byte integer at the given offset.
+	 */
+	static long getUnsignedInt(byte[] b, int off) {
+		return ((long)(b[off] & 0xff) << 24 | (b[off + 1] & 0xff) << 16 
+				| (b[off + 2] & 0xff) << 8 | (b[off + 3] & 0xff)) & 0xffffffffL;
+	}
+}
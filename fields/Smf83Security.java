@@ -19,11 +19,12 @@
 package com.ibm.jzos.sample.fields;
 import com.ibm.jzos.fields.*;
 
-// Generated by com.ibm.jzos.recordgen.asm.RecordClassGenerator on: Tue Jul 17 11:59:33 EDT 2007
+// Originally generated by com.ibm.jzos.recordgen.asm.RecordClassGenerator on: Tue Jul 17 11:59:33 EDT 2007
+// Hand-maintained since 2.3.0: see the class description
 
 /** 
  * Maps a Security section of SMF record 83 (RACF Security information).
- * This code (excluding these notes) was generated using 
+ * This code (excluding these notes) was originally generated using 
  * <code>com.ibm.jzos.recordgen.asm.RecordClassGenerator</code> using the following JCL:
  * <pre><code>
 //ASSEMBLE EXEC ASMAC,PARM='ADATA,LIST,NOTERM,NODECK,NOOBJECT' 
@@ -47,6 +48,10 @@ com.ibm.jzos.recordgen.asm.RecordClassGenerator
 //STDENV DD * 
 ...
    </code></pre>
+ * <p/>
+ * Since then it has been maintained by hand, and caches its numeric fields 
+ * in primitive instance variables as {@link Smf83BaseRecord} does, so it
+ * should not be regenerated.
  * @see Smf83Record Smf83Record for a class that glues together the components of a SMF 83 record
  * @since 2.1.0
  */
@@ -211,31 +216,51 @@ public class Smf83Security {
 	protected byte[] bytes;
 	protected int bufOffset;
 
+	// Bits in loaded for the numeric fields which have been cached
+	private static final int LOADED_SMF83DF3 = 0x1;
+	private static final int LOADED_SMF83LNK = 0x2;
+	private static final int LOADED_SMF83DES = 0x4;
+	private static final int LOADED_SMF83EVT = 0x8;
+	private static final int LOADED_SMF83EVQ = 0x10;
+	private static final int LOADED_SMF83REL = 0x20;
+	private static final int LOADED_SMF83CNT = 0x40;
+	private static final int LOADED_SMF83ATH = 0x80;
+	private static final int LOADED_SMF83REA = 0x100;
+	private static final int LOADED_SMF83TLV = 0x200;
+	private static final int LOADED_SMF83ERR = 0x400;
+	private static final int LOADED_SMF83RST = 0x800;
+	private static final int LOADED_SMF83RSD = 0x1000;
+	private static final int LOADED_SMF83VER = 0x2000;
+	private static final int LOADED_SMF83RE2 = 0x4000;
+	private static final int LOADED_SMF83AU2 = 0x8000;
+	private static final int LOADED_SMF83RSV = 0x10000;
+
 	// Instance variables used to cache field values 
-	private Long smf83df3;
-	private Long smf83lnk;
-	private Integer smf83des;
-	private Integer smf83evt;
-	private Integer smf83evq;
+	private int loaded;
+	private long smf83df3;
+	private long smf83lnk;
+	private int smf83des;
+	private int smf83evt;
+	private int smf83evq;
 	private String smf83usr;
 	private String smf83grp;
-	private Integer smf83rel;
-	private Integer smf83cnt;
-	private Integer smf83ath;
-	private Integer smf83rea;
-	private Integer smf83tlv;
-	private Integer smf83err;
+	private int smf83rel;
+	private int smf83cnt;
+	private int smf83ath;
+	private int smf83rea;
+	private int smf83tlv;
+	private int smf83err;
 	private String smf83trm;
 	private String smf83jbn;
-	private Long smf83rst;
-	private Integer smf83rsd;
+	private long smf83rst;
+	private int smf83rsd;
 	private String smf83uid;
-	private Integer smf83ver;
-	private Integer smf83re2;
+	private int smf83ver;
+	private int smf83re2;
 	private String smf83vrm;
 	private String smf83sec;
-	private Integer smf83au2;
-	private Integer smf83rsv;
+	private int smf83au2;
+	private int smf83rsv;
 	private String smf83us2;
 	private String smf83gr2;
 
@@ -247,73 +272,83 @@ public class Smf83Security {
 
 
 	public long getSmf83df3() {
-		if (smf83df3 == null) {
-			smf83df3 = new Long(SMF83DF3.getLong(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83DF3) == 0) {
+			smf83df3 = SMF83DF3.getLong(bytes, bufOffset);
+			loaded |= LOADED_SMF83DF3;
 		}
-		return smf83df3.longValue();
+		return smf83df3;
 	}
 
 	public void setSmf83df3(long smf83df3) {
-		if (SMF83DF3.equals(this.smf83df3, smf83df3))
+		if ((loaded & LOADED_SMF83DF3) != 0 && this.smf83df3 == smf83df3)
 			return;
 		SMF83DF3.putLong(smf83df3, bytes, bufOffset);
-		this.smf83df3 = new Long(smf83df3);
+		this.smf83df3 = smf83df3;
+		loaded |= LOADED_SMF83DF3;
 	}
 
 	public long getSmf83lnk() {
-		if (smf83lnk == null) {
-			smf83lnk = new Long(SMF83LNK.getLong(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83LNK) == 0) {
+			smf83lnk = SMF83LNK.getLong(bytes, bufOffset);
+			loaded |= LOADED_SMF83LNK;
 		}
-		return smf83lnk.longValue();
+		return smf83lnk;
 	}
 
 	public void setSmf83lnk(long smf83lnk) {
-		if (SMF83LNK.equals(this.smf83lnk, smf83lnk))
+		if ((loaded & LOADED_SMF83LNK) != 0 && this.smf83lnk == smf83lnk)
 			return;
 		SMF83LNK.putLong(smf83lnk, bytes, bufOffset);
-		this.smf83lnk = new Long(smf83lnk);
+		this.smf83lnk = smf83lnk;
+		loaded |= LOADED_SMF83LNK;
 	}
 
 	public int getSmf83des() {
-		if (smf83des == null) {
-			smf83des = new Integer(SMF83DES.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83DES) == 0) {
+			smf83des = SMF83DES.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83DES;
 		}
-		return smf83des.intValue();
+		return smf83des;
 	}
 
 	public void setSmf83des(int smf83des) {
-		if (SMF83DES.equals(this.smf83des, smf83des))
+		if ((loaded & LOADED_SMF83DES) != 0 && this.smf83des == smf83des)
 			return;
 		SMF83DES.putInt(smf83des, bytes, bufOffset);
-		this.smf83des = new Integer(smf83des);
+		this.smf83des = smf83des;
+		loaded |= LOADED_SMF83DES;
 	}
 
 	public int getSmf83evt() {
-		if (smf83evt == null) {
-			smf83evt = new Integer(SMF83EVT.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83EVT) == 0) {
+			smf83evt = SMF83EVT.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83EVT;
 		}
-		return smf83evt.intValue();
+		return smf83evt;
 	}
 
 	public void setSmf83evt(int smf83evt) {
-		if (SMF83EVT.equals(this.smf83evt, smf83evt))
+		if ((loaded & LOADED_SMF83EVT) != 0 && this.smf83evt == smf83evt)
 			return;
 		SMF83EVT.putInt(smf83evt, bytes, bufOffset);
-		this.smf83evt = new Integer(smf83evt);
+		this.smf83evt = smf83evt;
+		loaded |= LOADED_SMF83EVT;
 	}
 
 	public int getSmf83evq() {
-		if (smf83evq == null) {
-			smf83evq = new Integer(SMF83EVQ.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83EVQ) == 0) {
+			smf83evq = SMF83EVQ.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83EVQ;
 		}
-		return smf83evq.intValue();
+		return smf83evq;
 	}
 
 	public void setSmf83evq(int smf83evq) {
-		if (SMF83EVQ.equals(this.smf83evq, smf83evq))
+		if ((loaded & LOADED_SMF83EVQ) != 0 && this.smf83evq == smf83evq)
 			return;
 		SMF83EVQ.putInt(smf83evq, bytes, bufOffset);
-		this.smf83evq = new Integer(smf83evq);
+		this.smf83evq = smf83evq;
+		loaded |= LOADED_SMF83EVQ;
 	}
 
 	public String getSmf83usr() {
@@ -345,87 +380,99 @@ public class Smf83Security {
 	}
 
 	public int getSmf83rel() {
-		if (smf83rel == null) {
-			smf83rel = new Integer(SMF83REL.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83REL) == 0) {
+			smf83rel = SMF83REL.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83REL;
 		}
-		return smf83rel.intValue();
+		return smf83rel;
 	}
 
 	public void setSmf83rel(int smf83rel) {
-		if (SMF83REL.equals(this.smf83rel, smf83rel))
+		if ((loaded & LOADED_SMF83REL) != 0 && this.smf83rel == smf83rel)
 			return;
 		SMF83REL.putInt(smf83rel, bytes, bufOffset);
-		this.smf83rel = new Integer(smf83rel);
+		this.smf83rel = smf83rel;
+		loaded |= LOADED_SMF83REL;
 	}
 
 	public int getSmf83cnt() {
-		if (smf83cnt == null) {
-			smf83cnt = new Integer(SMF83CNT.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83CNT) == 0) {
+			smf83cnt = SMF83CNT.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83CNT;
 		}
-		return smf83cnt.intValue();
+		return smf83cnt;
 	}
 
 	public void setSmf83cnt(int smf83cnt) {
-		if (SMF83CNT.equals(this.smf83cnt, smf83cnt))
+		if ((loaded & LOADED_SMF83CNT) != 0 && this.smf83cnt == smf83cnt)
 			return;
 		SMF83CNT.putInt(smf83cnt, bytes, bufOffset);
-		this.smf83cnt = new Integer(smf83cnt);
+		this.smf83cnt = smf83cnt;
+		loaded |= LOADED_SMF83CNT;
 	}
 
 	public int getSmf83ath() {
-		if (smf83ath == null) {
-			smf83ath = new Integer(SMF83ATH.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83ATH) == 0) {
+			smf83ath = SMF83ATH.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83ATH;
 		}
-		return smf83ath.intValue();
+		return smf83ath;
 	}
 
 	public void setSmf83ath(int smf83ath) {
-		if (SMF83ATH.equals(this.smf83ath, smf83ath))
+		if ((loaded & LOADED_SMF83ATH) != 0 && this.smf83ath == smf83ath)
 			return;
 		SMF83ATH.putInt(smf83ath, bytes, bufOffset);
-		this.smf83ath = new Integer(smf83ath);
+		this.smf83ath = smf83ath;
+		loaded |= LOADED_SMF83ATH;
 	}
 
 	public int getSmf83rea() {
-		if (smf83rea == null) {
-			smf83rea = new Integer(SMF83REA.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83REA) == 0) {
+			smf83rea = SMF83REA.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83REA;
 		}
-		return smf83rea.intValue();
+		return smf83rea;
 	}
 
 	public void setSmf83rea(int smf83rea) {
-		if (SMF83REA.equals(this.smf83rea, smf83rea))
+		if ((loaded & LOADED_SMF83REA) != 0 && this.smf83rea == smf83rea)
 			return;
 		SMF83REA.putInt(smf83rea, bytes, bufOffset);
-		this.smf83rea = new Integer(smf83rea);
+		this.smf83rea = smf83rea;
+		loaded |= LOADED_SMF83REA;
 	}
 
 	public int getSmf83tlv() {
-		if (smf83tlv == null) {
-			smf83tlv = new Integer(SMF83TLV.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83TLV) == 0) {
+			smf83tlv = SMF83TLV.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83TLV;
 		}
-		return smf83tlv.intValue();
+		return smf83tlv;
 	}
 
 	public void setSmf83tlv(int smf83tlv) {
-		if (SMF83TLV.equals(this.smf83tlv, smf83tlv))
+		if ((loaded & LOADED_SMF83TLV) != 0 && this.smf83tlv == smf83tlv)
 			return;
 		SMF83TLV.putInt(smf83tlv, bytes, bufOffset);
-		this.smf83tlv = new Integer(smf83tlv);
+		this.smf83tlv = smf83tlv;
+		loaded |= LOADED_SMF83TLV;
 	}
 
 	public int getSmf83err() {
-		if (smf83err == null) {
-			smf83err = new Integer(SMF83ERR.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83ERR) == 0) {
+			smf83err = SMF83ERR.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83ERR;
 		}
-		return smf83err.intValue();
+		return smf83err;
 	}
 
 	public void setSmf83err(int smf83err) {
-		if (SMF83ERR.equals(this.smf83err, smf83err))
+		if ((loaded & LOADED_SMF83ERR) != 0 && this.smf83err == smf83err)
 			return;
 		SMF83ERR.putInt(smf83err, bytes, bufOffset);
-		this.smf83err = new Integer(smf83err);
+		this.smf83err = smf83err;
+		loaded |= LOADED_SMF83ERR;
 	}
 
 	public String getSmf83trm() {
@@ -457,31 +504,35 @@ public class Smf83Security {
 	}
 
 	public long getSmf83rst() {
-		if (smf83rst == null) {
-			smf83rst = new Long(SMF83RST.getLong(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83RST) == 0) {
+			smf83rst = SMF83RST.getLong(bytes, bufOffset);
+			loaded |= LOADED_SMF83RST;
 		}
-		return smf83rst.longValue();
+		return smf83rst;
 	}
 
 	public void setSmf83rst(long smf83rst) {
-		if (SMF83RST.equals(this.smf83rst, smf83rst))
+		if ((loaded & LOADED_SMF83RST) != 0 && this.smf83rst == smf83rst)
 			return;
 		SMF83RST.putLong(smf83rst, bytes, bufOffset);
-		this.smf83rst = new Long(smf83rst);
+		this.smf83rst = smf83rst;
+		loaded |= LOADED_SMF83RST;
 	}
 
 	public int getSmf83rsd() {
-		if (smf83rsd == null) {
-			smf83rsd = new Integer(SMF83RSD.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83RSD) == 0) {
+			smf83rsd = SMF83RSD.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83RSD;
 		}
-		return smf83rsd.intValue();
+		return smf83rsd;
 	}
 
 	public void setSmf83rsd(int smf83rsd) {
-		if (SMF83RSD.equals(this.smf83rsd, smf83rsd))
+		if ((loaded & LOADED_SMF83RSD) != 0 && this.smf83rsd == smf83rsd)
 			return;
 		SMF83RSD.putInt(smf83rsd, bytes, bufOffset);
-		this.smf83rsd = new Integer(smf83rsd);
+		this.smf83rsd = smf83rsd;
+		loaded |= LOADED_SMF83RSD;
 	}
 
 	public String getSmf83uid() {
@@ -499,31 +550,35 @@ public class Smf83Security {
 	}
 
 	public int getSmf83ver() {
-		if (smf83ver == null) {
-			smf83ver = new Integer(SMF83VER.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83VER) == 0) {
+			smf83ver = SMF83VER.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83VER;
 		}
-		return smf83ver.intValue();
+		return smf83ver;
 	}
 
 	public void setSmf83ver(int smf83ver) {
-		if (SMF83VER.equals(this.smf83ver, smf83ver))
+		if ((loaded & LOADED_SMF83VER) != 0 && this.smf83ver == smf83ver)
 			return;
 		SMF83VER.putInt(smf83ver, bytes, bufOffset);
-		this.smf83ver = new Integer(smf83ver);
+		this.smf83ver = smf83ver;
+		loaded |= LOADED_SMF83VER;
 	}
 
 	public int getSmf83re2() {
-		if (smf83re2 == null) {
-			smf83re2 = new Integer(SMF83RE2.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83RE2) == 0) {
+			smf83re2 = SMF83RE2.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83RE2;
 		}
-		return smf83re2.intValue();
+		return smf83re2;
 	}
 
 	public void setSmf83re2(int smf83re2) {
-		if (SMF83RE2.equals(this.smf83re2, smf83re2))
+		if ((loaded & LOADED_SMF83RE2) != 0 && this.smf83re2 == smf83re2)
 			return;
 		SMF83RE2.putInt(smf83re2, bytes, bufOffset);
-		this.smf83re2 = new Integer(smf83re2);
+		this.smf83re2 = smf83re2;
+		loaded |= LOADED_SMF83RE2;
 	}
 
 	public String getSmf83vrm() {
@@ -555,31 +610,35 @@ public class Smf83Security {
 	}
 
 	public int getSmf83au2() {
-		if (smf83au2 == null) {
-			smf83au2 = new Integer(SMF83AU2.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83AU2) == 0) {
+			smf83au2 = SMF83AU2.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83AU2;
 		}
-		return smf83au2.intValue();
+		return smf83au2;
 	}
 
 	public void setSmf83au2(int smf83au2) {
-		if (SMF83AU2.equals(this.smf83au2, smf83au2))
+		if ((loaded & LOADED_SMF83AU2) != 0 && this.smf83au2 == smf83au2)
 			return;
 		SMF83AU2.putInt(smf83au2, bytes, bufOffset);
-		this.smf83au2 = new Integer(smf83au2);
+		this.smf83au2 = smf83au2;
+		loaded |= LOADED_SMF83AU2;
 	}
 
 	public int getSmf83rsv() {
-		if (smf83rsv == null) {
-			smf83rsv = new Integer(SMF83RSV.getInt(bytes, bufOffset));
+		if ((loaded & LOADED_SMF83RSV) == 0) {
+			smf83rsv = SMF83RSV.getInt(bytes, bufOffset);
+			loaded |= LOADED_SMF83RSV;
 		}
-		return smf83rsv.intValue();
+		return smf83rsv;
 	}
 
 	public void setSmf83rsv(int smf83rsv) {
-		if (SMF83RSV.equals(this.smf83rsv, smf83rsv))
+		if ((loaded & LOADED_SMF83RSV) != 0 && this.smf83rsv == smf83rsv)
 			return;
 		SMF83RSV.putInt(smf83rsv, bytes, bufOffset);
-		this.smf83rsv = new Integer(smf83rsv);
+		this.smf83rsv = smf83rsv;
+		loaded |= LOADED_SMF83RSV;
 	}
 
 	public String getSmf83us2() {
@@ -0,0 +1,243 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+/**
+ * A reusable, flyweight view of a Security section of SMF record 83 
+ * (RACF Security information), which can be repositioned over any buffer.
+ * <p/>
+ * A section cursor is normally positioned by 
+ * {@link Smf83RecordCursor#positionSecuritySection(Smf83SecurityCursor, int)}.
+ * Its getters answer primitives decoded directly from the buffer on each call,
+ * at offsets taken once from the field definitions of {@link Smf83Security}.  
+ * Character fields 
+ * are answered as Strings, decoded by a {@link FixedStringCodec}, which are 
+ * allocated on each call; {@link #isSmf83usr(byte[])} compares the user id
+ * without decoding it.
+ *
+ * @see Smf83RecordCursor
+ * @see Smf83Security
+ * @since 2.3.0
+ */
+public class Smf83SecurityCursor {
+
+	/** SMF83DES bit 0: this event is a violation */
+	public static final int DES_VIOLATION = 0x8000;
+
+	/** SMF83DES bit 1: user not defined to RACF */
+	public static final int DES_UNDEFINED_USER = 0x4000;
+
+	/** SMF83DES bit 3: this event is a warning */
+	public static final int DES_WARNING = 0x1000;
+
+	private static final FixedStringCodec codec = FixedStringCodec.getDefault();
+
+	// Offsets of the numeric fields, looked up once rather than on each call
+	private static final int SMF83LNK_OFFSET = Smf83Security.SMF83LNK.getOffset();
+	private static final int SMF83DES_OFFSET = Smf83Security.SMF83DES.getOffset();
+	private static final int SMF83EVT_OFFSET = Smf83Security.SMF83EVT.getOffset();
+	private static final int SMF83EVQ_OFFSET = Smf83Security.SMF83EVQ.getOffset();
+	private static final int SMF83REL_OFFSET = Smf83Security.SMF83REL.getOffset();
+	private static final int SMF83CNT_OFFSET = Smf83Security.SMF83CNT.getOffset();
+	private static final int SMF83ATH_OFFSET = Smf83Security.SMF83ATH.getOffset();
+	private static final int SMF83REA_OFFSET = Smf83Security.SMF83REA.getOffset();
+	private static final int SMF83TLV_OFFSET = Smf83Security.SMF83TLV.getOffset();
+	private static final int SMF83ERR_OFFSET = Smf83Security.SMF83ERR.getOffset();
+	private static final int SMF83RST_OFFSET = Smf83Security.SMF83RST.getOffset();
+	private static final int SMF83RSD_OFFSET = Smf83Security.SMF83RSD.getOffset();
+	private static final int SMF83VER_OFFSET = Smf83Security.SMF83VER.getOffset();
+	private static final int SMF83RE2_OFFSET = Smf83Security.SMF83RE2.getOffset();
+	private static final int SMF83AU2_OFFSET = Smf83Security.SMF83AU2.getOffset();
+	private static final int SMF83RSD_LENGTH = Smf83Security.SMF83RSD.getByteLength();
+
+	private byte[] bytes;
+	private int offset;
+
+	/**
+	 * Construct a cursor that is not yet bound to a section.
+	 */
+	public Smf83SecurityCursor() {
+	}
+
+	/**
+	 * Reposition this cursor over the section at the given offset in the given buffer.
+	 * @return this cursor
+	 */
+	public Smf83SecurityCursor rebind(byte[] buffer, int offset) {
+		this.bytes = buffer;
+		this.offset = offset;
+		return this;
+	}
+
+	/**
+	 * Answer the buffer that this cursor is bound to.
+	 */
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Answer the offset of the section in the buffer.
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Answer true if this event is a violation (SMF83DES bit 0).
+	 */
+	public boolean isViolation() {
+		return (getSmf83des() & DES_VIOLATION) != 0;
+	}
+
+	/**
+	 * Answer true if this event is a warning (SMF83DES bit 3).
+	 */
+	public boolean isWarning() {
+		return (getSmf83des() & DES_WARNING) != 0;
+	}
+
+	/** SMF83LNK: link value to connect data set names with the original RACF command */
+	public long getSmf83lnk() {
+		return Smf83RecordCursor.getUnsignedInt(bytes, offset + SMF83LNK_OFFSET);
+	}
+
+	/** SMF83DES: descriptor flags */
+	public int getSmf83des() {
+		return Smf83RecordCursor.getUnsignedShort(bytes, offset + SMF83DES_OFFSET);
+	}
+
+	/** SMF83EVT: event code */
+	public int getSmf83evt() {
+		return bytes[offset + SMF83EVT_OFFSET] & 0xff;
+	}
+
+	/** SMF83EVQ: event code qualifier */
+	public int getSmf83evq() {
+		return bytes[offset + SMF83EVQ_OFFSET] & 0xff;
+	}
+
+	/** SMF83USR: user id for which this event was recorded (allocates a String) */
+	public String getSmf83usr() {
+		return codec.getString(Smf83Security.SMF83USR, bytes, offset);
+	}
+
+	/**
+	 * Answer true if SMF83USR equals the given user id, without decoding it.
+	 * @param user a user id returned by {@link FixedStringCodec#encode(String, int)} with a length of 8
+	 */
+	public boolean isSmf83usr(byte[] user) {
+		return codec.equals(Smf83Security.SMF83USR, bytes, offset, user);
+	}
+
+	/** SMF83GRP: group to which the user was connected (allocates a String) */
+	public String getSmf83grp() {
+		return codec.getString(Smf83Security.SMF83GRP, bytes, offset);
+	}
+
+	/** SMF83REL: offset of the first relocate section from the beginning of the record header */
+	public int getSmf83rel() {
+		return Smf83RecordCursor.getUnsignedShort(bytes, offset + SMF83REL_OFFSET);
+	}
+
+	/** SMF83CNT: number of relocate sections */
+	public int getSmf83cnt() {
+		return Smf83RecordCursor.getUnsignedShort(bytes, offset + SMF83CNT_OFFSET);
+	}
+
+	/** SMF83ATH: special authorities used */
+	public int getSmf83ath() {
+		return bytes[offset + SMF83ATH_OFFSET] & 0xff;
+	}
+
+	/** SMF83REA: reason for logging */
+	public int getSmf83rea() {
+		return bytes[offset + SMF83REA_OFFSET] & 0xff;
+	}
+
+	/** SMF83TLV: terminal level number of foreground user */
+	public int getSmf83tlv() {
+		return bytes[offset + SMF83TLV_OFFSET] & 0xff;
+	}
+
+	/** SMF83ERR: command processing error flag */
+	public int getSmf83err() {
+		return bytes[offset + SMF83ERR_OFFSET] & 0xff;
+	}
+
+	/** SMF83TRM: terminal id of foreground user (allocates a String) */
+	public String getSmf83trm() {
+		return codec.getString(Smf83Security.SMF83TRM, bytes, offset);
+	}
+
+	/** SMF83JBN: job name (allocates a String) */
+	public String getSmf83jbn() {
+		return codec.getString(Smf83Security.SMF83JBN, bytes, offset);
+	}
+
+	/** SMF83RST: time reader recognized job card, in hundredths of seconds */
+	public long getSmf83rst() {
+		return Smf83RecordCursor.getUnsignedInt(bytes, offset + SMF83RST_OFFSET);
+	}
+
+	/** SMF83RSD: date reader recognized job card, in the form 00YYDDDF */
+	public int getSmf83rsd() {
+		return (int)DecimalCodec.getPacked(bytes, offset + SMF83RSD_OFFSET, SMF83RSD_LENGTH);
+	}
+
+	/** SMF83UID: user identification (allocates a String) */
+	public String getSmf83uid() {
+		return codec.getString(Smf83Security.SMF83UID, bytes, offset);
+	}
+
+	/** SMF83VER: version indicator from RCVT */
+	public int getSmf83ver() {
+		return bytes[offset + SMF83VER_OFFSET] & 0xff;
+	}
+
+	/** SMF83RE2: reason for logging continued */
+	public int getSmf83re2() {
+		return bytes[offset + SMF83RE2_OFFSET] & 0xff;
+	}
+
+	/** SMF83VRM: RACF version, release and modification number (allocates a String) */
+	public String getSmf83vrm() {
+		return codec.getString(Smf83Security.SMF83VRM, bytes, offset);
+	}
+
+	/** SMF83SEC: seclabel of user (allocates a String) */
+	public String getSmf83sec() {
+		return codec.getString(Smf83Security.SMF83SEC, bytes, offset);
+	}
+
+	/** SMF83AU2: authority used continued */
+	public int getSmf83au2() {
+		return bytes[offset + SMF83AU2_OFFSET] & 0xff;
+	}
+
+	/** SMF83US2: user id for the address space for which this event was recorded (allocates a String) */
+	public String getSmf83us2() {
+		return codec.getString(Smf83Security.SMF83US2, bytes, offset);
+	}
+
+	/** SMF83GR2: group to which the address space user was connected (allocates a String) */
+	public String getSmf83gr2() {
+		return codec.getString(Smf83Security.SMF83GR2, bytes, offset);
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+/**
+ * A reusable index of the sections of an SMF record 83, from the triplets
+ * (offset, length and number) of its self-defining section.
+ * <p/>
+ * The index is built lazily, on the first request after it is 
+ * {@link #rebind(byte[], int) rebound} to a record, in one pass over the triplets.
+ * Only sections which lie within the record length are indexed, 
+ * so that the offsets answered by the index have already been checked.
+ * The record length is the one given to {@link #rebind(byte[], int, int)}, 
+ * or else SMF83LEN; an SMF83LEN of 0, as is stored in the RDW of a 
+ * reassembled record of more than 65535 bytes, is taken to mean the rest 
+ * of the buffer.
+ * The arrays that hold the offsets grow as needed and are reused, so
+ * an index can be rebound to many records without allocation.
+ *
+ * @see Smf83RecordCursor
+ * @see Smf83Filter
+ * @since 2.3.0
+ */
+public class Smf83TripletIndex {
+
+	private static final int PRODUCT = 0;
+	private static final int SECURITY = 1;
+	private static final int RELOCATE = 2;
+
+	/** The offsets of the offset, length and number fields of each triplet */
+	private static final int[] OFFSET_OFFSETS = { 
+		Smf83BaseRecord.SMF83OPD.getOffset(), Smf83BaseRecord.SMF83OD1.getOffset(), 
+		Smf83BaseRecord.SMF83OD2.getOffset() 
+	};
+	private static final int[] LENGTH_OFFSETS = { 
+		Smf83BaseRecord.SMF83LPD.getOffset(), Smf83BaseRecord.SMF83LD1.getOffset(), 
+		Smf83BaseRecord.SMF83LD2.getOffset() 
+	};
+	private static final int[] NUMBER_OFFSETS = { 
+		Smf83BaseRecord.SMF83NPD.getOffset(), Smf83BaseRecord.SMF83ND1.getOffset(), 
+		Smf83BaseRecord.SMF83ND2.getOffset() 
+	};
+	private static final int LEN_OFFSET = Smf83BaseRecord.SMF83LEN.getOffset();
+
+	private byte[] bytes;
+	private int offset;
+	private int length;
+	private boolean indexed = false;
+	private boolean truncated = false;
+	private int[][] offsets = { new int[4], new int[4], new int[16] };
+	private int[] counts = new int[3];
+
+	/**
+	 * Reposition this index over the record that starts (with its RDW)
+	 * at the given offset in the given buffer.
+	 * @return this index
+	 */
+	public Smf83TripletIndex rebind(byte[] buffer, int offset) {
+		return rebind(buffer, offset, -1);
+	}
+
+	/**
+	 * Reposition this index over the record of the given length that starts 
+	 * (with its RDW) at the given offset in the given buffer.
+	 * @param length the length of the record including its RDW, or -1 to 
+	 * take it from SMF83LEN
+	 * @return this index
+	 */
+	public Smf83TripletIndex rebind(byte[] buffer, int offset, int length) {
+		this.bytes = buffer;
+		this.offset = offset;
+		this.length = length;
+		this.indexed = false;
+		return this;
+	}
+
+	/*
+	 * Build the index, if it has not been built since it was rebound.
+	 */
+	private void ensureIndexed() {
+		if (indexed) {
+			return;
+		}
+		int recordLength = length >= 0 ? length : Smf83RecordCursor.getUnsignedShort(bytes, offset + LEN_OFFSET);
+		if (recordLength == 0) {
+			recordLength = bytes.length - offset;
+		}
+		int end = offset + Math.min(recordLength, bytes.length - offset);
+		truncated = false;
+		for (int kind = PRODUCT; kind <= RELOCATE; kind++) {
+			indexSections(kind, end);
+		}
+		indexed = true;
+	}
+
+	/*
+	 * Index the sections described by one triplet.
+	 */
+	private void indexSections(int kind, int end) {
+		long first = Smf83RecordCursor.getUnsignedInt(bytes, offset + OFFSET_OFFSETS[kind]);
+		int length = Smf83RecordCursor.getUnsignedShort(bytes, offset + LENGTH_OFFSETS[kind]);
+		int number = Smf83RecordCursor.getUnsignedShort(bytes, offset + NUMBER_OFFSETS[kind]);
+		if (number > offsets[kind].length) {
+			offsets[kind] = new int[Math.max(number, offsets[kind].length * 2)];
+		}
+		int[] kindOffsets = offsets[kind];
+		int count = 0;
+		long pos = offset + first;
+		for (int i = 0; i < number; i++, pos += length) {
+			if (first <= 0 || pos + length > end) {
+				truncated = true;
+				break;
+			}
+			kindOffsets[count++] = (int)pos;
+		}
+		counts[kind] = count;
+	}
+
+	/**
+	 * Answer true if any section described by the triplets lies
+	 * outside the record, and has not been indexed.
+	 */
+	public boolean isTruncated() {
+		ensureIndexed();
+		return truncated;
+	}
+
+	/** Answer the number of Product/Subsystem sections */
+	public int getProductCount() {
+		ensureIndexed();
+		return counts[PRODUCT];
+	}
+
+	/**
+	 * Answer the offset in the buffer of a Product/Subsystem section.
+	 * @param index the 0-based index of the section, less than {@link #getProductCount()}
+	 */
+	public int getProductOffset(int index) {
+		ensureIndexed();
+		return offsets[PRODUCT][index];
+	}
+
+	/** Answer the number of Security sections */
+	public int getSecurityCount() {
+		ensureIndexed();
+		return counts[SECURITY];
+	}
+
+	/**
+	 * Answer the offset in the buffer of a Security section.
+	 * @param index the 0-based index of the section, less than {@link #getSecurityCount()}
+	 */
+	public int getSecurityOffset(int index) {
+		ensureIndexed();
+		return offsets[SECURITY][index];
+	}
+
+	/** Answer the number of Relocate sections */
+	public int getRelocateCount() {
+		ensureIndexed();
+		return counts[RELOCATE];
+	}
+
+	/**
+	 * Answer the offset in the buffer of a Relocate section.
+	 * @param index the 0-based index of the section, less than {@link #getRelocateCount()}
+	 */
+	public int getRelocateOffset(int index) {
+		ensureIndexed();
+		return offsets[RELOCATE][index];
+	}
+}
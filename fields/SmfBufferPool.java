@@ -0,0 +1,92 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.util.LinkedList;
+
+/**
+ * A pool of {@link SmfRecordBuffer}s, so that records can be read and
+ * handled on other threads without allocating a buffer for each record.
+ * <p/>
+ * At most <code>maxIdle</code> released buffers are kept for reuse; 
+ * others are left to the garbage collector.  The methods of this class
+ * are thread-safe.
+ *
+ * @see SmfDispatcher
+ * @since 2.3.0
+ */
+public class SmfBufferPool {
+
+	/** The default maximum number of idle buffers */
+	public static final int DEFAULT_MAX_IDLE = 256;
+
+	private LinkedList idle = new LinkedList();
+	private int maxIdle;
+	private int allocated = 0;
+	private int reused = 0;
+
+	/**
+	 * Construct a pool which keeps up to {@link #DEFAULT_MAX_IDLE} idle buffers.
+	 */
+	public SmfBufferPool() {
+		this(DEFAULT_MAX_IDLE);
+	}
+
+	/**
+	 * Construct a pool which keeps up to the given number of idle buffers.
+	 */
+	public SmfBufferPool(int maxIdle) {
+		this.maxIdle = maxIdle;
+	}
+
+	/**
+	 * Answer an idle buffer, or a new one if there are none.
+	 */
+	public synchronized SmfRecordBuffer acquire() {
+		if (!idle.isEmpty()) {
+			reused++;
+			return (SmfRecordBuffer)idle.removeLast();
+		}
+		allocated++;
+		return new SmfRecordBuffer();
+	}
+
+	/**
+	 * Return a buffer to the pool, once its record has been handled.
+	 */
+	public synchronized void release(SmfRecordBuffer buffer) {
+		if (idle.size() < maxIdle) {
+			idle.addLast(buffer);
+		}
+	}
+
+	/**
+	 * Answer the number of buffers that have been allocated.
+	 */
+	public synchronized int getAllocated() {
+		return allocated;
+	}
+
+	/**
+	 * Answer the number of times that an idle buffer was reused.
+	 */
+	public synchronized int getReused() {
+		return reused;
+	}
+}
@@ -0,0 +1,275 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the records of an SMF dump with an {@link SmfRecordReader}, and
+ * dispatches each one to the {@link SmfRecordHandler} registered for its type.
+ * <p/>
+ * With no worker threads, each record is handled on the calling thread as it is read.
+ * With worker threads, each record type is assigned to one worker, in turn as 
+ * the types are first seen, and records are queued to their worker in buffers 
+ * from an {@link SmfBufferPool}.  The records of each type are therefore 
+ * handled in the order that they were read, one at a time, while records 
+ * of different types are handled concurrently.  Queues are bounded, so that the 
+ * reader waits for a worker which falls behind, rather than filling the heap.
+ * <p/>
+ * Records of types with no handler are passed to the default handler, if any, 
+ * or else are counted and discarded.  If a handler fails, the error is reported
+ * and counted, and processing continues.
+ * <pre>
+ * SmfDispatcher dispatcher = new SmfDispatcher(4);
+ * dispatcher.register(83, new SmfRecordHandler() {
+ *     Smf83RecordCursor cursor = new Smf83RecordCursor();
+ *     public void handleRecord(SmfRecordBuffer record) {
+ *         cursor.rebind(record);
+ *         ...
+ *     }
+ * });
+ * dispatcher.run(SmfRecordReader.open("/u/user/smf.dump"));
+ * </pre>
+ *
+ * @see SmfDumpSummary
+ * @since 2.3.0
+ */
+public class SmfDispatcher {
+
+	/** The number of records that may be queued to each worker */
+	static final int QUEUE_SIZE = 256;
+
+	/** The number of SMF record types */
+	static final int TYPES = 256;
+
+	/** Queued to a worker to stop it */
+	private static final SmfRecordBuffer STOP = new SmfRecordBuffer();
+
+	private int threads;
+	private SmfRecordHandler[] handlers = new SmfRecordHandler[TYPES];
+	private SmfRecordHandler defaultHandler;
+	private SmfBufferPool pool;
+	private int[] workerForType = new int[TYPES];
+	private int nextWorker = 0;
+	private long[] counts = new long[TYPES];
+	private long unhandled = 0;
+	private AtomicInteger errors = new AtomicInteger();
+
+	/**
+	 * Construct an instance which handles records on the calling thread.
+	 */
+	public SmfDispatcher() {
+		this(0);
+	}
+
+	/**
+	 * Construct an instance
+	 * @param threads the number of worker threads, or 0 to handle
+	 * 			records on the calling thread
+	 */
+	public SmfDispatcher(int threads) {
+		if (threads < 0) {
+			throw new IllegalArgumentException("threads must not be negative");
+		}
+		this.threads = threads;
+		this.pool = new SmfBufferPool(Math.max(1, threads) * (QUEUE_SIZE + 1));
+	}
+
+	/**
+	 * Register the handler for the given record type, replacing any other.
+	 */
+	public void register(int type, SmfRecordHandler handler) {
+		handlers[type] = handler;
+	}
+
+	/**
+	 * Set the handler for records of types with no registered handler.
+	 * This handler may be called concurrently, and must be thread-safe.
+	 */
+	public void setDefaultHandler(SmfRecordHandler handler) {
+		this.defaultHandler = handler;
+	}
+
+	/**
+	 * Read and dispatch all of the records from the given reader, which is
+	 * not closed.  Answers when all records have been handled.
+	 * @return the number of records which could not be handled
+	 * @throws IOException if the dump could not be read
+	 */
+	public int run(SmfRecordReader reader) throws IOException {
+		if (threads == 0) {
+			SmfRecordBuffer buffer = pool.acquire();
+			while (reader.read(buffer)) {
+				SmfRecordHandler handler = handlerFor(buffer);
+				if (handler != null) {
+					handle(handler, buffer);
+				}
+			}
+			pool.release(buffer);
+			return errors.get();
+		}
+		Worker[] workers = new Worker[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker("SmfDispatcher-" + i);
+			workers[i].start();
+		}
+		try {
+			SmfRecordBuffer buffer = pool.acquire();
+			while (reader.read(buffer)) {
+				if (handlerFor(buffer) == null) {
+					continue;  // reuse the buffer
+				}
+				workers[workerFor(buffer.getType())].queue.put(buffer);
+				buffer = pool.acquire();
+			}
+			pool.release(buffer);
+		} catch (InterruptedException ie) {
+			throw new InterruptedIOException("Interrupted while queueing SMF records");
+		} finally {
+			stop(workers);
+		}
+		return errors.get();
+	}
+
+	/*
+	 * Count the record and answer its handler, or null if it has none.
+	 */
+	private SmfRecordHandler handlerFor(SmfRecordBuffer buffer) {
+		int type = buffer.getType();
+		if (type < 0) {
+			unhandled++;
+			return null;
+		}
+		counts[type]++;
+		SmfRecordHandler handler = handlerForType(type);
+		if (handler == null) {
+			unhandled++;
+		}
+		return handler;
+	}
+
+	private SmfRecordHandler handlerForType(int type) {
+		return handlers[type] != null ? handlers[type] : defaultHandler;
+	}
+
+	/*
+	 * Answer the worker for a record type, assigning one if it is the first of its type.
+	 */
+	private int workerFor(int type) {
+		if (workerForType[type] == 0) {
+			workerForType[type] = nextWorker++ % threads + 1;
+		}
+		return workerForType[type] - 1;
+	}
+
+	/*
+	 * Handle one record, reporting and counting an error.
+	 */
+	private void handle(SmfRecordHandler handler, SmfRecordBuffer buffer) {
+		try {
+			handler.handleRecord(buffer);
+		} catch (Throwable t) {
+			errors.incrementAndGet();
+			System.err.println(">>> Error occuring handling SMF record " + buffer.getSequence() 
+								+ " (type " + buffer.getType() + "): " + t);
+			t.printStackTrace();
+		}
+	}
+
+	/*
+	 * Stop each worker once it has handled its queued records, and wait for it.
+	 */
+	private void stop(Worker[] workers) throws IOException {
+		boolean interrupted = false;
+		for (int i = 0; i < workers.length; i++) {
+			while (true) {
+				try {
+					workers[i].queue.put(STOP);
+					workers[i].join();
+					break;
+				} catch (InterruptedException ie) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Answer the number of records of the given type that were read.
+	 */
+	public long getRecordCount(int type) {
+		return counts[type];
+	}
+
+	/**
+	 * Answer the number of records that had no handler.
+	 */
+	public long getUnhandledCount() {
+		return unhandled;
+	}
+
+	/**
+	 * Answer the number of records which could not be handled.
+	 */
+	public int getErrors() {
+		return errors.get();
+	}
+
+	/**
+	 * Answer the pool of buffers used to queue records to workers.
+	 */
+	public SmfBufferPool getBufferPool() {
+		return pool;
+	}
+
+	/**
+	 * A worker thread, which handles the records queued to it in order.
+	 */
+	private class Worker extends Thread {
+		BlockingQueue queue = new ArrayBlockingQueue(QUEUE_SIZE);
+
+		Worker(String name) {
+			super(name);
+			setDaemon(true);
+		}
+
+		public void run() {
+			while (true) {
+				SmfRecordBuffer buffer;
+				try {
+					buffer = (SmfRecordBuffer)queue.take();
+				} catch (InterruptedException ie) {
+					return;
+				}
+				if (buffer == STOP) {
+					return;
+				}
+				handle(handlerForType(buffer.getType()), buffer);
+				pool.release(buffer);
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+/**
+ * Sample program that reads an SMF dump and summarizes its records:
+ * the number of records of each type, and for SMF type 83 (RACF) records,
+ * the number of security sections, violations and warnings for each event code.
+ * <p/>
+ * The dump is read by an {@link SmfRecordReader} and its records are dispatched
+ * by an {@link SmfDispatcher}, optionally on several threads.  Type 83 records are
+ * mapped with a single {@link Smf83RecordCursor} and {@link Smf83SecurityCursor}.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.fields.SmfDumpSummary [-p threads] dump</code>
+ * <br/>where dump is either:
+ * <ul>
+ * <li>a dataset name, such as //SYS1.SMF.DUMP, or a DD name, such as //DD:SMFIN</li>
+ * <li>a Unix file holding a dump transferred in binary with its RDWs</li>
+ * </ul>
+ *
+ * @see SmfDispatcher
+ * @since 2.3.0
+ */
+public class SmfDumpSummary {
+
+	public static void main(String[] args) throws Exception {
+		int threads = 0;
+		int iDump = 0;
+		if (args.length == 3 && args[0].equals("-p")) {
+			threads = Integer.parseInt(args[1]);
+			iDump = 2;
+		}
+		if (args.length != iDump + 1) {
+			System.err.println("Usage: com.ibm.jzos.sample.fields.SmfDumpSummary [-p threads] dump");
+			System.exit(12);
+		}
+
+		// indexed by event code; type 83 records are all handled on one thread
+		final long[] sections = new long[256];
+		final long[] violations = new long[256];
+		final long[] warnings = new long[256];
+		SmfDispatcher dispatcher = new SmfDispatcher(threads);
+		dispatcher.register(83, new SmfRecordHandler() {
+			Smf83RecordCursor record = new Smf83RecordCursor();
+			Smf83SecurityCursor section = new Smf83SecurityCursor();
+			public void handleRecord(SmfRecordBuffer buffer) {
+				record.rebind(buffer);
+				for (int i = 0; i < record.getSecuritySectionCount(); i++) {
+					record.positionSecuritySection(section, i);
+					int event = section.getSmf83evt();
+					sections[event]++;
+					if (section.isViolation()) {
+						violations[event]++;
+					}
+					if (section.isWarning()) {
+						warnings[event]++;
+					}
+				}
+			}
+		});
+
+		long start = System.currentTimeMillis();
+		SmfRecordReader reader = SmfRecordReader.open(args[iDump]);
+		int errors;
+		try {
+			errors = dispatcher.run(reader);
+		} finally {
+			reader.close();
+		}
+		long elapsed = System.currentTimeMillis() - start;
+
+		System.out.println("records: " + reader.getRecordCount()
+							+ " (" + reader.getSegmentCount() + " segments, "
+							+ reader.getSkippedSegmentCount() + " skipped, "
+							+ reader.getBytesRead() + " bytes) in " + elapsed + " ms");
+		for (int type = 0; type < SmfDispatcher.TYPES; type++) {
+			if (dispatcher.getRecordCount(type) > 0) {
+				System.out.println("type " + type + ": " + dispatcher.getRecordCount(type));
+			}
+			if (type == 83) {
+				for (int event = 0; event < sections.length; event++) {
+					if (sections[event] > 0) {
+						System.out.println("  event " + event + ": " + sections[event] + " sections, "
+											+ violations[event] + " violations, " + warnings[event] + " warnings");
+					}
+				}
+			}
+		}
+		SmfBufferPool pool = dispatcher.getBufferPool();
+		System.out.println("buffers: " + pool.getAllocated() + " allocated, " + pool.getReused() + " reused");
+		if (errors > 0) {
+			System.out.println(errors + " records could not be handled");
+			System.exit(8);
+		}
+	}
+}
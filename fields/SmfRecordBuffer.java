@@ -0,0 +1,150 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+/**
+ * A reusable buffer holding one complete SMF record, as read by an
+ * {@link SmfRecordReader}.
+ * <p/>
+ * The record starts with its RDW at offset 0, so that the offsets 
+ * of the SMF header fields (and those of record classes such as 
+ * {@link Smf83Record} and {@link Smf83RecordCursor}) apply directly to 
+ * {@link #getBytes()}.  Spanned records are reassembled, and are given
+ * a single RDW for their whole length.
+ * <p/>
+ * Buffers are normally obtained from an {@link SmfBufferPool}, and
+ * grow as needed to hold the largest record read into them.
+ *
+ * @see SmfRecordReader
+ * @see SmfBufferPool
+ * @since 2.3.0
+ */
+public class SmfRecordBuffer {
+
+	/** The length of the RDW at the start of each record */
+	public static final int RDW_LENGTH = 4;
+
+	/** The offset of the system indicator flags in the SMF header */
+	static final int FLG_OFFSET = 4;
+
+	/** The offset of the record type in the SMF header */
+	static final int RTY_OFFSET = 5;
+
+	/** The offset of the subtype in the SMF header, if the subtype is utilized */
+	static final int STY_OFFSET = 22;
+
+	/** The system indicator bit which is set if the subtype is utilized */
+	static final int FLG_SUBTYPE_UTILIZED = 0x40;
+
+	/** The initial size of a buffer */
+	static final int INITIAL_SIZE = 4096;
+
+	private byte[] bytes;
+	private int length = 0;
+	private long sequence = 0;
+
+	/**
+	 * Construct an empty buffer.
+	 */
+	public SmfRecordBuffer() {
+		this.bytes = new byte[INITIAL_SIZE];
+	}
+
+	/**
+	 * Answer the bytes of the record, starting with its RDW.
+	 * Only the first {@link #getLength()} bytes are valid.
+	 */
+	public byte[] getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Answer the length of the record, including its RDW.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Answer the 0-based number of this record in the stream from which it was read.
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Answer the SMF record type, or -1 if the record is too short to have one.
+	 */
+	public int getType() {
+		return length > RTY_OFFSET ? bytes[RTY_OFFSET] & 0xff : -1;
+	}
+
+	/**
+	 * Answer the SMF record subtype, or -1 if the record does not use subtypes.
+	 */
+	public int getSubtype() {
+		if (length < STY_OFFSET + 2 || (bytes[FLG_OFFSET] & FLG_SUBTYPE_UTILIZED) == 0) {
+			return -1;
+		}
+		return (bytes[STY_OFFSET] & 0xff) << 8 | (bytes[STY_OFFSET + 1] & 0xff);
+	}
+
+	/**
+	 * Empty this buffer, so that a new record can be read into it.
+	 */
+	void reset(long sequence) {
+		this.length = 0;
+		this.sequence = sequence;
+	}
+
+	/**
+	 * Make room for the given number of bytes after the current length,
+	 * and answer the offset at which they may be stored.
+	 */
+	int reserve(int n) {
+		if (length + n > bytes.length) {
+			byte[] newBytes = new byte[Math.max(bytes.length * 2, length + n)];
+			System.arraycopy(bytes, 0, newBytes, 0, length);
+			bytes = newBytes;
+		}
+		int off = length;
+		length += n;
+		return off;
+	}
+
+	/**
+	 * Set the length, after fewer bytes than were reserved have been stored.
+	 */
+	void setLength(int length) {
+		this.length = length;
+	}
+
+	/**
+	 * Store an RDW for the whole record, with a segment control of 0.
+	 * The length of records of more than 65535 bytes is stored as 0,
+	 * so {@link #getLength()} must be used for their real length.
+	 */
+	void completeRDW() {
+		int ll = length <= 0xffff ? length : 0;
+		bytes[0] = (byte)(ll >> 8);
+		bytes[1] = (byte)ll;
+		bytes[2] = 0;
+		bytes[3] = 0;
+	}
+}
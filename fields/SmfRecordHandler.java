@@ -0,0 +1,43 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+/**
+ * An interface for handlers of SMF records, which are registered with an 
+ * {@link SmfDispatcher} for one or more record types.
+ * <p/>
+ * A handler is called for the records of each type in the order that 
+ * they were read.  A handler registered for a single type is called on one 
+ * thread at a time; one registered for several types may be called 
+ * concurrently, and must be thread-safe.
+ *
+ * @see SmfDispatcher
+ * @since 2.3.0
+ */
+public interface SmfRecordHandler {
+
+	/**
+	 * Handle one record.  The buffer is reused once this method returns,
+	 * so a handler must copy any data that it keeps.
+	 * @param record the record, starting with its RDW
+	 * @throws Exception if the record cannot be handled; the error is
+	 * 			reported and counted, and the next record is handled
+	 */
+	void handleRecord(SmfRecordBuffer record) throws Exception;
+}
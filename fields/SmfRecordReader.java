@@ -0,0 +1,242 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.ibm.jzos.ZFile;
+
+/**
+ * Reads complete SMF records from an SMF dump, into {@link SmfRecordBuffer}s.
+ * <p/>
+ * An SMF dump dataset (RECFM=VBS) is read with a {@link ZFile} in record mode,
+ * in which the C runtime returns each logical record, with spanned segments
+ * already joined; an RDW is added to the front of each record.
+ * <p/>
+ * A Unix file, such as a dump transferred in binary with its RDWs
+ * (for example, with FTP <code>quote site rdw</code>), is read as a stream of 
+ * segments, each starting with a segment descriptor word: a two byte length 
+ * (including the descriptor) and a segment control byte, which is the same 
+ * as SMFxxSEG in the record header:
+ * <ul>
+ * <li>0 - the segment is a complete record</li>
+ * <li>1 - the first segment of a spanned record</li>
+ * <li>3 - a middle segment of a spanned record</li>
+ * <li>2 - the last segment of a spanned record</li>
+ * </ul>
+ * The segments of a spanned record are joined into one buffer, and given a
+ * single RDW with a segment control of 0.  Middle or last segments which do not 
+ * follow a first segment, as at the start of a dump that begins part way 
+ * through a spanned record, are skipped and counted; as is an incomplete
+ * spanned record at a first segment or complete record.
+ *
+ * @see SmfDispatcher
+ * @since 2.3.0
+ */
+public class SmfRecordReader {
+
+	/** The maximum length of a logical record read from a dataset */
+	static final int MAX_LRECL = 32767;
+
+	static final int SEG_COMPLETE = 0;
+	static final int SEG_FIRST = 1;
+	static final int SEG_LAST = 2;
+	static final int SEG_MIDDLE = 3;
+
+	private String name;
+	private InputStream is;
+	private ZFile zfile;
+	private byte[] sdw = new byte[SmfRecordBuffer.RDW_LENGTH];
+	private long records = 0;
+	private long segments = 0;
+	private long skippedSegments = 0;
+	private long bytesRead = 0;
+
+	/**
+	 * Construct an instance which reads segments, each with a 
+	 * segment descriptor word, from the given InputStream.
+	 */
+	public SmfRecordReader(InputStream is) {
+		this.name = is.toString();
+		this.is = is;
+	}
+
+	/**
+	 * Construct an instance which reads logical records from the given
+	 * ZFile, which must have been opened in record mode.
+	 */
+	public SmfRecordReader(ZFile zfile) {
+		this.name = zfile.getActualFilename();
+		this.zfile = zfile;
+	}
+
+	/**
+	 * Answer a reader for the named Unix file, or for the named
+	 * //DATASET or //DD:name, which is opened with ZFile in record mode.
+	 */
+	public static SmfRecordReader open(String name) throws IOException {
+		SmfRecordReader reader;
+		if (name.startsWith("//")) {
+			reader = new SmfRecordReader(new ZFile(name, "rb,type=record,noseek"));
+		} else {
+			reader = new SmfRecordReader(new BufferedInputStream(new FileInputStream(name), 256 * 1024));
+		}
+		reader.name = name;
+		return reader;
+	}
+
+	/**
+	 * Read the next complete record into the given buffer.
+	 * @return false at the end of the dump
+	 * @throws IOException
+	 */
+	public boolean read(SmfRecordBuffer buffer) throws IOException {
+		buffer.reset(records);
+		boolean ok = zfile != null ? readRecord(buffer) : readSegments(buffer);
+		if (ok) {
+			buffer.completeRDW();
+			records++;
+		}
+		return ok;
+	}
+
+	/*
+	 * Read one logical record from the ZFile, after space for its RDW.
+	 */
+	private boolean readRecord(SmfRecordBuffer buffer) throws IOException {
+		int off = buffer.reserve(SmfRecordBuffer.RDW_LENGTH + MAX_LRECL) + SmfRecordBuffer.RDW_LENGTH;
+		int len = zfile.read(buffer.getBytes(), off, MAX_LRECL);
+		if (len < 0) {
+			buffer.setLength(0);
+			return false;
+		}
+		buffer.setLength(off + len);
+		segments++;
+		bytesRead += len;
+		return true;
+	}
+
+	/*
+	 * Read segments until a complete record has been read.
+	 */
+	private boolean readSegments(SmfRecordBuffer buffer) throws IOException {
+		int spanned = 0;  // the number of segments of a spanned record read so far
+		while (true) {
+			if (!readFully(sdw, 0, sdw.length, true)) {
+				skippedSegments += spanned;  // an incomplete spanned record at the end
+				buffer.setLength(0);
+				return false;
+			}
+			int segmentLength = (sdw[0] & 0xff) << 8 | (sdw[1] & 0xff);
+			int control = sdw[2] & 0x03;
+			if (segmentLength < SmfRecordBuffer.RDW_LENGTH) {
+				throw new IOException("Invalid segment descriptor: length " + segmentLength 
+										+ " at offset " + (bytesRead - sdw.length) + " in " + name);
+			}
+			segments++;
+			int dataLength = segmentLength - SmfRecordBuffer.RDW_LENGTH;
+			boolean starts = control == SEG_COMPLETE || control == SEG_FIRST;
+			if (starts) {
+				skippedSegments += spanned;  // the previous spanned record was incomplete
+				spanned = 0;
+				buffer.setLength(0);
+				buffer.reserve(SmfRecordBuffer.RDW_LENGTH);
+			} else if (spanned == 0) {
+				skip(dataLength);
+				skippedSegments++;
+				continue;
+			}
+			int off = buffer.reserve(dataLength);
+			readFully(buffer.getBytes(), off, dataLength, false);
+			if (control == SEG_COMPLETE || control == SEG_LAST) {
+				return true;
+			}
+			spanned++;
+		}
+	}
+
+	/*
+	 * Read exactly len bytes.  Answer false if at the end of the
+	 * stream before any byte is read, and allowed.
+	 */
+	private boolean readFully(byte[] b, int off, int len, boolean eofAllowed) throws IOException {
+		int count = 0;
+		while (count < len) {
+			int n = is.read(b, off + count, len - count);
+			if (n < 0) {
+				if (count == 0 && eofAllowed) {
+					return false;
+				}
+				throw new EOFException("Incomplete segment at offset " + bytesRead + " in " + name);
+			}
+			count += n;
+			bytesRead += n;
+		}
+		return true;
+	}
+
+	private void skip(int len) throws IOException {
+		byte[] b = new byte[Math.min(len, 4096)];
+		while (len > 0) {
+			int n = Math.min(len, b.length);
+			readFully(b, 0, n, false);
+			len -= n;
+		}
+	}
+
+	/**
+	 * Close the underlying stream or ZFile.
+	 */
+	public void close() throws IOException {
+		if (zfile != null) {
+			zfile.close();
+		} else {
+			is.close();
+		}
+	}
+
+	/** Answer the name of the dump being read */
+	public String getName() {
+		return name;
+	}
+
+	/** Answer the number of complete records read */
+	public long getRecordCount() {
+		return records;
+	}
+
+	/** Answer the number of segments (or logical records, for a ZFile) read */
+	public long getSegmentCount() {
+		return segments;
+	}
+
+	/** Answer the number of segments that were skipped because they were not part of a complete record */
+	public long getSkippedSegmentCount() {
+		return skippedSegments;
+	}
+
+	/** Answer the number of bytes read */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+}
@@ -0,0 +1,448 @@
+/*
+ * %Z%%W% %I%
+ *
+ * =========================================================================
+ * Licensed Materials - Property of IBM
+ * "Restricted Materials of IBM"
+ * Copyright IBM Corp. 2008. All Rights Reserved
+ *
+ * DISCLAIMER:
+ * The following [enclosed] code is sample code created by IBM
+ * Corporation.  This sample code is not part of any standard IBM product
+ * and is provided to you solely for the purpose of assisting you in the
+ * development of your applications.  The code is provided 'AS IS',
+ * without warranty of any kind.  IBM shall not be liable for any damages
+ * arising out of your use of the sample code, even if they have been
+ * advised of the possibility of such damages.
+ * =========================================================================
+ */
+package com.ibm.jzos.sample.fields;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.ibm.jzos.FileFactory;
+
+/**
+ * A model of the free space on a volume, built from a chain of {@link Format5DSCB}s,
+ * which answers capacity questions without rescanning the DSCBs.
+ * <p/>
+ * Free extents are held in sorted primitive arrays: one of keys ordered by 
+ * length in tracks, and one ordered by the number of whole cylinders in each 
+ * extent (each key holds the length in its high word and the first relative 
+ * track in its low word).  The largest extent, and the smallest extent that
+ * can hold a given number of cylinders, are found in O(log n) time; 
+ * whether N cylinders fit in at most K extents is answered from the K largest extents.
+ * <p/>
+ * Allocations can be simulated with {@link #allocate(int, int)}, which uses
+ * the smallest single extent that fits (best fit), or else the largest extents
+ * in turn, much as DADSM does for a cylinder allocation.  Use {@link #copy()} 
+ * to simulate a plan without changing the model.
+ * <p/>
+ * Usage: <code>com.ibm.jzos.sample.fields.VolumeFreeSpace [-t tracksPerCylinder] [-x maxExtents] dscbs [cylinders ...]</code>
+ * <br/>Reads a file or dataset of 140 byte Format 5 DSCBs (key and data), 
+ * prints a summary of the free space, and simulates the allocation of each 
+ * given number of cylinders in turn.  The defaults are 15 tracks per cylinder (3390) 
+ * and 5 extents.
+ *
+ * @see Format5DSCB
+ * @see Format5Extent
+ * @since 2.3.0
+ */
+public class VolumeFreeSpace {
+
+	/** The number of tracks in a 3390 cylinder */
+	public static final int TRACKS_PER_CYLINDER_3390 = 15;
+
+	/** The maximum number of extents of a primary allocation */
+	public static final int MAX_EXTENTS = 5;
+
+	/** The length of a Format 5 DSCB, including its key */
+	public static final int DSCB_LENGTH = 140;
+
+	/** The key identifier of a Format 5 DSCB */
+	static final long KEY_ID = 0x05050505L;
+
+	private static final int EXTENTS_PER_DSCB = 26;
+	private static final int EXTENTS_IN_KEY = 8;
+
+	private int tracksPerCylinder;
+	private long[] byTracks = new long[32];
+	private long[] byCylinders = new long[32];
+	private int count = 0;
+	private int cylinderCount = 0;
+	private long freeTracks = 0;
+	private long freeCylinders = 0;
+
+	public static void main(String[] args) throws IOException {
+		int tracksPerCylinder = TRACKS_PER_CYLINDER_3390;
+		int maxExtents = MAX_EXTENTS;
+		int argx = 0;
+		while (argx < args.length - 1 && args[argx].startsWith("-")) {
+			if (args[argx].equals("-t")) {
+				tracksPerCylinder = Integer.parseInt(args[++argx]);
+			} else if (args[argx].equals("-x")) {
+				maxExtents = Integer.parseInt(args[++argx]);
+			} else {
+				break;
+			}
+			argx++;
+		}
+		if (argx >= args.length) {
+			System.err.println("Usage: com.ibm.jzos.sample.fields.VolumeFreeSpace [-t tracksPerCylinder] [-x maxExtents] dscbs [cylinders ...]");
+			System.exit(8);
+		}
+		VolumeFreeSpace space = new VolumeFreeSpace(tracksPerCylinder);
+		InputStream is = FileFactory.newBufferedInputStream(args[argx++]);
+		int dscbs = 0;
+		try {
+			byte[] buffer = new byte[DSCB_LENGTH];
+			while (readFully(is, buffer)) {
+				space.add(new Format5DSCB(buffer));
+				dscbs++;
+			}
+		} finally {
+			is.close();
+		}
+		System.out.println("dscbs=" + dscbs + " " + space);
+
+		int[] requests = new int[args.length - argx];
+		for (int i = 0; i < requests.length; i++) {
+			requests[i] = Integer.parseInt(args[argx + i]);
+		}
+		int[][] placements = space.simulate(requests, maxExtents);
+		for (int i = 0; i < requests.length; i++) {
+			StringBuffer sb = new StringBuffer();
+			sb.append(requests[i]).append(" cylinders: ");
+			if (placements[i] == null) {
+				sb.append("does not fit in " + maxExtents + " extents");
+			} else {
+				for (int j = 0; j < placements[i].length; j += 2) {
+					sb.append(j == 0 ? "" : ", ");
+					sb.append("track ").append(placements[i][j]);
+					sb.append(" (").append(placements[i][j + 1] / tracksPerCylinder).append(" cyl)");
+				}
+			}
+			System.out.println(sb.toString());
+		}
+	}
+
+	private static boolean readFully(InputStream is, byte[] buffer) throws IOException {
+		int count = 0;
+		int nRead;
+		while (count < buffer.length && (nRead = is.read(buffer, count, buffer.length - count)) != -1) {
+			count += nRead;
+		}
+		return count == buffer.length;
+	}
+
+	/**
+	 * Construct an empty model
+	 * @param tracksPerCylinder the number of tracks in each cylinder of the volume
+	 */
+	public VolumeFreeSpace(int tracksPerCylinder) {
+		if (tracksPerCylinder < 1) {
+			throw new IllegalArgumentException("tracksPerCylinder must be at least 1");
+		}
+		this.tracksPerCylinder = tracksPerCylinder;
+	}
+
+	/**
+	 * Answer a copy of this model, which may be changed independently.
+	 */
+	public VolumeFreeSpace copy() {
+		VolumeFreeSpace copy = new VolumeFreeSpace(tracksPerCylinder);
+		copy.byTracks = byTracks.clone();
+		copy.byCylinders = byCylinders.clone();
+		copy.count = count;
+		copy.cylinderCount = cylinderCount;
+		copy.freeTracks = freeTracks;
+		copy.freeCylinders = freeCylinders;
+		return copy;
+	}
+
+	/**
+	 * Add the free extents of a Format 5 DSCB.  Unused extents (all zero) are ignored.
+	 * The extents are read from the DSCB's buffer, without creating {@link Format5Extent}s.
+	 * @throws IllegalArgumentException if the DSCB does not have the Format 5 key identifier
+	 */
+	public void add(Format5DSCB dscb) {
+		if (dscb.getDs5keyid() != KEY_ID) {
+			throw new IllegalArgumentException("Not a Format 5 DSCB: key id=" + Long.toHexString(dscb.getDs5keyid()));
+		}
+		for (int i = 0; i < EXTENTS_PER_DSCB; i++) {
+			int offset = i < EXTENTS_IN_KEY
+						? Format5DSCBBase.DS5AVEXT.getOffset() + i * Format5Extent.EXTLEN
+						: Format5DSCBBase.DS5MAVET.getOffset() + (i - EXTENTS_IN_KEY) * Format5Extent.EXTLEN;
+			int firstTrack = Format5Extent.FIRSTTRK.getInt(dscb.bytes, dscb.bufOffset + offset);
+			int cylinders = Format5Extent.UNUSEDCYL.getInt(dscb.bytes, dscb.bufOffset + offset);
+			int tracks = Format5Extent.UNUSEDTRK.getInt(dscb.bytes, dscb.bufOffset + offset);
+			int length = cylinders * tracksPerCylinder + tracks;
+			if (length > 0) {
+				addExtent(firstTrack, length);
+			}
+		}
+	}
+
+	/**
+	 * Add a free extent.
+	 * @param firstTrack the relative track address of the first track
+	 * @param tracks the number of tracks
+	 */
+	public void addExtent(int firstTrack, int tracks) {
+		if (firstTrack < 0 || tracks <= 0) {
+			throw new IllegalArgumentException("Invalid extent: track " + firstTrack + " length " + tracks);
+		}
+		byTracks = insert(byTracks, count, key(tracks, firstTrack));
+		count++;
+		freeTracks += tracks;
+		int cylinders = wholeCylinders(firstTrack, tracks);
+		if (cylinders > 0) {
+			byCylinders = insert(byCylinders, cylinderCount, key(cylinders, firstTrack));
+			cylinderCount++;
+			freeCylinders += cylinders;
+		}
+	}
+
+	/*
+	 * Remove the free extent that starts at the given track.
+	 */
+	private void removeExtent(int firstTrack, int tracks) {
+		count = remove(byTracks, count, key(tracks, firstTrack));
+		freeTracks -= tracks;
+		int cylinders = wholeCylinders(firstTrack, tracks);
+		if (cylinders > 0) {
+			cylinderCount = remove(byCylinders, cylinderCount, key(cylinders, firstTrack));
+			freeCylinders -= cylinders;
+		}
+	}
+
+	/**
+	 * Answer the number of free extents.
+	 */
+	public int getExtentCount() {
+		return count;
+	}
+
+	/**
+	 * Answer the total number of free tracks.
+	 */
+	public long getFreeTracks() {
+		return freeTracks;
+	}
+
+	/**
+	 * Answer the total number of free whole (cylinder aligned) cylinders.
+	 */
+	public long getFreeCylinders() {
+		return freeCylinders;
+	}
+
+	/**
+	 * Answer the length in tracks of the largest free extent, or 0.
+	 */
+	public int getLargestExtentTracks() {
+		return count == 0 ? 0 : length(byTracks[count - 1]);
+	}
+
+	/**
+	 * Answer the number of whole cylinders in the largest free extent, or 0.
+	 */
+	public int getLargestExtentCylinders() {
+		return cylinderCount == 0 ? 0 : length(byCylinders[cylinderCount - 1]);
+	}
+
+	/**
+	 * Answer the first track of the smallest free extent with at least the given
+	 * number of whole cylinders, or -1 if there is none.
+	 */
+	public int findExtent(int cylinders) {
+		int i = lowerBound(byCylinders, cylinderCount, key(cylinders, 0));
+		return i < cylinderCount ? firstTrack(byCylinders[i]) : -1;
+	}
+
+	/**
+	 * Answer the smallest number of extents that can hold the given number
+	 * of cylinders, or -1 if they do not fit on the volume.
+	 */
+	public int getExtentsNeeded(int cylinders) {
+		if (cylinders <= 0) {
+			return 0;
+		}
+		if (findExtent(cylinders) >= 0) {
+			return 1;
+		}
+		long sum = 0;
+		for (int i = cylinderCount - 1; i >= 0; i--) {
+			sum += length(byCylinders[i]);
+			if (sum >= cylinders) {
+				return cylinderCount - i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Answer true if the given number of cylinders fit in at most the given number of extents.
+	 * Only the largest maxExtents extents are examined.
+	 */
+	public boolean canFit(int cylinders, int maxExtents) {
+		if (cylinders <= 0) {
+			return true;
+		}
+		long sum = 0;
+		for (int i = cylinderCount - 1; i >= 0 && i >= cylinderCount - maxExtents; i--) {
+			sum += length(byCylinders[i]);
+			if (sum >= cylinders) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Allocate the given number of cylinders in at most the given number of extents,
+	 * and remove them from the free space.  A single extent is used if possible 
+	 * (the smallest that fits), or else the largest extents in turn.  
+	 * Each allocated extent starts on a cylinder boundary, and the tracks before
+	 * and after it in the free extent remain free.
+	 * @return pairs of first track and length in tracks of the allocated extents,
+	 * or null (leaving the model unchanged) if the cylinders do not fit
+	 */
+	public int[] allocate(int cylinders, int maxExtents) {
+		if (cylinders <= 0 || !canFit(cylinders, maxExtents)) {
+			return null;
+		}
+		int[] extents;
+		int i = lowerBound(byCylinders, cylinderCount, key(cylinders, 0));
+		if (i < cylinderCount) {
+			extents = new int[] { firstTrack(byCylinders[i]), cylinders };
+		} else {
+			int n = getExtentsNeeded(cylinders);
+			extents = new int[2 * n];
+			int remaining = cylinders;
+			for (int j = 0; j < n; j++) {
+				long key = byCylinders[cylinderCount - 1 - j];
+				extents[2 * j] = firstTrack(key);
+				extents[2 * j + 1] = Math.min(remaining, length(key));
+				remaining -= extents[2 * j + 1];
+			}
+		}
+		for (int j = 0; j < extents.length; j += 2) {
+			extents[j + 1] = take(extents[j], extents[j + 1]);
+			extents[j] = alignedStart(extents[j]);
+		}
+		return extents;
+	}
+
+	/**
+	 * Simulate the allocation of each of the given numbers of cylinders in turn,
+	 * on a copy of this model.
+	 * @return for each request, the extents answered by {@link #allocate(int, int)}, or null
+	 */
+	public int[][] simulate(int[] cylinders, int maxExtents) {
+		VolumeFreeSpace copy = copy();
+		int[][] placements = new int[cylinders.length][];
+		for (int i = 0; i < cylinders.length; i++) {
+			placements[i] = copy.allocate(cylinders[i], maxExtents);
+		}
+		return placements;
+	}
+
+	/*
+	 * Allocate cylinders from the start of the aligned part of the free extent 
+	 * that starts at the given track, and answer the number of tracks allocated.
+	 */
+	private int take(int firstTrack, int cylinders) {
+		int i = indexOfTrack(firstTrack);
+		int tracks = length(byTracks[i]);
+		int start = alignedStart(firstTrack);
+		int allocated = cylinders * tracksPerCylinder;
+		removeExtent(firstTrack, tracks);
+		if (start > firstTrack) {
+			addExtent(firstTrack, start - firstTrack);
+		}
+		int end = firstTrack + tracks;
+		if (start + allocated < end) {
+			addExtent(start + allocated, end - start - allocated);
+		}
+		return allocated;
+	}
+
+	private int indexOfTrack(int firstTrack) {
+		for (int i = 0; i < count; i++) {
+			if (firstTrack(byTracks[i]) == firstTrack) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("No free extent at track " + firstTrack);
+	}
+
+	private int alignedStart(int firstTrack) {
+		return (firstTrack + tracksPerCylinder - 1) / tracksPerCylinder * tracksPerCylinder;
+	}
+
+	private int wholeCylinders(int firstTrack, int tracks) {
+		int start = alignedStart(firstTrack);
+		int end = firstTrack + tracks;
+		return end > start ? (end - start) / tracksPerCylinder : 0;
+	}
+
+	private static long key(int length, int firstTrack) {
+		return ((long)length << 32) | (firstTrack & 0xffffffffL);
+	}
+
+	private static int length(long key) {
+		return (int)(key >>> 32);
+	}
+
+	private static int firstTrack(long key) {
+		return (int)key;
+	}
+
+	/*
+	 * Answer the index of the first key not less than the given key.
+	 */
+	private static int lowerBound(long[] keys, int n, long key) {
+		int low = 0;
+		int high = n;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private static long[] insert(long[] keys, int n, long key) {
+		if (n == keys.length) {
+			long[] grown = new long[n * 2];
+			System.arraycopy(keys, 0, grown, 0, n);
+			keys = grown;
+		}
+		int i = lowerBound(keys, n, key);
+		System.arraycopy(keys, i, keys, i + 1, n - i);
+		keys[i] = key;
+		return keys;
+	}
+
+	private static int remove(long[] keys, int n, long key) {
+		int i = lowerBound(keys, n, key);
+		if (i == n || keys[i] != key) {
+			throw new IllegalStateException("No free extent: " + Long.toHexString(key));
+		}
+		System.arraycopy(keys, i + 1, keys, i, n - i - 1);
+		return n - 1;
+	}
+
+	public String toString() {
+		return "extents=" + count
+				+ " freeTracks=" + freeTracks
+				+ " freeCylinders=" + freeCylinders
+				+ " largestTracks=" + getLargestExtentTracks()
+				+ " largestCylinders=" + getLargestExtentCylinders();
+	}
+}
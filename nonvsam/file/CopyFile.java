@@ -18,12 +18,19 @@
  */
 package com.ibm.jzos.sample.nonvsam.file;
 
+import java.io.IOException;
+
 import com.ibm.jzos.ZFile;
+import com.ibm.jzos.sample.CachingDatasetAttributeProvider;
 
 /**
  * This sample demonstrates how to copy data from one file to 
  * another, appending to the second file if it already exists.
  * The file names are given as arguments.
+ * <p>
+ * Datasets given by name are checked for existence using the attributes
+ * held by the shared {@link CachingDatasetAttributeProvider}, so that 
+ * copying the same datasets repeatedly does not open them just to check them.
  * 
  * @since 2.4.0
  * @see com.ibm.jzos.ZFile
@@ -64,10 +71,10 @@ public class CopyFile {
         try {
             
             // open the source and destination datasets
-            if (ZFile.exists(source)) {
+            if (exists(source)) {
                 fileIn = new ZFile(source, "rb,type=record,noseek");
                 
-                if (ZFile.exists(destination)) {
+                if (exists(destination)) {
                     
                     fileOut = new ZFile(destination, "r+b,type=record,noseek");
                     
@@ -111,6 +118,25 @@ public class CopyFile {
         }
     }
 
+    /**
+     * Answer true if the given file exists.  A dataset named as //'DSN' or //DSN 
+     * is checked using the shared attribute cache; other files, such as //DD:name, 
+     * are checked by ZFile.
+     * @param name The name of the file
+     */
+    private static boolean exists(String name) throws IOException {
+        if (!name.startsWith("//") || name.toUpperCase().startsWith("//DD:")) {
+            return ZFile.exists(name);
+        }
+        String dsn = name.substring(2);
+        if (dsn.startsWith("'") && dsn.endsWith("'") && dsn.length() > 1) {
+            dsn = dsn.substring(1, dsn.length() - 1);
+        } else {
+            dsn = ZFile.getFullyQualifiedDSN(dsn);
+        }
+        return CachingDatasetAttributeProvider.getShared().getAttributes(dsn) != null;
+    }
+
     /**
      * Print sample usage and exit
      */
@@ -19,11 +19,16 @@
 package com.ibm.jzos.sample.nonvsam.file;
 
 import com.ibm.jzos.ZFile;
+import com.ibm.jzos.sample.BpxwdynDDAllocator;
+import com.ibm.jzos.sample.DDPool;
 
 /**
  * Sample program that uses BPXWDYN to dynamically allocate a 
  * new dataset with the same attributes as a given dataset.
  * The names of the source and target datasets are given as arguments.
+ * <p>
+ * {@link #create(DDPool, String, String)} may be used to create many
+ * datasets, reusing the DDs in a {@link DDPool}.
  * 
  * @since 2.4.0
  * @see com.ibm.jzos.ZFile
@@ -50,22 +55,32 @@ public class CreateFileLike {
 
     public static void create(String newFilename, String modelFilename) {
 
+        // a pool that keeps no DDs, so that the DD is freed when released
+        DDPool pool = new DDPool(new BpxwdynDDAllocator(), 0);
+        try {
+            create(pool, newFilename, modelFilename);
+        } finally {
+            pool.close();
+        }
+    }
+
+
+    public static void create(DDPool pool, String newFilename, String modelFilename) {
+
         try {
             
-            // allocate a DDNAME to "DUMMY" that we will reuse to allocate the output dataset
-            String targetDD = ZFile.allocDummyDDName();
-    		
             // bpxwdyn requires fully-qualfied DSN
             // so we make sure that we have fully qualified DSNs
             String sourceDSN = ZFile.getFullyQualifiedDSN(modelFilename); 
             String targetDSN = ZFile.getFullyQualifiedDSN(newFilename);
             
-            // allocate the output dataset using BPXWDYN
-            ZFile.bpxwdyn("alloc fi(" + targetDD + ") da(" + targetDSN +
-                          ") like(" + sourceDSN + ") reuse new catalog msg(wtp)");
+            // allocate the output dataset using a DD from the pool, which
+            // reuses a DDNAME that was previously allocated to "DUMMY"
+            String targetDD = pool.acquire(targetDSN, "like(" + sourceDSN + ") new catalog");
     
-            // free the ddname associated with the dataset
-            ZFile.bpxwdyn("free fi(" + targetDD + ") msg(wtp)");
+            // release the ddname associated with the dataset, which
+            // reallocates it to "DUMMY" or frees it
+            pool.release(targetDD);
             
             if (ZFile.exists(newFilename)) {
                 System.out.println("File " + newFilename + " was successfully created.");